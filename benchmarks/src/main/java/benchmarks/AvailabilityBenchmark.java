@@ -0,0 +1,154 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.availability.AvailabilityIndex;
+import services.availability.Booking;
+
+/**
+ * AvailabilityBenchmark - Conflict checks, free-car queries and next-free-date lookups on the index
+ *
+ * Builds a synthetic fleet (default 10,000 cars with 20 bookings each spread over a
+ * year), releases every third booking as returns would, and checks the index against
+ * a brute-force scan before anything is timed. The equivalent SQL query is
+ * DaoBenchmark.getBookedCarIdsWeek.
+ *
+ * Run: ./gradlew :benchmarks:jmh -Pjmh='AvailabilityBenchmark -p cars=50000'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    private static final long SEED = 42;
+    private static final LocalDate ORIGIN = LocalDate.of(2025, 1, 1);
+    // Power of two, so the next query is picked with a mask
+    private static final int QUERIES = 65_536;
+
+    @Param("10000")
+    int cars;
+
+    @Param("20")
+    int bookingsPerCar;
+
+    private AvailabilityIndex index;
+    private int[] carIds;
+    private LocalDate[] starts;
+    private int nextQuery;
+    private LocalDate weekStart;
+    private LocalDate weekEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Booking> bookings = generateBookings(cars, bookingsPerCar);
+        index = new AvailabilityIndex();
+        for (int carId = 1; carId <= cars; carId++) {
+            index.registerCar(carId);
+        }
+        for (Booking booking : bookings) {
+            index.book(booking);
+        }
+        verify(index, bookings, cars);
+
+        // Returns remove bookings from the middle of the trees; check the index still agrees
+        List<Booking> remaining = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (booking.getRentalId() % 3 == 0) {
+                index.release(booking.getRentalId());
+            } else {
+                remaining.add(booking);
+            }
+        }
+        verify(index, remaining, cars);
+
+        Random random = new Random(SEED);
+        carIds = new int[QUERIES];
+        starts = new LocalDate[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            carIds[i] = 1 + random.nextInt(cars);
+            starts[i] = ORIGIN.plusDays(random.nextInt(365));
+        }
+        weekStart = ORIGIN.plusDays(150);
+        weekEnd = weekStart.plusDays(7);
+    }
+
+    @Benchmark
+    public boolean isFreeSevenDays() {
+        int i = nextQuery++ & (QUERIES - 1);
+        return index.isFree(carIds[i], starts[i], starts[i].plusDays(7));
+    }
+
+    @Benchmark
+    public LocalDate nextFreeDateFiveDays() {
+        int i = nextQuery++ & (QUERIES - 1);
+        return index.nextFreeDate(carIds[i], starts[i], 5);
+    }
+
+    @Benchmark
+    public List<Integer> findFreeCarsWholeFleetSevenDays() {
+        return index.findFreeCars(weekStart, weekEnd);
+    }
+
+    private static List<Booking> generateBookings(int cars, int bookingsPerCar) {
+        Random random = new Random(SEED);
+        List<Booking> bookings = new ArrayList<>();
+        int rentalId = 1;
+        for (int carId = 1; carId <= cars; carId++) {
+            // Non-overlapping bookings, as the rental flow would create them
+            LocalDate cursor = ORIGIN.plusDays(random.nextInt(10));
+            for (int b = 0; b < bookingsPerCar; b++) {
+                LocalDate start = cursor.plusDays(random.nextInt(10));
+                LocalDate end = start.plusDays(1 + random.nextInt(7));
+                bookings.add(new Booking(rentalId++, carId, start, end));
+                cursor = end;
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Compare the index with a linear scan on a sample of random queries
+     */
+    private static void verify(AvailabilityIndex index, List<Booking> bookings, int cars) {
+        Random random = new Random(SEED + 1);
+        for (int i = 0; i < 2_000; i++) {
+            int carId = 1 + random.nextInt(cars);
+            LocalDate from = ORIGIN.plusDays(random.nextInt(365));
+            LocalDate to = from.plusDays(1 + random.nextInt(14));
+            Set<Integer> expected = new HashSet<>();
+            for (Booking booking : bookings) {
+                if (booking.getCarId() == carId && booking.overlaps(from, to)) {
+                    expected.add(booking.getRentalId());
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            for (Booking booking : index.findConflicts(carId, from, to)) {
+                actual.add(booking.getRentalId());
+            }
+            if (!expected.equals(actual) || index.isFree(carId, from, to) != expected.isEmpty()) {
+                throw new IllegalStateException("Index disagrees with scan for car " + carId +
+                                                " [" + from + ", " + to + "): " + expected + " vs " + actual);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package benchmarks;
+
+import application.DatabaseConfig;
+import application.SchemaMigrator;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * BenchmarkDatabase - Embedded H2 database with the application's tables and synthetic rows
+ *
+ * start() applies the schema migrations to an in-memory H2 database running in MySQL
+ * mode and points DatabaseConnection at it (the embedded profile, through a temporary
+ * carrental.db.config file), so the DAOs run unchanged. Each JMH fork is a new JVM and
+ * so gets a new database.
+ */
+final class BenchmarkDatabase {
+
+    static final String URL =
+        "jdbc:h2:mem:benchmarks;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1";
+
+    private static final String[] STATUSES = { "Active", "Completed", "Returned", "Cancelled" };
+    private static final String[] BRANDS = { "Toyota", "Honda", "Ford", "BMW", "Audi", "Kia", "Hyundai", "Mazda" };
+    private static final String[] FIRST_NAMES = { "Sara", "Yonas", "Liya", "Abel", "Hanna", "Dawit", "Meron", "Samuel" };
+    private static final String[] LAST_NAMES = { "Bekele", "Tesfaye", "Alemu", "Girma", "Haile", "Kebede", "Tadesse" };
+
+    private BenchmarkDatabase() {
+    }
+
+    private static boolean started = false;
+    private static boolean seeded = false;
+
+    /**
+     * Create the schema and route DatabaseConnection to the embedded database; later
+     * calls in the same JVM (JMH run without forks) keep the database as it is
+     */
+    static synchronized void start() throws SQLException, IOException {
+        if (started) {
+            return;
+        }
+        Path config = Files.createTempFile("benchmark-db", ".properties");
+        config.toFile().deleteOnExit();
+        try (Writer writer = Files.newBufferedWriter(config, StandardCharsets.UTF_8)) {
+            writer.write("db.profile=embedded\n");
+            writer.write("embedded.url=" + URL + "\n");
+            // Benchmarks insert their own rows with seed()
+            writer.write("embedded.seed=false\n");
+        }
+        System.setProperty(DatabaseConfig.CONFIG_FILE_PROPERTY, config.toString());
+
+        // The application's own migrations, so benchmarks run against the real schema and indexes
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "")) {
+            SchemaMigrator.migrate(conn);
+        }
+        started = true;
+    }
+
+    /**
+     * Insert synthetic cars, customers and rentals spread over the year before "origin";
+     * only the first call in a JVM inserts anything
+     */
+    static synchronized void seed(int cars, int customers, int rentals, LocalDate origin, long seed)
+            throws SQLException {
+        if (seeded) {
+            return;
+        }
+        Random random = new Random(seed);
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "")) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO cars (brand, model, year, color, registration_number, price_per_day, " +
+                    "availability, fuel_type, mileage, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= cars; i++) {
+                    pstmt.setString(1, BRANDS[random.nextInt(BRANDS.length)]);
+                    pstmt.setString(2, "Model " + (char) ('A' + random.nextInt(26)));
+                    pstmt.setInt(3, 2010 + random.nextInt(15));
+                    pstmt.setString(4, random.nextBoolean() ? "White" : "Black");
+                    pstmt.setString(5, String.format("AA-%06d", i));
+                    pstmt.setDouble(6, 30 + random.nextInt(170));
+                    pstmt.setString(7, random.nextInt(4) == 0 ? "Rented" : "Available");
+                    pstmt.setString(8, random.nextBoolean() ? "Petrol" : "Diesel");
+                    pstmt.setInt(9, random.nextInt(200_000));
+                    pstmt.setString(10, "Active");
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO customers (first_name, last_name, email, phone, address, license_number, " +
+                    "date_of_birth, registration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= customers; i++) {
+                    String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                    String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                    pstmt.setString(1, first);
+                    pstmt.setString(2, last);
+                    pstmt.setString(3, (first + "." + last + i + "@example.com").toLowerCase());
+                    pstmt.setString(4, String.format("09%08d", random.nextInt(100_000_000)));
+                    pstmt.setString(5, "Addis Ababa, Ethiopia");
+                    pstmt.setString(6, String.format("DL-%07d", i));
+                    pstmt.setDate(7, Date.valueOf(origin.minusYears(20 + random.nextInt(40))));
+                    pstmt.setDate(8, Date.valueOf(origin.minusDays(random.nextInt(1000))));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO rental_records (car_id, customer_id, employee_id, rental_date, return_date, " +
+                    "total_amount, late_fee, damage_fee, status, notes, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= rentals; i++) {
+                    LocalDate rentalDate = origin.minusDays(random.nextInt(365));
+                    int days = 1 + random.nextInt(14);
+                    pstmt.setInt(1, 1 + random.nextInt(cars));
+                    pstmt.setInt(2, 1 + random.nextInt(customers));
+                    pstmt.setInt(3, 1);
+                    pstmt.setDate(4, Date.valueOf(rentalDate));
+                    pstmt.setDate(5, Date.valueOf(rentalDate.plusDays(days)));
+                    pstmt.setDouble(6, days * (30 + random.nextInt(170)));
+                    pstmt.setDouble(7, random.nextInt(10) == 0 ? 25 * random.nextInt(5) : 0);
+                    pstmt.setDouble(8, random.nextInt(50) == 0 ? 100 * random.nextInt(10) : 0);
+                    pstmt.setString(9, STATUSES[random.nextInt(STATUSES.length)]);
+                    pstmt.setString(10, random.nextInt(5) == 0 ? "Customer requested child seat" : null);
+                    pstmt.setTimestamp(11, Timestamp.valueOf(rentalDate.atTime(9, 0)));
+                    pstmt.addBatch();
+                    if (i % 1_000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+        }
+        seeded = true;
+    }
+}
@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import models.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.CustomerService;
+import services.RentService;
+
+/**
+ * BusinessLogicBenchmark - The in-memory calculations behind the return and search screens
+ *
+ * Covers RentService.calculateLateFee (the charge preview on the return screen) and
+ * CustomerService.matchesSearch filtering over a synthetic customer list, the same
+ * stream the customer search screen runs. No database is needed.
+ *
+ * Run: ./gradlew :benchmarks:jmh -Pjmh='BusinessLogicBenchmark -p customerCount=200000'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BusinessLogicBenchmark {
+
+    private static final long SEED = 42;
+    private static final int RETURNS = 100_000;
+    private static final String[] FIRST_NAMES = { "Sara", "Yonas", "Liya", "Abel", "Hanna", "Dawit", "Meron", "Samuel" };
+    private static final String[] LAST_NAMES = { "Bekele", "Tesfaye", "Alemu", "Girma", "Haile", "Kebede", "Tadesse" };
+
+    private LocalDate[] scheduled;
+    private LocalDate[] actual;
+    private double[] prices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        scheduled = new LocalDate[RETURNS];
+        actual = new LocalDate[RETURNS];
+        prices = new double[RETURNS];
+        LocalDate origin = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < RETURNS; i++) {
+            scheduled[i] = origin.plusDays(random.nextInt(365));
+            // Mostly on time, some early, some up to two weeks late
+            actual[i] = scheduled[i].plusDays(random.nextInt(20) - 5);
+            prices[i] = 30 + random.nextInt(170);
+        }
+    }
+
+    /**
+     * Synthetic customers and one search, as picked on the customer search screen
+     */
+    @State(Scope.Benchmark)
+    public static class CustomerSearch {
+
+        @Param("50000")
+        int customerCount;
+
+        @Param({ "Name:bek", "Email:hanna.g", "Phone:0912", "License Number:dl-00012" })
+        String search;
+
+        List<Customer> customers;
+        String searchType;
+        String term;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(SEED);
+            customers = new ArrayList<>(customerCount);
+            for (int i = 1; i <= customerCount; i++) {
+                Customer customer = new Customer();
+                customer.setCustomerId(i);
+                customer.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                customer.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                customer.setEmail((customer.getFirstName() + "." + customer.getLastName() + i + "@example.com")
+                                  .toLowerCase());
+                customer.setPhone(String.format("09%08d", random.nextInt(100_000_000)));
+                customer.setLicenseNumber(String.format("DL-%07d", i));
+                customers.add(customer);
+            }
+            int colon = search.indexOf(':');
+            searchType = search.substring(0, colon);
+            term = search.substring(colon + 1);
+        }
+    }
+
+    /**
+     * Per return
+     */
+    @Benchmark
+    @OperationsPerInvocation(RETURNS)
+    public double calculateLateFee() {
+        double total = 0;
+        for (int i = 0; i < RETURNS; i++) {
+            total += RentService.calculateLateFee(scheduled[i], actual[i], prices[i]);
+        }
+        return total;
+    }
+
+    /**
+     * One search over every customer
+     */
+    @Benchmark
+    public List<Customer> matchesSearch(CustomerSearch state) {
+        return state.customers.stream()
+            .filter(customer -> CustomerService.matchesSearch(customer, state.term, state.searchType))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,236 @@
+package benchmarks;
+
+import application.DatabaseConnection;
+import dao.CarDAO;
+import dao.CsvWriter;
+import dao.DateRange;
+import dao.RentDAO;
+import dao.ReportsDAO;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import models.Car;
+import models.RentalRecord;
+import models.ReportData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.analytics.AnalyticsService;
+
+/**
+ * DaoBenchmark - Row mapping, lookups, CSV export and reports through the real DAOs on embedded H2
+ *
+ * The "scan" benchmarks only step through the result set, so the difference to the
+ * matching DAO benchmark is the cost of CarDAO.mapResultSetToCar /
+ * RentDAO.mapResultSetToRental. Report benchmarks come in pairs, SQL (ReportsDAO)
+ * and the in-memory analytics store (AnalyticsService), over the same rows. Each call
+ * moves to the next of 12 months (or year-long windows): H2 reuses the result of a
+ * query repeated with the same parameters on unchanged tables, which would time a
+ * cache hit rather than the report.
+ *
+ * Run: ./gradlew :benchmarks:jmh -Pjmh='DaoBenchmark -p rentals=200000'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DaoBenchmark {
+
+    private static final long SEED = 42;
+    private static final LocalDate ORIGIN = LocalDate.of(2025, 12, 31);
+    // Power of two, so the next lookup is picked with a mask
+    private static final int LOOKUPS = 8_192;
+    private static final int PERIODS = 12;
+
+    @Param("5000")
+    int cars;
+
+    @Param("5000")
+    int customers;
+
+    @Param("50000")
+    int rentals;
+
+    private CarDAO carDAO;
+    private RentDAO rentDAO;
+    private ReportsDAO reportsDAO;
+    private AnalyticsService analytics;
+    private int[] carIds;
+    private int nextLookup;
+    private int month;
+    private int year;
+    private DateRange wholeYear;
+    private DateRange week;
+    private final LocalDate[] months = new LocalDate[PERIODS];
+    private final DateRange[] monthRanges = new DateRange[PERIODS];
+    private final DateRange[] yearRanges = new DateRange[PERIODS];
+    private int nextPeriod;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.start();
+        BenchmarkDatabase.seed(cars, customers, rentals, ORIGIN, SEED);
+
+        carDAO = new CarDAO();
+        rentDAO = new RentDAO();
+        reportsDAO = new ReportsDAO();
+        analytics = AnalyticsService.getInstance();
+        if (!analytics.reload()) {
+            throw new IllegalStateException("The analytics store did not load");
+        }
+
+        carIds = new int[LOOKUPS];
+        Random random = new Random(SEED);
+        for (int i = 0; i < LOOKUPS; i++) {
+            carIds[i] = 1 + random.nextInt(cars);
+        }
+        month = ORIGIN.getMonthValue();
+        year = ORIGIN.getYear();
+        for (int i = 0; i < PERIODS; i++) {
+            months[i] = ORIGIN.withDayOfMonth(1).minusMonths(i);
+            monthRanges[i] = DateRange.ofMonth(months[i].getMonthValue(), months[i].getYear());
+            yearRanges[i] = DateRange.of(months[i].minusYears(1), months[i]);
+        }
+        wholeYear = DateRange.of(ORIGIN.minusYears(1), ORIGIN.plusDays(1));
+        LocalDate weekStart = ORIGIN.minusDays(150);
+        week = DateRange.of(weekStart, weekStart.plusDays(7));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.closeConnection();
+    }
+
+    @Benchmark
+    public long scanCars() throws SQLException {
+        return scan("SELECT * FROM cars ORDER BY car_id DESC");
+    }
+
+    @Benchmark
+    public List<Car> getAllCars() {
+        return carDAO.getAllCars();
+    }
+
+    @Benchmark
+    public long scanRentals() throws SQLException {
+        return scan("SELECT * FROM rental_records ORDER BY rental_id DESC");
+    }
+
+    @Benchmark
+    public List<RentalRecord> getAllRentals() {
+        return rentDAO.getAllRentals();
+    }
+
+    @Benchmark
+    public Car getCarById() {
+        int carId = carIds[nextLookup++ & (LOOKUPS - 1)];
+        return carDAO.getCarById(carId);
+    }
+
+    @Benchmark
+    public List<Integer> getBookedCarIdsWeek() {
+        return rentDAO.getBookedCarIds(week);
+    }
+
+    @Benchmark
+    public String exportMonthlyRevenue() {
+        return reportsDAO.exportToCSV("MONTHLY_REVENUE", month, year);
+    }
+
+    @Benchmark
+    public String exportCarUtilization() {
+        return reportsDAO.exportToCSV("CAR_UTILIZATION", month, year);
+    }
+
+    @Benchmark
+    public String exportCustomerActivity() {
+        return reportsDAO.exportToCSV("CUSTOMER_ACTIVITY", month, year);
+    }
+
+    /**
+     * Whole year through the streaming cursor, discarding the output
+     */
+    @Benchmark
+    public long exportCarUtilizationYearStreaming() throws Exception {
+        try (CsvWriter csv = new CsvWriter(Writer.nullWriter())) {
+            return reportsDAO.exportToCSV("CAR_UTILIZATION", wholeYear, csv);
+        }
+    }
+
+    @Benchmark
+    public long exportCustomerActivityYearStreaming() throws Exception {
+        try (CsvWriter csv = new CsvWriter(Writer.nullWriter())) {
+            return reportsDAO.exportToCSV("CUSTOMER_ACTIVITY", wholeYear, csv);
+        }
+    }
+
+    @Benchmark
+    public ReportData sqlRentalStatisticsYear() throws SQLException {
+        return reportsDAO.getRentalStatistics(yearRanges[nextPeriod()]);
+    }
+
+    @Benchmark
+    public ReportData memoryRentalStatisticsYear() {
+        return analytics.getRentalStatistics(yearRanges[nextPeriod()]);
+    }
+
+    @Benchmark
+    public List<ReportData> sqlCarUtilizationMonth() throws SQLException {
+        LocalDate first = months[nextPeriod()];
+        return reportsDAO.getCarUtilizationReport(first.getMonthValue(), first.getYear());
+    }
+
+    @Benchmark
+    public List<ReportData> memoryCarUtilizationMonth() {
+        return analytics.getCarUtilizationReport(monthRanges[nextPeriod()]);
+    }
+
+    @Benchmark
+    public List<ReportData> sqlCustomerActivityMonth() throws SQLException {
+        LocalDate first = months[nextPeriod()];
+        return reportsDAO.getCustomerActivityReport(first.getMonthValue(), first.getYear());
+    }
+
+    @Benchmark
+    public List<ReportData> memoryCustomerActivityMonth() {
+        return analytics.getCustomerActivityReport(monthRanges[nextPeriod()]);
+    }
+
+    private int nextPeriod() {
+        nextPeriod = nextPeriod == PERIODS - 1 ? 0 : nextPeriod + 1;
+        return nextPeriod;
+    }
+
+    /**
+     * Step through every row without reading it; the baseline for the mapping benchmarks
+     */
+    private static long scan(String sql) throws SQLException {
+        long rows = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
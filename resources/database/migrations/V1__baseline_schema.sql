@@ -0,0 +1,88 @@
+-- V1: Baseline schema
+--
+-- The tables the DAOs read and write. Every statement is CREATE ... IF NOT EXISTS,
+-- so on a database that was set up by hand before migrations existed this only
+-- records version 1. Written in the SQL common to MySQL and H2 in MySQL mode, so
+-- the embedded profile (db.profile=embedded) builds the same schema.
+--   * users            login accounts (role: ADMIN, MANAGER or EMPLOYEE)
+--   * cars             fleet; availability/status are updated by rentals and returns
+--   * customers        renters, identified by their license number
+--   * employees        staff, referenced by the rentals and returns they handled
+--   * rental_records   one row per rental; the fees are filled in on return
+--   * return_records   one row per processed return
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'EMPLOYEE',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS cars (
+    car_id INT AUTO_INCREMENT PRIMARY KEY,
+    brand VARCHAR(50) NOT NULL,
+    model VARCHAR(50) NOT NULL,
+    year INT,
+    color VARCHAR(30),
+    registration_number VARCHAR(20) NOT NULL UNIQUE,
+    price_per_day DECIMAL(10,2) NOT NULL DEFAULT 0,
+    availability VARCHAR(20) DEFAULT 'Available',
+    fuel_type VARCHAR(20),
+    mileage INT DEFAULT 0,
+    status VARCHAR(20) DEFAULT 'Available'
+);
+
+CREATE TABLE IF NOT EXISTS customers (
+    customer_id INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    email VARCHAR(100),
+    phone VARCHAR(20),
+    address VARCHAR(200),
+    license_number VARCHAR(50) UNIQUE,
+    date_of_birth DATE,
+    registration_date DATE
+);
+
+CREATE TABLE IF NOT EXISTS employees (
+    employee_id INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    email VARCHAR(100),
+    phone VARCHAR(20),
+    address VARCHAR(200),
+    position VARCHAR(50),
+    salary DECIMAL(10,2),
+    hire_date DATE,
+    status VARCHAR(20) DEFAULT 'Active'
+);
+
+CREATE TABLE IF NOT EXISTS rental_records (
+    rental_id INT AUTO_INCREMENT PRIMARY KEY,
+    car_id INT NOT NULL,
+    customer_id INT NOT NULL,
+    employee_id INT,
+    rental_date DATE NOT NULL,
+    return_date DATE,
+    actual_return_date DATE,
+    total_amount DECIMAL(10,2) DEFAULT 0,
+    late_fee DECIMAL(10,2) DEFAULT 0,
+    damage_fee DECIMAL(10,2) DEFAULT 0,
+    status VARCHAR(20) DEFAULT 'Active',
+    notes VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS return_records (
+    return_id INT AUTO_INCREMENT PRIMARY KEY,
+    rental_id INT NOT NULL,
+    return_date TIMESTAMP NOT NULL,
+    late_fee DECIMAL(10,2) DEFAULT 0,
+    damage_fee DECIMAL(10,2) DEFAULT 0,
+    total_amount DECIMAL(10,2) DEFAULT 0,
+    notes VARCHAR(500),
+    employee_id INT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_return_rental (rental_id)
+);
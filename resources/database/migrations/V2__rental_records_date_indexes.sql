@@ -0,0 +1,14 @@
+-- V2: Composite indexes for date-range report queries
+--
+-- Report and dashboard queries filter rental_records with
+-- "rental_date >= ? AND rental_date < ?" (see dao.DateRange).
+-- These indexes let MySQL range-scan instead of reading the whole table:
+--   * (status, rental_date)      status-filtered revenue and counts
+--   * (car_id, rental_date)      car utilization join
+--   * (customer_id, rental_date) customer activity join
+
+CREATE INDEX idx_rental_status_date ON rental_records (status, rental_date);
+
+CREATE INDEX idx_rental_car_date ON rental_records (car_id, rental_date);
+
+CREATE INDEX idx_rental_customer_date ON rental_records (customer_id, rental_date);
@@ -0,0 +1,66 @@
+-- V3: Pre-aggregated rental rollups for reports
+--
+-- Each table holds COUNT/SUM totals of rental_records per period, keyed by
+-- rental_date: *_daily per day, *_monthly per calendar month (period_start is the
+-- first of the month). RentDAO keeps them current on every insert and update;
+-- RollupDAO.rebuild() (java services.RollupService --rebuild) backfills them from
+-- rental_records and records the build in rollup_state. Until a build is recorded,
+-- reports read rental_records directly.
+
+CREATE TABLE IF NOT EXISTS rollup_status_daily (
+    period_start DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    rentals INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    late_fees DECIMAL(14,2) NOT NULL DEFAULT 0,
+    damage_fees DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (period_start, status)
+);
+
+CREATE TABLE IF NOT EXISTS rollup_status_monthly (
+    period_start DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    rentals INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    late_fees DECIMAL(14,2) NOT NULL DEFAULT 0,
+    damage_fees DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (period_start, status)
+);
+
+CREATE TABLE IF NOT EXISTS rollup_car_daily (
+    period_start DATE NOT NULL,
+    car_id INT NOT NULL,
+    rentals INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (period_start, car_id)
+);
+
+CREATE TABLE IF NOT EXISTS rollup_car_monthly (
+    period_start DATE NOT NULL,
+    car_id INT NOT NULL,
+    rentals INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (period_start, car_id)
+);
+
+CREATE TABLE IF NOT EXISTS rollup_customer_daily (
+    period_start DATE NOT NULL,
+    customer_id INT NOT NULL,
+    rentals INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (period_start, customer_id)
+);
+
+CREATE TABLE IF NOT EXISTS rollup_customer_monthly (
+    period_start DATE NOT NULL,
+    customer_id INT NOT NULL,
+    rentals INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (period_start, customer_id)
+);
+
+CREATE TABLE IF NOT EXISTS rollup_state (
+    name VARCHAR(50) PRIMARY KEY,
+    built_at TIMESTAMP NOT NULL,
+    source_rows BIGINT NOT NULL
+);
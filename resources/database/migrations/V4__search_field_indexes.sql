@@ -0,0 +1,34 @@
+-- V4: Indexes for field-targeted searches (dao.FieldQuery)
+--
+-- Field searches filter one column with "= ?" or "LIKE 'term%'", which MySQL
+-- answers with an index lookup or range scan on that column:
+--   * customers: name (last, first), first name, email, phone, license number
+--   * cars: brand (brand, model), model, color; registration_number is UNIQUE
+--   * employees: name (last, first), first name, email, phone, position
+-- A name search matches either column, so both need an index of their own.
+
+CREATE INDEX idx_customer_last_first ON customers (last_name, first_name);
+
+CREATE INDEX idx_customer_first_name ON customers (first_name);
+
+CREATE INDEX idx_customer_email ON customers (email);
+
+CREATE INDEX idx_customer_phone ON customers (phone);
+
+CREATE INDEX idx_customer_license ON customers (license_number);
+
+CREATE INDEX idx_car_brand_model ON cars (brand, model);
+
+CREATE INDEX idx_car_model ON cars (model);
+
+CREATE INDEX idx_car_color ON cars (color);
+
+CREATE INDEX idx_employee_last_first ON employees (last_name, first_name);
+
+CREATE INDEX idx_employee_first_name ON employees (first_name);
+
+CREATE INDEX idx_employee_email ON employees (email);
+
+CREATE INDEX idx_employee_phone ON employees (phone);
+
+CREATE INDEX idx_employee_position ON employees (position);
@@ -0,0 +1,15 @@
+-- V5: Row versions for optimistic concurrency control
+--
+-- Every UPDATE of these tables goes through the DAOs as
+--   UPDATE ... SET ..., version = version + 1 WHERE <id> = ? AND version = ?
+-- with the version the row had when it was read. If another workstation changed
+-- the row in between, no row matches and the DAO throws OptimisticLockException
+-- instead of overwriting that change. Existing rows start at version 0.
+
+ALTER TABLE cars ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE customers ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE employees ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE rental_records ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- V6: Index for report queries that filter on the rental date alone
+--
+-- The monthly revenue and rental statistics reports and the dashboard's month
+-- aggregates filter rental_records only on "rental_date >= ? AND rental_date < ?".
+-- Every V2 index starts with status, car_id or customer_id, so none of them can
+-- serve that range and those queries scanned the whole table. This index starts
+-- with rental_date and also holds every column they aggregate, so MySQL answers
+-- them from the index without reading the rows.
+
+CREATE INDEX idx_rental_date_totals ON rental_records (rental_date, status, total_amount, late_fee, damage_fee);
@@ -0,0 +1,25 @@
+# Sourced by the CDS scripts: class path and JavaFX module path of the installed
+# application (./gradlew installDist), as absolute paths so that the archive's
+# recorded class path matches however the scripts are started.
+#
+# Main extends javafx.application.Application, so JavaFX must be loaded as modules
+# (--module-path ... --add-modules); the rest, including the application jar, goes on
+# the class path. CDS only accepts jars there, never class directories.
+
+APP_HOME="${APP_HOME:-$(cd "$(dirname "$0")/.." && pwd)/build/install/car-rental-management}"
+APP_LIB="$APP_HOME/lib"
+
+if [ ! -d "$APP_LIB" ]; then
+    echo "No installed application in $APP_HOME; run ./gradlew installDist first" >&2
+    exit 1
+fi
+
+APP_CLASSPATH=""
+APP_MODULE_PATH=""
+for jar in "$APP_LIB"/*.jar; do
+    case "$(basename "$jar")" in
+        javafx-*) APP_MODULE_PATH="${APP_MODULE_PATH:+$APP_MODULE_PATH:}$jar" ;;
+        *)        APP_CLASSPATH="${APP_CLASSPATH:+$APP_CLASSPATH:}$jar" ;;
+    esac
+done
+APP_MODULES="javafx.controls,javafx.fxml"
@@ -0,0 +1,27 @@
+#!/bin/sh
+# Build an AppCDS (class data sharing) archive for faster startup.
+#
+# Runs the installed application once with -XX:ArchiveClassesAtExit: log in as usual
+# and the application closes by itself once the dashboard has loaded, writing every
+# class it loaded on the way into the archive. Later launches through
+# scripts/run-with-cds.sh map the archive instead of loading and verifying those
+# classes again.
+#
+# Rebuild the archive after every rebuild of the application or change of JDK; the
+# JVM ignores (with a warning) an archive that no longer matches the class path.
+#
+# Usage: ./gradlew installDist && scripts/create-cds-archive.sh [archive]
+
+set -e
+
+. "$(dirname "$0")/app-paths.sh"
+
+ARCHIVE="${1:-carrental.jsa}"
+
+rm -f "$ARCHIVE"
+java -XX:ArchiveClassesAtExit="$ARCHIVE" \
+     -Dcarrental.startup.exitWhenReady=true \
+     --module-path "$APP_MODULE_PATH" --add-modules "$APP_MODULES" \
+     -cp "$APP_CLASSPATH" application.Main
+
+echo "Wrote $ARCHIVE; start the application with scripts/run-with-cds.sh $ARCHIVE"
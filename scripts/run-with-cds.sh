@@ -0,0 +1,15 @@
+#!/bin/sh
+# Start the installed application with the class data sharing archive written by
+# scripts/create-cds-archive.sh, on the same class path and module path.
+#
+# Usage: scripts/run-with-cds.sh [archive]
+
+set -e
+
+. "$(dirname "$0")/app-paths.sh"
+
+ARCHIVE="${1:-carrental.jsa}"
+
+exec java -XX:SharedArchiveFile="$ARCHIVE" \
+     --module-path "$APP_MODULE_PATH" --add-modules "$APP_MODULES" \
+     -cp "$APP_CLASSPATH" application.Main
@@ -0,0 +1,604 @@
+package application;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * ConnectionPool - Bounded JDBC connection pool used by DatabaseConnection
+ *
+ * DAOs keep using try-with-resources on the connection they borrow; closing the
+ * handed-out connection returns it to the pool instead of closing the physical
+ * MySQL connection. Supports min/max sizing, validation on borrow, idle eviction,
+ * maximum connection lifetime, leak detection and wait/usage histograms.
+ *
+ * Each pooled connection keeps the statements registered with StatementRegistry
+ * prepared (see StatementCache), so hot queries are parsed once per connection.
+ * Statements handed out are wrapped for QueryMetrics unless that is switched off.
+ *
+ * The pool is a javax.sql.DataSource, so code that only needs connections can be
+ * given DatabaseConnection.getDataSource() (or any other DataSource) instead.
+ */
+public class ConnectionPool implements DataSource {
+
+    // Connections returned this recently are trusted without a validation round trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private final String url;
+    private final Properties connectionProperties;
+
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long connectionTimeoutMillis = 10_000;
+    private long idleTimeoutMillis = 10 * 60_000;
+    private long maxLifetimeMillis = 30 * 60_000;
+    private long leakDetectionThresholdMillis = 60_000;
+    private long housekeepingIntervalMillis = 30_000;
+    private int validationTimeoutSeconds = 3;
+    private int statementCacheSize = 100;
+    private boolean queryMetricsEnabled = true;
+    private volatile PrintWriter logWriter;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> allConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private Semaphore permits;
+    private ScheduledExecutorService housekeeper;
+    private volatile boolean started = false;
+    private volatile boolean shutdown = false;
+
+    // Metrics
+    private final Histogram waitTimes = new Histogram("pool.wait");
+    private final Histogram usageTimes = new Histogram("pool.usage");
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+
+    public ConnectionPool(String url, String user, String password) {
+        this(url, credentials(user, password));
+    }
+
+    /**
+     * @param connectionProperties Passed to the driver as-is (user, password and any
+     *                             driver settings such as cachePrepStmts)
+     */
+    public ConnectionPool(String url, Properties connectionProperties) {
+        this.url = url;
+        this.connectionProperties = new Properties();
+        this.connectionProperties.putAll(connectionProperties);
+    }
+
+    private static Properties credentials(String user, String password) {
+        Properties properties = new Properties();
+        if (user != null) {
+            properties.setProperty("user", user);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        return properties;
+    }
+
+    /**
+     * Start the pool and its housekeeping thread.
+     * The minimum number of connections is opened in the background.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalStateException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        permits = new Semaphore(maxSize, true);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0,
+            housekeepingIntervalMillis, TimeUnit.MILLISECONDS);
+        started = true;
+    }
+
+    /**
+     * Borrow a connection, waiting up to the connection timeout if the pool is exhausted
+     * @return Connection whose close() returns it to the pool
+     * @throws SQLException If no connection could be obtained
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!started) {
+            start();
+        }
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException(
+                    "Timed out after " + connectionTimeoutMillis + "ms waiting for a database connection " +
+                    "(active=" + getActiveCount() + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeConnection(waitStart);
+            waitTimes.record(System.nanoTime() - waitStart);
+            borrowCount.increment();
+            return pooled.borrow();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Not supported: every pooled connection uses the configured credentials
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The connection pool only hands out connections for its configured user");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        setConnectionTimeoutMillis(TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) TimeUnit.MILLISECONDS.toSeconds(connectionTimeoutMillis);
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("The connection pool does not log through java.util.logging");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private PooledConnection takeConnection(long waitStart) throws SQLException {
+        while (true) {
+            PooledConnection pooled = idleConnections.pollFirst();
+            if (pooled == null) {
+                if (reserveSlot()) {
+                    return createConnection();
+                }
+                // Every slot is taken but we hold a permit, so a connection is about to be returned
+                long remaining = connectionTimeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart);
+                try {
+                    pooled = idleConnections.pollFirst(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection", e);
+                }
+                if (pooled == null) {
+                    timeoutCount.increment();
+                    throw new SQLTransientConnectionException(
+                        "Timed out after " + connectionTimeoutMillis + "ms waiting for a database connection");
+                }
+            }
+            if (isExpired(pooled) || !isAlive(pooled)) {
+                destroy(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    /**
+     * Close every idle connection and refuse further borrows.
+     * Connections still in use are closed as soon as they are returned.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = totalCount.get();
+            if (current >= maxSize) {
+                return false;
+            }
+        } while (!totalCount.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Open a new physical connection; the caller must already hold a reserved slot
+     */
+    private PooledConnection createConnection() throws SQLException {
+        Connection physical;
+        try {
+            physical = DriverManager.getConnection(url, connectionProperties);
+        } catch (SQLException | RuntimeException e) {
+            totalCount.decrementAndGet();
+            throw e;
+        }
+        PooledConnection pooled = new PooledConnection(physical);
+        allConnections.add(pooled);
+        createdCount.increment();
+        return pooled;
+    }
+
+    private void destroy(PooledConnection pooled) {
+        if (allConnections.remove(pooled)) {
+            totalCount.decrementAndGet();
+            destroyedCount.increment();
+        }
+        pooled.statements.closeAll();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled) {
+        return maxLifetimeMillis > 0 &&
+               System.currentTimeMillis() - pooled.createdAt > maxLifetimeMillis;
+    }
+
+    private boolean isAlive(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            if (pooled.physical.isValid(validationTimeoutSeconds)) {
+                return true;
+            }
+        } catch (SQLException e) {
+            // Treated as a failed validation
+        }
+        validationFailures.increment();
+        return false;
+    }
+
+    private void release(PooledConnection pooled) {
+        usageTimes.record(System.nanoTime() - pooled.borrowedAtNanos);
+        if (pooled.leakReported) {
+            System.err.println("Previously reported leaked connection was returned after " +
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.borrowedAtNanos) + "ms");
+        }
+        pooled.borrowedAtNanos = 0;
+        pooled.borrowStack = null;
+        pooled.statements.reclaim();
+
+        try {
+            if (pooled.dirtyState) {
+                // Undo anything a caller left behind so the next borrower gets a clean connection
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                pooled.physical.setReadOnly(false);
+                pooled.dirtyState = false;
+            }
+            if (shutdown || isExpired(pooled) || pooled.physical.isClosed()) {
+                destroy(pooled);
+            } else {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                // LIFO keeps the most recently used (warmest) connections in rotation
+                idleConnections.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Evict idle connections past their lifetime or idle timeout (keeping the minimum)
+            for (PooledConnection pooled : idleConnections) {
+                boolean idleTooLong = idleTimeoutMillis > 0 &&
+                                      now - pooled.lastReturnedAt > idleTimeoutMillis &&
+                                      totalCount.get() > minSize;
+                if ((isExpired(pooled) || idleTooLong) && idleConnections.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+
+            // Report connections held longer than the leak threshold
+            if (leakDetectionThresholdMillis > 0) {
+                long nowNanos = System.nanoTime();
+                for (PooledConnection pooled : allConnections) {
+                    long borrowedAt = pooled.borrowedAtNanos;
+                    Throwable stack = pooled.borrowStack;
+                    if (borrowedAt == 0 || pooled.leakReported || stack == null) {
+                        continue;
+                    }
+                    long heldMillis = TimeUnit.NANOSECONDS.toMillis(nowNanos - borrowedAt);
+                    if (heldMillis > leakDetectionThresholdMillis) {
+                        pooled.leakReported = true;
+                        leaksDetected.increment();
+                        System.err.println("Possible connection leak: connection held for " + heldMillis +
+                            "ms by thread '" + pooled.borrowThread + "'");
+                        stack.printStackTrace();
+                    }
+                }
+            }
+
+            // Top the pool back up to its minimum size
+            while (!shutdown && totalCount.get() < minSize && reserveSlot()) {
+                PooledConnection pooled = createConnection();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idleConnections.offerLast(pooled);
+            }
+        } catch (SQLException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Unexpected error in connection pool housekeeping: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Configuration (call before start())
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+        this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Registered statements kept prepared per connection; 0 disables the cache
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Measure every statement handed out (see QueryMetrics)
+     */
+    public void setQueryMetricsEnabled(boolean queryMetricsEnabled) {
+        this.queryMetricsEnabled = queryMetricsEnabled;
+    }
+
+    // Statistics
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    public int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    public int getActiveCount() {
+        return Math.max(0, totalCount.get() - idleConnections.size());
+    }
+
+    public int getWaitingThreads() {
+        return permits != null ? permits.getQueueLength() : 0;
+    }
+
+    public Histogram getWaitTimeHistogram() {
+        return waitTimes;
+    }
+
+    public Histogram getUsageHistogram() {
+        return usageTimes;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected.sum();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount.sum();
+    }
+
+    public String getStatistics() {
+        return String.format(
+            "ConnectionPool[total=%d, active=%d, idle=%d, waiting=%d, borrows=%d, timeouts=%d, " +
+            "created=%d, destroyed=%d, validationFailures=%d, leaks=%d]%n  %s%n  %s",
+            getTotalCount(), getActiveCount(), getIdleCount(), getWaitingThreads(), getBorrowCount(),
+            getTimeoutCount(), getCreatedCount(), getDestroyedCount(), getValidationFailures(),
+            getLeaksDetected(), waitTimes, usageTimes);
+    }
+
+    /**
+     * Physical connection plus the bookkeeping the pool needs for it
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        final StatementCache statements;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastReturnedAt = System.currentTimeMillis();
+        volatile long borrowedAtNanos;
+        volatile Throwable borrowStack;
+        volatile String borrowThread;
+        volatile boolean leakReported;
+        volatile boolean dirtyState;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize);
+        }
+
+        Connection borrow() {
+            borrowedAtNanos = System.nanoTime();
+            borrowThread = Thread.currentThread().getName();
+            borrowStack = leakDetectionThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConnectionHandle(this));
+        }
+    }
+
+    /**
+     * Proxy handed out to callers; close() returns the connection to the pool
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (closed.get() ? ", returned" : "") + "]";
+                case "setAutoCommit":
+                case "setReadOnly":
+                    pooled.dirtyState = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result;
+            if ("prepareStatement".equals(method.getName()) && args.length <= 2 &&
+                (args.length == 1 || method.getParameterTypes()[1] == int.class)) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                result = pooled.statements.prepare((Connection) proxy, (String) args[0], autoGeneratedKeys);
+            } else {
+                try {
+                    result = method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            if (queryMetricsEnabled && result instanceof Statement) {
+                // createStatement, prepareStatement or prepareCall
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return QueryMetrics.instrument((Statement) result, method.getReturnType(), sql);
+            }
+            return result;
+        }
+    }
+}
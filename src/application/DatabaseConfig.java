@@ -0,0 +1,193 @@
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * DatabaseConfig - Database and connection pool settings
+ *
+ * Defaults come from resources/database/database.properties on the classpath. They
+ * are overridden key by key from the file named by -Dcarrental.db.config, or else
+ * from database.properties in the working directory if one exists, so credentials
+ * can change without a rebuild. The bundled file holds no password: it comes from
+ * the override file or the CARRENTAL_DB_PASSWORD environment variable, which wins
+ * over both files. Keys starting with "jdbc." are handed to the driver with the
+ * prefix removed; a blank value drops the setting.
+ *
+ * db.profile picks the database (see DatabaseProfile): the MySQL profile reads
+ * db.* and jdbc.*, the embedded profile embedded.* and embedded.jdbc.*, so both
+ * can be configured in one file and switched with a single key.
+ */
+public final class DatabaseConfig {
+
+    public static final String CONFIG_FILE_PROPERTY = "carrental.db.config";
+    public static final String PROFILE_PROPERTY = "carrental.db.profile";
+    public static final String PASSWORD_ENV = "CARRENTAL_DB_PASSWORD";
+
+    private static final String DEFAULTS_RESOURCE = "/database/database.properties";
+    private static final String LOCAL_FILE = "database.properties";
+
+    private final Properties properties;
+    private final String source;
+
+    private DatabaseConfig(Properties properties, String source) {
+        this.properties = properties;
+        this.source = source;
+    }
+
+    /**
+     * Load the defaults plus any external override file
+     * @throws IllegalStateException If a file exists but cannot be read
+     */
+    public static DatabaseConfig load() {
+        Properties properties = new Properties();
+        String source = "classpath:" + DEFAULTS_RESOURCE;
+        try (InputStream in = DatabaseConfig.class.getResourceAsStream(DEFAULTS_RESOURCE)) {
+            if (in != null) {
+                properties.load(in);
+            } else {
+                source = "(no defaults found)";
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + DEFAULTS_RESOURCE + ": " + e.getMessage(), e);
+        }
+
+        Path override = null;
+        String configured = System.getProperty(CONFIG_FILE_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            override = Paths.get(configured);
+            if (!Files.isRegularFile(override)) {
+                throw new IllegalStateException("Database config file not found: " + override.toAbsolutePath());
+            }
+        } else if (Files.isRegularFile(Paths.get(LOCAL_FILE))) {
+            override = Paths.get(LOCAL_FILE);
+        }
+        if (override != null) {
+            try (Reader reader = Files.newBufferedReader(override, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + override.toAbsolutePath() + ": " + e.getMessage(), e);
+            }
+            source = override.toAbsolutePath().toString();
+        }
+        return new DatabaseConfig(properties, source);
+    }
+
+    /**
+     * Where the settings were read from, for log messages
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * The database to run against: db.profile, unless -Dcarrental.db.profile overrides it
+     * @throws IllegalStateException If the profile name is unknown
+     */
+    public DatabaseProfile getProfile() {
+        String name = System.getProperty(PROFILE_PROPERTY);
+        if (name == null || name.isBlank()) {
+            name = properties.getProperty("db.profile");
+        }
+        try {
+            return DatabaseProfile.fromName(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e.getMessage() + " in " + source, e);
+        }
+    }
+
+    public String getDriverClass() {
+        DatabaseProfile profile = getProfile();
+        return properties.getProperty(profile.getKeyPrefix() + "driver", profile.getDefaultDriver());
+    }
+
+    public String getUrl() {
+        DatabaseProfile profile = getProfile();
+        String key = profile.getKeyPrefix() + "url";
+        String url = properties.getProperty(key, profile.getDefaultUrl());
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException(key + " is not set in " + source);
+        }
+        return url.trim();
+    }
+
+    public String getUser() {
+        DatabaseProfile profile = getProfile();
+        return properties.getProperty(profile.getKeyPrefix() + "user", profile.getDefaultUser());
+    }
+
+    /**
+     * The profile's password; CARRENTAL_DB_PASSWORD, when set, replaces the configured one
+     */
+    public String getPassword() {
+        String fromEnvironment = System.getenv(PASSWORD_ENV);
+        if (fromEnvironment != null && !fromEnvironment.isEmpty()) {
+            return fromEnvironment;
+        }
+        return properties.getProperty(getProfile().getKeyPrefix() + "password", "");
+    }
+
+    /**
+     * Properties for DriverManager: user, password and every driver setting of the
+     * profile (jdbc.* for MySQL, embedded.jdbc.* for the embedded database)
+     */
+    public Properties getConnectionProperties() {
+        String prefix = getProfile().getDriverPropertyPrefix();
+        Properties connection = new Properties();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            // An override file can switch a driver setting off by leaving it blank
+            if (key.startsWith(prefix) && !value.isEmpty()) {
+                connection.setProperty(key.substring(prefix.length()), value);
+            }
+        }
+        connection.setProperty("user", getUser());
+        connection.setProperty("password", getPassword());
+        return connection;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(key + " must be a whole number in " + source + ": " + value, e);
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        switch (value.trim().toLowerCase()) {
+            case "true":
+                return true;
+            case "false":
+                return false;
+            default:
+                throw new IllegalStateException(key + " must be true or false in " + source + ": " + value);
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(key + " must be a whole number in " + source + ": " + value, e);
+        }
+    }
+}
@@ -1,65 +1,163 @@
 package application;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import javax.sql.DataSource;
+import services.datagen.SyntheticDataGenerator;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/car_rental_db?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
-    private static final String USER = "root";
-    private static final String PASSWORD = "Ybe@16";
-    private static Connection connection = null;
+    // Connection pool defaults, used when database.properties does not set them
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_CONNECTION_TIMEOUT_MS = 10_000;
+    private static final long POOL_IDLE_TIMEOUT_MS = 10 * 60_000;
+    private static final long POOL_MAX_LIFETIME_MS = 30 * 60_000;
+    private static final long POOL_LEAK_THRESHOLD_MS = 60_000;
+    private static final int STATEMENT_CACHE_SIZE = 100;
+    private static final long SLOW_QUERY_MILLIS = 500;
+    
+    private static volatile ConnectionPool pool = null;
 
+    /**
+     * Borrow a connection from the pool.
+     * Closing the returned connection (e.g. via try-with-resources) hands it back to the pool.
+     * Inside TransactionTemplate.execute() the thread's transactional connection is returned instead.
+     */
     public static Connection getConnection() {
-        if (connection == null || isConnectionClosed()) {
-            try {
-                // Try to load MySQL driver
+        Connection transactional = TransactionTemplate.currentConnection();
+        if (transactional != null) {
+            return transactional;
+        }
+        try {
+            return getPool().getConnection();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.err.println("\n✗ Database connection failed!");
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("\nTroubleshooting:");
+            System.err.println("1. Check if MySQL server is running");
+            System.err.println("2. Verify database name: car_rental_db");
+            System.err.println("3. Check db.url, db.user and db.password in database.properties (or CARRENTAL_DB_PASSWORD)");
+            System.err.println("4. To work without MySQL, set db.profile=embedded (or -Dcarrental.db.profile=embedded)");
+            throw new RuntimeException("Failed to connect to database", e);
+        }
+    }
+    
+    /**
+     * Get the shared connection pool, creating it on first use
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (pool == null) {
+                DatabaseConfig config = DatabaseConfig.load();
+                
+                // Try to load the JDBC driver
                 try {
-                    Class.forName("com.mysql.cj.jdbc.Driver");
+                    Class.forName(config.getDriverClass());
                 } catch (ClassNotFoundException e) {
-                    System.err.println("ERROR: MySQL JDBC Driver not found!");
-                    System.err.println("Please download MySQL Connector/J from:");
-                    System.err.println("https://dev.mysql.com/downloads/connector/j/");
+                    if (config.getProfile() == DatabaseProfile.EMBEDDED) {
+                        System.err.println("ERROR: H2 JDBC Driver not found!");
+                        System.err.println("The embedded profile needs the H2 jar (https://h2database.com)");
+                    } else {
+                        System.err.println("ERROR: MySQL JDBC Driver not found!");
+                        System.err.println("Please download MySQL Connector/J from:");
+                        System.err.println("https://dev.mysql.com/downloads/connector/j/");
+                    }
                     System.err.println("And place the JAR file in the lib/ directory");
-                    throw new RuntimeException("MySQL JDBC Driver not found in classpath", e);
+                    throw new RuntimeException(config.getDriverClass() + " not found in classpath", e);
                 }
                 
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                if (connection != null && !connection.isClosed()) {
-                    System.out.println("✓ Database connection established successfully!");
+                ConnectionPool newPool = new ConnectionPool(config.getUrl(), config.getConnectionProperties());
+                newPool.setMinSize(config.getInt("pool.minSize", POOL_MIN_SIZE));
+                newPool.setMaxSize(config.getInt("pool.maxSize", POOL_MAX_SIZE));
+                newPool.setConnectionTimeoutMillis(config.getLong("pool.connectionTimeoutMillis", POOL_CONNECTION_TIMEOUT_MS));
+                newPool.setIdleTimeoutMillis(config.getLong("pool.idleTimeoutMillis", POOL_IDLE_TIMEOUT_MS));
+                newPool.setMaxLifetimeMillis(config.getLong("pool.maxLifetimeMillis", POOL_MAX_LIFETIME_MS));
+                newPool.setLeakDetectionThresholdMillis(config.getLong("pool.leakDetectionThresholdMillis", POOL_LEAK_THRESHOLD_MS));
+                newPool.setStatementCacheSize(config.getInt("pool.statementCacheSize", STATEMENT_CACHE_SIZE));
+                newPool.setQueryMetricsEnabled(config.getBoolean("metrics.enabled", true));
+                QueryMetrics.setSlowQueryThresholdMillis(config.getLong("metrics.slowQueryMillis", SLOW_QUERY_MILLIS));
+                newPool.start();
+                applyMigrations(newPool);
+                if (config.getProfile() == DatabaseProfile.EMBEDDED) {
+                    seedEmbedded(newPool, config);
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
-                System.err.println("\n✗ Database connection failed!");
-                System.err.println("Error: " + e.getMessage());
-                System.err.println("\nTroubleshooting:");
-                System.err.println("1. Check if MySQL server is running");
-                System.err.println("2. Verify database name: car_rental_db");
-                System.err.println("3. Check username and password in DatabaseConnection.java");
-                System.err.println("4. Run schema.sql to create database and tables");
-                throw new RuntimeException("Failed to connect to database", e);
+                pool = newPool;
+                QueryMetrics.registerMBean(newPool);
+                System.out.println("✓ Database connection pool started (profile=" + config.getProfile() +
+                                   ", min=" + newPool.getMinSize() + ", max=" + newPool.getMaxSize() +
+                                   ", config=" + config.getSource() + ")");
             }
+            return pool;
         }
-        return connection;
     }
-    
-    private static boolean isConnectionClosed() {
-        try {
-            return connection == null || connection.isClosed();
+
+    /**
+     * Bring the schema up to date before the pool is handed out; if that fails the
+     * pool is shut down and never published, as the DAOs would fail against an old schema
+     */
+    private static void applyMigrations(ConnectionPool newPool) {
+        try (Connection conn = newPool.getConnection()) {
+            int applied = SchemaMigrator.migrate(conn);
+            if (applied > 0) {
+                System.out.println("✓ Applied " + applied + " schema migration(s)");
+            }
+        } catch (SQLException e) {
+            System.err.println("ERROR: Schema migration failed: " + e.getMessage());
+            newPool.shutdown();
+            throw new RuntimeException("Schema migration failed", e);
+        }
+    }
+
+    /**
+     * Fill a new embedded database with the synthetic dataset configured by embedded.seed.*;
+     * a database that already has data is left alone
+     */
+    private static void seedEmbedded(ConnectionPool newPool, DatabaseConfig config) {
+        if (!config.getBoolean("embedded.seed", true)) {
+            return;
+        }
+        SyntheticDataGenerator generator = SyntheticDataGenerator.withSeed(config.getLong("embedded.seed.randomSeed", 42))
+            .employees(config.getInt("embedded.seed.employees", 10))
+            .cars(config.getInt("embedded.seed.cars", 200))
+            .customers(config.getInt("embedded.seed.customers", 500))
+            .rentals(config.getInt("embedded.seed.rentals", 2_000));
+        try (Connection conn = newPool.getConnection()) {
+            if (SyntheticDataGenerator.isEmpty(conn)) {
+                long start = System.nanoTime();
+                generator.generate(conn);
+                System.out.printf("✓ Seeded the embedded database in %.1f s: %s%n",
+                                  (System.nanoTime() - start) / 1e9, generator);
+            }
         } catch (SQLException e) {
-            return true;
+            System.err.println("Seeding the embedded database failed: " + e.getMessage());
         }
     }
 
+    /**
+     * The pool as a plain DataSource, for code that only needs connections
+     */
+    public static DataSource getDataSource() {
+        return getPool();
+    }
+
+    /**
+     * Shut down the connection pool, closing all idle connections
+     */
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-                System.out.println("Database connection closed");
-            } catch (SQLException e) {
-                e.printStackTrace();
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                System.out.println(pool.getStatistics());
+                System.out.println(StatementRegistry.getStatistics());
+                System.out.println(QueryMetrics.getStatistics());
+                pool.shutdown();
+                pool = null;
+                System.out.println("Database connection pool closed");
             }
         }
     }
-}
\ No newline at end of file
+}
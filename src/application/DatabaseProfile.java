@@ -0,0 +1,80 @@
+package application;
+
+/**
+ * DatabaseProfile - Which database the application runs against
+ *
+ * MYSQL is the shared server configured through the db.* and jdbc.* keys.
+ * EMBEDDED is a local H2 database in MySQL compatibility mode, configured through
+ * the embedded.* keys; it needs no server, so the application, tests and benchmarks
+ * run on a laptop without a network. The schema comes from the same migrations
+ * either way (V1 is the baseline), and an empty embedded database is filled with a
+ * synthetic dataset (embedded.seed.*).
+ *
+ * Selected with db.profile in database.properties, or -Dcarrental.db.profile=embedded
+ * for a single run.
+ */
+public enum DatabaseProfile {
+    MYSQL("db.", "jdbc.", "com.mysql.cj.jdbc.Driver", null, ""),
+    EMBEDDED("embedded.", "embedded.jdbc.", "org.h2.Driver",
+             "jdbc:h2:./data/car_rental_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR", "sa");
+
+    private final String keyPrefix;
+    private final String driverPropertyPrefix;
+    private final String defaultDriver;
+    private final String defaultUrl;
+    private final String defaultUser;
+
+    DatabaseProfile(String keyPrefix, String driverPropertyPrefix, String defaultDriver,
+                    String defaultUrl, String defaultUser) {
+        this.keyPrefix = keyPrefix;
+        this.driverPropertyPrefix = driverPropertyPrefix;
+        this.defaultDriver = defaultDriver;
+        this.defaultUrl = defaultUrl;
+        this.defaultUser = defaultUser;
+    }
+
+    /**
+     * Profile for a db.profile value; blank means MYSQL
+     * @throws IllegalArgumentException If the name is not a profile
+     */
+    public static DatabaseProfile fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return MYSQL;
+        }
+        for (DatabaseProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(name.trim())) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown database profile '" + name + "' (use mysql or embedded)");
+    }
+
+    /**
+     * Prefix of this profile's connection keys: url, driver, user and password
+     */
+    String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    /**
+     * Prefix of the keys passed to this profile's JDBC driver
+     */
+    String getDriverPropertyPrefix() {
+        return driverPropertyPrefix;
+    }
+
+    String getDefaultDriver() {
+        return defaultDriver;
+    }
+
+    /**
+     * Default JDBC URL, or null if it must be configured
+     */
+    String getDefaultUrl() {
+        return defaultUrl;
+    }
+
+    String getDefaultUser() {
+        return defaultUser;
+    }
+}
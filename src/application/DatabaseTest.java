@@ -1,9 +1,20 @@
 package application;
 
+import dao.DashboardDAO;
+import dao.DateRange;
+import dao.ReportsDAO;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DatabaseTest {
     
@@ -39,7 +50,7 @@ public class DatabaseTest {
                 }
                 
                 if (tableCount == 0) {
-                    System.out.println("   ⚠ No tables found. Please run schema.sql to create tables.");
+                    System.out.println("   ⚠ No tables found. Check the schema migration messages above.");
                 } else {
                     System.out.println("   Total tables: " + tableCount);
                 }
@@ -72,6 +83,17 @@ public class DatabaseTest {
                     }
                 }
                 
+                // Report queries must use the rental_date indexes (see the V2 and V6 migrations)
+                System.out.println("\n5. Checking report query plans...");
+                for (ReportQuery query : REPORT_QUERIES) {
+                    List<String> indexes = rentalIndexesUsed(conn, query.sql);
+                    if (!query.expectedIndexes.equals(indexes)) {
+                        throw new IllegalStateException(query.label + " query does not use " +
+                            query.expectedIndexes + " (uses " + indexes + ")");
+                    }
+                    System.out.println("   ✓ " + query.label + ": uses " + String.join(", ", indexes));
+                }
+                
                 System.out.println("\n=== All tests passed! ===");
                 
             } else {
@@ -85,13 +107,81 @@ public class DatabaseTest {
             System.out.println("1. Make sure MySQL server is running");
             System.out.println("2. Check database name in DatabaseConnection.java (should be 'car_rental_db')");
             System.out.println("3. Verify username and password in DatabaseConnection.java");
-            System.out.println("4. Run schema.sql to create database and tables");
+            System.out.println("4. Create the car_rental_db database (tables are created by the migrations), or set db.profile=embedded");
             System.out.println("5. Make sure MySQL JDBC driver is in classpath");
         } finally {
             DatabaseConnection.closeConnection();
         }
     }
+    
+    /**
+     * The DAOs' date-range queries and the indexes rental_records must be read through
+     */
+    static final List<ReportQuery> REPORT_QUERIES = List.of(
+        new ReportQuery("Monthly revenue", ReportsDAO.MONTHLY_REVENUE_SQL, "idx_rental_date_totals"),
+        new ReportQuery("Rental counts", ReportsDAO.RENTAL_COUNTS_SQL, "idx_rental_date_totals"),
+        new ReportQuery("Rental revenue", ReportsDAO.RENTAL_REVENUE_SQL, "idx_rental_date_totals"),
+        new ReportQuery("Car utilization", ReportsDAO.CAR_UTILIZATION_SQL, "idx_rental_car_date"),
+        new ReportQuery("Customer activity", ReportsDAO.CUSTOMER_ACTIVITY_SQL, "idx_rental_customer_date"),
+        // Active rentals count, then this month's and last month's aggregates
+        new ReportQuery("Dashboard snapshot", DashboardDAO.SNAPSHOT_SQL,
+                        "idx_rental_status_date", "idx_rental_date_totals", "idx_rental_date_totals"));
+    
+    static final String TABLE_SCAN = "(table scan)";
+    
+    // H2 names the access path in a comment after the table, quoted or not (derived tables):
+    // "public"."rental_records" "r" /* public.idx_...: ... */ or /* public.rental_records.tableScan */
+    private static final Pattern H2_RENTAL_ACCESS =
+        Pattern.compile("[.\"]rental_records\"?(?:\\s+\"?\\w+\"?)?\\s*/\\*\\s*([\\w.]+)");
+    
+    /**
+     * EXPLAIN a query with every parameter bound to the current month and return how
+     * each read of rental_records is done: the index name, or TABLE_SCAN. Sorted, as
+     * MySQL and H2 list subqueries in different orders. Understands MySQL's tabular
+     * EXPLAIN (the "key" column) and H2's single PLAN column.
+     */
+    static List<String> rentalIndexesUsed(Connection conn, String sql) throws SQLException {
+        List<String> indexes = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = pstmt.getParameterMetaData().getParameterCount();
+            for (int index = 1; index <= parameters; ) {
+                index = DateRange.currentMonth().bind(pstmt, index);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                boolean tabular = rs.getMetaData().getColumnCount() > 1;
+                while (rs.next()) {
+                    if (!tabular) {
+                        Matcher matcher = H2_RENTAL_ACCESS.matcher(rs.getString(1));
+                        while (matcher.find()) {
+                            String access = matcher.group(1);
+                            indexes.add(access.endsWith(".tableScan") ? TABLE_SCAN
+                                        : access.substring(access.lastIndexOf('.') + 1));
+                        }
+                    } else if ("r".equals(rs.getString("table")) || "rental_records".equals(rs.getString("table"))) {
+                        String key = rs.getString("key");
+                        indexes.add(key != null ? key : TABLE_SCAN);
+                    }
+                }
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+    
+    /**
+     * A DAO query to EXPLAIN and the indexes it is expected to use
+     */
+    static final class ReportQuery {
+        final String label;
+        final String sql;
+        final List<String> expectedIndexes;
+        
+        ReportQuery(String label, String sql, String... expectedIndexes) {
+            this.label = label;
+            this.sql = sql;
+            List<String> sorted = new ArrayList<>(Arrays.asList(expectedIndexes));
+            Collections.sort(sorted);
+            this.expectedIndexes = Collections.unmodifiableList(sorted);
+        }
+    }
 }
-
-
-
@@ -0,0 +1,97 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram - Lock-free latency histogram with power-of-two millisecond buckets
+ * Used by the connection pool to track borrow wait times and connection usage
+ */
+public class Histogram {
+
+    // Bucket i holds samples in [2^(i-1), 2^i) ms; bucket 0 holds sub-millisecond samples
+    private static final int BUCKETS = 20;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a single sample
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        long millis = nanos / 1_000_000L;
+        int bucket = millis == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / (double) n / 1_000_000.0;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Estimate a percentile from the bucket boundaries
+     * @param percentile Value between 0 and 100
+     * @return Upper bound of the bucket containing the percentile, in milliseconds
+     */
+    public long getPercentileMillis(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return i == 0 ? 1 : 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * Bucket counts, index i covering [2^(i-1), 2^i) milliseconds
+     */
+    public long[] getBucketCounts() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[count=%d, mean=%.2fms, p50<=%dms, p95<=%dms, p99<=%dms, max=%.2fms]",
+            name, getCount(), getMeanMillis(), getPercentileMillis(50),
+            getPercentileMillis(95), getPercentileMillis(99), getMaxMillis());
+    }
+}
@@ -0,0 +1,205 @@
+package application;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * InstrumentedStatement - Proxy around a statement handed out by the pool, feeding QueryMetrics
+ *
+ * Times every execute call, counts the rows it changed or (through a result set
+ * proxy) the rows read, and counts failures. Parameter setters are passed through;
+ * only the type of each bound value is remembered, to describe a slow query without
+ * logging the values. Not thread-safe, like the statement it wraps.
+ */
+final class InstrumentedStatement implements InvocationHandler {
+
+    private final Statement target;
+    private final String sql;
+    private final QueryMetrics.Stats preparedStats;
+    private String[] parameterTypes = new String[0];
+    private int batchSize;
+    private Object proxy;
+
+    /**
+     * @param sql SQL the statement was prepared with; null for a plain Statement,
+     *            whose SQL is passed to each execute call instead
+     */
+    InstrumentedStatement(Statement target, String sql) {
+        this.target = target;
+        this.sql = sql;
+        this.preparedStats = sql != null ? QueryMetrics.statsFor(sql) : null;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        this.proxy = proxy;
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "InstrumentedStatement[" + target + "]";
+            case "clearParameters":
+                parameterTypes = new String[0];
+                break;
+            case "addBatch":
+                batchSize++;
+                break;
+            case "clearBatch":
+                batchSize = 0;
+                break;
+            default:
+                if (name.startsWith("execute")) {
+                    return execute(method, args);
+                }
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer &&
+                    method.getDeclaringClass() != Statement.class) {
+                    rememberParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                }
+                break;
+        }
+        Object result = invokeTarget(method, args);
+        if ("getResultSet".equals(name) && result != null) {
+            return countRows((ResultSet) result, preparedStats != null ? preparedStats : QueryMetrics.statsFor(null));
+        }
+        return result;
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        String executedSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+        QueryMetrics.Stats stats = executedSql == sql && preparedStats != null
+            ? preparedStats
+            : QueryMetrics.statsFor(executedSql);
+        boolean batch = method.getName().endsWith("Batch");
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invokeTarget(method, args);
+        } catch (Throwable t) {
+            QueryMetrics.recordError(stats);
+            throw t;
+        }
+        long nanos = System.nanoTime() - start;
+
+        if (QueryMetrics.recordExecution(stats, nanos, changedRows(result))) {
+            QueryMetrics.recordSlowQuery(stats, executedSql, nanos, describeParameters(batch));
+        }
+        if (batch) {
+            batchSize = 0;
+        }
+        if (result instanceof ResultSet) {
+            return countRows((ResultSet) result, stats);
+        }
+        return result;
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long changedRows(Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private void rememberParameter(int index, Object value) {
+        if (index < 1 || index > 10_000) {
+            return;
+        }
+        if (index > parameterTypes.length) {
+            parameterTypes = Arrays.copyOf(parameterTypes, Math.max(index, parameterTypes.length * 2));
+        }
+        parameterTypes[index - 1] = value == null ? "null" : value.getClass().getSimpleName();
+    }
+
+    /**
+     * "?1 String, ?2 Integer", prefixed with the batch size for batches
+     */
+    private String describeParameters(boolean batch) {
+        StringBuilder sb = new StringBuilder();
+        if (batch) {
+            sb.append("batch of ").append(batchSize);
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] != null) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append('?').append(i + 1).append(' ').append(parameterTypes[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private ResultSet countRows(ResultSet results, QueryMetrics.Stats stats) {
+        return (ResultSet) Proxy.newProxyInstance(
+            InstrumentedStatement.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class },
+            new RowCounter(results, stats, proxy));
+    }
+
+    /**
+     * Result set proxy counting the rows the caller actually reads
+     */
+    private static final class RowCounter implements InvocationHandler {
+        private final ResultSet target;
+        private final QueryMetrics.Stats stats;
+        private final Object statement;
+
+        RowCounter(ResultSet target, QueryMetrics.Stats stats, Object statement) {
+            this.target = target;
+            this.stats = stats;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CountedResultSet[" + target + "]";
+                case "getStatement":
+                    return statement;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                stats.addRow();
+            }
+            return result;
+        }
+    }
+}
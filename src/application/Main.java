@@ -1,10 +1,12 @@
 package application;
 
+import controllers.utils.AsyncLoader;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import services.CarService;
 import java.io.File;
 import java.net.URL;
 
@@ -37,6 +39,10 @@ public class Main extends Application {
             primaryStage.setMinHeight(600);
             primaryStage.setResizable(true);
             primaryStage.show();
+            StartupTimer.mark(StartupTimer.LOGIN_SHOWN);
+
+            // Open the database and load the main layout's classes while the user types
+            StartupWarmup.start();
 
         } catch (Exception e) {
             System.err.println("Error loading application: " + e.getMessage());
@@ -55,7 +61,16 @@ public class Main extends Application {
         return getClass().getClassLoader().getResource(path);
     }
 
+    @Override
+    public void stop() {
+        // Stop background loads before releasing pooled database connections
+        AsyncLoader.shutdown();
+        System.out.println(CarService.getCache().getStatistics());
+        DatabaseConnection.closeConnection();
+    }
+
     public static void main(String[] args) {
+        StartupTimer.mark(StartupTimer.MAIN);
         launch(args);
     }
 }
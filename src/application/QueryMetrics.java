@@ -0,0 +1,414 @@
+package application;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * QueryMetrics - Latency, row and error counters for every statement run through the pool
+ *
+ * The connection pool wraps each statement it hands out (see InstrumentedStatement),
+ * so DAOs are measured without changes. Executions are grouped by statement: the
+ * StatementRegistry name for registered SQL, otherwise the SQL text itself. Per
+ * statement there is a latency histogram of the execute call, the number of rows
+ * read or changed and the number of failed executions.
+ *
+ * An execution slower than the threshold (metrics.slowQueryMillis, default 500 ms) is
+ * logged and kept in a short list of recent slow queries. Bound parameters are never
+ * logged, only their position and type ("?1 String, ?2 Integer"), since they hold
+ * customer data.
+ *
+ * The same data is shown in the Diagnostics view and exposed over JMX as
+ * carrental:type=QueryMetrics (see QueryMetricsMXBean).
+ */
+public final class QueryMetrics {
+
+    public static final String MBEAN_NAME = "carrental:type=QueryMetrics";
+
+    // Ad hoc SQL built by concatenation could otherwise grow the map without bound
+    static final int MAX_STATEMENTS = 500;
+    static final String OTHER = "(other)";
+    static final int MAX_SLOW_QUERIES = 50;
+    private static final int MAX_SQL_LENGTH = 200;
+
+    private static final Map<String, Stats> STATS_BY_KEY = new ConcurrentHashMap<>();
+    private static final Deque<SlowQuery> SLOW_QUERIES = new ArrayDeque<>();
+    private static final LongAdder SLOW_QUERY_COUNT = new LongAdder();
+    private static volatile long slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private QueryMetrics() {
+    }
+
+    /**
+     * Wrap a statement so its executions are measured
+     * @param type The JDBC interface the statement was requested as
+     * @param sql SQL it was prepared with; null for a plain Statement
+     */
+    static Statement instrument(Statement statement, Class<?> type, String sql) {
+        return (Statement) Proxy.newProxyInstance(
+            QueryMetrics.class.getClassLoader(),
+            new Class<?>[] { type },
+            new InstrumentedStatement(statement, sql));
+    }
+
+    /**
+     * Counters for the statement running this SQL
+     */
+    static Stats statsFor(String sql) {
+        // Keyed by the raw SQL of unregistered statements; only the displayed name is normalized
+        String key = sql == null ? OTHER : StatementRegistry.nameOf(sql);
+        if (key == null) {
+            key = sql;
+        }
+        Stats stats = STATS_BY_KEY.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        if (STATS_BY_KEY.size() >= MAX_STATEMENTS) {
+            return STATS_BY_KEY.computeIfAbsent(OTHER, Stats::new);
+        }
+        return STATS_BY_KEY.computeIfAbsent(key, Stats::new);
+    }
+
+    /**
+     * A statement finished executing
+     * @param rows Rows changed; rows read by a query are counted as they are fetched
+     * @return Whether the execution was slow; the caller then reports it with recordSlowQuery()
+     */
+    static boolean recordExecution(Stats stats, long nanos, long rows) {
+        stats.latency.record(nanos);
+        if (rows > 0) {
+            stats.rows.add(rows);
+        }
+        return nanos >= slowQueryNanos;
+    }
+
+    static void recordError(Stats stats) {
+        stats.errors.increment();
+    }
+
+    /**
+     * Log a slow execution and keep it in the recent list
+     * @param parameters Redacted parameter description, e.g. "?1 String, ?2 Integer"
+     */
+    static void recordSlowQuery(Stats stats, String sql, long nanos, String parameters) {
+        SlowQuery slowQuery = new SlowQuery(stats.name, normalize(sql), nanos, parameters);
+        SLOW_QUERY_COUNT.increment();
+        synchronized (SLOW_QUERIES) {
+            SLOW_QUERIES.addFirst(slowQuery);
+            if (SLOW_QUERIES.size() > MAX_SLOW_QUERIES) {
+                SLOW_QUERIES.removeLast();
+            }
+        }
+        System.err.println("Slow query: " + slowQuery);
+    }
+
+    /**
+     * Collapse whitespace and cut long SQL so it can serve as a name and a log line
+     */
+    private static String normalize(String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        String compact = sql.trim().replaceAll("\\s+", " ");
+        return compact.length() <= MAX_SQL_LENGTH ? compact : compact.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+
+    public static long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryNanos);
+    }
+
+    public static void setSlowQueryThresholdMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Slow query threshold cannot be negative");
+        }
+        slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    public static long getExecutionCount() {
+        long total = 0;
+        for (Stats stats : STATS_BY_KEY.values()) {
+            total += stats.getExecutionCount();
+        }
+        return total;
+    }
+
+    public static long getErrorCount() {
+        long total = 0;
+        for (Stats stats : STATS_BY_KEY.values()) {
+            total += stats.getErrorCount();
+        }
+        return total;
+    }
+
+    public static long getSlowQueryCount() {
+        return SLOW_QUERY_COUNT.sum();
+    }
+
+    /**
+     * Per-statement counters, most total time first
+     */
+    public static List<Stats> getStatementStats() {
+        List<Stats> list = new ArrayList<>(STATS_BY_KEY.values());
+        list.sort(Comparator.comparingDouble(Stats::getTotalMillis).reversed());
+        return list;
+    }
+
+    /**
+     * Recent slow queries, newest first
+     */
+    public static List<SlowQuery> getSlowQueries() {
+        synchronized (SLOW_QUERIES) {
+            return new ArrayList<>(SLOW_QUERIES);
+        }
+    }
+
+    /**
+     * Start counting afresh, e.g. before reproducing a problem
+     */
+    public static void reset() {
+        STATS_BY_KEY.clear();
+        SLOW_QUERY_COUNT.reset();
+        synchronized (SLOW_QUERIES) {
+            SLOW_QUERIES.clear();
+        }
+    }
+
+    /**
+     * Summary of the slowest statements for logging
+     */
+    public static String getStatistics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Queries: executed=%d, errors=%d, slow=%d (>= %d ms)",
+                                getExecutionCount(), getErrorCount(), getSlowQueryCount(),
+                                getSlowQueryThresholdMillis()));
+        List<Stats> statements = getStatementStats();
+        for (int i = 0; i < Math.min(10, statements.size()); i++) {
+            sb.append(System.lineSeparator()).append("  ").append(statements.get(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Publish the counters and the pool's connection figures over JMX, replacing an
+     * earlier registration (the pool is recreated after closeConnection())
+     */
+    static void registerMBean(ConnectionPool pool) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new MXBean(pool), name);
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Could not register " + MBEAN_NAME + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Counters for one statement
+     */
+    public static final class Stats {
+        private final String name;
+        private final Histogram latency;
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        Stats(String key) {
+            this.name = normalize(key);
+            this.latency = new Histogram(name);
+        }
+
+        void addRow() {
+            rows.increment();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        public long getExecutionCount() {
+            return latency.getCount();
+        }
+
+        public long getRowCount() {
+            return rows.sum();
+        }
+
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        public double getTotalMillis() {
+            return latency.getMeanMillis() * latency.getCount();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: executed=%d, mean=%.2fms, p95<=%dms, max=%.2fms, rows=%d, errors=%d",
+                                 name, getExecutionCount(), latency.getMeanMillis(),
+                                 latency.getPercentileMillis(95), latency.getMaxMillis(),
+                                 getRowCount(), getErrorCount());
+        }
+    }
+
+    /**
+     * One execution over the slow query threshold
+     */
+    public static final class SlowQuery {
+        private final LocalDateTime time = LocalDateTime.now();
+        private final String thread = Thread.currentThread().getName();
+        private final String name;
+        private final String sql;
+        private final long nanos;
+        private final String parameters;
+
+        SlowQuery(String name, String sql, long nanos, String parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.nanos = nanos;
+            this.parameters = parameters;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        /**
+         * Parameter positions and types only, never values
+         */
+        public String getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String toString() {
+            String text = String.format("%.1f ms on %s: ", getMillis(), thread);
+            text += name.equals(sql) ? sql : name + " [" + sql + "]";
+            return parameters.isEmpty() ? text : text + " (" + parameters + ")";
+        }
+    }
+
+    private static final class MXBean implements QueryMetricsMXBean {
+        private final ConnectionPool pool;
+
+        MXBean(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public long getExecutionCount() {
+            return QueryMetrics.getExecutionCount();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return QueryMetrics.getErrorCount();
+        }
+
+        @Override
+        public long getSlowQueryCount() {
+            return QueryMetrics.getSlowQueryCount();
+        }
+
+        @Override
+        public long getSlowQueryThresholdMillis() {
+            return QueryMetrics.getSlowQueryThresholdMillis();
+        }
+
+        @Override
+        public void setSlowQueryThresholdMillis(long millis) {
+            QueryMetrics.setSlowQueryThresholdMillis(millis);
+        }
+
+        @Override
+        public int getActiveConnections() {
+            return pool.getActiveCount();
+        }
+
+        @Override
+        public int getIdleConnections() {
+            return pool.getIdleCount();
+        }
+
+        @Override
+        public int getWaitingThreads() {
+            return pool.getWaitingThreads();
+        }
+
+        @Override
+        public double getConnectionWaitMeanMillis() {
+            return pool.getWaitTimeHistogram().getMeanMillis();
+        }
+
+        @Override
+        public long getConnectionWaitP99Millis() {
+            return pool.getWaitTimeHistogram().getPercentileMillis(99);
+        }
+
+        @Override
+        public long getConnectionTimeouts() {
+            return pool.getTimeoutCount();
+        }
+
+        @Override
+        public String[] getStatements() {
+            List<Stats> statements = QueryMetrics.getStatementStats();
+            String[] lines = new String[statements.size()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = statements.get(i).toString();
+            }
+            return lines;
+        }
+
+        @Override
+        public String[] getSlowQueries() {
+            List<SlowQuery> slowQueries = QueryMetrics.getSlowQueries();
+            String[] lines = new String[slowQueries.size()];
+            for (int i = 0; i < lines.length; i++) {
+                SlowQuery slowQuery = slowQueries.get(i);
+                lines[i] = slowQuery.getTime().withNano(0) + " " + slowQuery;
+            }
+            return lines;
+        }
+
+        @Override
+        public void reset() {
+            QueryMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package application;
+
+/**
+ * QueryMetricsMXBean - JMX view of QueryMetrics and the connection pool
+ *
+ * Registered as carrental:type=QueryMetrics when the pool starts; browse it with
+ * jconsole or any JMX client. The slow query threshold can be changed at runtime.
+ */
+public interface QueryMetricsMXBean {
+
+    long getExecutionCount();
+
+    long getErrorCount();
+
+    long getSlowQueryCount();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long millis);
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getWaitingThreads();
+
+    double getConnectionWaitMeanMillis();
+
+    long getConnectionWaitP99Millis();
+
+    long getConnectionTimeouts();
+
+    /**
+     * One line per statement, most total time first
+     */
+    String[] getStatements();
+
+    /**
+     * Recent slow queries, newest first, with parameter types but no values
+     */
+    String[] getSlowQueries();
+
+    void reset();
+}
@@ -0,0 +1,149 @@
+package application;
+
+import dao.OptimisticLockException;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RetryPolicy - Re-runs a transaction that lost an optimistic update
+ *
+ * The DAOs write with "WHERE version = ?" and throw OptimisticLockException when
+ * another workstation changed the row first. For work that re-reads what it changes
+ * (renting or returning a car) the right answer is to roll back and run it again on
+ * fresh data, which then either succeeds or finds the real state (say the car is now
+ * rented). Edits a user typed in are not retried: that would overwrite the other
+ * change, so the exception goes back to the screen instead.
+ *
+ * Between attempts the thread sleeps backoffMillis, doubled each time, with jitter so
+ * two counters that collided do not collide again. When already inside a transaction
+ * the work runs once: retrying would repeat it in a transaction that is rolling back.
+ *
+ * Configured with concurrency.maxAttempts (3) and concurrency.backoffMillis (20) in
+ * database.properties.
+ *
+ * Usage:
+ * <pre>
+ * RetryPolicy.getDefault().execute(conn -> {
+ *     Car car = carDAO.getCarById(carId);
+ *     return carDAO.updateCarStatus(carId, "Rented", car.getVersion());
+ * });
+ * </pre>
+ *
+ * Instances are immutable.
+ */
+public final class RetryPolicy {
+
+    public static final String MAX_ATTEMPTS_KEY = "concurrency.maxAttempts";
+    public static final String BACKOFF_MILLIS_KEY = "concurrency.backoffMillis";
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final long DEFAULT_BACKOFF_MILLIS = 20;
+
+    // Process-wide counts, for the Diagnostics view and logs
+    private static final AtomicLong CONFLICTS = new AtomicLong();
+    private static final AtomicLong EXHAUSTED = new AtomicLong();
+
+    private static volatile RetryPolicy defaultPolicy;
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public RetryPolicy(int maxAttempts, long backoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (backoffMillis < 0) {
+            throw new IllegalArgumentException("backoffMillis cannot be negative");
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * The policy from database.properties, read once
+     */
+    public static RetryPolicy getDefault() {
+        RetryPolicy policy = defaultPolicy;
+        if (policy == null) {
+            DatabaseConfig config = DatabaseConfig.load();
+            policy = new RetryPolicy(Math.max(1, config.getInt(MAX_ATTEMPTS_KEY, DEFAULT_MAX_ATTEMPTS)),
+                                     Math.max(0, config.getLong(BACKOFF_MILLIS_KEY, DEFAULT_BACKOFF_MILLIS)));
+            defaultPolicy = policy;
+        }
+        return policy;
+    }
+
+    public RetryPolicy withMaxAttempts(int maxAttempts) {
+        return new RetryPolicy(maxAttempts, backoffMillis);
+    }
+
+    public RetryPolicy withBackoffMillis(long backoffMillis) {
+        return new RetryPolicy(maxAttempts, backoffMillis);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    /**
+     * Run the work in a transaction, again in a new one each time it hits a conflict
+     * @return Result of the attempt that committed
+     * @throws OptimisticLockException If every attempt hit a conflict
+     * @throws SQLException If the work or the commit fails for another reason
+     */
+    public <T> T execute(TransactionTemplate.TransactionCallback<T> action) throws SQLException {
+        if (TransactionTemplate.isActive()) {
+            return TransactionTemplate.execute(action);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return TransactionTemplate.execute(action);
+            } catch (OptimisticLockException e) {
+                CONFLICTS.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    EXHAUSTED.incrementAndGet();
+                    System.err.println("Giving up after " + attempt + " attempts: " + e.getMessage());
+                    throw e;
+                }
+                System.out.println("Retrying (" + attempt + "/" + maxAttempts + "): " + e.getMessage());
+                pause(attempt);
+            }
+        }
+    }
+
+    private void pause(int attempt) {
+        if (backoffMillis == 0) {
+            return;
+        }
+        long delay = backoffMillis << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Conflicts seen by execute() since startup, including ones a retry resolved
+     */
+    public static long getConflictCount() {
+        return CONFLICTS.get();
+    }
+
+    /**
+     * Calls to execute() that ran out of attempts since startup
+     */
+    public static long getExhaustedCount() {
+        return EXHAUSTED.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy[maxAttempts=" + maxAttempts + ", backoffMillis=" + backoffMillis + "]";
+    }
+}
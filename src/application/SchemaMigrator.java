@@ -0,0 +1,139 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SchemaMigrator - Applies versioned SQL migrations from resources/database/migrations
+ *
+ * Each script is named V{version}__{description}.sql and is applied once, in order;
+ * applied versions are recorded in the schema_version table. Version 1 is the
+ * baseline schema that creates the tables; it only uses CREATE ... IF NOT EXISTS,
+ * so databases created before it existed simply record it.
+ */
+public class SchemaMigrator {
+
+    private static final String MIGRATIONS_PATH = "/database/migrations/";
+
+    // Known migrations, in the order they must be applied
+    private static final String[] MIGRATIONS = {
+        "V1__baseline_schema.sql",
+        "V2__rental_records_date_indexes.sql",
+        "V3__rental_rollups.sql",
+        "V4__search_field_indexes.sql",
+        "V5__row_versions.sql",
+        "V6__rental_date_index.sql"
+    };
+
+    // MySQL error codes that mean the object a statement creates already exists
+    private static final int ER_TABLE_EXISTS = 1050;
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Apply every migration that has not been recorded yet
+     * @param connection Connection to run the migrations on
+     * @return Number of migrations applied
+     */
+    public static int migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                         "version INT PRIMARY KEY, " +
+                         "description VARCHAR(200) NOT NULL, " +
+                         "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        Set<Integer> applied = new HashSet<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                applied.add(rs.getInt("version"));
+            }
+        }
+
+        int count = 0;
+        for (String script : MIGRATIONS) {
+            int version = parseVersion(script);
+            if (applied.contains(version)) {
+                continue;
+            }
+            System.out.println("Applying schema migration " + script);
+            for (String sql : loadStatements(script)) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == ER_TABLE_EXISTS || e.getErrorCode() == ER_DUP_FIELDNAME
+                            || e.getErrorCode() == ER_DUP_KEYNAME) {
+                        System.out.println("  Skipping, already present: " + e.getMessage());
+                    } else {
+                        throw new SQLException("Migration " + script + " failed: " + e.getMessage(), e);
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                pstmt.setInt(1, version);
+                pstmt.setString(2, parseDescription(script));
+                pstmt.executeUpdate();
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static int parseVersion(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static String parseDescription(String script) {
+        return script.substring(script.indexOf("__") + 2, script.lastIndexOf('.')).replace('_', ' ');
+    }
+
+    /**
+     * Read a script and split it into statements on ';', dropping "--" comment lines
+     */
+    static List<String> loadStatements(String script) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(MIGRATIONS_PATH + script)) {
+            if (in == null) {
+                throw new SQLException("Migration script not found on classpath: " + MIGRATIONS_PATH + script);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+            if (current.toString().trim().length() > 0) {
+                statements.add(current.toString().trim());
+            }
+        } catch (IOException e) {
+            throw new SQLException("Failed to read migration script " + script, e);
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,123 @@
+package application;
+
+import javafx.application.Platform;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StartupTimer - Times the phases from JVM launch to the first dashboard
+ *
+ * Each phase is marked with its offset from JVM start. When the dashboard has first
+ * filled in, the timeline is printed and appended to startup.log in the working
+ * directory (or the file named by -Dcarrental.startup.log), e.g.
+ * <pre>
+ * 2026-10-17T09:12:44 startup
+ *      410 ms  (+410)  main
+ *      905 ms  (+495)  login shown
+ *      ...
+ *   login to dashboard: 380 ms
+ * </pre>
+ * The time between "login shown" and "login submitted" is the user typing.
+ *
+ * With -Dcarrental.startup.exitWhenReady=true the application exits as soon as the
+ * dashboard is ready; scripts/create-cds-archive.sh uses this for its training run.
+ */
+public final class StartupTimer {
+
+    public static final String LOG_FILE_PROPERTY = "carrental.startup.log";
+    public static final String EXIT_WHEN_READY_PROPERTY = "carrental.startup.exitWhenReady";
+
+    public static final String MAIN = "main";
+    public static final String LOGIN_SHOWN = "login shown";
+    public static final String POOL_READY = "pool ready (warm-up)";
+    public static final String CLASSES_LOADED = "classes loaded (warm-up)";
+    public static final String LOGIN_SUBMITTED = "login submitted";
+    public static final String AUTHENTICATED = "authenticated";
+    public static final String MAIN_LAYOUT_SHOWN = "main layout shown";
+    public static final String DASHBOARD_READY = "dashboard ready";
+
+    private static final String DEFAULT_LOG_FILE = "startup.log";
+
+    // Wall-clock JVM start, so phases before this class was loaded are counted too
+    private static final long JVM_START_MILLIS = ProcessHandle.current().info().startInstant()
+        .map(Instant::toEpochMilli)
+        .orElse(System.currentTimeMillis());
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final long ORIGIN_OFFSET_MILLIS = Math.max(0, System.currentTimeMillis() - JVM_START_MILLIS);
+
+    private static final List<String> PHASES = new ArrayList<>();
+    private static final List<Long> OFFSETS = new ArrayList<>();
+    private static boolean reported = false;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Record that a phase finished now; only the first mark of each phase counts
+     */
+    public static synchronized void mark(String phase) {
+        if (reported || PHASES.contains(phase)) {
+            return;
+        }
+        PHASES.add(phase);
+        OFFSETS.add(ORIGIN_OFFSET_MILLIS + (System.nanoTime() - ORIGIN_NANOS) / 1_000_000L);
+    }
+
+    /**
+     * Mark DASHBOARD_READY and write the timeline; later calls (after a logout and
+     * login, or on refresh) do nothing
+     */
+    public static void dashboardReady() {
+        String report;
+        synchronized (StartupTimer.class) {
+            if (reported) {
+                return;
+            }
+            mark(DASHBOARD_READY);
+            reported = true;
+            report = report();
+        }
+        System.out.print(report);
+        writeLog(report);
+
+        if (Boolean.getBoolean(EXIT_WHEN_READY_PROPERTY)) {
+            Platform.exit();
+        }
+    }
+
+    private static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(LocalDateTime.now().withNano(0)).append(" startup").append(System.lineSeparator());
+        long previous = 0;
+        for (int i = 0; i < PHASES.size(); i++) {
+            long offset = OFFSETS.get(i);
+            sb.append(String.format("  %7d ms  (+%d)  %s%n", offset, offset - previous, PHASES.get(i)));
+            previous = offset;
+        }
+        int submitted = PHASES.indexOf(LOGIN_SUBMITTED);
+        int ready = PHASES.indexOf(DASHBOARD_READY);
+        if (submitted >= 0 && ready >= 0) {
+            sb.append(String.format("  login to dashboard: %d ms%n", OFFSETS.get(ready) - OFFSETS.get(submitted)));
+        }
+        return sb.toString();
+    }
+
+    private static void writeLog(String report) {
+        Path file = Paths.get(System.getProperty(LOG_FILE_PROPERTY, DEFAULT_LOG_FILE));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(report);
+        } catch (IOException e) {
+            System.err.println("Could not write startup timings to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package application;
+
+import services.DashboardService;
+
+/**
+ * StartupWarmup - Prepares the post-login path while the login screen is showing
+ *
+ * Started once the login screen is up, on a low-priority daemon thread, so the
+ * work overlaps with the user typing credentials:
+ * 1. Creates the connection pool (opening its first connections and applying
+ *    pending migrations), which the login query would otherwise pay for
+ * 2. Runs the dashboard snapshot query once, so its statement is prepared and
+ *    the database has the tables it reads in memory
+ * 3. Loads the classes the main layout and dashboard need, so building them after
+ *    login does not stop for class loading
+ *
+ * Failures are only logged: the login itself reports an unreachable database.
+ */
+public final class StartupWarmup {
+
+    // Loaded but not initialized: initialization runs static code that belongs on the FX thread
+    private static final String[] CLASSES = {
+        "controllers.MainLayoutController",
+        "controllers.DashboardController",
+        "controllers.utils.ViewCache",
+        "controllers.utils.ViewLifecycle",
+        "controllers.utils.AsyncLoader",
+        "controllers.utils.DateUtil",
+        "services.CarService",
+        "services.CustomerService",
+        "services.RentService",
+        "models.Car",
+        "models.ReportData",
+        "javafx.scene.layout.BorderPane",
+        "javafx.scene.layout.StackPane",
+        "javafx.scene.layout.HBox",
+        "javafx.scene.layout.VBox",
+        "javafx.scene.layout.Region",
+        "javafx.scene.control.ScrollPane",
+        "javafx.scene.control.Separator",
+        "javafx.scene.control.TableView",
+        "javafx.scene.control.TableColumn",
+        "javafx.scene.control.cell.PropertyValueFactory",
+        "javafx.scene.image.ImageView",
+        "javafx.scene.image.Image"
+    };
+
+    private static Thread thread;
+
+    private StartupWarmup() {
+    }
+
+    /**
+     * Start the warm-up; later calls do nothing
+     */
+    public static synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(StartupWarmup::run, "startup-warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private static void run() {
+        try {
+            DatabaseConnection.getPool();
+            new DashboardService().getDashboardSnapshot();
+            StartupTimer.mark(StartupTimer.POOL_READY);
+        } catch (RuntimeException e) {
+            System.err.println("Startup warm-up could not reach the database: " + e.getMessage());
+        }
+
+        ClassLoader loader = StartupWarmup.class.getClassLoader();
+        for (String name : CLASSES) {
+            try {
+                Class.forName(name, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.err.println("Startup warm-up could not load " + name + ": " + e.getMessage());
+            }
+        }
+        StartupTimer.mark(StartupTimer.CLASSES_LOADED);
+    }
+}
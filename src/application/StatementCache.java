@@ -0,0 +1,239 @@
+package application;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StatementCache - Prepared statements kept open on one physical connection
+ *
+ * Only SQL registered with StatementRegistry is cached. Callers get a proxy whose
+ * close() closes the open result set and clears the parameters instead of closing
+ * the statement, so the next prepareStatement() of the same SQL on this connection
+ * reuses it. A statement already in use (the same query nested inside a transaction)
+ * is not shared; the second caller gets an ordinary uncached statement.
+ *
+ * A caller that changes statement settings (fetch size, max rows, timeouts, batches)
+ * gets its statement closed for real on close(), so no setting leaks into the next
+ * use. Not thread-safe; a pooled connection is only used by one borrower at a time.
+ */
+final class StatementCache {
+
+    private final Connection physical;
+    private final int capacity;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int capacity) {
+        this.physical = physical;
+        this.capacity = capacity;
+        // Access order, so the eldest entry is the least recently used
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Prepare a statement, reusing a cached one for registered SQL
+     * @param logical The connection proxy the caller holds, returned by getConnection()
+     */
+    PreparedStatement prepare(Connection logical, String sql, int autoGeneratedKeys) throws SQLException {
+        if (capacity <= 0 || !StatementRegistry.isRegistered(sql)) {
+            return prepareUncached(sql, autoGeneratedKeys);
+        }
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            StatementRegistry.recordReuse(sql);
+            return cached.checkOut(logical);
+        }
+        if (cached != null) {
+            return prepareUncached(sql, autoGeneratedKeys);
+        }
+        cached = new CachedStatement(key, prepareUncached(sql, autoGeneratedKeys));
+        statements.put(key, cached);
+        evictOverflow();
+        return cached.checkOut(logical);
+    }
+
+    private PreparedStatement prepareUncached(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        PreparedStatement statement = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+            ? physical.prepareStatement(sql)
+            : physical.prepareStatement(sql, autoGeneratedKeys);
+        StatementRegistry.recordPrepare(sql, System.nanoTime() - start);
+        return statement;
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> eldest = statements.values().iterator();
+        while (statements.size() > capacity && eldest.hasNext()) {
+            CachedStatement cached = eldest.next();
+            eldest.remove();
+            if (cached.inUse) {
+                // Closed when its current user is done with it
+                cached.discardOnRelease = true;
+            } else {
+                closeQuietly(cached.statement);
+            }
+        }
+    }
+
+    /**
+     * Take back every statement the last borrower did not close, called when the
+     * connection is returned to the pool
+     */
+    void reclaim() {
+        List<CachedStatement> open = new ArrayList<>();
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                open.add(cached);
+            }
+        }
+        for (CachedStatement cached : open) {
+            cached.handle.close();
+        }
+    }
+
+    /**
+     * Close every cached statement, called before the physical connection is closed
+     */
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Being discarded anyway
+        }
+    }
+
+    private final class CachedStatement {
+        final String key;
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean discardOnRelease;
+        StatementHandle handle;
+
+        CachedStatement(String key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        PreparedStatement checkOut(Connection logical) {
+            inUse = true;
+            handle = new StatementHandle(this, logical);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                handle);
+        }
+
+        void checkIn(ResultSet openResults, boolean dirty) {
+            if (openResults != null) {
+                closeQuietly(openResults);
+            }
+            inUse = false;
+            handle = null;
+            if (!dirty && !discardOnRelease) {
+                try {
+                    statement.clearParameters();
+                    return;
+                } catch (SQLException e) {
+                    // Fall through and discard it
+                }
+            }
+            statements.remove(key, this);
+            closeQuietly(statement);
+        }
+    }
+
+    /**
+     * Proxy handed out for a cached statement; close() gives it back to the cache
+     */
+    private static final class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection logical;
+        private ResultSet openResults;
+        private boolean dirty;
+        private boolean closed;
+
+        StatementHandle(CachedStatement cached, Connection logical) {
+            this.cached = cached;
+            this.logical = logical;
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                cached.checkIn(openResults, dirty);
+                openResults = null;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return logical;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + (closed ? ", returned" : "") + "]";
+                case "setFetchSize":
+                case "setFetchDirection":
+                case "setMaxRows":
+                case "setMaxFieldSize":
+                case "setLargeMaxRows":
+                case "setQueryTimeout":
+                case "setEscapeProcessing":
+                case "setPoolable":
+                case "setCursorName":
+                case "closeOnCompletion":
+                case "addBatch":
+                    dirty = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet && !"getGeneratedKeys".equals(method.getName())) {
+                // DAOs often leave the result set to be closed with the statement
+                openResults = (ResultSet) result;
+            }
+            return result;
+        }
+    }
+}
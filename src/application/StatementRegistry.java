@@ -0,0 +1,183 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StatementRegistry - Named SQL statements that every pooled connection keeps prepared
+ *
+ * DAOs register their hot statements once, as constants:
+ *
+ *     private static final String SELECT_BY_ID =
+ *         StatementRegistry.register("car.byId", "SELECT * FROM cars WHERE car_id=?");
+ *
+ * and keep calling conn.prepareStatement(SELECT_BY_ID) as before. The connection pool
+ * recognises registered SQL and hands back the statement it already prepared on that
+ * physical connection, so the driver skips parsing (and, with server-side prepared
+ * statements, the prepare round trip). Unregistered SQL is prepared normally.
+ *
+ * The registry also keeps prepare cost and reuse counts per statement; SQL that was
+ * never registered is counted under "(ad hoc)".
+ */
+public final class StatementRegistry {
+
+    static final String AD_HOC = "(ad hoc)";
+
+    private static final Map<String, String> NAMES_BY_SQL = new ConcurrentHashMap<>();
+    private static final Map<String, Stats> STATS_BY_NAME = new ConcurrentHashMap<>();
+
+    private StatementRegistry() {
+    }
+
+    /**
+     * Register a statement under a name
+     * @return The SQL, so the call can initialise a constant
+     * @throws IllegalStateException If the name is already used for different SQL
+     */
+    public static String register(String name, String sql) {
+        for (Map.Entry<String, String> entry : NAMES_BY_SQL.entrySet()) {
+            if (entry.getValue().equals(name) && !entry.getKey().equals(sql)) {
+                throw new IllegalStateException("Statement name " + name + " is already registered for: " +
+                                                entry.getKey());
+            }
+        }
+        NAMES_BY_SQL.put(sql, name);
+        STATS_BY_NAME.computeIfAbsent(name, Stats::new);
+        return sql;
+    }
+
+    /**
+     * Name of a registered statement, or null if the SQL was not registered
+     */
+    public static String nameOf(String sql) {
+        return NAMES_BY_SQL.get(sql);
+    }
+
+    public static boolean isRegistered(String sql) {
+        return NAMES_BY_SQL.containsKey(sql);
+    }
+
+    /**
+     * A statement was prepared on a physical connection
+     */
+    static void recordPrepare(String sql, long nanos) {
+        stats(sql).record(nanos);
+    }
+
+    /**
+     * A registered statement was served from a connection's statement cache
+     */
+    static void recordReuse(String sql) {
+        stats(sql).reuses.increment();
+    }
+
+    private static Stats stats(String sql) {
+        String name = NAMES_BY_SQL.get(sql);
+        return STATS_BY_NAME.computeIfAbsent(name != null ? name : AD_HOC, Stats::new);
+    }
+
+    public static long getPrepareCount() {
+        long total = 0;
+        for (Stats stats : STATS_BY_NAME.values()) {
+            total += stats.prepares.sum();
+        }
+        return total;
+    }
+
+    public static long getReuseCount() {
+        long total = 0;
+        for (Stats stats : STATS_BY_NAME.values()) {
+            total += stats.reuses.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Share of statement requests answered without preparing, 0.0 - 1.0
+     */
+    public static double getReuseRatio() {
+        long reuses = getReuseCount();
+        long requests = reuses + getPrepareCount();
+        return requests == 0 ? 0.0 : (double) reuses / requests;
+    }
+
+    /**
+     * Per-statement counters, busiest first
+     */
+    public static List<Stats> getStatementStats() {
+        List<Stats> list = new ArrayList<>(STATS_BY_NAME.values());
+        list.sort(Comparator.comparingLong(Stats::getRequestCount).reversed());
+        return list;
+    }
+
+    /**
+     * Summary of the registry counters for logging
+     */
+    public static String getStatistics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Statements: prepared=%d, reused=%d (%.1f%% reuse)",
+                                getPrepareCount(), getReuseCount(), getReuseRatio() * 100));
+        for (Stats stats : getStatementStats()) {
+            if (stats.getRequestCount() > 0) {
+                sb.append(System.lineSeparator()).append("  ").append(stats);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Counters for one named statement
+     */
+    public static final class Stats {
+        private final String name;
+        private final LongAdder prepares = new LongAdder();
+        private final LongAdder prepareNanos = new LongAdder();
+        private final LongAdder reuses = new LongAdder();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos) {
+            prepares.increment();
+            prepareNanos.add(nanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPrepareCount() {
+            return prepares.sum();
+        }
+
+        public long getReuseCount() {
+            return reuses.sum();
+        }
+
+        public long getRequestCount() {
+            return prepares.sum() + reuses.sum();
+        }
+
+        public double getMeanPrepareMillis() {
+            long n = prepares.sum();
+            return n == 0 ? 0.0 : prepareNanos.sum() / (double) n / 1_000_000.0;
+        }
+
+        public double getReuseRatio() {
+            long requests = getRequestCount();
+            return requests == 0 ? 0.0 : (double) reuses.sum() / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: prepared=%d (mean %.3fms), reused=%d (%.1f%%)",
+                                 name, getPrepareCount(), getMeanPrepareMillis(), getReuseCount(),
+                                 getReuseRatio() * 100);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package application;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TransactionTemplate - Runs a unit of work on a single connection as one atomic commit
+ *
+ * While a transaction is active on the current thread, DatabaseConnection.getConnection()
+ * hands every DAO the same transactional connection, so existing DAO methods join the
+ * transaction without any changes. Nested calls join the outer transaction; only the
+ * outermost call commits or rolls back. Work that must only see committed data, such
+ * as refreshing a cache, is registered with afterCommit().
+ *
+ * Usage:
+ * <pre>
+ * boolean ok = TransactionTemplate.execute(conn -> {
+ *     if (!carDAO.updateCarStatus(carId, "Rented", car.getVersion())) {
+ *         throw new SQLException("Failed to update car status");
+ *     }
+ *     return rentDAO.addRental(rental);
+ * });
+ * </pre>
+ */
+public class TransactionTemplate {
+
+    private static final ThreadLocal<TransactionContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Work executed inside a transaction.
+     * Throwing any exception rolls the whole transaction back.
+     */
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        T doInTransaction(Connection connection) throws SQLException;
+    }
+
+    private TransactionTemplate() {
+    }
+
+    /**
+     * Execute the callback in a transaction, joining the current one if already active
+     * @param action Unit of work
+     * @return Result of the callback
+     * @throws SQLException If the work or the commit fails (the transaction is rolled back)
+     */
+    public static <T> T execute(TransactionCallback<T> action) throws SQLException {
+        TransactionContext existing = CURRENT.get();
+        if (existing != null) {
+            try {
+                return action.doInTransaction(existing.sharedHandle);
+            } catch (Throwable t) {
+                // The outer transaction must not commit partial work from a failed inner unit
+                existing.rollbackOnly = true;
+                throw t;
+            }
+        }
+
+        Connection connection = DatabaseConnection.getConnection();
+        TransactionContext context = new TransactionContext(connection);
+        try {
+            connection.setAutoCommit(false);
+            CURRENT.set(context);
+
+            T result = action.doInTransaction(context.sharedHandle);
+
+            if (context.rollbackOnly) {
+                connection.rollback();
+                throw new SQLException("Transaction was marked rollback-only and has been rolled back");
+            }
+            connection.commit();
+            context.committed = true;
+            return result;
+        } catch (Throwable t) {
+            rollbackQuietly(connection);
+            throw t;
+        } finally {
+            CURRENT.remove();
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                // The pool resets auto-commit on return as well
+            }
+            connection.close();
+            if (context.committed) {
+                runAfterCommit(context.afterCommit);
+            }
+        }
+    }
+
+    /**
+     * Run an action once the current transaction has committed, or right away if none
+     * is active. Actions of a transaction that rolls back are dropped. They run on the
+     * committing thread after the transaction has ended, in registration order.
+     */
+    public static void afterCommit(Runnable action) {
+        TransactionContext context = CURRENT.get();
+        if (context == null) {
+            action.run();
+        } else {
+            context.afterCommit.add(action);
+        }
+    }
+
+    private static void runAfterCommit(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // The transaction is already committed; one failing action must not hide that
+                System.err.println("Error in after-commit action: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Check whether a transaction is active on the current thread
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Mark the current transaction so that it rolls back instead of committing
+     */
+    public static void setRollbackOnly() {
+        TransactionContext context = CURRENT.get();
+        if (context == null) {
+            throw new IllegalStateException("No transaction is active on this thread");
+        }
+        context.rollbackOnly = true;
+    }
+
+    /**
+     * Connection bound to the current thread's transaction, or null if none is active
+     */
+    static Connection currentConnection() {
+        TransactionContext context = CURRENT.get();
+        return context != null ? context.sharedHandle : null;
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back transaction: " + e.getMessage());
+        }
+    }
+
+    /**
+     * State of the transaction bound to a thread
+     */
+    private static final class TransactionContext {
+        final Connection connection;
+        final Connection sharedHandle;
+        final List<Runnable> afterCommit = new ArrayList<>();
+        boolean rollbackOnly = false;
+        boolean committed = false;
+
+        TransactionContext(Connection connection) {
+            this.connection = connection;
+            this.sharedHandle = createSharedHandle(connection);
+        }
+
+        /**
+         * Handle given to DAOs: close() is a no-op and transaction control is reserved
+         * for TransactionTemplate, so try-with-resources in DAOs does not end the transaction.
+         */
+        private static Connection createSharedHandle(Connection target) {
+            return (Connection) Proxy.newProxyInstance(
+                TransactionTemplate.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "commit":
+                        case "rollback":
+                        case "setAutoCommit":
+                            throw new SQLException("Transaction is managed by TransactionTemplate; " +
+                                                   method.getName() + "() is not allowed here");
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+        }
+    }
+}
@@ -12,13 +12,16 @@ import services.CarService;
 import services.CustomerService;
 import services.RentService;
 import models.Car;
+import models.DashboardSnapshot;
 import models.ReportData; // Add this import
 import controllers.utils.Alerts;
+import controllers.utils.AsyncLoader;
 import controllers.utils.DateUtil;
-import java.util.List;
+import controllers.utils.ViewLifecycle;
+import application.StartupTimer;
 import java.util.Map;
 
-public class DashboardController {
+public class DashboardController implements ViewLifecycle {
     @FXML private Label rentingCarsLabel;
     @FXML private Label availableCarsLabel;
     @FXML private Label totalEarningsLabel;
@@ -63,8 +66,8 @@ public class DashboardController {
             // Set button actions
             setupButtonActions();
             
-            // Load initial statistics
-            loadStatistics();
+            // Load initial statistics; the first time they arrive ends the startup timeline
+            loadStatistics(StartupTimer::dashboardReady);
             
             System.out.println("=== DashboardController.initialize() END - SUCCESS ===");
             
@@ -75,6 +78,12 @@ public class DashboardController {
         }
     }
     
+    @Override
+    public void onShow() {
+        // Cached view: the figures move with every rental
+        loadStatistics();
+    }
+    
     private void initializeServices() {
         try {
             System.out.println("Initializing services...");
@@ -132,51 +141,74 @@ public class DashboardController {
     }
     
     private void loadStatistics() {
-        try {
-            System.out.println("Loading dashboard statistics...");
-            
-            if (dashboardService == null) {
-                System.err.println("DashboardService is null - using defaults");
-                setSafeDefaults();
-                return;
-            }
-            
-            // Get comprehensive rental statistics
-            ReportData rentalStats = dashboardService.getRentalStatistics();
-            
-            // Update labels with comprehensive statistics
-            rentingCarsLabel.setText(String.valueOf(rentalStats.getActiveRentals()));
-            availableCarsLabel.setText(String.valueOf(rentalStats.getAvailableCars()));
-            
-            // Format revenue with 2 decimal places
-            totalEarningsLabel.setText(String.format("$%.2f", rentalStats.getTotalRevenue()));
-            totalCustomersLabel.setText(String.valueOf(rentalStats.getTotalCustomers()));
-            
-            // Update new labels if they exist
-            if (completedRentalsLabel != null) {
-                completedRentalsLabel.setText(String.valueOf(rentalStats.getCompletedRentals()));
-            }
-            if (cancelledRentalsLabel != null) {
-                cancelledRentalsLabel.setText(String.valueOf(rentalStats.getCancelledRentals()));
-            }
-            if (lateFeesLabel != null) {
-                lateFeesLabel.setText(String.format("$%.2f", rentalStats.getLateFees()));
-            }
-            if (damageFeesLabel != null) {
-                damageFeesLabel.setText(String.format("$%.2f", rentalStats.getDamageFees()));
-            }
-            if (totalEmployeesLabel != null) {
-                totalEmployeesLabel.setText(String.valueOf(rentalStats.getTotalEmployees()));
-            }
-            
-            System.out.println("Dashboard labels updated successfully");
-            
-        } catch (Exception e) {
-            System.err.println("Error loading dashboard statistics: " + e.getMessage());
-            e.printStackTrace();
+        loadStatistics(null);
+    }
+    
+    /**
+     * Load the statistic tiles in the background
+     * @param onLoaded Run on the FX thread once the tiles are filled in; may be null
+     */
+    private void loadStatistics(Runnable onLoaded) {
+        System.out.println("Loading dashboard statistics...");
+        
+        if (dashboardService == null) {
+            System.err.println("DashboardService is null - using defaults");
             setSafeDefaults();
-            showErrorInPane("Failed to load statistics: " + e.getMessage());
+            return;
         }
+        
+        setLoadingLabels();
+        AsyncLoader.load("dashboard.statistics", null,
+            () -> dashboardService.getRentalStatistics(),
+            rentalStats -> {
+                updateStatisticLabels(rentalStats);
+                if (onLoaded != null) {
+                    onLoaded.run();
+                }
+            },
+            e -> {
+                System.err.println("Error loading dashboard statistics: " + e.getMessage());
+                e.printStackTrace();
+                setSafeDefaults();
+                showErrorInPane("Failed to load statistics: " + e.getMessage());
+            });
+    }
+    
+    private void setLoadingLabels() {
+        for (Label label : new Label[] { rentingCarsLabel, availableCarsLabel, totalEarningsLabel,
+                totalCustomersLabel, completedRentalsLabel, cancelledRentalsLabel, lateFeesLabel,
+                damageFeesLabel, totalEmployeesLabel }) {
+            if (label != null) label.setText("...");
+        }
+    }
+    
+    private void updateStatisticLabels(ReportData rentalStats) {
+        // Update labels with comprehensive statistics
+        rentingCarsLabel.setText(String.valueOf(rentalStats.getActiveRentals()));
+        availableCarsLabel.setText(String.valueOf(rentalStats.getAvailableCars()));
+        
+        // Format revenue with 2 decimal places
+        totalEarningsLabel.setText(String.format("$%.2f", rentalStats.getTotalRevenue()));
+        totalCustomersLabel.setText(String.valueOf(rentalStats.getTotalCustomers()));
+        
+        // Update new labels if they exist
+        if (completedRentalsLabel != null) {
+            completedRentalsLabel.setText(String.valueOf(rentalStats.getCompletedRentals()));
+        }
+        if (cancelledRentalsLabel != null) {
+            cancelledRentalsLabel.setText(String.valueOf(rentalStats.getCancelledRentals()));
+        }
+        if (lateFeesLabel != null) {
+            lateFeesLabel.setText(String.format("$%.2f", rentalStats.getLateFees()));
+        }
+        if (damageFeesLabel != null) {
+            damageFeesLabel.setText(String.format("$%.2f", rentalStats.getDamageFees()));
+        }
+        if (totalEmployeesLabel != null) {
+            totalEmployeesLabel.setText(String.valueOf(rentalStats.getTotalEmployees()));
+        }
+        
+        System.out.println("Dashboard labels updated successfully");
     }
     
     @FXML
@@ -270,13 +302,20 @@ public class DashboardController {
             
             table.getColumns().addAll(idCol, carCol, customerCol, rentalDateCol, returnDateCol, amountCol);
             
-            List<Map<String, Object>> activeRentals = rentService.getActiveRentals();
-            ObservableList<Map<String, Object>> data = FXCollections.observableArrayList(activeRentals);
-            table.setItems(data);
-            
             VBox container = new VBox(10, title, table);
             detailsPane.getChildren().add(container);
             
+            AsyncLoader.load("dashboard.details", table,
+                () -> rentService.getActiveRentals(),
+                activeRentals -> {
+                    ObservableList<Map<String, Object>> data = FXCollections.observableArrayList(activeRentals);
+                    table.setItems(data);
+                },
+                e -> {
+                    e.printStackTrace();
+                    showErrorInPane("Failed to load renting cars: " + e.getMessage());
+                });
+            
         } catch (Exception e) {
             System.err.println("Error showing renting cars: " + e.getMessage());
             e.printStackTrace();
@@ -350,13 +389,20 @@ public class DashboardController {
             
             table.getColumns().addAll(brandCol, modelCol, yearCol, regCol, priceCol);
             
-            List<Car> availableCars = carService.getAvailableCars();
-            ObservableList<Car> data = FXCollections.observableArrayList(availableCars);
-            table.setItems(data);
-            
             VBox container = new VBox(10, title, table);
             detailsPane.getChildren().add(container);
             
+            AsyncLoader.load("dashboard.details", table,
+                () -> carService.getAvailableCars(),
+                availableCars -> {
+                    ObservableList<Car> data = FXCollections.observableArrayList(availableCars);
+                    table.setItems(data);
+                },
+                e -> {
+                    e.printStackTrace();
+                    showErrorInPane("Failed to load available cars: " + e.getMessage());
+                });
+            
         } catch (Exception e) {
             System.err.println("Error showing available cars: " + e.getMessage());
             e.printStackTrace();
@@ -392,43 +438,16 @@ public class DashboardController {
             
             detailsPane.getChildren().clear();
             
-            // Get comprehensive rental statistics
-            ReportData rentalStats = dashboardService.getRentalStatistics();
-            
-            Label title = new Label("Revenue Overview");
-            title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-padding: 10px;");
-            
-            // Main revenue display
-            Label earningsLabel = new Label(String.format("$%.2f", rentalStats.getTotalRevenue()));
-            earningsLabel.setStyle("-fx-font-size: 36px; -fx-font-weight: bold; -fx-text-fill: #2ecc71; -fx-padding: 20px;");
-            
-            // Detailed breakdown
-            VBox breakdownBox = new VBox(10);
-            breakdownBox.setStyle("-fx-background-color: #f5f5f5; -fx-padding: 15px;");
+            Label loadingLabel = new Label("Loading...");
+            detailsPane.getChildren().add(loadingLabel);
             
-            Label breakdownTitle = new Label("Revenue Breakdown:");
-            breakdownTitle.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
-            
-            Label lateFeesDetail = new Label(String.format("• Late Fees: $%.2f", rentalStats.getLateFees()));
-            Label damageFeesDetail = new Label(String.format("• Damage Fees: $%.2f", rentalStats.getDamageFees()));
-            Label baseRevenueDetail = new Label(String.format("• Base Revenue: $%.2f", 
-                rentalStats.getTotalRevenue() - rentalStats.getLateFees() - rentalStats.getDamageFees()));
-            
-            breakdownBox.getChildren().addAll(breakdownTitle, lateFeesDetail, damageFeesDetail, baseRevenueDetail);
-            
-            // Monthly comparison
-            Map<String, Object> comparison = dashboardService.getMonthlyComparison();
-            double revenueChange = (double) comparison.get("revenueChange");
-            String changeIndicator = revenueChange >= 0 ? "▲" : "▼";
-            String changeColor = revenueChange >= 0 ? "#27ae60" : "#e74c3c";
-            
-            Label comparisonLabel = new Label(String.format(
-                "Monthly Change: %s %.1f%%", changeIndicator, Math.abs(revenueChange)));
-            comparisonLabel.setStyle(String.format("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: %s;", changeColor));
-            
-            VBox container = new VBox(20, title, earningsLabel, breakdownBox, comparisonLabel);
-            container.setAlignment(Pos.CENTER);
-            detailsPane.getChildren().add(container);
+            AsyncLoader.load("dashboard.details", null,
+                this::loadOverview,
+                data -> renderTotalEarnings(data.rentalStats, data.comparison),
+                e -> {
+                    e.printStackTrace();
+                    showErrorInPane("Failed to load earnings data: " + e.getMessage());
+                });
             
         } catch (Exception e) {
             System.err.println("Error showing total earnings: " + e.getMessage());
@@ -437,6 +456,44 @@ public class DashboardController {
         }
     }
     
+    private void renderTotalEarnings(ReportData rentalStats, Map<String, Object> comparison) {
+        detailsPane.getChildren().clear();
+        
+        Label title = new Label("Revenue Overview");
+        title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-padding: 10px;");
+        
+        // Main revenue display
+        Label earningsLabel = new Label(String.format("$%.2f", rentalStats.getTotalRevenue()));
+        earningsLabel.setStyle("-fx-font-size: 36px; -fx-font-weight: bold; -fx-text-fill: #2ecc71; -fx-padding: 20px;");
+        
+        // Detailed breakdown
+        VBox breakdownBox = new VBox(10);
+        breakdownBox.setStyle("-fx-background-color: #f5f5f5; -fx-padding: 15px;");
+        
+        Label breakdownTitle = new Label("Revenue Breakdown:");
+        breakdownTitle.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
+        
+        Label lateFeesDetail = new Label(String.format("• Late Fees: $%.2f", rentalStats.getLateFees()));
+        Label damageFeesDetail = new Label(String.format("• Damage Fees: $%.2f", rentalStats.getDamageFees()));
+        Label baseRevenueDetail = new Label(String.format("• Base Revenue: $%.2f", 
+            rentalStats.getTotalRevenue() - rentalStats.getLateFees() - rentalStats.getDamageFees()));
+        
+        breakdownBox.getChildren().addAll(breakdownTitle, lateFeesDetail, damageFeesDetail, baseRevenueDetail);
+        
+        // Monthly comparison
+        double revenueChange = (double) comparison.get("revenueChange");
+        String changeIndicator = revenueChange >= 0 ? "▲" : "▼";
+        String changeColor = revenueChange >= 0 ? "#27ae60" : "#e74c3c";
+        
+        Label comparisonLabel = new Label(String.format(
+            "Monthly Change: %s %.1f%%", changeIndicator, Math.abs(revenueChange)));
+        comparisonLabel.setStyle(String.format("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: %s;", changeColor));
+        
+        VBox container = new VBox(20, title, earningsLabel, breakdownBox, comparisonLabel);
+        container.setAlignment(Pos.CENTER);
+        detailsPane.getChildren().add(container);
+    }
+    
     @FXML
     private void showCustomers() {
         try {
@@ -449,42 +506,16 @@ public class DashboardController {
             
             detailsPane.getChildren().clear();
             
-            // Get comprehensive rental statistics
-            ReportData rentalStats = dashboardService.getRentalStatistics();
-            
-            Label title = new Label("Business Overview");
-            title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-padding: 10px;");
-            
-            // Customer count
-            Label customersLabel = new Label(String.valueOf(rentalStats.getTotalCustomers()));
-            customersLabel.setStyle("-fx-font-size: 36px; -fx-font-weight: bold; -fx-text-fill: #3498db; -fx-padding: 20px;");
-            
-            // Detailed stats
-            VBox statsBox = new VBox(10);
-            statsBox.setStyle("-fx-background-color: #f5f5f5; -fx-padding: 15px;");
-            
-            Label statsTitle = new Label("Detailed Statistics:");
-            statsTitle.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
-            
-            Label completedDetail = new Label(String.format("• Completed Rentals: %d", rentalStats.getCompletedRentals()));
-            Label cancelledDetail = new Label(String.format("• Cancelled Rentals: %d", rentalStats.getCancelledRentals()));
-            Label employeesDetail = new Label(String.format("• Total Employees: %d", rentalStats.getTotalEmployees()));
+            Label loadingLabel = new Label("Loading...");
+            detailsPane.getChildren().add(loadingLabel);
             
-            statsBox.getChildren().addAll(statsTitle, completedDetail, cancelledDetail, employeesDetail);
-            
-            // Monthly comparison for rentals
-            Map<String, Object> comparison = dashboardService.getMonthlyComparison();
-            int rentalChange = (int) comparison.get("rentalChange");
-            String changeIndicator = rentalChange >= 0 ? "▲" : "▼";
-            String changeColor = rentalChange >= 0 ? "#27ae60" : "#e74c3c";
-            
-            Label comparisonLabel = new Label(String.format(
-                "Rental Growth: %s %d%%", changeIndicator, Math.abs(rentalChange)));
-            comparisonLabel.setStyle(String.format("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: %s;", changeColor));
-            
-            VBox container = new VBox(20, title, customersLabel, statsBox, comparisonLabel);
-            container.setAlignment(Pos.CENTER);
-            detailsPane.getChildren().add(container);
+            AsyncLoader.load("dashboard.details", null,
+                this::loadOverview,
+                data -> renderCustomers(data.rentalStats, data.comparison),
+                e -> {
+                    e.printStackTrace();
+                    showErrorInPane("Failed to load customer data: " + e.getMessage());
+                });
             
         } catch (Exception e) {
             System.err.println("Error showing customers: " + e.getMessage());
@@ -493,17 +524,58 @@ public class DashboardController {
         }
     }
     
+    private void renderCustomers(ReportData rentalStats, Map<String, Object> comparison) {
+        detailsPane.getChildren().clear();
+        
+        Label title = new Label("Business Overview");
+        title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-padding: 10px;");
+        
+        // Customer count
+        Label customersLabel = new Label(String.valueOf(rentalStats.getTotalCustomers()));
+        customersLabel.setStyle("-fx-font-size: 36px; -fx-font-weight: bold; -fx-text-fill: #3498db; -fx-padding: 20px;");
+        
+        // Detailed stats
+        VBox statsBox = new VBox(10);
+        statsBox.setStyle("-fx-background-color: #f5f5f5; -fx-padding: 15px;");
+        
+        Label statsTitle = new Label("Detailed Statistics:");
+        statsTitle.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
+        
+        Label completedDetail = new Label(String.format("• Completed Rentals: %d", rentalStats.getCompletedRentals()));
+        Label cancelledDetail = new Label(String.format("• Cancelled Rentals: %d", rentalStats.getCancelledRentals()));
+        Label employeesDetail = new Label(String.format("• Total Employees: %d", rentalStats.getTotalEmployees()));
+        
+        statsBox.getChildren().addAll(statsTitle, completedDetail, cancelledDetail, employeesDetail);
+        
+        // Monthly comparison for rentals
+        int rentalChange = (int) comparison.get("rentalChange");
+        String changeIndicator = rentalChange >= 0 ? "▲" : "▼";
+        String changeColor = rentalChange >= 0 ? "#27ae60" : "#e74c3c";
+        
+        Label comparisonLabel = new Label(String.format(
+            "Rental Growth: %s %d%%", changeIndicator, Math.abs(rentalChange)));
+        comparisonLabel.setStyle(String.format("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: %s;", changeColor));
+        
+        VBox container = new VBox(20, title, customersLabel, statsBox, comparisonLabel);
+        container.setAlignment(Pos.CENTER);
+        detailsPane.getChildren().add(container);
+    }
+    
     @FXML
     private void handleRefresh() {
         System.out.println("Refreshing dashboard...");
-        loadStatistics();
         
         if (detailsPane != null) {
             detailsPane.getChildren().clear();
-            Label refreshMessage = new Label("Dashboard refreshed successfully!");
-            refreshMessage.setStyle("-fx-font-size: 14px; -fx-text-fill: green;");
-            detailsPane.getChildren().add(refreshMessage);
         }
+        loadStatistics(() -> {
+            if (detailsPane != null) {
+                detailsPane.getChildren().clear();
+                Label refreshMessage = new Label("Dashboard refreshed successfully!");
+                refreshMessage.setStyle("-fx-font-size: 14px; -fx-text-fill: green;");
+                detailsPane.getChildren().add(refreshMessage);
+            }
+        });
     }
     
     private void showErrorInPane(String message) {
@@ -514,4 +586,26 @@ public class DashboardController {
             detailsPane.getChildren().add(errorLabel);
         }
     }
+    
+    /**
+     * Statistics and comparison for the overview panes, both from one snapshot query
+     */
+    private OverviewData loadOverview() {
+        DashboardSnapshot snapshot = dashboardService.getDashboardSnapshot();
+        return new OverviewData(dashboardService.getRentalStatistics(snapshot),
+                                dashboardService.getMonthlyComparison(snapshot));
+    }
+    
+    /**
+     * Statistics and month-over-month comparison loaded together for the overview panes
+     */
+    private static final class OverviewData {
+        final ReportData rentalStats;
+        final Map<String, Object> comparison;
+        
+        OverviewData(ReportData rentalStats, Map<String, Object> comparison) {
+            this.rentalStats = rentalStats;
+            this.comparison = comparison;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package controllers;
+
+import application.ConnectionPool;
+import application.DatabaseConnection;
+import application.Histogram;
+import application.QueryMetrics;
+import application.RetryPolicy;
+import controllers.utils.ViewLifecycle;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DiagnosticsController - Query metrics and connection pool figures for administrators
+ *
+ * Shows QueryMetrics as collected since start-up (or the last reset); the figures
+ * are in memory, so refreshing does not touch the database.
+ */
+public class DiagnosticsController implements ViewLifecycle {
+    @FXML private Label queriesLabel;
+    @FXML private Label poolLabel;
+    @FXML private Label slowQueriesLabel;
+
+    @FXML private TableView<QueryMetrics.Stats> statementsTable;
+    @FXML private TableColumn<QueryMetrics.Stats, String> statementColumn;
+    @FXML private TableColumn<QueryMetrics.Stats, Long> executionsColumn;
+    @FXML private TableColumn<QueryMetrics.Stats, String> meanColumn;
+    @FXML private TableColumn<QueryMetrics.Stats, String> p95Column;
+    @FXML private TableColumn<QueryMetrics.Stats, String> maxColumn;
+    @FXML private TableColumn<QueryMetrics.Stats, Long> rowsColumn;
+    @FXML private TableColumn<QueryMetrics.Stats, Long> errorsColumn;
+
+    @FXML private ListView<String> slowQueriesList;
+
+    private final ObservableList<QueryMetrics.Stats> statements = FXCollections.observableArrayList();
+    private final ObservableList<String> slowQueries = FXCollections.observableArrayList();
+
+    @FXML
+    public void initialize() {
+        statementColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
+        executionsColumn.setCellValueFactory(new PropertyValueFactory<>("executionCount"));
+        meanColumn.setCellValueFactory(cellData ->
+            new SimpleStringProperty(String.format("%.2f", cellData.getValue().getLatency().getMeanMillis())));
+        p95Column.setCellValueFactory(cellData ->
+            new SimpleStringProperty("<= " + cellData.getValue().getLatency().getPercentileMillis(95)));
+        maxColumn.setCellValueFactory(cellData ->
+            new SimpleStringProperty(String.format("%.2f", cellData.getValue().getLatency().getMaxMillis())));
+        rowsColumn.setCellValueFactory(new PropertyValueFactory<>("rowCount"));
+        errorsColumn.setCellValueFactory(new PropertyValueFactory<>("errorCount"));
+
+        statementsTable.setItems(statements);
+        slowQueriesList.setItems(slowQueries);
+        refresh();
+    }
+
+    @Override
+    public void onShow() {
+        refresh();
+    }
+
+    @FXML
+    private void handleRefresh() {
+        refresh();
+    }
+
+    @FXML
+    private void handleReset() {
+        QueryMetrics.reset();
+        refresh();
+    }
+
+    private void refresh() {
+        queriesLabel.setText(String.format("Queries: %d executed, %d failed, %d slow (%d ms or more)",
+            QueryMetrics.getExecutionCount(), QueryMetrics.getErrorCount(),
+            QueryMetrics.getSlowQueryCount(), QueryMetrics.getSlowQueryThresholdMillis()));
+
+        ConnectionPool pool = DatabaseConnection.getPool();
+        Histogram wait = pool.getWaitTimeHistogram();
+        poolLabel.setText(String.format(
+            "Connections: %d active, %d idle, %d waiting - wait mean %.2f ms, p99 <= %d ms, %d timeouts",
+            pool.getActiveCount(), pool.getIdleCount(), pool.getWaitingThreads(),
+            wait.getMeanMillis(), wait.getPercentileMillis(99), pool.getTimeoutCount()) +
+            String.format(" - %d update conflicts, %d not resolved by retrying",
+                          RetryPolicy.getConflictCount(), RetryPolicy.getExhaustedCount()));
+
+        statements.setAll(QueryMetrics.getStatementStats());
+
+        List<String> lines = new ArrayList<>();
+        for (QueryMetrics.SlowQuery slowQuery : QueryMetrics.getSlowQueries()) {
+            lines.add(slowQuery.getTime().withNano(0) + "  " + slowQuery);
+        }
+        slowQueries.setAll(lines);
+        slowQueriesLabel.setText("Slow Queries (last " + lines.size() + ")");
+    }
+}
@@ -0,0 +1,202 @@
+package controllers;
+
+import controllers.utils.Alerts;
+import controllers.utils.SessionManager;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
+import services.bulkimport.BulkImporter;
+import services.bulkimport.ImportResult;
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * ImportController - Bulk import of cars or customers from CSV / JSON files
+ *
+ * The import runs on a thread of its own rather than through AsyncLoader: AsyncLoader
+ * drops results when the user navigates away, but an import keeps writing and has to
+ * report its outcome whenever it finishes.
+ */
+public class ImportController {
+    private static final String CARS = "Cars";
+    private static final String CUSTOMERS = "Customers";
+
+    @FXML private ComboBox<String> targetComboBox;
+    @FXML private Button chooseFileButton;
+    @FXML private Label fileLabel;
+    @FXML private TextField chunkSizeField;
+    @FXML private Button importButton;
+    @FXML private Label fieldsLabel;
+    @FXML private ProgressBar progressBar;
+    @FXML private Label progressLabel;
+    @FXML private Label summaryLabel;
+    @FXML private Button saveReportButton;
+
+    @FXML private TableView<ImportResult.RejectedRow> rejectedTable;
+    @FXML private TableColumn<ImportResult.RejectedRow, Integer> lineColumn;
+    @FXML private TableColumn<ImportResult.RejectedRow, String> keyColumn;
+    @FXML private TableColumn<ImportResult.RejectedRow, String> reasonColumn;
+
+    private final ObservableList<ImportResult.RejectedRow> rejectedRows = FXCollections.observableArrayList();
+    private File selectedFile;
+    private ImportResult lastResult;
+    private String lastKeyField;
+
+    @FXML
+    public void initialize() {
+        targetComboBox.getItems().addAll(CARS, CUSTOMERS);
+        targetComboBox.setValue(CARS);
+        targetComboBox.valueProperty().addListener((obs, oldValue, newValue) -> showExpectedFields());
+        showExpectedFields();
+        chunkSizeField.setText(String.valueOf(BulkImporter.getConfiguredChunkSize()));
+
+        lineColumn.setCellValueFactory(new PropertyValueFactory<>("line"));
+        keyColumn.setCellValueFactory(cellData ->
+            new SimpleStringProperty(cellData.getValue().getRecord().get(lastKeyField)));
+        reasonColumn.setCellValueFactory(new PropertyValueFactory<>("reason"));
+        rejectedTable.setItems(rejectedRows);
+        rejectedTable.setPlaceholder(new Label("No rejected rows"));
+    }
+
+    private void showExpectedFields() {
+        if (CARS.equals(targetComboBox.getValue())) {
+            fieldsLabel.setText("Fields: brand, model, year, color, registration_number, price_per_day, " +
+                                "fuel_type, mileage, availability (optional)");
+        } else {
+            fieldsLabel.setText("Fields: first_name, last_name, email, phone, license_number, " +
+                                "date_of_birth (yyyy-MM-dd), address (optional)");
+        }
+    }
+
+    @FXML
+    private void handleChooseFile() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Choose Import File");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV or JSON", "*.csv", "*.json"),
+            new FileChooser.ExtensionFilter("All Files", "*.*"));
+        File file = chooser.showOpenDialog(chooseFileButton.getScene().getWindow());
+        if (file != null) {
+            selectedFile = file;
+            fileLabel.setText(file.getName());
+        }
+    }
+
+    @FXML
+    private void handleImport() {
+        if (!SessionManager.getInstance().isManagerOrAbove()) {
+            Alerts.showError("Access Denied", "Only Admins and Managers can import data.");
+            return;
+        }
+        if (selectedFile == null) {
+            Alerts.showError("Validation Error", "Please choose a CSV or JSON file to import");
+            return;
+        }
+        int chunkSize;
+        try {
+            chunkSize = Integer.parseInt(chunkSizeField.getText().trim());
+        } catch (NumberFormatException e) {
+            chunkSize = 0;
+        }
+        if (chunkSize < 1) {
+            Alerts.showError("Validation Error", "Rows per batch must be a whole number of at least 1");
+            chunkSizeField.requestFocus();
+            return;
+        }
+
+        boolean cars = CARS.equals(targetComboBox.getValue());
+        BulkImporter<?> importer = (cars ? BulkImporter.forCars() : BulkImporter.forCustomers())
+            .withChunkSize(chunkSize);
+        String keyField = cars ? "registration_number" : "license_number";
+        File file = selectedFile;
+
+        setRunning(true);
+        rejectedRows.clear();
+        saveReportButton.setDisable(true);
+        summaryLabel.setText("");
+        progressBar.setProgress(0);
+        progressLabel.setText("Starting...");
+
+        Thread thread = new Thread(() -> {
+            try {
+                ImportResult result = importer.importFile(file.toPath(), this::showProgress);
+                Platform.runLater(() -> showResult(result, keyField));
+            } catch (IOException | SQLException | RuntimeException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    setRunning(false);
+                    progressLabel.setText("");
+                    Alerts.showError("Import Failed", "Nothing was imported: " + e.getMessage());
+                });
+            }
+        }, "bulk-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Called from the import thread (and the validation workers)
+     */
+    private void showProgress(BulkImporter.Stage stage, int done, int total) {
+        Platform.runLater(() -> {
+            progressBar.setProgress(total > 0 ? (double) done / total : 1.0);
+            progressLabel.setText(String.format("%s: %,d of %,d", stage, done, total));
+        });
+    }
+
+    private void showResult(ImportResult result, String keyField) {
+        setRunning(false);
+        lastResult = result;
+        lastKeyField = keyField;
+        progressBar.setProgress(1.0);
+        progressLabel.setText(String.format("Finished in %.1f s (%,.0f rows/s)",
+                                            result.getElapsedSeconds(), result.getRowsPerSecond()));
+        summaryLabel.setText(String.format("%,d rows read: %,d imported, %,d rejected",
+                                           result.getTotalRows(), result.getImportedRows(),
+                                           result.getRejectedRows().size()));
+        rejectedRows.setAll(result.getRejectedRows());
+        saveReportButton.setDisable(result.getRejectedRows().isEmpty());
+    }
+
+    private void setRunning(boolean running) {
+        importButton.setDisable(running);
+        chooseFileButton.setDisable(running);
+        targetComboBox.setDisable(running);
+        chunkSizeField.setDisable(running);
+    }
+
+    @FXML
+    private void handleSaveReport() {
+        if (lastResult == null) {
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Rejected Rows");
+        chooser.setInitialFileName("rejected-rows.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File file = chooser.showSaveDialog(saveReportButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            long rows = lastResult.writeRejectedRows(file.toPath());
+            Alerts.showSuccess("Report Saved", rows + " rejected rows saved to " + file.getAbsolutePath() +
+                               "\n\nCorrect them and import the file again.");
+        } catch (IOException e) {
+            e.printStackTrace();
+            Alerts.showError("Save Failed", "Could not save the report: " + e.getMessage());
+        }
+    }
+}
@@ -14,9 +14,11 @@ import javafx.stage.Stage;
 import javafx.animation.*;
 import javafx.util.Duration;
 import application.DatabaseConnection;
+import application.StartupTimer;
 import models.UserRole;
 import controllers.utils.SessionManager;
 import controllers.utils.Alerts;
+import controllers.utils.AsyncLoader;
 
 public class LoginController {
     @FXML private TextField usernameField;
@@ -38,6 +40,7 @@ public class LoginController {
     private Timeline cursorBlinkTimeline;
     private SequentialTransition typewriterAnimation;
     private boolean isAnimating = false;
+    private boolean isAuthenticating = false;
     
     @FXML
     public void initialize() {
@@ -217,23 +220,27 @@ public class LoginController {
             return;
         }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT id, username, role FROM users WHERE username = ? AND password = ?")) {
-            
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                // Get user details
-                int userId = rs.getInt("id");
-                String roleString = rs.getString("role");
-                UserRole role = UserRole.fromString(roleString);
+        if (isAuthenticating) {
+            return;
+        }
+        isAuthenticating = true;
+        StartupTimer.mark(StartupTimer.LOGIN_SUBMITTED);
+
+        // Off the FX thread: on a fast login the pool may still be starting up
+        AsyncLoader.load("login", null,
+            () -> authenticate(username, password),
+            account -> {
+                isAuthenticating = false;
+                if (account == null) {
+                    errorLabel.setText("Invalid username or password");
+                    errorLabel.setStyle("-fx-text-fill: #ff6b6b;"); // Ensure red color
+                    shakeAnimation();
+                    return;
+                }
+                StartupTimer.mark(StartupTimer.AUTHENTICATED);
                 
                 // Initialize session
-                SessionManager.getInstance().login(username, userId, role, username);
+                SessionManager.getInstance().login(username, account.userId, account.role, username);
                 
                 System.out.println("Login successful: " + SessionManager.getInstance().toString());
                 
@@ -243,23 +250,52 @@ public class LoginController {
                         Parent root = loader.load();
                         Stage stage = (Stage) usernameField.getScene().getWindow();
                         stage.setScene(new Scene(root));
-                        stage.setTitle("Car Rental Management System - " + role.getDisplayName());
+                        stage.setTitle("Car Rental Management System - " + account.role.getDisplayName());
                         stage.setMaximized(true);
+                        StartupTimer.mark(StartupTimer.MAIN_LAYOUT_SHOWN);
                     } catch (Exception e) {
                         Alerts.showError("Error", "Failed to load main application: " + e.getMessage());
                         e.printStackTrace();
                     }
                 });
-            } else {
-                errorLabel.setText("Invalid username or password");
+            },
+            e -> {
+                isAuthenticating = false;
+                e.printStackTrace();
+                errorLabel.setText("Database connection failed. Please try again.");
                 errorLabel.setStyle("-fx-text-fill: #ff6b6b;"); // Ensure red color
                 shakeAnimation();
+            });
+    }
+    
+    /**
+     * Look up the user's account
+     * @return The account, or null if the username and password do not match
+     */
+    private static Account authenticate(String username, String password) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, username, role FROM users WHERE username = ? AND password = ?")) {
+            
+            stmt.setString(1, username);
+            stmt.setString(2, password);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new Account(rs.getInt("id"), UserRole.fromString(rs.getString("role")));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            errorLabel.setText("Database connection failed. Please try again.");
-            errorLabel.setStyle("-fx-text-fill: #ff6b6b;"); // Ensure red color
-            shakeAnimation();
+        }
+    }
+    
+    private static final class Account {
+        final int userId;
+        final UserRole role;
+        
+        Account(int userId, UserRole role) {
+            this.userId = userId;
+            this.role = role;
         }
     }
     
@@ -280,8 +316,8 @@ public class LoginController {
         if (cursorBlinkTimeline != null) cursorBlinkTimeline.stop();
         if (typewriterAnimation != null) typewriterAnimation.stop();
         
-        // Fade out animation
-        FadeTransition fadeOut = new FadeTransition(Duration.millis(600), 
+        // Fade out animation; kept short, the main layout is only built once it ends
+        FadeTransition fadeOut = new FadeTransition(Duration.millis(200), 
             usernameField.getScene().getRoot());
         fadeOut.setFromValue(1);
         fadeOut.setToValue(0);
@@ -1,6 +1,8 @@
 package controllers;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -12,8 +14,20 @@ import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import controllers.utils.SessionManager;
 import controllers.utils.Alerts;
+import controllers.utils.AsyncLoader;
+import controllers.utils.ViewCache;
 
 public class MainLayoutController {
+    private static final String DASHBOARD = "/fxml/Dashboard.fxml";
+    private static final String CARS = "/fxml/cars/CarMain.fxml";
+    private static final String CUSTOMERS = "/fxml/customers/CustomerMain.fxml";
+    private static final String EMPLOYEES = "/fxml/employees/EmployeeMain.fxml";
+    private static final String RENT_CAR = "/fxml/rent/RentCar.fxml";
+    private static final String RETURN_CAR = "/fxml/rent/ReturnCar.fxml";
+    private static final String REPORTS = "/fxml/reports/Reports.fxml";
+    private static final String IMPORT = "/fxml/Import.fxml";
+    private static final String DIAGNOSTICS = "/fxml/Diagnostics.fxml";
+    
     @FXML
     private StackPane contentPane;  // Make sure this matches your FXML
     
@@ -38,6 +52,12 @@ public class MainLayoutController {
     @FXML
     private Button reportsBtn;
     
+    @FXML
+    private Button importBtn;
+    
+    @FXML
+    private Button diagnosticsBtn;
+    
     @FXML
     public void initialize() {
         System.out.println("MainLayoutController initialized - Loading Dashboard...");
@@ -46,6 +66,34 @@ public class MainLayoutController {
         configureMenuByRole();
         
         loadDashboard();  // Automatically load dashboard on startup
+        
+        // Build the other modules while the user looks at the dashboard
+        ViewCache.preload(accessibleModules());
+    }
+    
+    /**
+     * Modules the logged-in user can open, in sidebar order
+     */
+    private List<String> accessibleModules() {
+        SessionManager session = SessionManager.getInstance();
+        List<String> modules = new ArrayList<>();
+        modules.add(CARS);
+        modules.add(CUSTOMERS);
+        if (session.canManageEmployees()) {
+            modules.add(EMPLOYEES);
+        }
+        modules.add(RENT_CAR);
+        modules.add(RETURN_CAR);
+        if (session.canViewReports()) {
+            modules.add(REPORTS);
+        }
+        if (session.isManagerOrAbove()) {
+            modules.add(IMPORT);
+        }
+        if (session.isAdmin()) {
+            modules.add(DIAGNOSTICS);
+        }
+        return modules;
     }
     
     /**
@@ -87,45 +135,73 @@ public class MainLayoutController {
             reportsBtn.setVisible(false);
             reportsBtn.setManaged(false);
         }
+        
+        // Import - Only managers and admins can access
+        if (!session.isManagerOrAbove()) {
+            importBtn.setDisable(true);
+            importBtn.setVisible(false);
+            importBtn.setManaged(false);
+        }
+        
+        // Diagnostics - Only admins can access
+        if (!session.isAdmin()) {
+            diagnosticsBtn.setDisable(true);
+            diagnosticsBtn.setVisible(false);
+            diagnosticsBtn.setManaged(false);
+        }
     }
     @FXML
     private void loadDashboard() {
-        loadContent("/fxml/Dashboard.fxml");
+        loadContent(DASHBOARD);
     }
 
     @FXML
     private void loadCars() {
-        loadContent("/fxml/cars/CarMain.fxml");
+        loadContent(CARS);
     }
 
     @FXML
     private void loadCustomers() {
-        loadContent("/fxml/customers/CustomerMain.fxml");
+        loadContent(CUSTOMERS);
     }
 
     @FXML
     private void loadEmployees() {
-        loadContent("/fxml/employees/EmployeeMain.fxml");
+        loadContent(EMPLOYEES);
     }
 
     @FXML
     private void loadRentCar() {
-        loadContent("/fxml/rent/RentCar.fxml");
+        loadContent(RENT_CAR);
     }
 
     @FXML
     private void loadReturnCar() {
-        loadContent("/fxml/rent/ReturnCar.fxml");
+        loadContent(RETURN_CAR);
     }
     
     @FXML
     private void loadReports() {
-        loadContent("/fxml/reports/Reports.fxml");
+        loadContent(REPORTS);
+    }
+    
+    @FXML
+    private void loadImport() {
+        loadContent(IMPORT);
+    }
+    
+    @FXML
+    private void loadDiagnostics() {
+        loadContent(DIAGNOSTICS);
     }
 
     @FXML
     private void handleLogout() {
         try {
+            AsyncLoader.cancelAll();
+            // Cached views were built for this user's role
+            ViewCache.clear();
+
             // Clear session
             SessionManager.getInstance().logout();
             System.out.println("User logged out successfully");
@@ -145,11 +221,11 @@ public class MainLayoutController {
     }
 
     private void loadContent(String fxmlPath) {
+        // Results for the page being left would arrive after it is gone
+        AsyncLoader.cancelAll();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent content = loader.load();
-            contentPane.getChildren().clear();
-            contentPane.getChildren().add(content);
+            // Modules are kept once loaded; showing one again calls its onShow() to refresh
+            ViewCache.show(contentPane, fxmlPath);
         } catch (IOException e) {
             Alerts.showError("Error", "Failed to load page: " + e.getMessage());
             e.printStackTrace();
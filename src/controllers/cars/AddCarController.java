@@ -1,14 +1,13 @@
 package controllers.cars;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.StackPane;
 import models.Car;
 import services.CarService;
 import controllers.utils.Alerts;
 import controllers.utils.Validator;
+import controllers.utils.ViewCache;
 
 public class AddCarController {
     @FXML private TextField brandField;
@@ -69,13 +68,10 @@ public class AddCarController {
     @FXML
     private void handleBack() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/cars/CarMain.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) brandField.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                // Cached module page; its onShow() refreshes it
+                ViewCache.show(parent, "/fxml/cars/CarMain.fxml");
             }
         } catch (Exception e) {
             e.printStackTrace();
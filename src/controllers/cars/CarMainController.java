@@ -2,57 +2,68 @@ package controllers.cars;
 
 import java.io.IOException;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.layout.StackPane;
+import controllers.utils.ViewCache;
+import controllers.utils.ViewLifecycle;
 
-public class CarMainController {
+public class CarMainController implements ViewLifecycle {
     @FXML 
     private StackPane contentPane;
     
+    // Controller of the page shown in contentPane, and whether that page is cached
+    private Object currentController;
+    private boolean currentCached;
+    
     @FXML
     public void initialize() {
         // Load default view
         handleViewAllCars();
     }
     
+    @Override
+    public void onShow() {
+        if (!currentCached) {
+            // A form left open starts over, as on a fresh load
+            handleViewAllCars();
+        } else if (currentController instanceof ViewLifecycle) {
+            // Refresh the list or search page that was left open
+            ((ViewLifecycle) currentController).onShow();
+        }
+    }
+    
     @FXML
     private void handleAddCar() {
-        loadContent("/fxml/cars/AddCar.fxml");
+        loadContent("/fxml/cars/AddCar.fxml", false);
     }
     
     @FXML
     private void handleDeleteCar() {
-        loadContent("/fxml/cars/RemoveCar.fxml");
+        loadContent("/fxml/cars/RemoveCar.fxml", false);
     }
     
     @FXML
     private void handleEditCar() {
-        loadContent("/fxml/cars/EditCar.fxml");
+        loadContent("/fxml/cars/EditCar.fxml", false);
     }
     
     @FXML
     private void handleSearchCar() {
-        loadContent("/fxml/cars/SearchCar.fxml");
+        loadContent("/fxml/cars/SearchCar.fxml", true);
     }
     
     @FXML
     private void handleViewAllCars() {
-        loadContent("/fxml/cars/DisplayCars.fxml");
+        loadContent("/fxml/cars/DisplayCars.fxml", true);
     }
     
-    private void loadContent(String fxmlPath) {
+    /**
+     * @param cached Keep the page for reuse (lists, search); forms start empty each time
+     */
+    private void loadContent(String fxmlPath, boolean cached) {
         try {
-            // Clear existing content
-            contentPane.getChildren().clear();
-            
-            // Load the new content
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent content = loader.load();
-            
-            // Add the new content
-            contentPane.getChildren().add(content);
-            
+            currentController = cached ? ViewCache.show(contentPane, fxmlPath)
+                                       : ViewCache.showUncached(contentPane, fxmlPath);
+            currentCached = cached;
         } catch (IOException e) {
             e.printStackTrace();
             System.err.println("Error loading " + fxmlPath + ": " + e.getMessage());
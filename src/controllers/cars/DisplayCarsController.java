@@ -1,10 +1,6 @@
 package controllers.cars;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.StackPane;
@@ -13,12 +9,16 @@ import models.RentalRecord;
 import services.CarService;
 import services.RentService;
 import controllers.utils.Alerts;
+import controllers.utils.AsyncLoader;
+import controllers.utils.PagedTableAdapter;
+import controllers.utils.ViewCache;
+import controllers.utils.ViewLifecycle;
 import javafx.beans.property.SimpleStringProperty;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
 
-public class DisplayCarsController {
+public class DisplayCarsController implements ViewLifecycle {
     @FXML private TableView<Car> carsTable;
     @FXML private TableColumn<Car, Integer> idColumn;
     @FXML private TableColumn<Car, String> makeColumn;
@@ -30,16 +30,18 @@ public class DisplayCarsController {
     @FXML private Button editButton;
     @FXML private Button deleteButton;
     
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 5;
+    
     private CarService carService;
     private RentService rentService;
-    private ObservableList<Car> carsList;
+    private PagedTableAdapter<Car> carsPager;
     private Set<Integer> activeRentedCarIds;
     
     @FXML
     public void initialize() {
         carService = new CarService();
         rentService = new RentService();
-        carsList = FXCollections.observableArrayList();
         activeRentedCarIds = new HashSet<>();
         
         // Set up table columns
@@ -76,7 +78,9 @@ public class DisplayCarsController {
             }
         });
         
-        carsTable.setItems(carsList);
+        // Cars are fetched a page at a time as the user scrolls
+        carsPager = new PagedTableAdapter<>(carsTable, "cars.display", PAGE_SIZE, MAX_PAGES,
+            (lastCar, limit) -> carService.getCarsAfter(lastCar != null ? lastCar.getCarId() : 0, limit));
         
         // Enable/disable buttons based on selection
         carsTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
@@ -88,22 +92,23 @@ public class DisplayCarsController {
         loadCars();
     }
     
+    @Override
+    public void onShow() {
+        // Cached view: pick up cars changed since it was last shown
+        loadCars();
+    }
+    
     @FXML
     private void handleRefresh() {
-        loadCars();
-        Alerts.showSuccess("Success", "Cars list refreshed");
+        loadCars(() -> Alerts.showSuccess("Success", "Cars list refreshed"));
     }
     
     @FXML
     private void handleAddCar() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/cars/AddCar.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) carsTable.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                ViewCache.showUncached(parent, "/fxml/cars/AddCar.fxml");
             }
         } catch (Exception e) {
             Alerts.showError("Error", "Failed to load Add Car page: " + e.getMessage());
@@ -120,14 +125,10 @@ public class DisplayCarsController {
         }
         
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/cars/EditCar.fxml"));
-            Parent content = loader.load();
-            
             // Pass selected car to edit controller if needed
             StackPane parent = (StackPane) carsTable.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                ViewCache.showUncached(parent, "/fxml/cars/EditCar.fxml");
             }
         } catch (Exception e) {
             Alerts.showError("Error", "Failed to load Edit Car page: " + e.getMessage());
@@ -156,24 +157,34 @@ public class DisplayCarsController {
     }
     
     private void loadCars() {
-        refreshActiveRentedCarIds();
-        carsList.clear();
-        carsList.addAll(carService.getAllCars());
+        loadCars(null);
     }
     
-    private void refreshActiveRentedCarIds() {
-        if (activeRentedCarIds == null) {
-            activeRentedCarIds = new HashSet<>();
-        }
-        activeRentedCarIds.clear();
+    /**
+     * Reload the first page of cars and the ids of rented cars in the background
+     * @param onLoaded Run on the FX thread once the table is filled in; may be null
+     */
+    private void loadCars(Runnable onLoaded) {
+        AsyncLoader.load("cars.rentedIds", null,
+            this::fetchActiveRentedCarIds,
+            rentedIds -> {
+                activeRentedCarIds = rentedIds;
+                carsTable.refresh();
+            });
+        carsPager.reload(onLoaded);
+    }
+    
+    private Set<Integer> fetchActiveRentedCarIds() {
+        Set<Integer> rentedIds = new HashSet<>();
         try {
             List<RentalRecord> activeRentals = rentService.getActiveRentalRecords();
             for (RentalRecord rental : activeRentals) {
-                activeRentedCarIds.add(rental.getCarId());
+                rentedIds.add(rental.getCarId());
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return rentedIds;
     }
 }
 
@@ -1,14 +1,14 @@
 package controllers.cars;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.StackPane;
 import models.Car;
+import dao.OptimisticLockException;
 import services.CarService;
 import controllers.utils.Alerts;
 import controllers.utils.Validator;
+import controllers.utils.ViewCache;
 
 public class EditCarController {
     @FXML private TextField carIdField;
@@ -97,6 +97,16 @@ public class EditCarController {
             }
         } catch (NumberFormatException e) {
             Alerts.showError("Error", "Please enter valid numbers for year, price, and mileage");
+        } catch (OptimisticLockException e) {
+            // Someone else saved this car after it was loaded; show what they saved
+            Alerts.showWarning("Changed Elsewhere", "This car was changed by someone else after you opened it.\n" +
+                               "The current details are shown; please make your changes again.");
+            currentCar = carService.getCarById(currentCar.getCarId());
+            if (currentCar != null) {
+                loadCarData(currentCar);
+            } else {
+                clearFields();
+            }
         } catch (Exception e) {
             Alerts.showError("Error", "An error occurred: " + e.getMessage());
             e.printStackTrace();
@@ -106,13 +116,10 @@ public class EditCarController {
     @FXML
     private void handleCancel() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/cars/CarMain.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) searchField.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                // Cached module page; its onShow() refreshes it
+                ViewCache.show(parent, "/fxml/cars/CarMain.fxml");
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -10,12 +10,15 @@ import models.RentalRecord;
 import services.CarService;
 import services.RentService;
 import controllers.utils.Alerts;
+import controllers.utils.AsyncLoader;
+import controllers.utils.LiveSearch;
+import controllers.utils.ViewLifecycle;
 import javafx.beans.property.SimpleStringProperty;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.List;
 
-public class SearchCarController {
+public class SearchCarController implements ViewLifecycle {
     @FXML private ComboBox<String> searchTypeCombo;
     @FXML private TextField searchField;
     @FXML private TableView<Car> resultsTable;
@@ -29,6 +32,7 @@ public class SearchCarController {
     private RentService rentService;
     private ObservableList<Car> searchResults;
     private Set<Integer> activeRentedCarIds;
+    private LiveSearch<Car> liveSearch;
     
     @FXML
     public void initialize() {
@@ -62,8 +66,18 @@ public class SearchCarController {
         
         resultsTable.setItems(searchResults);
         
-        // Load all cars initially
-        loadAllCars();
+        // Results follow the search field as the user types; all cars while it is empty
+        liveSearch = new LiveSearch<>("cars.search", searchField, searchTypeCombo,
+            searchResults, Car::getCarId, carService::searchCars);
+        liveSearch.searchNow(null);
+        loadActiveRentals();
+    }
+    
+    @Override
+    public void onShow() {
+        // Cached view: rerun the current search against current data
+        liveSearch.searchNow(null);
+        loadActiveRentals();
     }
     
     @FXML
@@ -71,67 +85,40 @@ public class SearchCarController {
         String searchTerm = searchField.getText().trim();
         
         if (searchTerm.isEmpty()) {
-            loadAllCars();
+            liveSearch.searchNow(null);
             return;
         }
         
-        String searchType = searchTypeCombo.getValue();
-        searchResults.clear();
-        
-        if ("All Fields".equals(searchType)) {
-            // Search in all fields
-            searchResults.addAll(carService.searchCars(searchTerm));
-        } else {
-            // Search in specific field
-            carService.getAllCars().stream()
-                .filter(car -> matchesSearch(car, searchTerm, searchType))
-                .forEach(searchResults::add);
-        }
-        
-        if (searchResults.isEmpty()) {
-            Alerts.showWarning("No Results", "No cars found matching: " + searchTerm);
-        } else {
-            Alerts.showSuccess("Search Complete", "Found " + searchResults.size() + " car(s)");
-        }
-    }
-    
-    private boolean matchesSearch(Car car, String searchTerm, String searchType) {
-        String term = searchTerm.toLowerCase();
-        
-        switch (searchType) {
-            case "Brand":
-                return car.getBrand() != null && car.getBrand().toLowerCase().contains(term);
-            case "Model":
-                return car.getModel() != null && car.getModel().toLowerCase().contains(term);
-            case "Registration Number":
-                return car.getRegistrationNumber() != null && 
-                       car.getRegistrationNumber().toLowerCase().contains(term);
-            case "Color":
-                return car.getColor() != null && car.getColor().toLowerCase().contains(term);
-            default:
-                return false;
-        }
+        liveSearch.searchNow(results -> {
+            if (results.isEmpty()) {
+                Alerts.showWarning("No Results", "No cars found matching: " + searchTerm);
+            } else {
+                Alerts.showSuccess("Search Complete", "Found " + results.size() + " car(s)");
+            }
+        });
     }
     
-    private void loadAllCars() {
-        refreshActiveRentedCarIds();
-        searchResults.clear();
-        searchResults.addAll(carService.getAllCars());
+    private void loadActiveRentals() {
+        // Separate key so typing does not cancel it
+        AsyncLoader.load("cars.search.rented", null,
+            this::fetchActiveRentedCarIds,
+            rentedIds -> {
+                activeRentedCarIds = rentedIds;
+                resultsTable.refresh();
+            });
     }
     
-    private void refreshActiveRentedCarIds() {
-        if (activeRentedCarIds == null) {
-            activeRentedCarIds = new HashSet<>();
-        }
-        activeRentedCarIds.clear();
+    private Set<Integer> fetchActiveRentedCarIds() {
+        Set<Integer> rentedIds = new HashSet<>();
         try {
             List<RentalRecord> activeRentals = rentService.getActiveRentalRecords();
             for (RentalRecord rental : activeRentals) {
-                activeRentedCarIds.add(rental.getCarId());
+                rentedIds.add(rental.getCarId());
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return rentedIds;
     }
 }
 
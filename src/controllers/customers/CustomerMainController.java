@@ -2,52 +2,70 @@ package controllers.customers;
 
 import java.io.IOException;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.layout.StackPane;
+import controllers.utils.ViewCache;
+import controllers.utils.ViewLifecycle;
 
-public class CustomerMainController {
+public class CustomerMainController implements ViewLifecycle {
     
     @FXML
     private StackPane contentPane;
     
+    // Controller of the page shown in contentPane, and whether that page is cached
+    private Object currentController;
+    private boolean currentCached;
+    
     @FXML
     private void initialize() {
         // Initialization code if needed
         // No stats labels to initialize
     }
     
+    @Override
+    public void onShow() {
+        if (!currentCached) {
+            // A form left open is closed, as on a fresh load
+            contentPane.getChildren().clear();
+            currentController = null;
+        } else if (currentController instanceof ViewLifecycle) {
+            // Refresh the list or search page that was left open
+            ((ViewLifecycle) currentController).onShow();
+        }
+    }
+    
     @FXML
     private void loadAddCustomer() {
-        loadFXML("/fxml/customers/AddCustomer.fxml");
+        loadFXML("/fxml/customers/AddCustomer.fxml", false);
     }
     
     @FXML
     private void loadDeleteCustomer() {
-        loadFXML("/fxml/customers/DeleteCustomer.fxml");
+        loadFXML("/fxml/customers/DeleteCustomer.fxml", false);
     }
     
     @FXML
     private void loadEditCustomer() {
-        loadFXML("/fxml/customers/EditCustomer.fxml");
+        loadFXML("/fxml/customers/EditCustomer.fxml", false);
     }
     
     @FXML
     private void loadSearchCustomer() {
-        loadFXML("/fxml/customers/SearchCustomer.fxml");
+        loadFXML("/fxml/customers/SearchCustomer.fxml", true);
     }
     
     @FXML
     private void loadDisplayCustomers() {
-        loadFXML("/fxml/customers/DisplayCustomers.fxml");
+        loadFXML("/fxml/customers/DisplayCustomers.fxml", true);
     }
     
-    private void loadFXML(String fxmlPath) {
+    /**
+     * @param cached Keep the page for reuse (lists, search); forms start empty each time
+     */
+    private void loadFXML(String fxmlPath, boolean cached) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent content = loader.load();
-            contentPane.getChildren().clear();
-            contentPane.getChildren().add(content);
+            currentController = cached ? ViewCache.show(contentPane, fxmlPath)
+                                       : ViewCache.showUncached(contentPane, fxmlPath);
+            currentCached = cached;
         } catch (IOException e) {
             e.printStackTrace();
             System.err.println("Error loading FXML: " + fxmlPath);
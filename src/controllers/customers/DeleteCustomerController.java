@@ -1,8 +1,6 @@
 package controllers.customers;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
@@ -17,6 +15,7 @@ import services.CarService;
 import controllers.utils.SessionManager;
 import controllers.utils.Alerts;
 import controllers.utils.Validator;
+import controllers.utils.ViewCache;
 import java.util.List;
 
 public class DeleteCustomerController {
@@ -141,13 +140,10 @@ public class DeleteCustomerController {
     @FXML
     private void handleCancel() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/customers/CustomerMain.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) customerIdField.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                // Cached module page; its onShow() refreshes it
+                ViewCache.show(parent, "/fxml/customers/CustomerMain.fxml");
             }
         } catch (Exception e) {
             e.printStackTrace();
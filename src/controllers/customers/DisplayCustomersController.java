@@ -1,19 +1,18 @@
 package controllers.customers;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.StackPane;
 import models.Customer;
 import services.CustomerService;
 import controllers.utils.Alerts;
+import controllers.utils.PagedTableAdapter;
 import controllers.utils.DateUtil;
+import controllers.utils.ViewCache;
+import controllers.utils.ViewLifecycle;
 
-public class DisplayCustomersController {
+public class DisplayCustomersController implements ViewLifecycle {
     @FXML private TableView<Customer> customersTable;
     @FXML private TableColumn<Customer, Integer> idColumn;
     @FXML private TableColumn<Customer, String> firstNameColumn;
@@ -24,13 +23,15 @@ public class DisplayCustomersController {
     @FXML private Button editButton;
     @FXML private Button deleteButton;
     
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 5;
+    
     private CustomerService customerService;
-    private ObservableList<Customer> customersList;
+    private PagedTableAdapter<Customer> customersPager;
     
     @FXML
     public void initialize() {
         customerService = new CustomerService();
-        customersList = FXCollections.observableArrayList();
         
         // Set up table columns
         idColumn.setCellValueFactory(new PropertyValueFactory<>("customerId"));
@@ -40,7 +41,10 @@ public class DisplayCustomersController {
         phoneColumn.setCellValueFactory(new PropertyValueFactory<>("phone"));
         licenseColumn.setCellValueFactory(new PropertyValueFactory<>("licenseNumber"));
         
-        customersTable.setItems(customersList);
+        // Customers are fetched a page at a time as the user scrolls
+        customersPager = new PagedTableAdapter<>(customersTable, "customers.display", PAGE_SIZE, MAX_PAGES,
+            (lastCustomer, limit) -> customerService.getCustomersAfter(
+                lastCustomer != null ? lastCustomer.getCustomerId() : 0, limit));
         
         // Enable/disable buttons based on selection
         customersTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
@@ -52,22 +56,23 @@ public class DisplayCustomersController {
         loadCustomers();
     }
     
+    @Override
+    public void onShow() {
+        // Cached view: pick up customers changed since it was last shown
+        loadCustomers();
+    }
+    
     @FXML
     private void handleRefresh() {
-        loadCustomers();
-        Alerts.showSuccess("Success", "Customers list refreshed");
+        loadCustomers(() -> Alerts.showSuccess("Success", "Customers list refreshed"));
     }
     
     @FXML
     private void handleAddCustomer() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/customers/AddCustomer.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) customersTable.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                ViewCache.showUncached(parent, "/fxml/customers/AddCustomer.fxml");
             }
         } catch (Exception e) {
             Alerts.showError("Error", "Failed to load Add Customer page: " + e.getMessage());
@@ -84,13 +89,9 @@ public class DisplayCustomersController {
         }
         
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/customers/EditCustomer.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) customersTable.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                ViewCache.showUncached(parent, "/fxml/customers/EditCustomer.fxml");
             }
         } catch (Exception e) {
             Alerts.showError("Error", "Failed to load Edit Customer page: " + e.getMessage());
@@ -124,7 +125,14 @@ public class DisplayCustomersController {
     }
     
     private void loadCustomers() {
-        customersList.clear();
-        customersList.addAll(customerService.getAllCustomers());
+        loadCustomers(null);
+    }
+    
+    /**
+     * Reload the first page of customers in the background
+     * @param onLoaded Run on the FX thread once the table is filled in; may be null
+     */
+    private void loadCustomers(Runnable onLoaded) {
+        customersPager.reload(onLoaded);
     }
 }
\ No newline at end of file
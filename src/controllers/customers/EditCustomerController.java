@@ -1,15 +1,15 @@
 package controllers.customers;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.StackPane;
 import models.Customer;
+import dao.OptimisticLockException;
 import services.CustomerService;
 import dao.CustomerDAO;
 import controllers.utils.Alerts;
 import controllers.utils.Validator;
+import controllers.utils.ViewCache;
 
 public class EditCustomerController {
     @FXML private TextField searchField;
@@ -87,6 +87,16 @@ public class EditCustomerController {
             } else {
                 Alerts.showError("Error", "Failed to update customer");
             }
+        } catch (OptimisticLockException e) {
+            // Someone else saved this customer after they were loaded; show what they saved
+            Alerts.showWarning("Changed Elsewhere", "This customer was changed by someone else after you opened them.\n" +
+                               "The current details are shown; please make your changes again.");
+            currentCustomer = customerService.getCustomerById(currentCustomer.getCustomerId());
+            if (currentCustomer != null) {
+                loadCustomerData(currentCustomer);
+            } else {
+                clearFields();
+            }
         } catch (Exception e) {
             Alerts.showError("Error", "An error occurred: " + e.getMessage());
             e.printStackTrace();
@@ -96,13 +106,10 @@ public class EditCustomerController {
     @FXML
     private void handleCancel() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/customers/CustomerMain.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) searchField.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                // Cached module page; its onShow() refreshes it
+                ViewCache.show(parent, "/fxml/customers/CustomerMain.fxml");
             }
         } catch (Exception e) {
             e.printStackTrace();
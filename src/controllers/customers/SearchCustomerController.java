@@ -8,8 +8,10 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import models.Customer;
 import services.CustomerService;
 import controllers.utils.Alerts;
+import controllers.utils.LiveSearch;
+import controllers.utils.ViewLifecycle;
 
-public class SearchCustomerController {
+public class SearchCustomerController implements ViewLifecycle {
     @FXML private ComboBox<String> searchTypeCombo;
     @FXML private TextField searchField;
     @FXML private TableView<Customer> resultsTable;
@@ -21,6 +23,7 @@ public class SearchCustomerController {
     
     private CustomerService customerService;
     private ObservableList<Customer> searchResults;
+    private LiveSearch<Customer> liveSearch;
     
     @FXML
     public void initialize() {
@@ -43,8 +46,16 @@ public class SearchCustomerController {
         
         resultsTable.setItems(searchResults);
         
-        // Load all customers initially
-        loadAllCustomers();
+        // Results follow the search field as the user types; all customers while it is empty
+        liveSearch = new LiveSearch<>("customers.search", searchField, searchTypeCombo,
+            searchResults, Customer::getCustomerId, customerService::searchCustomers);
+        liveSearch.searchNow(null);
+    }
+    
+    @Override
+    public void onShow() {
+        // Cached view: rerun the current search against current data
+        liveSearch.searchNow(null);
     }
     
     @FXML
@@ -52,55 +63,23 @@ public class SearchCustomerController {
         String searchTerm = searchField.getText().trim();
         
         if (searchTerm.isEmpty()) {
-            loadAllCustomers();
+            liveSearch.searchNow(null);
             return;
         }
         
-        String searchType = searchTypeCombo.getValue();
-        searchResults.clear();
-        
-        if ("All Fields".equals(searchType)) {
-            searchResults.addAll(customerService.searchCustomers(searchTerm));
-        } else {
-            customerService.getAllCustomers().stream()
-                .filter(customer -> matchesSearch(customer, searchTerm, searchType))
-                .forEach(searchResults::add);
-        }
-        
-        if (searchResults.isEmpty()) {
-            Alerts.showWarning("No Results", "No customers found matching: " + searchTerm);
-        } else {
-            Alerts.showSuccess("Search Complete", "Found " + searchResults.size() + " customer(s)");
-        }
-    }
-    
-    private boolean matchesSearch(Customer customer, String searchTerm, String searchType) {
-        String term = searchTerm.toLowerCase();
-        
-        switch (searchType) {
-            case "Name":
-                return customer.getFullName().toLowerCase().contains(term);
-            case "Email":
-                return customer.getEmail() != null && customer.getEmail().toLowerCase().contains(term);
-            case "Phone":
-                return customer.getPhone() != null && customer.getPhone().contains(term);
-            case "License Number":
-                return customer.getLicenseNumber() != null && 
-                       customer.getLicenseNumber().toLowerCase().contains(term);
-            default:
-                return false;
-        }
-    }
-    
-    private void loadAllCustomers() {
-        searchResults.clear();
-        searchResults.addAll(customerService.getAllCustomers());
+        liveSearch.searchNow(results -> {
+            if (results.isEmpty()) {
+                Alerts.showWarning("No Results", "No customers found matching: " + searchTerm);
+            } else {
+                Alerts.showSuccess("Search Complete", "Found " + results.size() + " customer(s)");
+            }
+        });
     }
     
     @FXML
     private void handleClear() {
         searchField.clear();
         searchTypeCombo.setValue("All Fields");
-        loadAllCustomers();
+        liveSearch.searchNow(null);
     }
 }
\ No newline at end of file
@@ -6,9 +6,10 @@ import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import models.Employee;
 import services.EmployeeService;
-import java.util.List;
+import controllers.utils.AsyncLoader;
+import controllers.utils.ViewLifecycle;
 
-public class DisplayEmployeesController {
+public class DisplayEmployeesController implements ViewLifecycle {
     @FXML private TableView<Employee> employeesTable;
     @FXML private TableColumn<Employee, Integer> idColumn;
     @FXML private TableColumn<Employee, String> nameColumn;
@@ -27,6 +28,12 @@ public class DisplayEmployeesController {
         loadEmployees();
     }
     
+    @Override
+    public void onShow() {
+        // Cached view: pick up employees changed since it was last shown
+        loadEmployees();
+    }
+    
     private void setupTableColumns() {
         idColumn.setCellValueFactory(new PropertyValueFactory<>("employeeId"));
         nameColumn.setCellValueFactory(cellData -> 
@@ -43,8 +50,9 @@ public class DisplayEmployeesController {
     }
     
     private void loadEmployees() {
-        List<Employee> employees = employeeService.getAllEmployees();
-        employeesTable.getItems().setAll(employees);
+        AsyncLoader.load("employees.display", employeesTable,
+            () -> employeeService.getAllEmployees(),
+            employees -> employeesTable.getItems().setAll(employees));
     }
     
     @FXML
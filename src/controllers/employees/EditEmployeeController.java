@@ -1,14 +1,14 @@
 package controllers.employees;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.StackPane;
 import models.Employee;
+import dao.OptimisticLockException;
 import services.EmployeeService;
 import controllers.utils.Alerts;
 import controllers.utils.Validator;
+import controllers.utils.ViewCache;
 
 public class EditEmployeeController {
     @FXML private TextField searchField;
@@ -90,6 +90,16 @@ public class EditEmployeeController {
             }
         } catch (NumberFormatException e) {
             Alerts.showError("Error", "Please enter a valid salary amount");
+        } catch (OptimisticLockException e) {
+            // Someone else saved this employee after they were loaded; show what they saved
+            Alerts.showWarning("Changed Elsewhere", "This employee was changed by someone else after you opened them.\n" +
+                               "The current details are shown; please make your changes again.");
+            currentEmployee = employeeService.getEmployeeById(currentEmployee.getEmployeeId());
+            if (currentEmployee != null) {
+                loadEmployeeData(currentEmployee);
+            } else {
+                clearFields();
+            }
         } catch (Exception e) {
             Alerts.showError("Error", "An error occurred: " + e.getMessage());
             e.printStackTrace();
@@ -99,13 +109,10 @@ public class EditEmployeeController {
     @FXML
     private void handleCancel() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/employees/EmployeeMain.fxml"));
-            Parent content = loader.load();
-            
             StackPane parent = (StackPane) searchField.getScene().lookup("#contentPane");
             if (parent != null) {
-                parent.getChildren().clear();
-                parent.getChildren().add(content);
+                // Cached module page; its onShow() refreshes it
+                ViewCache.show(parent, "/fxml/employees/EmployeeMain.fxml");
             }
         } catch (Exception e) {
             e.printStackTrace();
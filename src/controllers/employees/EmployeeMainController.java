@@ -2,60 +2,72 @@ package controllers.employees;
 
 import java.io.IOException;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.layout.StackPane;
 import javafx.scene.control.Alert;
+import controllers.utils.ViewCache;
+import controllers.utils.ViewLifecycle;
 
-public class EmployeeMainController {
+public class EmployeeMainController implements ViewLifecycle {
     @FXML private StackPane contentPane;
     
+    // Controller of the page shown in contentPane, and whether that page is cached
+    private Object currentController;
+    private boolean currentCached;
+    
     @FXML
     public void initialize() {
         // Load default content
-        loadContent("/fxml/employees/DisplayEmployees.fxml");
+        loadContent("/fxml/employees/DisplayEmployees.fxml", true);
+    }
+    
+    @Override
+    public void onShow() {
+        if (!currentCached) {
+            // A form left open starts over, as on a fresh load
+            loadDisplayEmployees();
+        } else if (currentController instanceof ViewLifecycle) {
+            // Refresh the list or search page that was left open
+            ((ViewLifecycle) currentController).onShow();
+        }
     }
     
     @FXML
     private void loadAddEmployee() {
-        loadContent("/fxml/employees/AddEmployee.fxml");
+        loadContent("/fxml/employees/AddEmployee.fxml", false);
     }
     
     @FXML
     private void loadDeleteEmployee() {
-        loadContent("/fxml/employees/DeleteEmployee.fxml");
+        loadContent("/fxml/employees/DeleteEmployee.fxml", false);
     }
     
     @FXML
     private void loadEditEmployee() {
-        loadContent("/fxml/employees/EditEmployee.fxml");
+        loadContent("/fxml/employees/EditEmployee.fxml", false);
     }
     
     @FXML
     private void loadSearchEmployee() {
-        loadContent("/fxml/employees/SearchEmployee.fxml");
+        loadContent("/fxml/employees/SearchEmployee.fxml", true);
     }
     
     @FXML
     private void loadDisplayEmployees() {
-        loadContent("/fxml/employees/DisplayEmployees.fxml");
+        loadContent("/fxml/employees/DisplayEmployees.fxml", true);
     }
     
-    private void loadContent(String fxmlPath) {
+    /**
+     * @param cached Keep the page for reuse (lists, search); forms start empty each time
+     */
+    private void loadContent(String fxmlPath, boolean cached) {
+        if (contentPane == null) {
+            return;
+        }
         try {
             System.out.println("Loading FXML from: " + fxmlPath);
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent content = loader.load();
-            
-            // If the controller is DisplayEmployeesController, set up the parent reference
-            if (loader.getController() instanceof DisplayEmployeesController) {
-                DisplayEmployeesController controller = loader.getController();
-                // You can pass a reference to this controller if needed
-            }
-            
-            if (contentPane != null) {
-                contentPane.getChildren().setAll(content);
-            }
+            currentController = cached ? ViewCache.show(contentPane, fxmlPath)
+                                       : ViewCache.showUncached(contentPane, fxmlPath);
+            currentCached = cached;
         } catch (IOException e) {
             System.err.println("Error loading FXML: " + fxmlPath);
             e.printStackTrace();
@@ -8,8 +8,10 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import models.Employee;
 import services.EmployeeService;
 import controllers.utils.Alerts;
+import controllers.utils.LiveSearch;
+import controllers.utils.ViewLifecycle;
 
-public class SearchEmployeeController {
+public class SearchEmployeeController implements ViewLifecycle {
     @FXML private ComboBox<String> searchTypeCombo;
     @FXML private TextField searchField;
     @FXML private TableView<Employee> resultsTable;
@@ -21,6 +23,7 @@ public class SearchEmployeeController {
     
     private EmployeeService employeeService;
     private ObservableList<Employee> searchResults;
+    private LiveSearch<Employee> liveSearch;
     
     @FXML
     public void initialize() {
@@ -43,8 +46,16 @@ public class SearchEmployeeController {
         
         resultsTable.setItems(searchResults);
         
-        // Load all employees initially
-        loadAllEmployees();
+        // Results follow the search field as the user types; all employees while it is empty
+        liveSearch = new LiveSearch<>("employees.search", searchField, searchTypeCombo,
+            searchResults, Employee::getEmployeeId, employeeService::searchEmployees);
+        liveSearch.searchNow(null);
+    }
+    
+    @Override
+    public void onShow() {
+        // Cached view: rerun the current search against current data
+        liveSearch.searchNow(null);
     }
     
     @FXML
@@ -52,47 +63,16 @@ public class SearchEmployeeController {
         String searchTerm = searchField.getText().trim();
         
         if (searchTerm.isEmpty()) {
-            loadAllEmployees();
+            liveSearch.searchNow(null);
             return;
         }
         
-        String searchType = searchTypeCombo.getValue();
-        searchResults.clear();
-        
-        if ("All Fields".equals(searchType)) {
-            // Search in all fields
-            searchResults.addAll(employeeService.searchEmployees(searchTerm));
-        } else {
-            // Search in specific field
-            employeeService.getAllEmployees().stream()
-                .filter(employee -> matchesSearch(employee, searchTerm, searchType))
-                .forEach(searchResults::add);
-        }
-        
-        if (searchResults.isEmpty()) {
-            Alerts.showWarning("No Results", "No employees found matching: " + searchTerm);
-        } else {
-            Alerts.showSuccess("Search Complete", "Found " + searchResults.size() + " employee(s)");
-        }
-    }
-    
-    private boolean matchesSearch(Employee employee, String searchTerm, String searchType) {
-        String term = searchTerm.toLowerCase();
-        
-        switch (searchType) {
-            case "Name":
-                return employee.getFullName().toLowerCase().contains(term);
-            case "Email":
-                return employee.getEmail() != null && employee.getEmail().toLowerCase().contains(term);
-            case "Position":
-                return employee.getPosition() != null && employee.getPosition().toLowerCase().contains(term);
-            default:
-                return false;
-        }
-    }
-    
-    private void loadAllEmployees() {
-        searchResults.clear();
-        searchResults.addAll(employeeService.getAllEmployees());
+        liveSearch.searchNow(results -> {
+            if (results.isEmpty()) {
+                Alerts.showWarning("No Results", "No employees found matching: " + searchTerm);
+            } else {
+                Alerts.showSuccess("Search Complete", "Found " + results.size() + " employee(s)");
+            }
+        });
     }
 }
@@ -7,19 +7,25 @@ import javafx.scene.image.ImageView;
 import models.Car;
 import models.Customer;
 import models.RentalRecord;
+import models.ReservationOutcome;
 import services.CarService;
 import services.CustomerService;
 import services.RentService;
+import services.availability.AvailabilityService;
+import services.availability.Booking;
 import controllers.utils.Alerts;
+import controllers.utils.AsyncLoader;
 import controllers.utils.DateUtil;
 import controllers.utils.Validator;
+import controllers.utils.ViewLifecycle;
 import java.time.LocalDate;
+import java.util.List;
 import javafx.animation.*;
 import javafx.util.Duration;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 
-public class RentCarController {
+public class RentCarController implements ViewLifecycle {
     @FXML private TextField customerIdField;
     @FXML private Label customerNameLabel;
     @FXML private TextField carIdField;
@@ -34,6 +40,7 @@ public class RentCarController {
     private CarService carService;
     private CustomerService customerService;
     private RentService rentService;
+    private AvailabilityService availabilityService;
     private Car selectedCar;
     private Customer selectedCustomer;
     private int currentEmployeeId = 1; // Default employee ID
@@ -46,6 +53,13 @@ public class RentCarController {
         carService = new CarService();
         customerService = new CustomerService();
         rentService = new RentService();
+        availabilityService = AvailabilityService.getInstance();
+        
+        // Build the availability index in the background so booking checks are instant
+        AsyncLoader.load(() -> {
+            availabilityService.ensureLoaded();
+            return null;
+        }, ignored -> { });
         
         rentalDateField.setValue(LocalDate.now());
         returnDateField.setValue(LocalDate.now().plusDays(1));
@@ -59,6 +73,12 @@ public class RentCarController {
         updateAvailableCarsCount();
     }
     
+    @Override
+    public void onShow() {
+        // Cached view: cars may have been rented or returned meanwhile
+        updateAvailableCarsCount();
+    }
+    
     private void setupCarAnimation() {
         try {
             // Try to load animated GIF (replace with your actual GIF path)
@@ -144,8 +164,10 @@ public class RentCarController {
             if (selectedCar != null) {
                 if (!"Available".equals(selectedCar.getAvailability())) {
                     Alerts.showWarning("Warning", "This car is not available. Status: " + selectedCar.getAvailability());
-                    carDetailsLabel.setText(selectedCar.getBrand() + " " + selectedCar.getModel() + 
-                                          " - NOT AVAILABLE (" + selectedCar.getAvailability() + ")");
+                    String details = selectedCar.getBrand() + " " + selectedCar.getModel() + 
+                                     " - NOT AVAILABLE (" + selectedCar.getAvailability() + ")";
+                    carDetailsLabel.setText(details);
+                    showNextFreeDate(selectedCar.getCarId(), details);
                     selectedCar = null;
                     animateWarning();
                 } else {
@@ -166,6 +188,22 @@ public class RentCarController {
         }
     }
     
+    /**
+     * Append " - free from <date>" to the car details once the index has answered; the
+     * first lookup may have to load the index, so it runs in the background
+     */
+    private void showNextFreeDate(int carId, String details) {
+        LocalDate from = rentalDateField.getValue() != null ? rentalDateField.getValue() : LocalDate.now();
+        AsyncLoader.load("rent.nextFreeDate", null,
+            () -> availabilityService.nextFreeDate(carId, from, 1),
+            nextFree -> {
+                // Skip if another car was looked up meanwhile
+                if (nextFree.isAfter(from) && details.equals(carDetailsLabel.getText())) {
+                    carDetailsLabel.setText(details + " - free from " + DateUtil.formatDate(nextFree));
+                }
+            });
+    }
+    
     @FXML
     private void calculateTotal() {
         if (selectedCar == null || rentalDateField.getValue() == null || returnDateField.getValue() == null) {
@@ -256,23 +294,78 @@ public class RentCarController {
             days = 1;
         }
         
-        double totalAmount = selectedCar.getPricePerDay() * days;
+        // Check the requested dates against existing bookings, off the FX thread: the
+        // first check may have to load the availability index
+        Car car = selectedCar;
+        Customer customer = selectedCustomer;
+        int rentalDays = (int) days;
+        AsyncLoader.load("rent.conflicts", null,
+            () -> describeConflict(car.getCarId(), rentalDate, returnDate, rentalDays),
+            conflict -> {
+                if (conflict != null) {
+                    Alerts.showError("Error", conflict);
+                    animateWarning();
+                } else if (car == selectedCar && customer == selectedCustomer) {
+                    confirmRental(car, customer, rentalDate, returnDate, rentalDays);
+                }
+            },
+            e -> Alerts.showError("Error", "Could not check the car's bookings: " + e.getMessage()));
+    }
+    
+    /**
+     * Why the car cannot be booked for the dates, or null if it can; runs in the background
+     */
+    private String describeConflict(int carId, LocalDate rentalDate, LocalDate returnDate, int days) {
+        List<Booking> conflicts = availabilityService.findConflicts(carId, rentalDate, returnDate);
+        if (conflicts.isEmpty()) {
+            return null;
+        }
+        Booking conflict = conflicts.get(0);
+        LocalDate nextFree = availabilityService.nextFreeDate(carId, rentalDate, days);
+        return "This car is already booked from " + DateUtil.formatDate(conflict.getStart()) +
+               " to " + DateUtil.formatDate(conflict.getEndExclusive()) + ".\n" +
+               "It is next free for " + days + " day(s) from " + DateUtil.formatDate(nextFree) + ".";
+    }
+    
+    private void confirmRental(Car car, Customer customer, LocalDate rentalDate, LocalDate returnDate, long days) {
+        double totalAmount = car.getPricePerDay() * days;
         
         if (Alerts.showConfirmation("Confirm Rental", 
-                "Rent " + selectedCar.getBrand() + " " + selectedCar.getModel() + 
-                " to " + selectedCustomer.getFullName() + 
+                "Rent " + car.getBrand() + " " + car.getModel() + 
+                " to " + customer.getFullName() + 
                 " for " + days + " day(s)?\nTotal: $" + String.format("%.2f", totalAmount))) {
             
-            if (rentService.rentCar(selectedCar.getCarId(), selectedCustomer.getCustomerId(), 
-                                  currentEmployeeId, rentalDate, returnDate, totalAmount)) {
-                Alerts.showSuccess("Success", "Car rented successfully!");
-                
-                // Celebrate animation
-                celebrateAnimation();
-                clearFields();
-                updateAvailableCarsCount();
-            } else {
-                Alerts.showError("Error", "Failed to process rental. Car may no longer be available.");
+            // car may be minutes old; tryReserve checks availability at commit time
+            ReservationOutcome outcome = rentService.tryReserve(car.getCarId(), customer.getCustomerId(),
+                                                                currentEmployeeId, rentalDate, returnDate, totalAmount);
+            switch (outcome) {
+                case RESERVED:
+                    Alerts.showSuccess("Success", "Car rented successfully!");
+                    
+                    // Celebrate animation
+                    celebrateAnimation();
+                    clearFields();
+                    updateAvailableCarsCount();
+                    break;
+                case ALREADY_RENTED:
+                    // Another counter rented it between the search and the confirmation
+                    Alerts.showError("Car No Longer Available", "This car has just been rented at another counter.");
+                    clearFields();
+                    updateAvailableCarsCount();
+                    animateError();
+                    break;
+                case UNDER_MAINTENANCE:
+                    Alerts.showError("Car No Longer Available", "This car has just been taken out of service for maintenance.");
+                    clearFields();
+                    updateAvailableCarsCount();
+                    animateError();
+                    break;
+                case NOT_FOUND:
+                    Alerts.showError("Error", "This car no longer exists.");
+                    clearFields();
+                    break;
+                default:
+                    Alerts.showError("Error", "Failed to process rental. Please try again.");
             }
         }
     }
@@ -6,15 +6,18 @@ import javafx.scene.layout.VBox;
 import models.Car;
 import models.Customer;
 import models.RentalRecord;
+import dao.OptimisticLockException;
 import services.CarService;
 import services.CustomerService;
 import services.RentService;
+import services.RentalConflictException;
 import controllers.utils.Alerts;
 import controllers.utils.DateUtil;
 import controllers.utils.Validator;
+import controllers.utils.ViewLifecycle;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-public class ReturnCarController {
+public class ReturnCarController implements ViewLifecycle {
     @FXML private TextField rentalIdField;
     @FXML private Label customerNameLabel;
     @FXML private Label carDetailsLabel;
@@ -73,6 +76,13 @@ public class ReturnCarController {
         });
     }
     
+    @Override
+    public void onShow() {
+        // Cached view: drop a rental looked up earlier, which may have been returned
+        // meanwhile, and default the return date to today rather than the day it was opened
+        clearFields();
+    }
+    
     @FXML
     private void toggleDamageReport() {
         if (damageCheckbox.isSelected()) {
@@ -179,12 +189,8 @@ public class ReturnCarController {
         LocalDate actualReturn = actualReturnDateField.getValue();
         LocalDate scheduledReturn = currentRental.getReturnDate();
         
-        // Calculate late fee
-        double lateFee = 0.0;
-        if (actualReturn.isAfter(scheduledReturn)) {
-            long lateDays = ChronoUnit.DAYS.between(scheduledReturn, actualReturn);
-            lateFee = lateDays * rentalCar.getPricePerDay() * 0.5; // 50% of daily rate per late day
-        }
+        // Calculate late fee (50% of daily rate per late day)
+        double lateFee = RentService.calculateLateFee(scheduledReturn, actualReturn, rentalCar.getPricePerDay());
         lateFeeLabel.setText("$" + String.format("%.2f", lateFee));
         
         // Get damage fee
@@ -221,14 +227,9 @@ public class ReturnCarController {
         }
         
         // Calculate fees
-        double lateFee = 0.0;
         LocalDate actualReturn = actualReturnDateField.getValue();
         LocalDate scheduledReturn = currentRental.getReturnDate();
-        
-        if (actualReturn.isAfter(scheduledReturn)) {
-            long lateDays = ChronoUnit.DAYS.between(scheduledReturn, actualReturn);
-            lateFee = lateDays * rentalCar.getPricePerDay() * 0.5;
-        }
+        double lateFee = RentService.calculateLateFee(scheduledReturn, actualReturn, rentalCar.getPricePerDay());
         
         double damageFee = 0.0;
         String damageDescription = "";
@@ -272,12 +273,20 @@ public class ReturnCarController {
                 "Damage Fee: $" + String.format("%.2f", damageFee) + "\n" +
                 "Total: $" + String.format("%.2f", currentRental.getTotalAmount() + lateFee + damageFee))) {
             
-            if (rentService.returnCar(currentRental.getRentalId(), currentEmployeeId, 
-                                     lateFee, damageFee, notes)) {
-                Alerts.showSuccess("Success", "Car returned successfully!");
+            try {
+                if (rentService.returnCar(currentRental.getRentalId(), currentEmployeeId, 
+                                         lateFee, damageFee, notes)) {
+                    Alerts.showSuccess("Success", "Car returned successfully!");
+                    clearFields();
+                } else {
+                    Alerts.showError("Error", "Failed to process return");
+                }
+            } catch (RentalConflictException e) {
+                // Returned at another counter since it was looked up
+                Alerts.showError("Already Returned", e.getMessage());
                 clearFields();
-            } else {
-                Alerts.showError("Error", "Failed to process return");
+            } catch (OptimisticLockException e) {
+                Alerts.showError("Error", "This rental is being changed at another counter. Please try again.");
             }
         }
     }
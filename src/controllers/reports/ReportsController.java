@@ -1,6 +1,7 @@
 package controllers.reports;
 
 import controllers.utils.Alerts;
+import controllers.utils.AsyncLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -15,7 +16,6 @@ import controllers.utils.SessionManager;
 import java.awt.Desktop;
 import java.io.File;
 import java.io.FileWriter;
-import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
 import java.util.ResourceBundle;
@@ -141,22 +141,33 @@ public class ReportsController implements Initializable {
             
             int month = monthComboBox.getSelectionModel().getSelectedIndex() + 1;
             
-            // Generate reports
-            ReportData monthlyReport = reportsService.generateMonthlyReport(month, selectedYear);
-            var carReports = reportsService.getCarUtilizationReport(month, selectedYear);
-            var customerReports = reportsService.getCustomerActivityReport(month, selectedYear);
-            
-            // Update UI with monthly report data
-            updateMonthlyReportDisplay(monthlyReport);
-            
-            // Update tables
-            carReportData.clear();
-            carReportData.addAll(carReports);
-            
-            customerReportData.clear();
-            customerReportData.addAll(customerReports);
-            
-            Alerts.showSuccess("Success", "Report generated successfully!");
+            // Generate reports in the background; the button stays disabled until they arrive
+            generateReportButton.setDisable(true);
+            AsyncLoader.load("reports.generate", carReportTable,
+                () -> reportsService.getAllReports(month, selectedYear),
+                reports -> {
+                    generateReportButton.setDisable(false);
+                    
+                    // Update UI with monthly report data
+                    updateMonthlyReportDisplay(reports.getMonthlyReport());
+                    
+                    // Update tables
+                    carReportData.setAll(reports.getCarReports());
+                    customerReportData.setAll(reports.getCustomerReports());
+                    
+                    if (reports.isComplete()) {
+                        Alerts.showSuccess("Success", "Report generated successfully!");
+                    } else {
+                        Alerts.showWarning("Partial Report",
+                            "Some sections could not be loaded and are shown empty:\n\n" +
+                            String.join("\n", reports.getFailedSections().keySet()));
+                    }
+                },
+                e -> {
+                    generateReportButton.setDisable(false);
+                    e.printStackTrace();
+                    Alerts.showError("Error", "Failed to generate report: " + e.getMessage());
+                });
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -214,26 +225,29 @@ public class ReportsController implements Initializable {
             dialog.setContentText("Choose report type:");
             
             dialog.showAndWait().ifPresent(reportType -> {
-                try {
-                    String filePath = reportsService.exportToCSV(reportType, month, selectedYear);
-                    Alerts.showSuccess("Export Successful", 
-                        "Report exported successfully!\nFile saved to: " + filePath +
-                        "\n\nClick OK to open the file location.");
-                    
-                    // Ask user if they want to open the file location
-                    if (Alerts.showConfirmation("Open File Location", 
-                            "Would you like to open the folder containing the exported CSV file?")) {
-                        try {
-                            File file = new File(filePath);
-                            Desktop.getDesktop().open(file.getParentFile());
-                        } catch (Exception e) {
-                            System.err.println("Could not open file location: " + e.getMessage());
+                // The export streams from the database to disk; keep it off the FX thread
+                AsyncLoader.load("reports.export", null,
+                    () -> reportsService.exportToCSV(reportType, month, selectedYear),
+                    filePath -> {
+                        Alerts.showSuccess("Export Successful", 
+                            "Report exported successfully!\nFile saved to: " + filePath +
+                            "\n\nClick OK to open the file location.");
+                        
+                        // Ask user if they want to open the file location
+                        if (Alerts.showConfirmation("Open File Location", 
+                                "Would you like to open the folder containing the exported CSV file?")) {
+                            try {
+                                File file = new File(filePath);
+                                Desktop.getDesktop().open(file.getParentFile());
+                            } catch (Exception e) {
+                                System.err.println("Could not open file location: " + e.getMessage());
+                            }
                         }
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    Alerts.showError("Export Failed", "Failed to export report: " + e.getMessage());
-                }
+                    },
+                    e -> {
+                        e.printStackTrace();
+                        Alerts.showError("Export Failed", "Failed to export report: " + e.getMessage());
+                    });
             });
             
         } catch (Exception e) {
@@ -0,0 +1,285 @@
+package controllers.utils;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * AsyncLoader - Runs service calls off the JavaFX Application Thread
+ *
+ * Work runs on a small bounded pool and the result is handed back on the FX thread
+ * with Platform.runLater, so screens render immediately and fill in when the data
+ * arrives. Requests started while a page is shown are cancelled when
+ * MainLayoutController navigates away, and a keyed request replaces the previous
+ * one with the same key, so late results never overwrite newer ones.
+ *
+ * All methods must be called on the FX Application Thread.
+ *
+ * Usage:
+ * <pre>
+ * AsyncLoader.load("cars.list", carsTable,
+ *     () -> carService.getAllCars(),
+ *     cars -> carsList.setAll(cars));
+ * </pre>
+ */
+public class AsyncLoader {
+
+    // Kept well below DatabaseConnection's pool size so the UI cannot starve other callers
+    private static final int WORKER_THREADS = 4;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final String LOADING_TEXT = "Loading...";
+    private static final String SAVED_PLACEHOLDER = "asyncLoader.placeholder";
+    private static final String SAVED_TEXT = "asyncLoader.text";
+    private static final String LOADING_COUNT = "asyncLoader.loadingCount";
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    // Only touched on the FX thread
+    private static final Set<Request> IN_FLIGHT = new HashSet<>();
+    private static final Map<String, Request> BY_KEY = new HashMap<>();
+
+    private AsyncLoader() {
+    }
+
+    /**
+     * Handle for a background request
+     */
+    public static final class Request {
+        private final String key;
+        private final Node loadingTarget;
+        private volatile boolean cancelled = false;
+        private Future<?> future;
+        private boolean finished = false;
+
+        private Request(String key, Node loadingTarget) {
+            this.key = key;
+            this.loadingTarget = loadingTarget;
+        }
+
+        /**
+         * Drop the request; its callbacks will not run.
+         * Work already in progress finishes on its worker but the result is discarded.
+         */
+        public void cancel() {
+            if (cancelled || finished) {
+                return;
+            }
+            cancelled = true;
+            if (future != null) {
+                // Never interrupt: the worker may be inside a JDBC call on a pooled connection
+                future.cancel(false);
+            }
+            finish(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return finished;
+        }
+    }
+
+    /**
+     * Run work in the background without a loading indicator
+     */
+    public static <T> Request load(Callable<T> work, Consumer<T> onSuccess) {
+        return load(null, null, work, onSuccess, null);
+    }
+
+    /**
+     * Run work in the background, showing a loading state on the target node
+     * @param key Requests sharing a key replace each other; null for independent requests
+     * @param loadingTarget Node that shows the loading state (a TableView gets a
+     *                      "Loading..." placeholder, a Label gets "..." text); may be null
+     * @param work Service call to run off the FX thread
+     * @param onSuccess Receives the result on the FX thread
+     */
+    public static <T> Request load(String key, Node loadingTarget, Callable<T> work, Consumer<T> onSuccess) {
+        return load(key, loadingTarget, work, onSuccess, null);
+    }
+
+    /**
+     * Run work in the background, showing a loading state on the target node
+     * @param onError Receives the failure on the FX thread; null shows an error alert
+     */
+    public static <T> Request load(String key, Node loadingTarget, Callable<T> work,
+                                   Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        if (key != null) {
+            Request previous = BY_KEY.get(key);
+            if (previous != null) {
+                previous.cancel();
+            }
+        }
+
+        Request request = new Request(key, loadingTarget);
+        IN_FLIGHT.add(request);
+        if (key != null) {
+            BY_KEY.put(key, request);
+        }
+        showLoading(loadingTarget);
+
+        try {
+            request.future = EXECUTOR.submit(() -> {
+                if (request.cancelled) {
+                    return;
+                }
+                try {
+                    T result = work.call();
+                    Platform.runLater(() -> {
+                        if (!request.cancelled) {
+                            finish(request);
+                            onSuccess.accept(result);
+                        }
+                    });
+                } catch (Throwable t) {
+                    Platform.runLater(() -> {
+                        if (!request.cancelled) {
+                            finish(request);
+                            handleError(t, onError);
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finish(request);
+            handleError(new IllegalStateException("Too many background requests, please try again", e), onError);
+        }
+        return request;
+    }
+
+    /**
+     * Cancel every outstanding request, e.g. when the user navigates to another page
+     */
+    public static void cancelAll() {
+        for (Request request : IN_FLIGHT.toArray(new Request[0])) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Check whether any request is still waiting for its result
+     */
+    public static boolean isBusy() {
+        return !IN_FLIGHT.isEmpty();
+    }
+
+    /**
+     * Stop the worker threads; called when the application exits
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    private static void finish(Request request) {
+        if (request.finished) {
+            return;
+        }
+        request.finished = true;
+        IN_FLIGHT.remove(request);
+        if (request.key != null && BY_KEY.get(request.key) == request) {
+            BY_KEY.remove(request.key);
+        }
+        hideLoading(request.loadingTarget);
+    }
+
+    private static void handleError(Throwable t, Consumer<Throwable> onError) {
+        if (onError != null) {
+            onError.accept(t);
+            return;
+        }
+        t.printStackTrace();
+        Alerts.showError("Error", "Failed to load data: " + t.getMessage());
+    }
+
+    /**
+     * Show the loading state; nested requests on the same node are counted so the
+     * original state comes back only when the last one finishes.
+     */
+    private static void showLoading(Node target) {
+        if (target == null) {
+            return;
+        }
+        Map<Object, Object> props = target.getProperties();
+        int count = (Integer) props.getOrDefault(LOADING_COUNT, 0);
+        props.put(LOADING_COUNT, count + 1);
+        if (count > 0) {
+            return;
+        }
+
+        if (target instanceof TableView) {
+            TableView<?> table = (TableView<?>) target;
+            props.put(SAVED_PLACEHOLDER, table.getPlaceholder());
+            ProgressIndicator spinner = new ProgressIndicator();
+            spinner.setMaxSize(40, 40);
+            VBox placeholder = new VBox(8, spinner, new Label(LOADING_TEXT));
+            placeholder.setAlignment(Pos.CENTER);
+            table.setPlaceholder(placeholder);
+        } else if (target instanceof Labeled) {
+            Labeled labeled = (Labeled) target;
+            props.put(SAVED_TEXT, labeled.getText());
+            labeled.setText("...");
+        }
+        target.setCursor(Cursor.WAIT);
+    }
+
+    private static void hideLoading(Node target) {
+        if (target == null) {
+            return;
+        }
+        Map<Object, Object> props = target.getProperties();
+        int count = (Integer) props.getOrDefault(LOADING_COUNT, 0);
+        if (count > 1) {
+            props.put(LOADING_COUNT, count - 1);
+            return;
+        }
+        props.remove(LOADING_COUNT);
+
+        if (target instanceof TableView) {
+            ((TableView<?>) target).setPlaceholder((Node) props.remove(SAVED_PLACEHOLDER));
+        } else if (target instanceof Labeled) {
+            Labeled labeled = (Labeled) target;
+            Object saved = props.remove(SAVED_TEXT);
+            // Only restore if the success callback has not written a new value
+            if ("...".equals(labeled.getText())) {
+                labeled.setText(saved != null ? saved.toString() : "");
+            }
+        }
+        target.setCursor(null);
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "async-loader-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            WORKER_THREADS, WORKER_THREADS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), factory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
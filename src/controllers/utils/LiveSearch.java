@@ -0,0 +1,257 @@
+package controllers.utils;
+
+import javafx.animation.PauseTransition;
+import javafx.collections.ObservableList;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * LiveSearch - Search-as-you-type for a search field, a "search by" combo and a results list
+ *
+ * Every edit restarts a short pause; when the user stops typing for DEBOUNCE_MILLIS the
+ * query runs through AsyncLoader, so the FX thread never waits on it. An edit also
+ * cancels the query in flight, and AsyncLoader drops the result of a cancelled request,
+ * so results for an older term never replace newer ones.
+ *
+ * Results are merged into the existing list rather than replacing it: rows that are
+ * still present stay where they are (keeping the table's selection and scroll
+ * position), rows that dropped out are removed and new rows are inserted at their
+ * ranked position. When the results change almost entirely, the list is replaced
+ * in one go instead.
+ *
+ * Usage:
+ * <pre>
+ * LiveSearch&lt;Car&gt; liveSearch = new LiveSearch&lt;&gt;("cars.search", searchField, searchTypeCombo,
+ *     searchResults, Car::getCarId, carService::searchCars);
+ * liveSearch.searchNow(null);
+ * </pre>
+ *
+ * All methods must be called on the FX Application Thread.
+ */
+public class LiveSearch<T> {
+
+    // Long enough to skip the intermediate terms of a typed word, short enough to feel live
+    static final int DEBOUNCE_MILLIS = 250;
+
+    // Beyond this many separate removals and insertions, one setAll() is cheaper for the table
+    static final int MAX_INCREMENTAL_EDITS = 16;
+    // Larger ids make the id-indexed lookup in updateInPlace too big; the list is replaced instead
+    static final int MAX_DENSE_ID = 1 << 20;
+
+    /**
+     * Runs a search off the FX thread
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        /**
+         * @param term Trimmed search term; empty means every row
+         * @param field Selected "search by" choice
+         */
+        List<T> search(String term, String field) throws Exception;
+    }
+
+    private final String requestKey;
+    private final TextField searchField;
+    private final ComboBox<String> fieldCombo;
+    private final ObservableList<T> results;
+    private final ToIntFunction<T> idOf;
+    private final Query<T> query;
+    private final PauseTransition debounce = new PauseTransition(Duration.millis(DEBOUNCE_MILLIS));
+    private AsyncLoader.Request inFlight;
+
+    /**
+     * Starts listening to the field and combo straight away
+     * @param requestKey AsyncLoader key, unique per screen
+     * @param idOf Row identity used to match old and new results
+     */
+    public LiveSearch(String requestKey, TextField searchField, ComboBox<String> fieldCombo,
+                      ObservableList<T> results, ToIntFunction<T> idOf, Query<T> query) {
+        this.requestKey = requestKey;
+        this.searchField = searchField;
+        this.fieldCombo = fieldCombo;
+        this.results = results;
+        this.idOf = idOf;
+        this.query = query;
+
+        debounce.setOnFinished(event -> run(null));
+        searchField.textProperty().addListener((observable, oldText, newText) -> schedule());
+        fieldCombo.valueProperty().addListener((observable, oldField, newField) -> schedule());
+    }
+
+    /**
+     * Run the search for the current term without waiting for the pause, e.g. on Enter
+     * @param onResults Also receives the results once merged; may be null
+     */
+    public void searchNow(Consumer<List<T>> onResults) {
+        debounce.stop();
+        run(onResults);
+    }
+
+    private void schedule() {
+        cancelInFlight();
+        debounce.playFromStart();
+    }
+
+    private void run(Consumer<List<T>> onResults) {
+        cancelInFlight();
+        String term = searchField.getText() != null ? searchField.getText().trim() : "";
+        String field = fieldCombo.getValue();
+        inFlight = AsyncLoader.load(requestKey, null,
+            () -> query.search(term, field),
+            rows -> {
+                inFlight = null;
+                updateInPlace(results, rows, idOf);
+                if (onResults != null) {
+                    onResults.accept(rows);
+                }
+            });
+    }
+
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+
+    /**
+     * Make target equal to rows (matched by id) with few list changes: rows kept in the
+     * same relative order are left alone, so a narrowing search only fires removals.
+     * Each contiguous run of removed or inserted rows is one change event.
+     */
+    static <T> void updateInPlace(ObservableList<T> target, List<T> rows, ToIntFunction<T> idOf) {
+        if (target.isEmpty() || rows.isEmpty()) {
+            target.setAll(rows);
+            return;
+        }
+
+        // Ids are auto-increment keys, so a plain array indexed by id is a compact lookup table
+        int maxId = -1;
+        for (T row : target) {
+            maxId = Math.max(maxId, idOf.applyAsInt(row));
+        }
+        for (T row : rows) {
+            int id = idOf.applyAsInt(row);
+            if (id < 0) {
+                target.setAll(rows);
+                return;
+            }
+            maxId = Math.max(maxId, id);
+        }
+        if (maxId > MAX_DENSE_ID) {
+            target.setAll(rows);
+            return;
+        }
+        int[] positionById = new int[maxId + 1];
+        Arrays.fill(positionById, -1);
+        for (int i = 0; i < rows.size(); i++) {
+            positionById[idOf.applyAsInt(rows.get(i))] = i;
+        }
+
+        // Current rows that are still in the results: their index now and position in rows
+        int[] survivingIndexes = new int[target.size()];
+        int[] positions = new int[target.size()];
+        int surviving = 0;
+        for (int i = 0; i < target.size(); i++) {
+            int id = idOf.applyAsInt(target.get(i));
+            int position = id >= 0 ? positionById[id] : -1;
+            if (position >= 0) {
+                survivingIndexes[surviving] = i;
+                positions[surviving] = position;
+                surviving++;
+            }
+        }
+
+        // The longest run already in the right relative order stays; everything else goes
+        boolean[] stays = longestIncreasing(positions, surviving);
+        boolean[] keptIndexes = new boolean[target.size()];
+        boolean[] keptPositions = new boolean[rows.size()];
+        for (int i = 0; i < surviving; i++) {
+            if (stays[i]) {
+                keptIndexes[survivingIndexes[i]] = true;
+                keptPositions[positions[i]] = true;
+            }
+        }
+
+        int edits = 0;
+        for (int i = 0; i < keptIndexes.length; i++) {
+            if (!keptIndexes[i] && (i == 0 || keptIndexes[i - 1])) {
+                edits++;
+            }
+        }
+        for (int i = 0; i < keptPositions.length; i++) {
+            if (!keptPositions[i] && (i == 0 || keptPositions[i - 1])) {
+                edits++;
+            }
+        }
+        if (edits > MAX_INCREMENTAL_EDITS) {
+            target.setAll(rows);
+            return;
+        }
+
+        // Back to front, so the indexes of earlier runs do not move
+        for (int end = keptIndexes.length; end > 0; end--) {
+            if (!keptIndexes[end - 1]) {
+                int from = end - 1;
+                while (from > 0 && !keptIndexes[from - 1]) {
+                    from--;
+                }
+                target.remove(from, end);
+                end = from;
+            }
+        }
+
+        // target now holds exactly the kept rows, in order: insert the gaps, refresh changed rows
+        for (int i = 0; i < rows.size(); ) {
+            if (keptPositions[i]) {
+                if (target.get(i) != rows.get(i)) {
+                    target.set(i, rows.get(i));
+                }
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < rows.size() && !keptPositions[end]) {
+                end++;
+            }
+            target.addAll(i, rows.subList(i, end));
+            i = end;
+        }
+    }
+
+    /**
+     * Mark one longest strictly increasing subsequence of values[0..length)
+     */
+    private static boolean[] longestIncreasing(int[] values, int length) {
+        int[] tailIndex = new int[length];
+        int[] previous = new int[length];
+        int tails = 0;
+        for (int i = 0; i < length; i++) {
+            int low = 0;
+            int high = tails;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[tailIndex[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tailIndex[low - 1] : -1;
+            tailIndex[low] = i;
+            if (low == tails) {
+                tails++;
+            }
+        }
+        boolean[] marked = new boolean[length];
+        for (int i = tails > 0 ? tailIndex[tails - 1] : -1; i >= 0; i = previous[i]) {
+            marked[i] = true;
+        }
+        return marked;
+    }
+}
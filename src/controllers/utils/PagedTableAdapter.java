@@ -0,0 +1,253 @@
+package controllers.utils;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * PagedTableAdapter - Infinite-scroll TableView backed by keyset-paginated queries
+ *
+ * Rows are fetched one page at a time through AsyncLoader when the user scrolls
+ * near the bottom of the table. At most maxPages pages are kept in memory: when a
+ * new page arrives the page furthest from the viewport is dropped, and it is
+ * fetched again (seeking from the row before it) if the user scrolls back to it.
+ *
+ * Usage:
+ * <pre>
+ * PagedTableAdapter&lt;Car&gt; pager = new PagedTableAdapter&lt;&gt;(carsTable, "cars.display", 100, 5,
+ *     (lastCar, limit) -> carService.getCarsAfter(lastCar == null ? 0 : lastCar.getCarId(), limit));
+ * pager.reload();
+ * </pre>
+ *
+ * All methods must be called on the FX Application Thread.
+ */
+public class PagedTableAdapter<T> {
+
+    // Start fetching when the scroll bar is this close to either end
+    private static final double EDGE_THRESHOLD = 0.05;
+
+    /**
+     * Loads one page of rows, in the same order the table shows them
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        /**
+         * @param after Last row of the previous page, or null for the first page
+         * @param limit Maximum number of rows to return
+         * @return Rows following "after"; fewer than limit means there are no more
+         */
+        List<T> loadPage(T after, int limit) throws Exception;
+    }
+
+    private final TableView<T> table;
+    private final String requestKey;
+    private final int pageSize;
+    private final int maxPages;
+    private final PageLoader<T> loader;
+    private final ObservableList<T> rows = FXCollections.observableArrayList();
+
+    // pageStarts.get(n) is the row page n starts after (null for page 0)
+    private final List<T> pageStarts = new ArrayList<>();
+    // Sizes of the pages currently in rows, first to last
+    private final Deque<Integer> loadedPageSizes = new ArrayDeque<>();
+    private int firstLoadedPage = 0;
+    // The page request in flight; it is done once it succeeds, fails or is cancelled
+    // (e.g. by AsyncLoader.cancelAll on navigation), so paging can never get stuck
+    private AsyncLoader.Request pending;
+    private boolean exhausted = false;
+    private ScrollBar scrollBar;
+
+    /**
+     * @param table Table to drive; its items are replaced by the adapter's rows
+     * @param requestKey AsyncLoader key, unique per table
+     * @param pageSize Rows per query
+     * @param maxPages Pages kept in memory before the furthest one is evicted (at least 2)
+     * @param loader Fetches a page following a given row
+     */
+    public PagedTableAdapter(TableView<T> table, String requestKey, int pageSize, int maxPages,
+                             PageLoader<T> loader) {
+        if (pageSize <= 0 || maxPages < 2) {
+            throw new IllegalArgumentException("pageSize must be positive and maxPages at least 2");
+        }
+        this.table = table;
+        this.requestKey = requestKey;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.loader = loader;
+
+        table.setItems(rows);
+        if (table.getSkin() != null) {
+            attachScrollBar();
+        }
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::attachScrollBar));
+    }
+
+    /**
+     * Drop everything and load the first page again
+     */
+    public void reload() {
+        reload(null);
+    }
+
+    /**
+     * Drop everything and load the first page again
+     * @param onLoaded Run once the first page is shown; may be null
+     */
+    public void reload(Runnable onLoaded) {
+        pageStarts.clear();
+        loadedPageSizes.clear();
+        firstLoadedPage = 0;
+        exhausted = false;
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+        rows.clear();
+        loadNext(onLoaded);
+    }
+
+    /**
+     * Rows currently held in memory (a window of the full result)
+     */
+    public ObservableList<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * Check whether the last page has been reached
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    private void loadNext(Runnable onLoaded) {
+        if (isLoading() || exhausted) {
+            return;
+        }
+        int page = firstLoadedPage + loadedPageSizes.size();
+        T after = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        if (page < pageStarts.size()) {
+            pageStarts.set(page, after);
+        } else {
+            pageStarts.add(after);
+        }
+
+        pending = AsyncLoader.load(requestKey, table,
+            () -> loader.loadPage(after, pageSize),
+            pageRows -> {
+                if (pageRows.size() < pageSize) {
+                    exhausted = true;
+                }
+                if (!pageRows.isEmpty()) {
+                    rows.addAll(pageRows);
+                    loadedPageSizes.addLast(pageRows.size());
+                    if (loadedPageSizes.size() > maxPages) {
+                        evictFirstPage();
+                    }
+                }
+                if (onLoaded != null) {
+                    onLoaded.run();
+                }
+                // A short first page may not fill the viewport, leaving nothing to scroll
+                Platform.runLater(this::fillViewport);
+            },
+            this::handleError);
+    }
+
+    private void loadPrevious() {
+        if (isLoading() || firstLoadedPage == 0) {
+            return;
+        }
+        T after = pageStarts.get(firstLoadedPage - 1);
+
+        pending = AsyncLoader.load(requestKey, table,
+            () -> loader.loadPage(after, pageSize),
+            pageRows -> {
+                int firstVisible = getFirstVisibleIndex();
+                rows.addAll(0, pageRows);
+                loadedPageSizes.addFirst(pageRows.size());
+                firstLoadedPage--;
+                if (loadedPageSizes.size() > maxPages) {
+                    int removed = loadedPageSizes.removeLast();
+                    rows.remove(rows.size() - removed, rows.size());
+                    exhausted = false;
+                }
+                // Keep the same rows in view after inserting above them
+                if (firstVisible >= 0) {
+                    table.scrollTo(firstVisible + pageRows.size());
+                }
+            },
+            this::handleError);
+    }
+
+    private void evictFirstPage() {
+        int firstVisible = getFirstVisibleIndex();
+        int removed = loadedPageSizes.removeFirst();
+        rows.remove(0, removed);
+        firstLoadedPage++;
+        if (firstVisible >= 0) {
+            table.scrollTo(Math.max(0, firstVisible - removed));
+        }
+    }
+
+    private boolean isLoading() {
+        return pending != null && !pending.isDone();
+    }
+
+    private void handleError(Throwable t) {
+        t.printStackTrace();
+        Alerts.showError("Error", "Failed to load data: " + t.getMessage());
+    }
+
+    private void fillViewport() {
+        if (!exhausted && !isLoading() && (scrollBar == null || !scrollBar.isVisible())) {
+            loadNext(null);
+        }
+    }
+
+    private void onScroll(double value) {
+        double range = scrollBar.getMax() - scrollBar.getMin();
+        if (range <= 0) {
+            return;
+        }
+        double position = (value - scrollBar.getMin()) / range;
+        if (position >= 1.0 - EDGE_THRESHOLD) {
+            loadNext(null);
+        } else if (position <= EDGE_THRESHOLD) {
+            loadPrevious();
+        }
+    }
+
+    private void attachScrollBar() {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                if (node == scrollBar) {
+                    return;
+                }
+                scrollBar = (ScrollBar) node;
+                scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> onScroll(newValue.doubleValue()));
+                scrollBar.visibleProperty().addListener((obs, wasVisible, isVisible) -> fillViewport());
+                return;
+            }
+        }
+    }
+
+    private int getFirstVisibleIndex() {
+        Node flow = table.lookup(".virtual-flow");
+        if (flow instanceof VirtualFlow) {
+            IndexedCell<?> cell = ((VirtualFlow<?>) flow).getFirstVisibleCell();
+            return cell != null ? cell.getIndex() : -1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,169 @@
+package controllers.utils;
+
+import javafx.animation.PauseTransition;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.layout.Pane;
+import javafx.util.Duration;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ViewCache - Keeps parsed FXML views and their controllers for reuse
+ *
+ * Loading a view parses its FXML, builds the node graph and runs the controller's
+ * initialize(), which usually starts database queries. Views shown through show()
+ * are kept after they are first loaded, so switching back to them only reattaches
+ * the existing nodes; controllers implementing ViewLifecycle get onShow() to
+ * refresh their data. Forms that must start empty each time use showUncached().
+ *
+ * At most MAX_VIEWS views are kept, least recently shown dropped first, and they are
+ * held through soft references so the garbage collector can reclaim them when memory
+ * runs short; a dropped view is simply loaded again next time.
+ *
+ * preload() loads views ahead of time, one per idle slice of the FX thread (FXML
+ * loading runs controller code that must be on the FX thread), so the first switch
+ * to a module is as fast as later ones.
+ *
+ * All methods must be called on the FX Application Thread.
+ *
+ * Usage:
+ * <pre>
+ * ViewCache.show(contentPane, "/fxml/cars/CarMain.fxml");
+ * </pre>
+ */
+public final class ViewCache {
+
+    static final int MAX_VIEWS = 16;
+
+    // Pause between preloaded views so user input is handled in between
+    private static final int PRELOAD_GAP_MILLIS = 50;
+
+    private static final Map<String, SoftReference<View>> VIEWS =
+        new LinkedHashMap<String, SoftReference<View>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SoftReference<View>> eldest) {
+                return size() > MAX_VIEWS;
+            }
+        };
+
+    // Bumped by clear() so preloads started for an earlier session stop
+    private static int generation = 0;
+
+    private ViewCache() {
+    }
+
+    private static final class View {
+        final Parent root;
+        final Object controller;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    /**
+     * Show a view in a pane, reusing the cached one if there is one
+     * @return The view's controller
+     */
+    public static <T> T show(Pane target, String fxmlPath) throws IOException {
+        View view = cached(fxmlPath);
+        boolean reused = view != null;
+        if (!reused) {
+            view = load(fxmlPath);
+            VIEWS.put(fxmlPath, new SoftReference<>(view));
+        }
+        target.getChildren().setAll(view.root);
+        if (reused && view.controller instanceof ViewLifecycle) {
+            ((ViewLifecycle) view.controller).onShow();
+        }
+        @SuppressWarnings("unchecked")
+        T controller = (T) view.controller;
+        return controller;
+    }
+
+    /**
+     * Load a fresh copy of a view and show it in a pane, without caching it
+     * @return The view's controller
+     */
+    public static <T> T showUncached(Pane target, String fxmlPath) throws IOException {
+        View view = load(fxmlPath);
+        target.getChildren().setAll(view.root);
+        @SuppressWarnings("unchecked")
+        T controller = (T) view.controller;
+        return controller;
+    }
+
+    /**
+     * Load views into the cache in the background of the FX thread, one at a time;
+     * views already cached are skipped and failures are only logged
+     */
+    public static void preload(List<String> fxmlPaths) {
+        Deque<String> pending = new ArrayDeque<>(fxmlPaths);
+        preloadNext(pending, generation);
+    }
+
+    private static void preloadNext(Deque<String> pending, int startedGeneration) {
+        PauseTransition gap = new PauseTransition(Duration.millis(PRELOAD_GAP_MILLIS));
+        gap.setOnFinished(event -> {
+            if (startedGeneration != generation || pending.isEmpty()) {
+                return;
+            }
+            String fxmlPath = pending.poll();
+            if (cached(fxmlPath) == null) {
+                long startTime = System.nanoTime();
+                try {
+                    VIEWS.put(fxmlPath, new SoftReference<>(load(fxmlPath)));
+                    System.out.printf("Preloaded %s in %.1f ms%n", fxmlPath,
+                                      (System.nanoTime() - startTime) / 1_000_000.0);
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Could not preload " + fxmlPath + ": " + e.getMessage());
+                }
+            }
+            preloadNext(pending, startedGeneration);
+        });
+        gap.play();
+    }
+
+    /**
+     * Drop one view, e.g. after the data it was built from changed shape
+     */
+    public static void invalidate(String fxmlPath) {
+        VIEWS.remove(fxmlPath);
+    }
+
+    /**
+     * Drop every view and stop preloading; called on logout, since views are built
+     * for the logged-in user's role
+     */
+    public static void clear() {
+        VIEWS.clear();
+        generation++;
+    }
+
+    private static View cached(String fxmlPath) {
+        SoftReference<View> reference = VIEWS.get(fxmlPath);
+        View view = reference != null ? reference.get() : null;
+        if (reference != null && view == null) {
+            VIEWS.remove(fxmlPath);
+        }
+        return view;
+    }
+
+    private static View load(String fxmlPath) throws IOException {
+        URL resource = ViewCache.class.getResource(fxmlPath);
+        if (resource == null) {
+            throw new IOException("FXML file not found: " + fxmlPath);
+        }
+        FXMLLoader loader = new FXMLLoader(resource);
+        Parent root = loader.load();
+        return new View(root, loader.getController());
+    }
+}
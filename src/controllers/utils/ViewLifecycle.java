@@ -0,0 +1,16 @@
+package controllers.utils;
+
+/**
+ * ViewLifecycle - Implemented by controllers of views kept in the ViewCache
+ *
+ * initialize() runs once, when the FXML is first loaded. A cached view is shown again
+ * without reloading, so anything that must be current whenever the view appears
+ * (typically re-querying its table) belongs in onShow().
+ */
+public interface ViewLifecycle {
+
+    /**
+     * Called on the FX thread each time a cached view is shown again
+     */
+    void onShow();
+}
@@ -2,42 +2,136 @@ package dao;
 
 import models.Car;
 import application.DatabaseConnection;
+import application.StatementRegistry;
+import application.TransactionTemplate;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public class CarDAO {
+    // Sort orders for keyset pagination; each ends with the primary key
+    public static final Keyset<Car> NEWEST_FIRST = Keyset.descending("car_id", Car::getCarId);
+    public static final Keyset<Car> BY_BRAND_MODEL = Keyset.<Car>ascending("brand", Car::getBrand)
+            .thenAscending("model", Car::getModel)
+            .thenAscending("car_id", Car::getCarId);
     
-    public boolean addCar(Car car) {
-        String sql = "INSERT INTO cars (brand, model, year, color, registration_number, " +
-                     "price_per_day, availability, fuel_type, mileage, status) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Hot statements, kept prepared on every pooled connection
+    private static final String SELECT_BY_ID =
+            StatementRegistry.register("car.byId", "SELECT * FROM cars WHERE car_id=?");
+    private static final String SELECT_BY_REGISTRATION =
+            StatementRegistry.register("car.byRegistration", "SELECT * FROM cars WHERE registration_number=?");
+    // The WHERE clause is the availability check, so checking and taking the car is one
+    // atomic step: of several simultaneous reservations only one can match the row
+    private static final String CLAIM_IF_AVAILABLE =
+            StatementRegistry.register("car.claimIfAvailable",
+                "UPDATE cars SET status='Rented', availability='Rented', version=version+1 " +
+                "WHERE car_id=? AND availability='Available'");
+    
+    /**
+     * Fields for findCars(FieldQuery); each has its own index (V4 migration;
+     * registration_number is UNIQUE)
+     */
+    public enum Field implements FieldQuery.Field {
+        BRAND("brand"),
+        MODEL("model"),
+        REGISTRATION_NUMBER("registration_number"),
+        COLOR("color");
         
+        private final List<String> columns;
+        
+        Field(String... columns) {
+            this.columns = List.of(columns);
+        }
+        
+        @Override
+        public List<String> columns() {
+            return columns;
+        }
+    }
+    
+    private static final String INSERT =
+            "INSERT INTO cars (brand, model, year, color, registration_number, " +
+            "price_per_day, availability, fuel_type, mileage, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    public boolean addCar(Car car) {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
             
-            pstmt.setString(1, car.getBrand());
-            pstmt.setString(2, car.getModel());
-            pstmt.setInt(3, car.getYear());
-            pstmt.setString(4, car.getColor());
-            pstmt.setString(5, car.getRegistrationNumber());
-            pstmt.setDouble(6, car.getPricePerDay());
-            pstmt.setString(7, car.getAvailability());
-            pstmt.setString(8, car.getFuelType());
-            pstmt.setInt(9, car.getMileage());
-            pstmt.setString(10, car.getStatus());
+            bindInsert(pstmt, car);
             
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    car.setCarId(keys.getInt(1));
+                }
+            }
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
     
+    /**
+     * Insert the cars as one JDBC batch in a single transaction, setting their ids
+     * @return false if any of them failed; then none was inserted
+     */
+    public boolean addCars(List<Car> cars) {
+        try {
+            return TransactionTemplate.execute(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Car car : cars) {
+                        bindInsert(pstmt, car);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        for (Car car : cars) {
+                            if (!keys.next()) {
+                                break;
+                            }
+                            car.setCarId(keys.getInt(1));
+                        }
+                    }
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            for (Car car : cars) {
+                car.setCarId(0);
+            }
+            System.err.println("Error adding " + cars.size() + " cars: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private void bindInsert(PreparedStatement pstmt, Car car) throws SQLException {
+        pstmt.setString(1, car.getBrand());
+        pstmt.setString(2, car.getModel());
+        pstmt.setInt(3, car.getYear());
+        pstmt.setString(4, car.getColor());
+        pstmt.setString(5, car.getRegistrationNumber());
+        pstmt.setDouble(6, car.getPricePerDay());
+        pstmt.setString(7, car.getAvailability());
+        pstmt.setString(8, car.getFuelType());
+        pstmt.setInt(9, car.getMileage());
+        pstmt.setString(10, car.getStatus());
+    }
+    
+    /**
+     * Save an edited car if nobody changed it since it was read; bumps its version
+     * @return false if the car no longer exists
+     * @throws OptimisticLockException If the car was changed since it was read
+     */
     public boolean updateCar(Car car) {
         String sql = "UPDATE cars SET brand=?, model=?, year=?, color=?, registration_number=?, " +
-                     "price_per_day=?, availability=?, fuel_type=?, mileage=?, status=? " +
-                     "WHERE car_id=?";
+                     "price_per_day=?, availability=?, fuel_type=?, mileage=?, status=?, " +
+                     "version=version+1 WHERE car_id=? AND version=?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -53,8 +147,14 @@ public class CarDAO {
             pstmt.setInt(9, car.getMileage());
             pstmt.setString(10, car.getStatus());
             pstmt.setInt(11, car.getCarId());
+            pstmt.setInt(12, car.getVersion());
             
-            return pstmt.executeUpdate() > 0;
+            if (!RowVersions.checkUpdated(pstmt.executeUpdate(), conn, "cars", "car_id",
+                                          car.getCarId(), car.getVersion())) {
+                return false;
+            }
+            car.setVersion(car.getVersion() + 1);
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -75,36 +175,52 @@ public class CarDAO {
         }
     }
     
-    public boolean updateCarStatus(int carId, String status) {
-        String sql = "UPDATE cars SET status = ?, availability = ? WHERE car_id = ?";
+    /**
+     * Set a car's status from a rental event, if it is still at the version read
+     * ("available", "rented" / "active", or anything else for unavailable)
+     * @return false if the car no longer exists
+     * @throws OptimisticLockException If the car was changed since expectedVersion was read
+     */
+    public boolean updateCarStatus(int carId, String status, int expectedVersion) {
+        String availability;
+        switch (status.toLowerCase()) {
+            case "available":
+                status = "Available";
+                availability = "Available";
+                break;
+            case "active":
+            case "rented":
+                status = "Active";  // Keep status as Active for active rentals
+                availability = "Rented";  // But set availability to Rented
+                break;
+            case "maintenance":
+            case "unavailable":
+            default:
+                status = "Unavailable";
+                availability = "Unavailable";
+        }
+        return updateCarStatus(carId, status, availability, expectedVersion);
+    }
+    
+    /**
+     * Set a car's status and availability as given, if it is still at the version read
+     * @return false if the car no longer exists
+     * @throws OptimisticLockException If the car was changed since expectedVersion was read
+     */
+    public boolean updateCarStatus(int carId, String status, String availability, int expectedVersion) {
+        String sql = "UPDATE cars SET status = ?, availability = ?, version = version + 1 " +
+                     "WHERE car_id = ? AND version = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            String availability;
-            switch (status.toLowerCase()) {
-                case "available":
-                    status = "Available";
-                    availability = "Available";
-                    break;
-                case "active":
-                case "rented":
-                    status = "Active";  // Keep status as Active for active rentals
-                    availability = "Rented";  // But set availability to Rented
-                    break;
-                case "maintenance":
-                case "unavailable":
-                default:
-                    status = "Unavailable";
-                    availability = "Unavailable";
-            }
-            
             pstmt.setString(1, status);
             pstmt.setString(2, availability);
             pstmt.setInt(3, carId);
+            pstmt.setInt(4, expectedVersion);
             
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return RowVersions.checkUpdated(pstmt.executeUpdate(), conn, "cars", "car_id",
+                                            carId, expectedVersion);
             
         } catch (SQLException e) {
             System.err.println("Error updating car status: " + e.getMessage());
@@ -113,11 +229,21 @@ public class CarDAO {
         }
     }
     
+    /**
+     * Mark the car Rented if it is Available, as one conditional UPDATE on the caller's
+     * connection; the caller commits
+     * @return false if the car is not Available (or does not exist)
+     */
+    public boolean claimIfAvailable(Connection conn, int carId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CLAIM_IF_AVAILABLE)) {
+            pstmt.setInt(1, carId);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+    
     public Car getCarById(int carId) {
-        String sql = "SELECT * FROM cars WHERE car_id=?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
             
             pstmt.setInt(1, carId);
             ResultSet rs = pstmt.executeQuery();
@@ -132,10 +258,8 @@ public class CarDAO {
     }
     
     public Car getCarByRegistration(String registrationNumber) {
-        String sql = "SELECT * FROM cars WHERE registration_number=?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_REGISTRATION)) {
             
             pstmt.setString(1, registrationNumber);
             ResultSet rs = pstmt.executeQuery();
@@ -149,6 +273,20 @@ public class CarDAO {
         return null;
     }
     
+    /**
+     * Which of the registration numbers are already taken, as stored, checked with a
+     * few IN queries rather than one getCarByRegistration() each
+     * @return null if the lookup failed
+     */
+    public Set<String> findExistingRegistrations(Collection<String> registrationNumbers) {
+        try {
+            return InLists.existingValues("cars", "registration_number", registrationNumbers);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
     public List<Car> getAllCars() {
         List<Car> cars = new ArrayList<>();
         String sql = "SELECT * FROM cars ORDER BY car_id DESC";
@@ -166,6 +304,72 @@ public class CarDAO {
         return cars;
     }
     
+    /**
+     * Page of cars, newest first, continuing after the car with the given id
+     * @param lastId car_id of the last car on the previous page, or 0 for the first page
+     * @param limit Maximum number of rows to return
+     */
+    public List<Car> getCarsAfter(int lastId, int limit) {
+        if (lastId <= 0) {
+            return getCarsAfter(NEWEST_FIRST, null, limit);
+        }
+        Car lastCar = new Car();
+        lastCar.setCarId(lastId);
+        return getCarsAfter(NEWEST_FIRST, lastCar, limit);
+    }
+    
+    /**
+     * Page of cars in the given order, continuing after the given car
+     * @param order Sort order, e.g. CarDAO.BY_BRAND_MODEL
+     * @param lastCar Last car on the previous page, or null for the first page
+     * @param limit Maximum number of rows to return
+     */
+    public List<Car> getCarsAfter(Keyset<Car> order, Car lastCar, int limit) {
+        List<Car> cars = new ArrayList<>();
+        String sql = "SELECT * FROM cars" +
+                     (lastCar != null ? " WHERE " + order.seekPredicate() : "") +
+                     " ORDER BY " + order.orderBy() + " LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (lastCar != null) {
+                index = order.bind(pstmt, index, lastCar);
+            }
+            pstmt.setInt(index, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    cars.add(mapResultSetToCar(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return cars;
+    }
+    
+    /**
+     * Ids of every car, without loading the rows
+     */
+    public List<Integer> getAllCarIds() {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT car_id FROM cars";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                ids.add(rs.getInt("car_id"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return ids;
+    }
+    
     public List<Car> searchCars(String searchTerm) {
         List<Car> cars = new ArrayList<>();
         String sql = "SELECT * FROM cars WHERE brand LIKE ? OR model LIKE ? OR " +
@@ -190,6 +394,31 @@ public class CarDAO {
         return cars;
     }
     
+    /**
+     * Cars matching a field query, newest first
+     */
+    public List<Car> findCars(FieldQuery<Field> query) {
+        List<Car> cars = new ArrayList<>();
+        String sql = "SELECT * FROM cars WHERE " + query.predicate() +
+                     " ORDER BY car_id DESC LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = query.bind(pstmt, 1);
+            pstmt.setInt(index, query.getLimit());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    cars.add(mapResultSetToCar(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return cars;
+    }
+    
     public List<Car> getAvailableCars() {
         List<Car> cars = new ArrayList<>();
         String sql = "SELECT * FROM cars WHERE availability='Available' ORDER BY brand, model";
@@ -236,8 +465,26 @@ public class CarDAO {
         car.setFuelType(rs.getString("fuel_type"));
         car.setMileage(rs.getInt("mileage"));
         car.setStatus(rs.getString("status"));
+        car.setVersion(rs.getInt("version"));
         return car;
     }
+    public int getTotalCarsCount() {
+        String sql = "SELECT COUNT(*) as count FROM cars";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            if (rs.next()) {
+                return rs.getInt("count");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting total cars count: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+    
     public int getAvailableCarsCount() {
         String sql = "SELECT COUNT(*) as count FROM cars WHERE availability='Available'";
         
@@ -0,0 +1,164 @@
+package dao;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CsvWriter - Row-at-a-time CSV output with RFC 4180 quoting
+ *
+ * Fields are written straight to the underlying writer, so an export never holds
+ * more than the current row. Text containing a comma, quote or line break is quoted
+ * with embedded quotes doubled; money is always written with two decimals and a '.'
+ * separator, whatever the default locale. Rows end with CRLF as RFC 4180 asks.
+ *
+ * Usage:
+ *     try (CsvWriter csv = CsvWriter.open(path, false)) {
+ *         csv.field("Car").field("Revenue").endRow();
+ *         csv.field(carInfo).money(revenue).endRow();
+ *     }
+ */
+public final class CsvWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private boolean rowStarted = false;
+    private long rowCount = 0;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Open a UTF-8 CSV file, truncating it if it exists
+     * @param gzip Compress the output (the file name should end in .gz)
+     */
+    public static CsvWriter open(Path file, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            if (!gzip) {
+                return new CsvWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE));
+            }
+            OutputStream compressed = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            return new CsvWriter(Channels.newWriter(Channels.newChannel(compressed),
+                                                    StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write a text field, quoting it if needed; null is written as an empty field
+     */
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            out.write(value);
+            return this;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Write an amount rounded to cents, e.g. 1234.5 as 1234.50
+     */
+    public CsvWriter money(double value) throws IOException {
+        separator();
+        long cents = Math.round(value * 100);
+        if (cents < 0) {
+            out.write('-');
+            cents = -cents;
+        }
+        out.write(Long.toString(cents / 100));
+        out.write('.');
+        long fraction = cents % 100;
+        out.write((char) ('0' + fraction / 10));
+        out.write((char) ('0' + fraction % 10));
+        return this;
+    }
+
+    /**
+     * Finish the current row
+     */
+    public CsvWriter endRow() throws IOException {
+        out.write("\r\n");
+        rowStarted = false;
+        rowCount++;
+        return this;
+    }
+
+    /**
+     * Write a whole row of text fields
+     */
+    public CsvWriter row(String... values) throws IOException {
+        for (String value : values) {
+            field(value);
+        }
+        return endRow();
+    }
+
+    /**
+     * Rows written so far, including titles and headers
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separator() throws IOException {
+        if (rowStarted) {
+            out.write(',');
+        }
+        rowStarted = true;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
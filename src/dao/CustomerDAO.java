@@ -2,43 +2,134 @@ package dao;
 
 import models.Customer;
 import application.DatabaseConnection;
+import application.StatementRegistry;
+import application.TransactionTemplate;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public class CustomerDAO {
+    // Sort orders for keyset pagination; each ends with the primary key
+    public static final Keyset<Customer> NEWEST_FIRST = Keyset.descending("customer_id", Customer::getCustomerId);
+    public static final Keyset<Customer> BY_NAME = Keyset.<Customer>ascending("last_name", Customer::getLastName)
+            .thenAscending("first_name", Customer::getFirstName)
+            .thenAscending("customer_id", Customer::getCustomerId);
     
-    public boolean addCustomer(Customer customer) {
-        String sql = "INSERT INTO customers (first_name, last_name, email, phone, address, " +
-                     "license_number, date_of_birth, registration_date) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // Hot statements, kept prepared on every pooled connection
+    private static final String SELECT_BY_ID =
+            StatementRegistry.register("customer.byId", "SELECT * FROM customers WHERE customer_id=?");
+    
+    /**
+     * Fields for findCustomers(FieldQuery); each has its own index (V4 migration)
+     */
+    public enum Field implements FieldQuery.Field {
+        NAME("first_name", "last_name"),
+        EMAIL("email"),
+        PHONE("phone"),
+        LICENSE_NUMBER("license_number");
+        
+        private final List<String> columns;
         
+        Field(String... columns) {
+            this.columns = List.of(columns);
+        }
+        
+        @Override
+        public List<String> columns() {
+            return columns;
+        }
+        
+        @Override
+        public boolean splitsTerm() {
+            return this == NAME;
+        }
+    }
+    
+    private static final String INSERT =
+            "INSERT INTO customers (first_name, last_name, email, phone, address, " +
+            "license_number, date_of_birth, registration_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    public boolean addCustomer(Customer customer) {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
             
-            pstmt.setString(1, customer.getFirstName());
-            pstmt.setString(2, customer.getLastName());
-            pstmt.setString(3, customer.getEmail());
-            pstmt.setString(4, customer.getPhone());
-            pstmt.setString(5, customer.getAddress());
-            pstmt.setString(6, customer.getLicenseNumber());
-            pstmt.setDate(7, customer.getDateOfBirth() != null ? 
-                         Date.valueOf(customer.getDateOfBirth()) : null);
-            pstmt.setDate(8, customer.getRegistrationDate() != null ? 
-                         Date.valueOf(customer.getRegistrationDate()) : Date.valueOf(LocalDate.now()));
+            bindInsert(pstmt, customer);
             
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    customer.setCustomerId(keys.getInt(1));
+                }
+            }
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
     
+    /**
+     * Insert the customers as one JDBC batch in a single transaction, setting their ids
+     * @return false if any of them failed; then none was inserted
+     */
+    public boolean addCustomers(List<Customer> customers) {
+        try {
+            return TransactionTemplate.execute(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Customer customer : customers) {
+                        bindInsert(pstmt, customer);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        for (Customer customer : customers) {
+                            if (!keys.next()) {
+                                break;
+                            }
+                            customer.setCustomerId(keys.getInt(1));
+                        }
+                    }
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            for (Customer customer : customers) {
+                customer.setCustomerId(0);
+            }
+            System.err.println("Error adding " + customers.size() + " customers: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private void bindInsert(PreparedStatement pstmt, Customer customer) throws SQLException {
+        pstmt.setString(1, customer.getFirstName());
+        pstmt.setString(2, customer.getLastName());
+        pstmt.setString(3, customer.getEmail());
+        pstmt.setString(4, customer.getPhone());
+        pstmt.setString(5, customer.getAddress());
+        pstmt.setString(6, customer.getLicenseNumber());
+        pstmt.setDate(7, customer.getDateOfBirth() != null ? 
+                     Date.valueOf(customer.getDateOfBirth()) : null);
+        pstmt.setDate(8, customer.getRegistrationDate() != null ? 
+                     Date.valueOf(customer.getRegistrationDate()) : Date.valueOf(LocalDate.now()));
+    }
+    
+    /**
+     * Save an edited customer if nobody changed them since they were read; bumps the version
+     * @return false if the customer no longer exists
+     * @throws OptimisticLockException If the customer was changed since they were read
+     */
     public boolean updateCustomer(Customer customer) {
         String sql = "UPDATE customers SET first_name=?, last_name=?, email=?, phone=?, " +
-                     "address=?, license_number=?, date_of_birth=? WHERE customer_id=?";
+                     "address=?, license_number=?, date_of_birth=?, version=version+1 " +
+                     "WHERE customer_id=? AND version=?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -52,8 +143,14 @@ public class CustomerDAO {
             pstmt.setDate(7, customer.getDateOfBirth() != null ? 
                          Date.valueOf(customer.getDateOfBirth()) : null);
             pstmt.setInt(8, customer.getCustomerId());
+            pstmt.setInt(9, customer.getVersion());
             
-            return pstmt.executeUpdate() > 0;
+            if (!RowVersions.checkUpdated(pstmt.executeUpdate(), conn, "customers", "customer_id",
+                                          customer.getCustomerId(), customer.getVersion())) {
+                return false;
+            }
+            customer.setVersion(customer.getVersion() + 1);
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -75,10 +172,8 @@ public class CustomerDAO {
     }
     
     public Customer getCustomerById(int customerId) {
-        String sql = "SELECT * FROM customers WHERE customer_id=?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
             
             pstmt.setInt(1, customerId);
             ResultSet rs = pstmt.executeQuery();
@@ -109,6 +204,52 @@ public class CustomerDAO {
         return customers;
     }
     
+    /**
+     * Page of customers, newest first, continuing after the customer with the given id
+     * @param lastId customer_id of the last customer on the previous page, or 0 for the first page
+     * @param limit Maximum number of rows to return
+     */
+    public List<Customer> getCustomersAfter(int lastId, int limit) {
+        if (lastId <= 0) {
+            return getCustomersAfter(NEWEST_FIRST, null, limit);
+        }
+        Customer lastCustomer = new Customer();
+        lastCustomer.setCustomerId(lastId);
+        return getCustomersAfter(NEWEST_FIRST, lastCustomer, limit);
+    }
+    
+    /**
+     * Page of customers in the given order, continuing after the given customer
+     * @param order Sort order, e.g. CustomerDAO.BY_NAME
+     * @param lastCustomer Last customer on the previous page, or null for the first page
+     * @param limit Maximum number of rows to return
+     */
+    public List<Customer> getCustomersAfter(Keyset<Customer> order, Customer lastCustomer, int limit) {
+        List<Customer> customers = new ArrayList<>();
+        String sql = "SELECT * FROM customers" +
+                     (lastCustomer != null ? " WHERE " + order.seekPredicate() : "") +
+                     " ORDER BY " + order.orderBy() + " LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (lastCustomer != null) {
+                index = order.bind(pstmt, index, lastCustomer);
+            }
+            pstmt.setInt(index, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    customers.add(mapResultSetToCustomer(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return customers;
+    }
+    
     public List<Customer> searchCustomers(String searchTerm) {
         List<Customer> customers = new ArrayList<>();
         String sql = "SELECT * FROM customers WHERE first_name LIKE ? OR last_name LIKE ? OR " +
@@ -134,6 +275,31 @@ public class CustomerDAO {
         return customers;
     }
     
+    /**
+     * Customers matching a field query, newest first
+     */
+    public List<Customer> findCustomers(FieldQuery<Field> query) {
+        List<Customer> customers = new ArrayList<>();
+        String sql = "SELECT * FROM customers WHERE " + query.predicate() +
+                     " ORDER BY customer_id DESC LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = query.bind(pstmt, 1);
+            pstmt.setInt(index, query.getLimit());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    customers.add(mapResultSetToCustomer(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return customers;
+    }
+    
     private Customer mapResultSetToCustomer(ResultSet rs) throws SQLException {
         Customer customer = new Customer();
         customer.setCustomerId(rs.getInt("customer_id"));
@@ -154,9 +320,26 @@ public class CustomerDAO {
             customer.setRegistrationDate(regDate.toLocalDate());
         }
         
+        customer.setVersion(rs.getInt("version"));
         return customer;
     }
     
+    public int getTotalCustomersCount() {
+        String sql = "SELECT COUNT(*) FROM customers";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+    
     // Check if license number already exists (for another customer)
     public boolean licenseExists(String licenseNumber, int excludeCustomerId) {
         String sql = "SELECT COUNT(*) FROM customers WHERE license_number = ? AND customer_id != ?";
@@ -177,6 +360,20 @@ public class CustomerDAO {
         return false;
     }
     
+    /**
+     * Which of the license numbers are already registered, as stored, checked with a
+     * few IN queries rather than one licenseExists() each
+     * @return null if the lookup failed
+     */
+    public Set<String> findExistingLicenses(Collection<String> licenseNumbers) {
+        try {
+            return InLists.existingValues("customers", "license_number", licenseNumbers);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
     // Check if license number exists (for new customer)
     public boolean licenseExists(String licenseNumber) {
         String sql = "SELECT COUNT(*) FROM customers WHERE license_number = ?";
@@ -1,6 +1,7 @@
 package dao;
 
 import application.DatabaseConnection;
+import models.DashboardSnapshot;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -9,6 +10,80 @@ import java.util.Map;
 
 public class DashboardDAO {
     
+    // Every dashboard tile; public so DatabaseTest can check its plan
+    public static final String SNAPSHOT_SQL = "SELECT " +
+                 "(SELECT COUNT(*) FROM cars) as total_cars, " +
+                 "(SELECT COUNT(*) FROM cars WHERE availability = 'Available') as available_cars, " +
+                 "(SELECT COUNT(*) FROM customers) as total_customers, " +
+                 "(SELECT COUNT(*) FROM employees) as total_employees, " +
+                 "(SELECT COUNT(*) FROM employees WHERE status = 'Active') as active_employees, " +
+                 "(SELECT COUNT(*) FROM rental_records WHERE status = 'Active') as active_rentals, " +
+                 "cur.total_rentals, cur.active_rentals as month_active, cur.completed_rentals, " +
+                 "cur.returned_rentals, cur.cancelled_rentals, cur.total_revenue, cur.booked_revenue, " +
+                 "cur.late_fees, cur.damage_fees, " +
+                 "prev.total_rentals as prev_rentals, prev.total_revenue as prev_revenue " +
+                 "FROM (SELECT " +
+                 "  COUNT(*) as total_rentals, " +
+                 "  COALESCE(SUM(CASE WHEN status = 'Active' THEN 1 ELSE 0 END), 0) as active_rentals, " +
+                 "  COALESCE(SUM(CASE WHEN status = 'Completed' THEN 1 ELSE 0 END), 0) as completed_rentals, " +
+                 "  COALESCE(SUM(CASE WHEN status = 'Returned' THEN 1 ELSE 0 END), 0) as returned_rentals, " +
+                 "  COALESCE(SUM(CASE WHEN status = 'Cancelled' THEN 1 ELSE 0 END), 0) as cancelled_rentals, " +
+                 "  COALESCE(SUM(total_amount), 0) as total_revenue, " +
+                 "  COALESCE(SUM(CASE WHEN status IN ('Active', 'Completed', 'Returned') " +
+                 "    THEN total_amount ELSE 0 END), 0) as booked_revenue, " +
+                 "  COALESCE(SUM(late_fee), 0) as late_fees, " +
+                 "  COALESCE(SUM(damage_fee), 0) as damage_fees " +
+                 "  FROM rental_records WHERE rental_date >= ? AND rental_date < ?) cur " +
+                 "CROSS JOIN (SELECT " +
+                 "  COUNT(*) as total_rentals, " +
+                 "  COALESCE(SUM(total_amount), 0) as total_revenue " +
+                 "  FROM rental_records WHERE rental_date >= ? AND rental_date < ?) prev";
+    
+    /**
+     * Load every dashboard tile in one round trip.
+     * Fleet counts come from scalar subqueries; current and previous month
+     * rental aggregates come from two derived tables over rental_date ranges, each
+     * read through idx_rental_date_totals (V6 migration).
+     * @return Snapshot of the dashboard, or an empty snapshot on failure
+     */
+    public DashboardSnapshot getDashboardSnapshot() {
+        DateRange currentMonth = DateRange.currentMonth();
+        DateRange previousMonth = DateRange.of(currentMonth.getStart().minusMonths(1), currentMonth.getStart());
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SNAPSHOT_SQL)) {
+            
+            int index = currentMonth.bind(pstmt, 1);
+            previousMonth.bind(pstmt, index);
+            
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return new DashboardSnapshot(
+                    rs.getInt("total_cars"),
+                    rs.getInt("available_cars"),
+                    rs.getInt("total_customers"),
+                    rs.getInt("total_employees"),
+                    rs.getInt("active_employees"),
+                    rs.getInt("active_rentals"),
+                    rs.getInt("total_rentals"),
+                    rs.getInt("month_active"),
+                    rs.getInt("completed_rentals"),
+                    rs.getInt("returned_rentals"),
+                    rs.getInt("cancelled_rentals"),
+                    rs.getDouble("total_revenue"),
+                    rs.getDouble("booked_revenue"),
+                    rs.getDouble("late_fees"),
+                    rs.getDouble("damage_fees"),
+                    rs.getInt("prev_rentals"),
+                    rs.getDouble("prev_revenue"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading dashboard snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return DashboardSnapshot.empty();
+    }
+    
     // Get total cars count
     public int getTotalCarsCount() {
         String sql = "SELECT COUNT(*) FROM cars WHERE status = 'Active'";
@@ -100,13 +175,13 @@ public class DashboardDAO {
     // Get monthly revenue (returns double)
     public double getMonthlyRevenue() {
         String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM rental_records " +
-                    "WHERE MONTH(rental_date) = MONTH(CURRENT_DATE()) " +
-                    "AND YEAR(rental_date) = YEAR(CURRENT_DATE())";
+                    "WHERE rental_date >= ? AND rental_date < ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
+            DateRange.currentMonth().bind(pstmt, 1);
+            ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 return rs.getDouble(1);
             }
@@ -0,0 +1,89 @@
+package dao;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * DateRange - Half-open [start, end) date range used by report queries
+ *
+ * Queries filter with "rental_date >= ? AND rental_date < ?" so MySQL can use the
+ * rental_date indexes. Wrapping the column in MONTH()/YEAR() hides it from the
+ * optimizer and forces a full scan of rental_records.
+ */
+public final class DateRange {
+
+    private final LocalDate start;
+    private final LocalDate endExclusive;
+
+    private DateRange(LocalDate start, LocalDate endExclusive) {
+        if (start == null || endExclusive == null) {
+            throw new IllegalArgumentException("Date range bounds must not be null");
+        }
+        if (endExclusive.isBefore(start)) {
+            throw new IllegalArgumentException("Date range end " + endExclusive + " is before start " + start);
+        }
+        this.start = start;
+        this.endExclusive = endExclusive;
+    }
+
+    /**
+     * Range covering a whole calendar month
+     * @param month Month number (1-12)
+     * @param year Year
+     */
+    public static DateRange ofMonth(int month, int year) {
+        LocalDate first = LocalDate.of(year, month, 1);
+        return new DateRange(first, first.plusMonths(1));
+    }
+
+    /**
+     * Range covering the current calendar month
+     */
+    public static DateRange currentMonth() {
+        LocalDate now = LocalDate.now();
+        return ofMonth(now.getMonthValue(), now.getYear());
+    }
+
+    /**
+     * Arbitrary range
+     * @param start First day included
+     * @param endExclusive First day no longer included
+     */
+    public static DateRange of(LocalDate start, LocalDate endExclusive) {
+        return new DateRange(start, endExclusive);
+    }
+
+    /**
+     * Range from start to end, both days included
+     */
+    public static DateRange inclusive(LocalDate start, LocalDate endInclusive) {
+        return new DateRange(start, endInclusive.plusDays(1));
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEndExclusive() {
+        return endExclusive;
+    }
+
+    /**
+     * Bind the range to two consecutive placeholders ("col >= ? AND col < ?")
+     * @param pstmt Statement to bind
+     * @param index Index of the first placeholder
+     * @return Index of the next free placeholder
+     */
+    public int bind(PreparedStatement pstmt, int index) throws SQLException {
+        pstmt.setDate(index, Date.valueOf(start));
+        pstmt.setDate(index + 1, Date.valueOf(endExclusive));
+        return index + 2;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + endExclusive + ")";
+    }
+}
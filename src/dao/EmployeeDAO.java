@@ -10,6 +10,32 @@ import java.util.List;
 public class EmployeeDAO {
     private static final String TABLE_NAME = "employees";
     
+    /**
+     * Fields for findEmployees(FieldQuery); each has its own index (V4 migration)
+     */
+    public enum Field implements FieldQuery.Field {
+        NAME("first_name", "last_name"),
+        EMAIL("email"),
+        PHONE("phone"),
+        POSITION("position");
+        
+        private final List<String> columns;
+        
+        Field(String... columns) {
+            this.columns = List.of(columns);
+        }
+        
+        @Override
+        public List<String> columns() {
+            return columns;
+        }
+        
+        @Override
+        public boolean splitsTerm() {
+            return this == NAME;
+        }
+    }
+    
     // Check if email already exists (FIXED VERSION)
     public boolean emailExists(String email) {
         String sql = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE LOWER(email) = LOWER(?)";
@@ -64,21 +90,27 @@ public class EmployeeDAO {
         return false;
     }
     
-    // Update employee
+    // Update employee, if nobody changed them since they were read; bumps the version.
+    // Throws OptimisticLockException if they were changed
     public boolean updateEmployee(Employee employee) {
         String sql = "UPDATE " + TABLE_NAME + " SET " +
                      "first_name = ?, last_name = ?, email = ?, phone = ?, address = ?, " +
-                     "position = ?, salary = ?, hire_date = ?, status = ? " +
-                     "WHERE employee_id = ?";
+                     "position = ?, salary = ?, hire_date = ?, status = ?, version = version + 1 " +
+                     "WHERE employee_id = ? AND version = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             setEmployeeStatementParameters(pstmt, employee);
-            pstmt.setInt(9, employee.getEmployeeId());
+            pstmt.setInt(10, employee.getEmployeeId());
+            pstmt.setInt(11, employee.getVersion());
             
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            if (!RowVersions.checkUpdated(pstmt.executeUpdate(), conn, TABLE_NAME, "employee_id",
+                                          employee.getEmployeeId(), employee.getVersion())) {
+                return false;
+            }
+            employee.setVersion(employee.getVersion() + 1);
+            return true;
         } catch (SQLException e) {
             System.err.println("Error updating employee: " + e.getMessage());
             e.printStackTrace();
@@ -88,7 +120,7 @@ public class EmployeeDAO {
     
     // Delete employee (soft delete)
     public boolean deleteEmployee(int employeeId) {
-        String sql = "UPDATE " + TABLE_NAME + " SET status = 'Inactive' WHERE employee_id = ?";
+        String sql = "UPDATE " + TABLE_NAME + " SET status = 'Inactive', version = version + 1 WHERE employee_id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -169,6 +201,30 @@ public class EmployeeDAO {
         return employees;
     }
     
+    // Employees matching a field query, ordered by name
+    public List<Employee> findEmployees(FieldQuery<Field> query) {
+        List<Employee> employees = new ArrayList<>();
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE " + query.predicate() +
+                     " ORDER BY first_name, last_name LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = query.bind(pstmt, 1);
+            pstmt.setInt(index, query.getLimit());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    employees.add(mapResultSetToEmployee(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error searching employees: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return employees;
+    }
+    
     // ============================================
     // ADD THIS METHOD FOR DASHBOARD
     // ============================================
@@ -229,6 +285,7 @@ public class EmployeeDAO {
         }
         
         employee.setStatus(rs.getString("status"));
+        employee.setVersion(rs.getInt("version"));
         return employee;
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * FieldQuery - Search on one field of a table, pushed down to the database
+ *
+ * Replaces loading a whole table and filtering it in Java: the DAO turns the query
+ * into a WHERE clause on the field's own columns plus a LIMIT, so with PREFIX or
+ * EXACT matching an index on those columns answers it directly:
+ * <pre>
+ * customerDAO.findCustomers(FieldQuery.of(CustomerDAO.Field.EMAIL, "abebe@").prefix().limit(50));
+ * -- SELECT * FROM customers WHERE (email LIKE ? ESCAPE '!') ORDER BY customer_id DESC LIMIT ?
+ * </pre>
+ * A field made of several columns matches if any of them does. A field that
+ * splits its term (a name: first and last) also matches "first last" terms, the
+ * first word against the first column and the rest against the second.
+ *
+ * Instances are immutable; each modifier returns a new FieldQuery.
+ */
+public final class FieldQuery<F extends FieldQuery.Field> {
+
+    public static final int DEFAULT_LIMIT = 500;
+
+    /**
+     * A searchable field of one table; implemented by an enum in each DAO
+     */
+    public interface Field {
+        /**
+         * Columns holding the field, as written in SQL
+         */
+        List<String> columns();
+
+        /**
+         * Whether a term containing a space is split across the first two columns
+         */
+        default boolean splitsTerm() {
+            return false;
+        }
+    }
+
+    private final F field;
+    private final String term;
+    private final MatchMode mode;
+    private final int limit;
+
+    private FieldQuery(F field, String term, MatchMode mode, int limit) {
+        this.field = field;
+        this.term = term;
+        this.mode = mode;
+        this.limit = limit;
+    }
+
+    /**
+     * Prefix search on a field, at most DEFAULT_LIMIT rows
+     * @param term Search term; leading and trailing spaces are ignored
+     */
+    public static <F extends Field> FieldQuery<F> of(F field, String term) {
+        if (field == null || term == null || term.trim().isEmpty()) {
+            throw new IllegalArgumentException("A field query needs a field and a non-empty term");
+        }
+        return new FieldQuery<>(field, term.trim(), MatchMode.PREFIX, DEFAULT_LIMIT);
+    }
+
+    public FieldQuery<F> matching(MatchMode mode) {
+        return new FieldQuery<>(field, term, mode, limit);
+    }
+
+    public FieldQuery<F> exact() {
+        return matching(MatchMode.EXACT);
+    }
+
+    public FieldQuery<F> prefix() {
+        return matching(MatchMode.PREFIX);
+    }
+
+    public FieldQuery<F> contains() {
+        return matching(MatchMode.CONTAINS);
+    }
+
+    public FieldQuery<F> limit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return new FieldQuery<>(field, term, mode, limit);
+    }
+
+    public F getField() {
+        return field;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public MatchMode getMode() {
+        return mode;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * WHERE condition, e.g. "(first_name LIKE ? ESCAPE '!' OR last_name LIKE ? ESCAPE '!')"
+     */
+    public String predicate() {
+        StringBuilder sb = new StringBuilder("(");
+        for (String column : field.columns()) {
+            if (sb.length() > 1) {
+                sb.append(" OR ");
+            }
+            sb.append(mode.predicate(column));
+        }
+        String[] parts = splitTerm();
+        if (parts != null) {
+            List<String> columns = field.columns();
+            sb.append(" OR (").append(mode.predicate(columns.get(0)))
+              .append(" AND ").append(mode.predicate(columns.get(1))).append(')');
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Bind the term to predicate()'s placeholders
+     * @param pstmt Statement to bind
+     * @param index Index of the first placeholder of the predicate
+     * @return Index of the next free placeholder
+     */
+    public int bind(PreparedStatement pstmt, int index) throws SQLException {
+        String value = mode.bindValue(term);
+        for (int i = 0; i < field.columns().size(); i++) {
+            pstmt.setString(index++, value);
+        }
+        String[] parts = splitTerm();
+        if (parts != null) {
+            pstmt.setString(index++, mode.bindValue(parts[0]));
+            pstmt.setString(index++, mode.bindValue(parts[1]));
+        }
+        return index;
+    }
+
+    private String[] splitTerm() {
+        if (!field.splitsTerm() || field.columns().size() < 2) {
+            return null;
+        }
+        String[] parts = term.split("\\s+", 2);
+        return parts.length == 2 ? parts : null;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldQuery[" + field + " " + mode + " '" + term + "' limit " + limit + "]";
+    }
+}
@@ -0,0 +1,64 @@
+package dao;
+
+import application.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * InLists - Looks up many key values with a few IN (?, ?, ...) queries
+ *
+ * Used by the bulk existence checks (CarDAO.findExistingRegistrations,
+ * CustomerDAO.findExistingLicenses) instead of one query per value. Values are bound
+ * MAX_SIZE at a time, so a statement stays well within driver parameter limits and
+ * only the last chunk has a different placeholder count.
+ */
+final class InLists {
+
+    static final int MAX_SIZE = 500;
+
+    private InLists() {
+    }
+
+    /**
+     * The values that occur in the column, as stored there
+     * @param table Table name; never user input
+     * @param column Column to match, ideally indexed; never user input
+     */
+    static Set<String> existingValues(String table, String column, Collection<String> values) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        List<String> pending = new ArrayList<>(values);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < pending.size(); from += MAX_SIZE) {
+                List<String> chunk = pending.subList(from, Math.min(pending.size(), from + MAX_SIZE));
+                String sql = "SELECT " + column + " FROM " + table + " WHERE " + column + " IN (" +
+                             placeholders(chunk.size()) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+}
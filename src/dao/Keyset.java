@@ -0,0 +1,139 @@
+package dao;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset - Sort order used for keyset (seek) pagination
+ *
+ * Instead of "LIMIT n OFFSET m", which makes MySQL read and discard every skipped
+ * row, the next page starts right after the last row of the previous one:
+ * <pre>
+ * WHERE brand > ? OR (brand = ? AND (model > ? OR (model = ? AND car_id > ?)))
+ * ORDER BY brand ASC, model ASC, car_id ASC LIMIT ?
+ * </pre>
+ * The last column must be unique (the primary key) so every row has a distinct
+ * position, and keyset columns must not be nullable.
+ *
+ * Instances are immutable; each then...() call returns a new Keyset.
+ */
+public final class Keyset<T> {
+
+    private final List<Column<T>> columns;
+
+    private Keyset(List<Column<T>> columns) {
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Order by a column, smallest first
+     * @param column Column name as written in SQL
+     * @param extractor Reads the column's value from a row object, used to seek past it
+     */
+    public static <T> Keyset<T> ascending(String column, Function<T, ?> extractor) {
+        return new Keyset<T>(new ArrayList<>()).then(column, false, extractor);
+    }
+
+    /**
+     * Order by a column, largest first
+     */
+    public static <T> Keyset<T> descending(String column, Function<T, ?> extractor) {
+        return new Keyset<T>(new ArrayList<>()).then(column, true, extractor);
+    }
+
+    public Keyset<T> thenAscending(String column, Function<T, ?> extractor) {
+        return then(column, false, extractor);
+    }
+
+    public Keyset<T> thenDescending(String column, Function<T, ?> extractor) {
+        return then(column, true, extractor);
+    }
+
+    private Keyset<T> then(String column, boolean descending, Function<T, ?> extractor) {
+        List<Column<T>> extended = new ArrayList<>(columns);
+        extended.add(new Column<>(column, descending, extractor));
+        return new Keyset<>(extended);
+    }
+
+    /**
+     * Predicate selecting the rows after a given row, e.g.
+     * "(brand > ? OR (brand = ? AND car_id > ?))"
+     */
+    public String seekPredicate() {
+        return "(" + seekPredicate(0) + ")";
+    }
+
+    private String seekPredicate(int i) {
+        Column<T> column = columns.get(i);
+        String after = column.name + (column.descending ? " < ?" : " > ?");
+        if (i == columns.size() - 1) {
+            return after;
+        }
+        return after + " OR (" + column.name + " = ? AND (" + seekPredicate(i + 1) + "))";
+    }
+
+    /**
+     * ORDER BY list matching the seek predicate, e.g. "brand ASC, car_id ASC"
+     */
+    public String orderBy() {
+        StringBuilder sb = new StringBuilder();
+        for (Column<T> column : columns) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(column.name).append(column.descending ? " DESC" : " ASC");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Bind the values of the last row seen to the seek predicate's placeholders
+     * @param pstmt Statement to bind
+     * @param index Index of the first placeholder of the seek predicate
+     * @param lastRow Last row of the previous page
+     * @return Index of the next free placeholder
+     */
+    public int bind(PreparedStatement pstmt, int index, T lastRow) throws SQLException {
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = toSqlValue(columns.get(i).extractor.apply(lastRow));
+            pstmt.setObject(index++, value);
+            if (i < columns.size() - 1) {
+                pstmt.setObject(index++, value);
+            }
+        }
+        return index;
+    }
+
+    private static Object toSqlValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Keyset columns must not be null");
+        }
+        if (value instanceof LocalDate) {
+            return Date.valueOf((LocalDate) value);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "Keyset[" + orderBy() + "]";
+    }
+
+    private static final class Column<T> {
+        final String name;
+        final boolean descending;
+        final Function<T, ?> extractor;
+
+        Column(String name, boolean descending, Function<T, ?> extractor) {
+            this.name = name;
+            this.descending = descending;
+            this.extractor = extractor;
+        }
+    }
+}
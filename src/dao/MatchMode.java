@@ -0,0 +1,49 @@
+package dao;
+
+/**
+ * MatchMode - How a FieldQuery compares a column with the search term
+ *
+ * EXACT and PREFIX can use an index on the column (PREFIX becomes an index range
+ * scan, LIKE 'term%'); CONTAINS (LIKE '%term%') has to read every row.
+ */
+public enum MatchMode {
+    EXACT,
+    PREFIX,
+    CONTAINS;
+
+    // Portable between MySQL (default escape is backslash) and H2
+    static final char ESCAPE = '!';
+
+    /**
+     * Predicate for one column, e.g. "email LIKE ? ESCAPE '!'"
+     */
+    String predicate(String column) {
+        return this == EXACT ? column + " = ?" : column + " LIKE ? ESCAPE '" + ESCAPE + "'";
+    }
+
+    /**
+     * Value to bind to predicate(); LIKE wildcards in the term are matched literally
+     */
+    String bindValue(String term) {
+        switch (this) {
+            case PREFIX:
+                return escapeLike(term) + "%";
+            case CONTAINS:
+                return "%" + escapeLike(term) + "%";
+            default:
+                return term;
+        }
+    }
+
+    private static String escapeLike(String term) {
+        StringBuilder escaped = new StringBuilder(term.length() + 4);
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package dao;
+
+/**
+ * OptimisticLockException - A row was changed by someone else since it was read
+ *
+ * Thrown by the DAO update methods when the row's version no longer matches the one
+ * the caller read (see the V5 migration). Nothing was written. The caller can re-read
+ * the row and try again (application.RetryPolicy does this for whole transactions),
+ * or show the user the current data.
+ *
+ * Unchecked, so it passes through the DAOs' SQLException handling and rolls back any
+ * TransactionTemplate it is thrown in.
+ */
+public class OptimisticLockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String table;
+    private final int id;
+    private final int expectedVersion;
+    private final int actualVersion;
+
+    public OptimisticLockException(String table, int id, int expectedVersion, int actualVersion) {
+        super(table + " row " + id + " was changed by someone else (expected version " +
+              expectedVersion + ", found " + actualVersion + ")");
+        this.table = table;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public int getActualVersion() {
+        return actualVersion;
+    }
+}
@@ -1,7 +1,10 @@
 package dao;
 
 import models.RentalRecord;
+import models.ReservationOutcome;
 import application.DatabaseConnection;
+import application.StatementRegistry;
+import application.TransactionTemplate;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -12,14 +15,81 @@ import java.util.List;
 import java.util.Map;
 
 public class RentDAO {
+    // Sort orders for keyset pagination; each ends with the primary key
+    public static final Keyset<RentalRecord> NEWEST_FIRST = Keyset.descending("rental_id", RentalRecord::getRentalId);
+    public static final Keyset<RentalRecord> BY_RENTAL_DATE = Keyset.<RentalRecord>descending("rental_date", RentalRecord::getRentalDate)
+            .thenDescending("rental_id", RentalRecord::getRentalId);
+    
+    // Hot statements, kept prepared on every pooled connection
+    private static final String SELECT_BY_ID =
+            StatementRegistry.register("rental.byId", "SELECT * FROM rental_records WHERE rental_id=?");
+    private static final String SELECT_CAR_AVAILABILITY =
+            StatementRegistry.register("car.availability", "SELECT availability FROM cars WHERE car_id=?");
+    
+    private static final String INSERT =
+            "INSERT INTO rental_records (car_id, customer_id, employee_id, rental_date, " +
+            "return_date, total_amount, late_fee, damage_fee, status, notes, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // Report rollups are updated in the same transaction as the rental itself
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final CarDAO carDAO = new CarDAO();
     
     public boolean addRental(RentalRecord rental) {
-        String sql = "INSERT INTO rental_records (car_id, customer_id, employee_id, rental_date, " +
-                     "return_date, total_amount, late_fee, damage_fee, status, notes, created_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try {
+            return TransactionTemplate.execute(conn -> insertRental(conn, rental));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Take the rental's car if it is Available and insert the rental, in one transaction:
+     * a single conditional UPDATE of the car, then the INSERT. However many counters try
+     * at once, exactly one gets RESERVED; the others are told why not.
+     * @param rental New Active rental; gets its id when RESERVED
+     */
+    public ReservationOutcome tryReserve(RentalRecord rental) {
+        try {
+            return TransactionTemplate.execute(conn -> {
+                if (!carDAO.claimIfAvailable(conn, rental.getCarId())) {
+                    return describeUnavailable(conn, rental.getCarId());
+                }
+                if (!insertRental(conn, rental)) {
+                    throw new SQLException("Failed to create rental record");
+                }
+                return ReservationOutcome.RESERVED;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reserving car " + rental.getCarId() + ": " + e.getMessage());
+            e.printStackTrace();
+            return ReservationOutcome.FAILED;
+        }
+    }
+    
+    /**
+     * Why a car could not be claimed
+     */
+    private ReservationOutcome describeUnavailable(Connection conn, int carId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_CAR_AVAILABILITY)) {
+            pstmt.setInt(1, carId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return ReservationOutcome.NOT_FOUND;
+                }
+                String availability = rs.getString(1);
+                if ("Maintenance".equalsIgnoreCase(availability) || "Unavailable".equalsIgnoreCase(availability)) {
+                    return ReservationOutcome.UNDER_MAINTENANCE;
+                }
+                // Rented, or returned again just after another reservation took it
+                return ReservationOutcome.ALREADY_RENTED;
+            }
+        }
+    }
+    
+    private boolean insertRental(Connection conn, RentalRecord rental) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, rental.getCarId());
             pstmt.setInt(2, rental.getCustomerId());
@@ -34,20 +104,63 @@ public class RentDAO {
             pstmt.setTimestamp(11, Timestamp.valueOf(rental.getCreatedAt() != null ? 
                            rental.getCreatedAt() : LocalDateTime.now()));
             
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            // Callers such as the availability index need the new rental's id
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    rental.setRentalId(keys.getInt(1));
+                }
+            }
         }
+        rollupDAO.applyChange(conn, null, rental);
+        return true;
     }
     
+    /**
+     * Save a rental if nobody changed it since it was read; bumps its version
+     * @return false if the rental no longer exists
+     * @throws OptimisticLockException If the rental was changed since it was read
+     */
     public boolean updateRental(RentalRecord rental) {
         String sql = "UPDATE rental_records SET car_id=?, customer_id=?, employee_id=?, " +
                      "rental_date=?, return_date=?, total_amount=?, late_fee=?, damage_fee=?, " +
-                     "status=?, notes=?, actual_return_date=? WHERE rental_id=?";
+                     "status=?, notes=?, actual_return_date=?, version=version+1 " +
+                     "WHERE rental_id=? AND version=?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try {
+            return TransactionTemplate.execute(conn -> {
+                // The version check makes sure the row read here is the one this update
+                // replaces, so the rollups move exactly that; no row lock needed
+                RentalRecord before = rollupDAO.isBuilt() ? readRental(conn, rental.getRentalId()) : null;
+                if (before != null && before.getVersion() != rental.getVersion()) {
+                    throw new OptimisticLockException("rental_records", rental.getRentalId(),
+                                                      rental.getVersion(), before.getVersion());
+                }
+                if (!writeRental(conn, sql, rental)) {
+                    return false;
+                }
+                rollupDAO.applyChange(conn, before, rental);
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    private RentalRecord readRental(Connection conn, int rentalId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
+            pstmt.setInt(1, rentalId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToRental(rs) : null;
+            }
+        }
+    }
+    
+    private boolean writeRental(Connection conn, String sql, RentalRecord rental) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, rental.getCarId());
             pstmt.setInt(2, rental.getCustomerId());
@@ -67,19 +180,20 @@ public class RentDAO {
             }
             
             pstmt.setInt(12, rental.getRentalId());
+            pstmt.setInt(13, rental.getVersion());
             
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
+            if (!RowVersions.checkUpdated(pstmt.executeUpdate(), conn, "rental_records", "rental_id",
+                                          rental.getRentalId(), rental.getVersion())) {
+                return false;
+            }
         }
+        rental.setVersion(rental.getVersion() + 1);
+        return true;
     }
     
     public RentalRecord getRentalById(int rentalId) {
-        String sql = "SELECT * FROM rental_records WHERE rental_id=?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
             
             pstmt.setInt(1, rentalId);
             ResultSet rs = pstmt.executeQuery();
@@ -110,6 +224,52 @@ public class RentDAO {
         return rentals;
     }
     
+    /**
+     * Page of rentals, newest first, continuing after the rental with the given id
+     * @param lastId rental_id of the last rental on the previous page, or 0 for the first page
+     * @param limit Maximum number of rows to return
+     */
+    public List<RentalRecord> getRentalsAfter(int lastId, int limit) {
+        if (lastId <= 0) {
+            return getRentalsAfter(NEWEST_FIRST, null, limit);
+        }
+        RentalRecord lastRental = new RentalRecord();
+        lastRental.setRentalId(lastId);
+        return getRentalsAfter(NEWEST_FIRST, lastRental, limit);
+    }
+    
+    /**
+     * Page of rentals in the given order, continuing after the given rental
+     * @param order Sort order, e.g. RentDAO.BY_RENTAL_DATE
+     * @param lastRental Last rental on the previous page, or null for the first page
+     * @param limit Maximum number of rows to return
+     */
+    public List<RentalRecord> getRentalsAfter(Keyset<RentalRecord> order, RentalRecord lastRental, int limit) {
+        List<RentalRecord> rentals = new ArrayList<>();
+        String sql = "SELECT * FROM rental_records" +
+                     (lastRental != null ? " WHERE " + order.seekPredicate() : "") +
+                     " ORDER BY " + order.orderBy() + " LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (lastRental != null) {
+                index = order.bind(pstmt, index, lastRental);
+            }
+            pstmt.setInt(index, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rentals.add(mapResultSetToRental(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return rentals;
+    }
+    
     public List<RentalRecord> getActiveRentals() {
         List<RentalRecord> rentals = new ArrayList<>();
         String sql = "SELECT * FROM rental_records WHERE status='Active' ORDER BY rental_date DESC";
@@ -127,6 +287,32 @@ public class RentDAO {
         return rentals;
     }
     
+    /**
+     * Ids of cars with an active rental overlapping the range
+     * (SQL counterpart of AvailabilityIndex.findFreeCars)
+     */
+    public List<Integer> getBookedCarIds(DateRange range) {
+        List<Integer> carIds = new ArrayList<>();
+        String sql = "SELECT DISTINCT car_id FROM rental_records " +
+                     "WHERE status='Active' AND rental_date < ? AND return_date > ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(range.getEndExclusive()));
+            pstmt.setDate(2, Date.valueOf(range.getStart()));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    carIds.add(rs.getInt("car_id"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return carIds;
+    }
+    
     public List<RentalRecord> getRentalsByCustomerId(int customerId) {
         List<RentalRecord> rentals = new ArrayList<>();
         String sql = "SELECT * FROM rental_records WHERE customer_id=? ORDER BY rental_date DESC";
@@ -167,13 +353,12 @@ public class RentDAO {
     
     public double getMonthlyRevenue(int year, int month) {
         String sql = "SELECT SUM(total_amount) as total FROM rental_records " +
-                     "WHERE YEAR(rental_date)=? AND MONTH(rental_date)=? AND status='Completed'";
+                     "WHERE status='Completed' AND rental_date >= ? AND rental_date < ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, year);
-            pstmt.setInt(2, month);
+            DateRange.ofMonth(month, year).bind(pstmt, 1);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
@@ -218,6 +403,7 @@ public class RentDAO {
             rental.setCreatedAt(createdAt.toLocalDateTime());
         }
         
+        rental.setVersion(rs.getInt("version"));
         return rental;
     }
     
@@ -280,14 +466,14 @@ public class RentDAO {
 
     public double getMonthlyRevenue() {
         String sql = "SELECT COALESCE(SUM(total_amount), 0) as total FROM rental_records " +
-                    "WHERE MONTH(rental_date) = MONTH(CURRENT_DATE()) " +
-                    "AND YEAR(rental_date) = YEAR(CURRENT_DATE()) " +
-                    "AND status IN ('Active', 'Completed', 'Returned')";
+                    "WHERE status IN ('Active', 'Completed', 'Returned') " +
+                    "AND rental_date >= ? AND rental_date < ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-           
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            DateRange.currentMonth().bind(pstmt, 1);
+            ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 return rs.getDouble("total");
             }
@@ -3,7 +3,11 @@ package dao;
 import models.ReportData;
 import application.DatabaseConnection;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,33 +15,75 @@ import java.util.List;
 /**
  * ReportsDAO - Data Access Object for generating various reports
  * Handles all database queries for reporting functionality
+ *
+ * The report queries throw SQLException rather than returning empty figures, so
+ * ReportsService can tell a failed report section from an empty one.
  */
 public class ReportsDAO {
     
+    // The date-range report queries; public so DatabaseTest can check their plans
+    public static final String MONTHLY_REVENUE_SQL = "SELECT " +
+                     "COUNT(*) as total_rentals, " +
+                     "SUM(CASE WHEN status = 'Active' THEN 1 ELSE 0 END) as active_rentals, " +
+                     "SUM(CASE WHEN status = 'Completed' THEN 1 ELSE 0 END) as completed_rentals, " +
+                     "SUM(CASE WHEN status = 'Returned' THEN 1 ELSE 0 END) as returned_rentals, " +
+                     "COALESCE(SUM(total_amount), 0) as total_revenue " +
+                     "FROM rental_records " +
+                     "WHERE rental_date >= ? AND rental_date < ?";
+    
+    public static final String RENTAL_COUNTS_SQL = "SELECT " +
+                     "COUNT(*) as total_rentals, " +
+                     "SUM(CASE WHEN status = 'Active' THEN 1 ELSE 0 END) as active_rentals, " +
+                     "SUM(CASE WHEN status = 'Completed' THEN 1 ELSE 0 END) as completed_rentals, " +
+                     "SUM(CASE WHEN status = 'Returned' THEN 1 ELSE 0 END) as returned_rentals, " +
+                     "SUM(CASE WHEN status = 'Cancelled' THEN 1 ELSE 0 END) as cancelled_rentals " +
+                     "FROM rental_records " +
+                     "WHERE rental_date >= ? AND rental_date < ?";
+    
+    public static final String RENTAL_REVENUE_SQL = "SELECT " +
+                     "COALESCE(SUM(total_amount), 0) as total_revenue, " +
+                     "COALESCE(SUM(late_fee), 0) as total_late_fees, " +
+                     "COALESCE(SUM(damage_fee), 0) as total_damage_fees " +
+                     "FROM rental_records " +
+                     "WHERE rental_date >= ? AND rental_date < ?";
+    
+    public static final String CAR_UTILIZATION_SQL = "SELECT " +
+                     "c.brand, c.model, c.registration_number, " +
+                     "COUNT(r.rental_id) as times_rented, " +
+                     "COALESCE(SUM(r.total_amount), 0) as car_revenue " +
+                     "FROM cars c " +
+                     "LEFT JOIN rental_records r ON c.car_id = r.car_id " +
+                     "AND r.rental_date >= ? AND r.rental_date < ? " +
+                     "GROUP BY c.car_id " +
+                     "ORDER BY times_rented DESC, car_revenue DESC";
+    
+    public static final String CUSTOMER_ACTIVITY_SQL = "SELECT " +
+                     "cust.first_name, cust.last_name, cust.phone, " +
+                     "COUNT(r.rental_id) as customer_rentals, " +
+                     "COALESCE(SUM(r.total_amount), 0) as customer_spent " +
+                     "FROM customers cust " +
+                     "LEFT JOIN rental_records r ON cust.customer_id = r.customer_id " +
+                     "AND r.rental_date >= ? AND r.rental_date < ? " +
+                     "GROUP BY cust.customer_id " +
+                     "ORDER BY customer_spent DESC, customer_rentals DESC";
+    
+    // Rows fetched per round trip by drivers that page through a cursor
+    private static final int EXPORT_FETCH_SIZE = 1_000;
+    
     /**
      * Get monthly revenue report data
      * @param month Month number (1-12)
      * @param year Year
      * @return ReportData with monthly statistics
      */
-    public ReportData getMonthlyRevenueReport(int month, int year) {
+    public ReportData getMonthlyRevenueReport(int month, int year) throws SQLException {
         ReportData report = new ReportData("MONTHLY_REVENUE");
         report.setPeriod(getMonthName(month) + " " + year);
         
-        String sql = "SELECT " +
-                     "COUNT(*) as total_rentals, " +
-                     "SUM(CASE WHEN status = 'Active' THEN 1 ELSE 0 END) as active_rentals, " +
-                     "SUM(CASE WHEN status = 'Completed' THEN 1 ELSE 0 END) as completed_rentals, " +
-                     "SUM(CASE WHEN status = 'Returned' THEN 1 ELSE 0 END) as returned_rentals, " +
-                     "COALESCE(SUM(total_amount), 0) as total_revenue " +
-                     "FROM rental_records " +
-                     "WHERE MONTH(rental_date) = ? AND YEAR(rental_date) = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(MONTHLY_REVENUE_SQL)) {
             
-            pstmt.setInt(1, month);
-            pstmt.setInt(2, year);
+            DateRange.ofMonth(month, year).bind(pstmt, 1);
             
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -47,8 +93,6 @@ public class ReportsDAO {
                 report.setReturnedRentals(rs.getInt("returned_rentals"));
                 report.setTotalRevenue(rs.getDouble("total_revenue"));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         return report;
@@ -60,24 +104,23 @@ public class ReportsDAO {
      * @param year Year
      * @return ReportData with detailed rental statistics
      */
-    public ReportData getRentalStatistics(int month, int year) {
+    public ReportData getRentalStatistics(int month, int year) throws SQLException {
+        return getRentalStatistics(DateRange.ofMonth(month, year));
+    }
+    
+    /**
+     * Get comprehensive rental statistics for any date range
+     * @param range Rental dates to include
+     * @return ReportData with detailed rental statistics
+     */
+    public ReportData getRentalStatistics(DateRange range) throws SQLException {
         ReportData report = new ReportData("RENTAL_STATISTICS");
         
         // Get rental counts by status
-        String rentalStatsSql = "SELECT " +
-                               "COUNT(*) as total_rentals, " +
-                               "SUM(CASE WHEN status = 'Active' THEN 1 ELSE 0 END) as active_rentals, " +
-                               "SUM(CASE WHEN status = 'Completed' THEN 1 ELSE 0 END) as completed_rentals, " +
-                               "SUM(CASE WHEN status = 'Returned' THEN 1 ELSE 0 END) as returned_rentals, " +
-                               "SUM(CASE WHEN status = 'Cancelled' THEN 1 ELSE 0 END) as cancelled_rentals " +
-                               "FROM rental_records " +
-                               "WHERE MONTH(rental_date) = ? AND YEAR(rental_date) = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(rentalStatsSql)) {
+             PreparedStatement pstmt = conn.prepareStatement(RENTAL_COUNTS_SQL)) {
             
-            pstmt.setInt(1, month);
-            pstmt.setInt(2, year);
+            range.bind(pstmt, 1);
             
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -87,23 +130,13 @@ public class ReportsDAO {
                 report.setReturnedRentals(rs.getInt("returned_rentals"));
                 report.setCancelledRentals(rs.getInt("cancelled_rentals"));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         // Get revenue statistics
-        String revenueStatsSql = "SELECT " +
-                                "COALESCE(SUM(total_amount), 0) as total_revenue, " +
-                                "COALESCE(SUM(late_fee), 0) as total_late_fees, " +
-                                "COALESCE(SUM(damage_fee), 0) as total_damage_fees " +
-                                "FROM rental_records " +
-                                "WHERE MONTH(rental_date) = ? AND YEAR(rental_date) = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(revenueStatsSql)) {
+             PreparedStatement pstmt = conn.prepareStatement(RENTAL_REVENUE_SQL)) {
             
-            pstmt.setInt(1, month);
-            pstmt.setInt(2, year);
+            range.bind(pstmt, 1);
             
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -111,8 +144,6 @@ public class ReportsDAO {
                 report.setLateFees(rs.getDouble("total_late_fees"));
                 report.setDamageFees(rs.getDouble("total_damage_fees"));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         return report;
@@ -124,24 +155,13 @@ public class ReportsDAO {
      * @param year Year
      * @return List of ReportData for each car
      */
-    public List<ReportData> getCarUtilizationReport(int month, int year) {
+    public List<ReportData> getCarUtilizationReport(int month, int year) throws SQLException {
         List<ReportData> reports = new ArrayList<>();
         
-        String sql = "SELECT " +
-                     "c.brand, c.model, c.registration_number, " +
-                     "COUNT(r.rental_id) as times_rented, " +
-                     "COALESCE(SUM(r.total_amount), 0) as car_revenue " +
-                     "FROM cars c " +
-                     "LEFT JOIN rental_records r ON c.car_id = r.car_id " +
-                     "AND MONTH(r.rental_date) = ? AND YEAR(r.rental_date) = ? " +
-                     "GROUP BY c.car_id " +
-                     "ORDER BY times_rented DESC, car_revenue DESC";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(CAR_UTILIZATION_SQL)) {
             
-            pstmt.setInt(1, month);
-            pstmt.setInt(2, year);
+            DateRange.ofMonth(month, year).bind(pstmt, 1);
             
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -152,8 +172,6 @@ public class ReportsDAO {
                 report.setCarRevenue(rs.getDouble("car_revenue"));
                 reports.add(report);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         return reports;
@@ -165,24 +183,13 @@ public class ReportsDAO {
      * @param year Year
      * @return List of ReportData for each customer
      */
-    public List<ReportData> getCustomerActivityReport(int month, int year) {
+    public List<ReportData> getCustomerActivityReport(int month, int year) throws SQLException {
         List<ReportData> reports = new ArrayList<>();
         
-        String sql = "SELECT " +
-                     "cust.first_name, cust.last_name, cust.phone, " +
-                     "COUNT(r.rental_id) as customer_rentals, " +
-                     "COALESCE(SUM(r.total_amount), 0) as customer_spent " +
-                     "FROM customers cust " +
-                     "LEFT JOIN rental_records r ON cust.customer_id = r.customer_id " +
-                     "AND MONTH(r.rental_date) = ? AND YEAR(rental_date) = ? " +
-                     "GROUP BY cust.customer_id " +
-                     "ORDER BY customer_spent DESC, customer_rentals DESC";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(CUSTOMER_ACTIVITY_SQL)) {
             
-            pstmt.setInt(1, month);
-            pstmt.setInt(2, year);
+            DateRange.ofMonth(month, year).bind(pstmt, 1);
             
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -193,8 +200,6 @@ public class ReportsDAO {
                 report.setCustomerSpent(rs.getDouble("customer_spent"));
                 reports.add(report);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         return reports;
@@ -204,7 +209,7 @@ public class ReportsDAO {
      * Get system statistics for dashboard/report header
      * @return ReportData with system statistics
      */
-    public ReportData getSystemStatistics() {
+    public ReportData getSystemStatistics() throws SQLException {
         ReportData report = new ReportData("SYSTEM_STATS");
         
         // Get total cars
@@ -231,8 +236,6 @@ public class ReportsDAO {
             if (rs.next()) {
                 report.setTotalEmployees(rs.getInt("total_employees"));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         return report;
@@ -246,58 +249,154 @@ public class ReportsDAO {
      * @return CSV formatted string
      */
     public String exportToCSV(String reportType, int month, int year) {
-        StringBuilder csv = new StringBuilder();
-        
+        StringWriter buffer = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(buffer)) {
+            exportToCSV(reportType, DateRange.ofMonth(month, year), csv);
+        } catch (IOException e) {
+            // StringWriter never fails
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return buffer.toString();
+    }
+    
+    /**
+     * Stream a report for any date range to a CSV writer
+     *
+     * Rows are read through a forward-only, read-only cursor and written one at a
+     * time, so memory use does not grow with the size of the report.
+     * @param reportType MONTHLY_REVENUE, CAR_UTILIZATION or CUSTOMER_ACTIVITY
+     * @param range Rental dates to include
+     * @param csv Destination; left open for the caller to close
+     * @return Number of data rows written (excluding title and header)
+     */
+    public long exportToCSV(String reportType, DateRange range, CsvWriter csv) throws SQLException, IOException {
         switch (reportType) {
             case "MONTHLY_REVENUE":
-                csv.append("Monthly Revenue Report\n");
-                csv.append("Period,Total Rentals,Active Rentals,Completed Rentals,Returned Rentals,Total Revenue,Late Fees,Damage Fees\n");
+                csv.row("Monthly Revenue Report");
+                csv.row("Period", "Total Rentals", "Active Rentals", "Completed Rentals", "Returned Rentals",
+                        "Total Revenue", "Late Fees", "Damage Fees");
                 
-                ReportData revenueReport = getRentalStatistics(month, year);
-                csv.append(String.format("%s,%d,%d,%d,%d,%.2f,%.2f,%.2f\n",
-                    getMonthName(month) + " " + year,
-                    revenueReport.getTotalRentals(),
-                    revenueReport.getActiveRentals(),
-                    revenueReport.getCompletedRentals(),
-                    revenueReport.getReturnedRentals(),
-                    revenueReport.getTotalRevenue(),
-                    revenueReport.getLateFees(),
-                    revenueReport.getDamageFees()));
-                break;
+                ReportData revenueReport = getRentalStatistics(range);
+                csv.field(describePeriod(range))
+                   .field(revenueReport.getTotalRentals())
+                   .field(revenueReport.getActiveRentals())
+                   .field(revenueReport.getCompletedRentals())
+                   .field(revenueReport.getReturnedRentals())
+                   .money(revenueReport.getTotalRevenue())
+                   .money(revenueReport.getLateFees())
+                   .money(revenueReport.getDamageFees())
+                   .endRow();
+                return 1;
                 
             case "CAR_UTILIZATION":
-                csv.append("Car Utilization Report\n");
-                csv.append("Car,Registration Number,Rentals,Revenue\n");
-                
-                List<ReportData> carReports = getCarUtilizationReport(month, year);
-                for (ReportData carReport : carReports) {
-                    csv.append(String.format("%s,%s,%d,%.2f\n",
-                        carReport.getCarInfo(),
-                        carReport.getRegistrationNumber(),
-                        carReport.getTimesRented(),
-                        carReport.getCarRevenue()));
-                }
-                break;
+                csv.row("Car Utilization Report");
+                csv.row("Car", "Registration Number", "Rentals", "Revenue");
+                return streamRows(CAR_UTILIZATION_SQL, range, rs -> {
+                    csv.field(rs.getString("brand") + " " + rs.getString("model"))
+                       .field(rs.getString("registration_number"))
+                       .field(rs.getInt("times_rented"))
+                       .money(rs.getDouble("car_revenue"))
+                       .endRow();
+                });
                 
             case "CUSTOMER_ACTIVITY":
-                csv.append("Customer Activity Report\n");
-                csv.append("Customer Name,Phone,Rentals,Total Spent\n");
-                
-                List<ReportData> customerReports = getCustomerActivityReport(month, year);
-                for (ReportData customerReport : customerReports) {
-                    csv.append(String.format("%s,%s,%d,%.2f\n",
-                        customerReport.getCustomerName(),
-                        customerReport.getCustomerPhone(),
-                        customerReport.getCustomerRentals(),
-                        customerReport.getCustomerSpent()));
-                }
-                break;
+                csv.row("Customer Activity Report");
+                csv.row("Customer Name", "Phone", "Rentals", "Total Spent");
+                return streamRows(CUSTOMER_ACTIVITY_SQL, range, rs -> {
+                    csv.field(rs.getString("first_name") + " " + rs.getString("last_name"))
+                       .field(rs.getString("phone"))
+                       .field(rs.getInt("customer_rentals"))
+                       .money(rs.getDouble("customer_spent"))
+                       .endRow();
+                });
                 
             default:
-                csv.append("Invalid report type\n");
+                csv.row("Invalid report type");
+                return 0;
         }
-        
-        return csv.toString();
+    }
+    
+    /**
+     * Receives the report columns of one rental
+     */
+    public interface RentalFactHandler {
+        void accept(int rentalId, int carId, int customerId, LocalDate rentalDate, String status,
+                    double totalAmount, double lateFee, double damageFee);
+    }
+    
+    /**
+     * Stream the columns reports aggregate over (no notes or customer details) for
+     * every rental, in rental_id order, e.g. to load an in-memory copy
+     * @return Number of rentals read
+     */
+    public long scanRentalFacts(RentalFactHandler handler) throws SQLException {
+        String sql = "SELECT rental_id, car_id, customer_id, rental_date, status, " +
+                     "total_amount, late_fee, damage_fee " +
+                     "FROM rental_records ORDER BY rental_id";
+        long rows = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                                                             ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(streamingFetchSize(conn));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Date rentalDate = rs.getDate("rental_date");
+                    handler.accept(rs.getInt("rental_id"), rs.getInt("car_id"), rs.getInt("customer_id"),
+                                   rentalDate != null ? rentalDate.toLocalDate() : null,
+                                   rs.getString("status"), rs.getDouble("total_amount"),
+                                   rs.getDouble("late_fee"), rs.getDouble("damage_fee"));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+    
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+    
+    /**
+     * Run a range query through a streaming cursor and hand each row to the writer
+     */
+    private long streamRows(String sql, DateRange range, RowWriter writer) throws SQLException, IOException {
+        long rows = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                                                             ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(streamingFetchSize(conn));
+            range.bind(pstmt, 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.write(rs);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * MySQL Connector/J only streams rows one by one when the fetch size is
+     * Integer.MIN_VALUE; otherwise it reads the whole result into memory.
+     * Other drivers take an ordinary page size.
+     */
+    private static int streamingFetchSize(Connection conn) throws SQLException {
+        String driver = conn.getMetaData().getDriverName();
+        return driver != null && driver.contains("MySQL") ? Integer.MIN_VALUE : EXPORT_FETCH_SIZE;
+    }
+    
+    /**
+     * "March 2025" for a calendar month, otherwise "2025-01-01 to 2025-03-31"
+     */
+    private String describePeriod(DateRange range) {
+        LocalDate start = range.getStart();
+        if (start.getDayOfMonth() == 1 && start.plusMonths(1).equals(range.getEndExclusive())) {
+            return getMonthName(start.getMonthValue()) + " " + start.getYear();
+        }
+        return start + " to " + range.getEndExclusive().minusDays(1);
     }
     
     /**
@@ -0,0 +1,509 @@
+package dao;
+
+import models.RentalRecord;
+import models.ReportData;
+import application.DatabaseConnection;
+import application.StatementRegistry;
+import application.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * RollupDAO - Pre-aggregated rental totals per day and per month
+ *
+ * The rollup_* tables (migration V3) hold COUNT/SUM of rental_records by rental_date
+ * per status, per car and per customer. RentDAO calls applyChange() in the same
+ * transaction as every rental insert or update, so the totals never drift from the
+ * raw rows. Reports then sum at most a few hundred rollup rows per car or customer
+ * instead of scanning every rental in the range.
+ *
+ * rebuild() recomputes everything from rental_records; run it once after the
+ * migration and whenever the totals are suspect, preferably while nobody is
+ * renting (rentals committed during a rebuild may be counted from the old state).
+ * Until a build has been recorded, isBuilt() is false, incremental updates are
+ * skipped and ReportsService keeps reading rental_records.
+ */
+public class RollupDAO {
+
+    private static final String STATE_NAME = "rentals";
+
+    /**
+     * Period length of a rollup table
+     */
+    enum Grain {
+        DAILY("daily"),
+        MONTHLY("monthly");
+
+        final String suffix;
+
+        Grain(String suffix) {
+            this.suffix = suffix;
+        }
+
+        LocalDate periodOf(LocalDate day) {
+            return this == MONTHLY ? day.withDayOfMonth(1) : day;
+        }
+
+        /**
+         * Monthly tables answer ranges made of whole calendar months
+         */
+        static Grain forRange(DateRange range) {
+            boolean wholeMonths = range.getStart().getDayOfMonth() == 1 &&
+                                  range.getEndExclusive().getDayOfMonth() == 1;
+            return wholeMonths ? MONTHLY : DAILY;
+        }
+    }
+
+    /**
+     * What a rollup table is grouped by
+     */
+    enum Dimension {
+        STATUS("status", true),
+        CAR("car", false),
+        CUSTOMER("customer", false);
+
+        final String name;
+        final String keyColumn;
+        // Only the status tables split revenue into fees
+        final boolean hasFees;
+
+        Dimension(String name, boolean hasFees) {
+            this.name = name;
+            this.keyColumn = hasFees ? "status" : name + "_id";
+            this.hasFees = hasFees;
+        }
+
+        String table(Grain grain) {
+            return "rollup_" + name + "_" + grain.suffix;
+        }
+
+        Object keyOf(RentalRecord rental) {
+            switch (this) {
+                case STATUS:
+                    return rental.getStatus() != null ? rental.getStatus() : "";
+                case CAR:
+                    return rental.getCarId();
+                default:
+                    return rental.getCustomerId();
+            }
+        }
+    }
+
+    // Upsert per table, registered so every pooled connection keeps them prepared.
+    // MySQL deprecates VALUES(col) in ON DUPLICATE KEY UPDATE in favour of a row alias,
+    // which H2 (the embedded profile) cannot parse, so H2 gets the VALUES(col) form
+    private static final Map<String, String> UPSERTS = new HashMap<>();
+    private static final Map<String, String> H2_UPSERTS = new HashMap<>();
+
+    static {
+        for (Dimension dimension : Dimension.values()) {
+            for (Grain grain : Grain.values()) {
+                String table = dimension.table(grain);
+                UPSERTS.put(table, StatementRegistry.register("rollup." + table, upsertSql(dimension, table, true)));
+                H2_UPSERTS.put(table, StatementRegistry.register("rollup.h2." + table,
+                                                                 upsertSql(dimension, table, false)));
+            }
+        }
+    }
+
+    /**
+     * Insert a row of deltas, or add them to the existing row
+     * @param rowAlias Refer to the new values as "new.col" (MySQL) rather than VALUES(col)
+     */
+    private static String upsertSql(Dimension dimension, String table, boolean rowAlias) {
+        List<String> columns = new ArrayList<>(Arrays.asList("rentals", "total_amount"));
+        if (dimension.hasFees) {
+            columns.add("late_fees");
+            columns.add("damage_fees");
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+            .append(" (period_start, ").append(dimension.keyColumn).append(", ")
+            .append(String.join(", ", columns)).append(") VALUES (?, ?")
+            .append(", ?".repeat(columns.size())).append(")")
+            .append(rowAlias ? " AS new" : "").append(" ON DUPLICATE KEY UPDATE ");
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            sql.append(i > 0 ? ", " : "").append(column).append(" = ").append(column)
+               .append(rowAlias ? " + new." + column : " + VALUES(" + column + ")");
+        }
+        return sql.toString();
+    }
+
+    private static String upsertFor(Connection conn, String table) throws SQLException {
+        boolean h2 = "H2".equals(conn.getMetaData().getDatabaseProductName());
+        return (h2 ? H2_UPSERTS : UPSERTS).get(table);
+    }
+
+    // Null until the first check; a build in this process sets it to true
+    private static volatile Boolean built = null;
+
+    /**
+     * Check whether the rollups have been built and can be read
+     *
+     * Both answers are cached. A build by another process is picked up when this one
+     * next writes a rental (see applyChange) or restarts.
+     */
+    public boolean isBuilt() {
+        Boolean cached = built;
+        if (cached != null) {
+            return cached;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            cached = isBuilt(conn);
+            built = cached;
+            return cached;
+        } catch (SQLException e) {
+            // Migration not applied yet; reports fall back to rental_records
+            return false;
+        }
+    }
+
+    /**
+     * Check on the given connection whether a build has been recorded, without caching
+     * the answer; for code that writes rentals without going through RentDAO
+     */
+    public boolean isBuilt(Connection conn) throws SQLException {
+        String sql = "SELECT built_at FROM rollup_state WHERE name = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, STATE_NAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Move a rental's contribution from its old to its new values
+     * @param conn Connection of the transaction that writes the rental
+     * @param before Rental as stored before the change, or null for an insert
+     * @param after Rental as stored after the change, or null for a delete
+     */
+    public void applyChange(Connection conn, RentalRecord before, RentalRecord after) throws SQLException {
+        // A cached "not built" is rechecked here, or a build by another process would
+        // miss every rental this one writes afterwards
+        if (!isBuilt()) {
+            if (!isBuilt(conn)) {
+                return;
+            }
+            built = true;
+        }
+        for (Dimension dimension : Dimension.values()) {
+            for (Grain grain : Grain.values()) {
+                Contribution removed = Contribution.of(dimension, grain, before);
+                Contribution added = Contribution.of(dimension, grain, after);
+                if (removed != null && added != null && removed.sameRow(added)) {
+                    // Same row (typically a status-preserving edit): apply the difference only
+                    added.subtract(removed);
+                    removed = null;
+                }
+                if (removed != null) {
+                    removed.negate();
+                    upsert(conn, dimension, grain, removed);
+                }
+                if (added != null && !added.isZero()) {
+                    upsert(conn, dimension, grain, added);
+                }
+            }
+        }
+    }
+
+    private void upsert(Connection conn, Dimension dimension, Grain grain, Contribution delta) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(upsertFor(conn, dimension.table(grain)))) {
+            pstmt.setDate(1, Date.valueOf(delta.period));
+            pstmt.setObject(2, delta.key);
+            pstmt.setInt(3, delta.rentals);
+            pstmt.setBigDecimal(4, delta.totalAmount);
+            if (dimension.hasFees) {
+                pstmt.setBigDecimal(5, delta.lateFees);
+                pstmt.setBigDecimal(6, delta.damageFees);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recompute every rollup from rental_records in one transaction
+     * @return Number of rentals aggregated
+     */
+    public long rebuild() throws SQLException {
+        long rentals = TransactionTemplate.execute(this::rebuild);
+        built = true;
+        return rentals;
+    }
+
+    /**
+     * Recompute every rollup on the given connection; the caller commits
+     * @return Number of rentals aggregated
+     */
+    public long rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (Dimension dimension : Dimension.values()) {
+                for (Grain grain : Grain.values()) {
+                    stmt.executeUpdate("DELETE FROM " + dimension.table(grain));
+                }
+            }
+            stmt.executeUpdate(
+                "INSERT INTO rollup_status_daily (period_start, status, rentals, total_amount, late_fees, damage_fees) " +
+                "SELECT rental_date, COALESCE(status, ''), COUNT(*), COALESCE(SUM(total_amount), 0), " +
+                "COALESCE(SUM(late_fee), 0), COALESCE(SUM(damage_fee), 0) " +
+                "FROM rental_records WHERE rental_date IS NOT NULL " +
+                "GROUP BY rental_date, COALESCE(status, '')");
+            stmt.executeUpdate(
+                "INSERT INTO rollup_car_daily (period_start, car_id, rentals, total_amount) " +
+                "SELECT rental_date, car_id, COUNT(*), COALESCE(SUM(total_amount), 0) " +
+                "FROM rental_records WHERE rental_date IS NOT NULL GROUP BY rental_date, car_id");
+            stmt.executeUpdate(
+                "INSERT INTO rollup_customer_daily (period_start, customer_id, rentals, total_amount) " +
+                "SELECT rental_date, customer_id, COUNT(*), COALESCE(SUM(total_amount), 0) " +
+                "FROM rental_records WHERE rental_date IS NOT NULL GROUP BY rental_date, customer_id");
+        }
+        // Month-start arithmetic differs between databases, so fold the daily rows here
+        for (Dimension dimension : Dimension.values()) {
+            foldIntoMonths(conn, dimension);
+        }
+
+        long count = 0;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM rental_records WHERE rental_date IS NOT NULL")) {
+            if (rs.next()) {
+                count = rs.getLong(1);
+            }
+        }
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM rollup_state WHERE name = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                 "INSERT INTO rollup_state (name, built_at, source_rows) VALUES (?, ?, ?)")) {
+            delete.setString(1, STATE_NAME);
+            delete.executeUpdate();
+            insert.setString(1, STATE_NAME);
+            insert.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+            insert.setLong(3, count);
+            insert.executeUpdate();
+        }
+        return count;
+    }
+
+    private void foldIntoMonths(Connection conn, Dimension dimension) throws SQLException {
+        Map<List<Object>, Contribution> months = new HashMap<>();
+        String feeColumns = dimension.hasFees ? ", late_fees, damage_fees" : "";
+        String sql = "SELECT period_start, " + dimension.keyColumn + ", rentals, total_amount" + feeColumns +
+                     " FROM " + dimension.table(Grain.DAILY);
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                LocalDate month = rs.getDate("period_start").toLocalDate().withDayOfMonth(1);
+                Object key = rs.getObject(dimension.keyColumn);
+                Contribution total = months.computeIfAbsent(Arrays.asList(month, key),
+                                                            k -> new Contribution(month, key));
+                total.rentals += rs.getInt("rentals");
+                total.totalAmount = total.totalAmount.add(rs.getBigDecimal("total_amount"));
+                if (dimension.hasFees) {
+                    total.lateFees = total.lateFees.add(rs.getBigDecimal("late_fees"));
+                    total.damageFees = total.damageFees.add(rs.getBigDecimal("damage_fees"));
+                }
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(upsertFor(conn, dimension.table(Grain.MONTHLY)))) {
+            int pending = 0;
+            for (Contribution total : months.values()) {
+                pstmt.setDate(1, Date.valueOf(total.period));
+                pstmt.setObject(2, total.key);
+                pstmt.setInt(3, total.rentals);
+                pstmt.setBigDecimal(4, total.totalAmount);
+                if (dimension.hasFees) {
+                    pstmt.setBigDecimal(5, total.lateFees);
+                    pstmt.setBigDecimal(6, total.damageFees);
+                }
+                pstmt.addBatch();
+                if (++pending == 500) {
+                    pstmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Rental counts by status plus revenue and fees for a date range
+     * (same figures as ReportsDAO.getRentalStatistics)
+     */
+    public ReportData getRentalStatistics(DateRange range) throws SQLException {
+        ReportData report = new ReportData("RENTAL_STATISTICS");
+        String sql = "SELECT status, SUM(rentals) AS rentals, SUM(total_amount) AS total_amount, " +
+                     "SUM(late_fees) AS late_fees, SUM(damage_fees) AS damage_fees " +
+                     "FROM " + Dimension.STATUS.table(Grain.forRange(range)) + " " +
+                     "WHERE period_start >= ? AND period_start < ? " +
+                     "GROUP BY status";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            range.bind(pstmt, 1);
+
+            int total = 0;
+            double revenue = 0;
+            double lateFees = 0;
+            double damageFees = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int rentals = rs.getInt("rentals");
+                    total += rentals;
+                    revenue += rs.getDouble("total_amount");
+                    lateFees += rs.getDouble("late_fees");
+                    damageFees += rs.getDouble("damage_fees");
+                    switch (rs.getString("status")) {
+                        case "Active":
+                            report.setActiveRentals(rentals);
+                            break;
+                        case "Completed":
+                            report.setCompletedRentals(rentals);
+                            break;
+                        case "Returned":
+                            report.setReturnedRentals(rentals);
+                            break;
+                        case "Cancelled":
+                            report.setCancelledRentals(rentals);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            report.setTotalRentals(total);
+            report.setTotalRevenue(revenue);
+            report.setLateFees(lateFees);
+            report.setDamageFees(damageFees);
+        }
+        return report;
+    }
+
+    /**
+     * Rentals and revenue per car for a date range, busiest first
+     * (same rows as ReportsDAO.getCarUtilizationReport)
+     */
+    public List<ReportData> getCarUtilizationReport(DateRange range) throws SQLException {
+        List<ReportData> reports = new ArrayList<>();
+        String sql = "SELECT c.brand, c.model, c.registration_number, " +
+                     "COALESCE(x.rentals, 0) AS times_rented, COALESCE(x.revenue, 0) AS car_revenue " +
+                     "FROM cars c " +
+                     "LEFT JOIN (SELECT car_id, SUM(rentals) AS rentals, SUM(total_amount) AS revenue " +
+                     "FROM " + Dimension.CAR.table(Grain.forRange(range)) + " " +
+                     "WHERE period_start >= ? AND period_start < ? GROUP BY car_id) x ON x.car_id = c.car_id " +
+                     "ORDER BY times_rented DESC, car_revenue DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            range.bind(pstmt, 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ReportData report = new ReportData("CAR_UTILIZATION");
+                    report.setCarInfo(rs.getString("brand") + " " + rs.getString("model"));
+                    report.setRegistrationNumber(rs.getString("registration_number"));
+                    report.setTimesRented(rs.getInt("times_rented"));
+                    report.setCarRevenue(rs.getDouble("car_revenue"));
+                    reports.add(report);
+                }
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Rentals and spending per customer for a date range, biggest spenders first
+     * (same rows as ReportsDAO.getCustomerActivityReport)
+     */
+    public List<ReportData> getCustomerActivityReport(DateRange range) throws SQLException {
+        List<ReportData> reports = new ArrayList<>();
+        String sql = "SELECT cust.first_name, cust.last_name, cust.phone, " +
+                     "COALESCE(x.rentals, 0) AS customer_rentals, COALESCE(x.spent, 0) AS customer_spent " +
+                     "FROM customers cust " +
+                     "LEFT JOIN (SELECT customer_id, SUM(rentals) AS rentals, SUM(total_amount) AS spent " +
+                     "FROM " + Dimension.CUSTOMER.table(Grain.forRange(range)) + " " +
+                     "WHERE period_start >= ? AND period_start < ? GROUP BY customer_id) x " +
+                     "ON x.customer_id = cust.customer_id " +
+                     "ORDER BY customer_spent DESC, customer_rentals DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            range.bind(pstmt, 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ReportData report = new ReportData("CUSTOMER_ACTIVITY");
+                    report.setCustomerName(rs.getString("first_name") + " " + rs.getString("last_name"));
+                    report.setCustomerPhone(rs.getString("phone"));
+                    report.setCustomerRentals(rs.getInt("customer_rentals"));
+                    report.setCustomerSpent(rs.getDouble("customer_spent"));
+                    reports.add(report);
+                }
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * One rental's share of one rollup row, or a sum of such shares
+     */
+    private static final class Contribution {
+        final LocalDate period;
+        final Object key;
+        int rentals;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal lateFees = BigDecimal.ZERO;
+        BigDecimal damageFees = BigDecimal.ZERO;
+
+        Contribution(LocalDate period, Object key) {
+            this.period = period;
+            this.key = key;
+        }
+
+        static Contribution of(Dimension dimension, Grain grain, RentalRecord rental) {
+            if (rental == null || rental.getRentalDate() == null) {
+                return null;
+            }
+            Contribution contribution = new Contribution(grain.periodOf(rental.getRentalDate()),
+                                                         dimension.keyOf(rental));
+            contribution.rentals = 1;
+            contribution.totalAmount = BigDecimal.valueOf(rental.getTotalAmount());
+            contribution.lateFees = BigDecimal.valueOf(rental.getLateFee());
+            contribution.damageFees = BigDecimal.valueOf(rental.getDamageFee());
+            return contribution;
+        }
+
+        boolean sameRow(Contribution other) {
+            return period.equals(other.period) && Objects.equals(key, other.key);
+        }
+
+        void subtract(Contribution other) {
+            rentals -= other.rentals;
+            totalAmount = totalAmount.subtract(other.totalAmount);
+            lateFees = lateFees.subtract(other.lateFees);
+            damageFees = damageFees.subtract(other.damageFees);
+        }
+
+        void negate() {
+            rentals = -rentals;
+            totalAmount = totalAmount.negate();
+            lateFees = lateFees.negate();
+            damageFees = damageFees.negate();
+        }
+
+        boolean isZero() {
+            return rentals == 0 && totalAmount.signum() == 0 &&
+                   lateFees.signum() == 0 && damageFees.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * RowVersions - Tells a lost optimistic update from a missing row
+ *
+ * Versioned updates end in "WHERE id = ? AND version = ?". When that matches no row,
+ * either the row is gone (the update simply fails, as before) or it has a newer
+ * version, which is a conflict.
+ */
+final class RowVersions {
+
+    private RowVersions() {
+    }
+
+    /**
+     * Check the outcome of a versioned UPDATE on the connection it ran on
+     * @param updated Row count returned by executeUpdate()
+     * @param table Table name; never user input
+     * @param idColumn Primary key column; never user input
+     * @return true if the row was updated, false if it does not exist
+     * @throws OptimisticLockException If the row exists at another version
+     */
+    static boolean checkUpdated(int updated, Connection conn, String table, String idColumn,
+                                int id, int expectedVersion) throws SQLException {
+        if (updated > 0) {
+            return true;
+        }
+        String sql = "SELECT version FROM " + table + " WHERE " + idColumn + " = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                throw new OptimisticLockException(table, id, expectedVersion, rs.getInt(1));
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class Car {
     private String fuelType;
     private int mileage;
     private String status;
+    private int version; // Row version for optimistic locking, bumped by every update
     
     public Car() {
     }
@@ -30,6 +31,24 @@ public class Car {
         this.status = "Active";
     }
     
+    /**
+     * Copy of another car, e.g. for a cache that must not share the caller's object
+     */
+    public Car(Car other) {
+        this.carId = other.carId;
+        this.brand = other.brand;
+        this.model = other.model;
+        this.year = other.year;
+        this.color = other.color;
+        this.registrationNumber = other.registrationNumber;
+        this.pricePerDay = other.pricePerDay;
+        this.availability = other.availability;
+        this.fuelType = other.fuelType;
+        this.mileage = other.mileage;
+        this.status = other.status;
+        this.version = other.version;
+    }
+    
     // Getters and Setters
     public int getCarId() {
         return carId;
@@ -119,6 +138,14 @@ public class Car {
         this.status = status;
     }
     
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return brand + " " + model + " (" + year + ") - " + registrationNumber;
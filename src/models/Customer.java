@@ -12,6 +12,7 @@ public class Customer {
     private String licenseNumber;
     private LocalDate dateOfBirth;
     private LocalDate registrationDate;
+    private int version; // Row version for optimistic locking, bumped by every update
     
     public Customer() {
     }
@@ -28,6 +29,22 @@ public class Customer {
         this.registrationDate = LocalDate.now();
     }
     
+    /**
+     * Copy of another customer, e.g. for an index that must not share the caller's object
+     */
+    public Customer(Customer other) {
+        this.customerId = other.customerId;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.address = other.address;
+        this.licenseNumber = other.licenseNumber;
+        this.dateOfBirth = other.dateOfBirth;
+        this.registrationDate = other.registrationDate;
+        this.version = other.version;
+    }
+    
     // Getters and Setters
     public int getCustomerId() {
         return customerId;
@@ -105,6 +122,14 @@ public class Customer {
         this.registrationDate = registrationDate;
     }
     
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return getFullName() + " - " + phone;
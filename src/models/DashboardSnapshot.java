@@ -0,0 +1,157 @@
+package models;
+
+import java.time.LocalDateTime;
+
+/**
+ * DashboardSnapshot - Immutable set of every dashboard tile value
+ * Loaded by DashboardDAO.getDashboardSnapshot() in a single query, so all tiles
+ * describe the same moment and opening the dashboard costs one round trip.
+ */
+public final class DashboardSnapshot {
+
+    // Fleet and people
+    private final int totalCars;
+    private final int availableCars;
+    private final int totalCustomers;
+    private final int totalEmployees;
+    private final int activeEmployees;
+    private final int activeRentals; // All currently active rentals, regardless of month
+
+    // Current month
+    private final int monthRentals;
+    private final int monthActiveRentals;
+    private final int monthCompletedRentals;
+    private final int monthReturnedRentals;
+    private final int monthCancelledRentals;
+    private final double monthRevenue;
+    private final double monthBookedRevenue; // Active, Completed and Returned rentals only
+    private final double monthLateFees;
+    private final double monthDamageFees;
+
+    // Previous month, for comparisons
+    private final int previousMonthRentals;
+    private final double previousMonthRevenue;
+
+    private final LocalDateTime generatedAt;
+
+    public DashboardSnapshot(int totalCars, int availableCars, int totalCustomers,
+                             int totalEmployees, int activeEmployees, int activeRentals,
+                             int monthRentals, int monthActiveRentals, int monthCompletedRentals,
+                             int monthReturnedRentals, int monthCancelledRentals,
+                             double monthRevenue, double monthBookedRevenue,
+                             double monthLateFees, double monthDamageFees,
+                             int previousMonthRentals, double previousMonthRevenue) {
+        this.totalCars = totalCars;
+        this.availableCars = availableCars;
+        this.totalCustomers = totalCustomers;
+        this.totalEmployees = totalEmployees;
+        this.activeEmployees = activeEmployees;
+        this.activeRentals = activeRentals;
+        this.monthRentals = monthRentals;
+        this.monthActiveRentals = monthActiveRentals;
+        this.monthCompletedRentals = monthCompletedRentals;
+        this.monthReturnedRentals = monthReturnedRentals;
+        this.monthCancelledRentals = monthCancelledRentals;
+        this.monthRevenue = monthRevenue;
+        this.monthBookedRevenue = monthBookedRevenue;
+        this.monthLateFees = monthLateFees;
+        this.monthDamageFees = monthDamageFees;
+        this.previousMonthRentals = previousMonthRentals;
+        this.previousMonthRevenue = previousMonthRevenue;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Snapshot with every value zero, used when the database cannot be reached
+     */
+    public static DashboardSnapshot empty() {
+        return new DashboardSnapshot(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0.0, 0.0, 0.0, 0.0, 0, 0.0);
+    }
+
+    public int getTotalCars() {
+        return totalCars;
+    }
+
+    public int getAvailableCars() {
+        return availableCars;
+    }
+
+    public int getTotalCustomers() {
+        return totalCustomers;
+    }
+
+    public int getTotalEmployees() {
+        return totalEmployees;
+    }
+
+    public int getActiveEmployees() {
+        return activeEmployees;
+    }
+
+    public int getActiveRentals() {
+        return activeRentals;
+    }
+
+    public int getMonthRentals() {
+        return monthRentals;
+    }
+
+    public int getMonthActiveRentals() {
+        return monthActiveRentals;
+    }
+
+    public int getMonthCompletedRentals() {
+        return monthCompletedRentals;
+    }
+
+    public int getMonthReturnedRentals() {
+        return monthReturnedRentals;
+    }
+
+    public int getMonthCancelledRentals() {
+        return monthCancelledRentals;
+    }
+
+    public double getMonthRevenue() {
+        return monthRevenue;
+    }
+
+    public double getMonthBookedRevenue() {
+        return monthBookedRevenue;
+    }
+
+    public double getMonthLateFees() {
+        return monthLateFees;
+    }
+
+    public double getMonthDamageFees() {
+        return monthDamageFees;
+    }
+
+    public int getPreviousMonthRentals() {
+        return previousMonthRentals;
+    }
+
+    public double getPreviousMonthRevenue() {
+        return previousMonthRevenue;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DashboardSnapshot{" +
+                "totalCars=" + totalCars +
+                ", availableCars=" + availableCars +
+                ", totalCustomers=" + totalCustomers +
+                ", totalEmployees=" + totalEmployees +
+                ", activeRentals=" + activeRentals +
+                ", monthRentals=" + monthRentals +
+                ", monthRevenue=" + monthRevenue +
+                ", previousMonthRevenue=" + previousMonthRevenue +
+                ", generatedAt=" + generatedAt +
+                '}';
+    }
+}
@@ -15,6 +15,7 @@ public class Employee {
     private LocalDate hireDate;
     private String status;
     private UserRole role; // New field for role-based access
+    private int version; // Row version for optimistic locking, bumped by every update
 
     // Constructors
     public Employee() {
@@ -31,6 +32,24 @@ public class Employee {
         this.hireDate = LocalDate.now();
     }
 
+    /**
+     * Copy of another employee, e.g. for an index that must not share the caller's object
+     */
+    public Employee(Employee other) {
+        this.employeeId = other.employeeId;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.address = other.address;
+        this.position = other.position;
+        this.salary = other.salary;
+        this.hireDate = other.hireDate;
+        this.status = other.status;
+        this.role = other.role;
+        this.version = other.version;
+    }
+
     // Getters and Setters
     public int getEmployeeId() {
         return employeeId;
@@ -133,6 +152,14 @@ public class Employee {
         this.role = UserRole.fromString(roleString);
     }
 
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     // Helper methods
     public boolean isActive() {
         return "Active".equalsIgnoreCase(status);
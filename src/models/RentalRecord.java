@@ -17,6 +17,7 @@ public class RentalRecord {
     private String status; // "Active", "Completed", "Cancelled", "Returned"
     private LocalDateTime createdAt;
     private String notes;
+    private int version; // Row version for optimistic locking, bumped by every update
     
     public RentalRecord() {
         this.createdAt = LocalDateTime.now();
@@ -141,6 +142,14 @@ public class RentalRecord {
         this.notes = notes;
     }
     
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     // Helper method to calculate total with fees
     public double getTotalWithFees() {
         return totalAmount + lateFee + damageFee;
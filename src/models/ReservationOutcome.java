@@ -0,0 +1,46 @@
+package models;
+
+/**
+ * Result of trying to reserve a car (RentService.tryReserve)
+ */
+public enum ReservationOutcome {
+    /**
+     * The car was Available and is now Rented under the new rental
+     */
+    RESERVED("Reserved"),
+
+    /**
+     * The car is already rented, e.g. another counter reserved it first
+     */
+    ALREADY_RENTED("Already rented"),
+
+    /**
+     * The car is in maintenance or otherwise out of service
+     */
+    UNDER_MAINTENANCE("Under maintenance"),
+
+    /**
+     * There is no car with that id
+     */
+    NOT_FOUND("Car not found"),
+
+    /**
+     * The database call failed; nothing was written
+     */
+    FAILED("Failed");
+
+    private final String displayName;
+
+    ReservationOutcome(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,208 @@
+package services;
+
+import application.TransactionTemplate;
+import models.Car;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CarCache - Bounded, least-recently-used cache of cars shared by every CarService
+ *
+ * Cars are cached by car_id with a secondary registration_number index. Writes made
+ * through CarService update or drop the cached copy immediately; entries older than
+ * the time-to-live are reloaded so edits from other workstations show up within the
+ * TTL. Callers always receive their own copy, so changing a returned Car never
+ * changes the cache.
+ *
+ * Inside a transaction the cache is bypassed: a read could see uncommitted rows and
+ * a write could still be rolled back, so writes there only drop the entry. They drop
+ * it again once the transaction commits, because another thread may have cached the
+ * row as it was before the commit in the meantime.
+ */
+public final class CarCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 2_000;
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final CarCache INSTANCE = new CarCache(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Integer, Entry> byId;
+    private final Map<String, Integer> idByRegistration = new HashMap<>();
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    private static final class Entry {
+        final Car car;
+        final long loadedAt;
+
+        Entry(Car car, long loadedAt) {
+            this.car = car;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    CarCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        // Access order, so the eldest entry is the least recently used
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    static CarCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Cached copy of a car, or null on a miss (absent, expired or inside a transaction)
+     */
+    public synchronized Car get(int carId) {
+        if (TransactionTemplate.isActive()) {
+            return null;
+        }
+        Entry entry = byId.get(carId);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+            remove(carId);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(entry.car);
+    }
+
+    /**
+     * Cached copy of a car by registration number, or null on a miss
+     */
+    public synchronized Car getByRegistration(String registrationNumber) {
+        Integer carId = registrationNumber != null ? idByRegistration.get(registrationNumber) : null;
+        if (carId == null) {
+            if (!TransactionTemplate.isActive()) {
+                misses++;
+            }
+            return null;
+        }
+        return get(carId);
+    }
+
+    /**
+     * Store a car read from or written to the database
+     */
+    public synchronized void put(Car car) {
+        if (car == null || car.getCarId() <= 0) {
+            return;
+        }
+        if (TransactionTemplate.isActive()) {
+            invalidate(car.getCarId());
+            return;
+        }
+        remove(car.getCarId());
+        Car stored = copy(car);
+        byId.put(stored.getCarId(), new Entry(stored, System.nanoTime()));
+        if (stored.getRegistrationNumber() != null) {
+            idByRegistration.put(stored.getRegistrationNumber(), stored.getCarId());
+        }
+        while (byId.size() > maxEntries) {
+            Iterator<Integer> eldest = byId.keySet().iterator();
+            int evictedId = eldest.next();
+            remove(evictedId);
+            evictions++;
+        }
+    }
+
+    /**
+     * Apply a committed status change to the cached copy, if any
+     * @param version The car's row version after the change
+     */
+    public synchronized void updateStatus(int carId, String status, String availability, int version) {
+        if (TransactionTemplate.isActive()) {
+            invalidate(carId);
+            return;
+        }
+        Entry entry = byId.get(carId);
+        if (entry != null) {
+            entry.car.setStatus(status);
+            entry.car.setAvailability(availability);
+            entry.car.setVersion(version);
+        }
+    }
+
+    /**
+     * Drop a car, e.g. after it is deleted; inside a transaction again after it commits
+     */
+    public synchronized void invalidate(int carId) {
+        remove(carId);
+        if (TransactionTemplate.isActive()) {
+            TransactionTemplate.afterCommit(() -> invalidateCommitted(carId));
+        }
+    }
+
+    private synchronized void invalidateCommitted(int carId) {
+        remove(carId);
+    }
+
+    /**
+     * Drop every car
+     */
+    public synchronized void clear() {
+        byId.clear();
+        idByRegistration.clear();
+    }
+
+    private void remove(int carId) {
+        Entry removed = byId.remove(carId);
+        if (removed != null && removed.car.getRegistrationNumber() != null) {
+            idByRegistration.remove(removed.car.getRegistrationNumber(), carId);
+        }
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getExpirationCount() {
+        return expirations;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Summary of the cache counters for logging
+     */
+    public synchronized String getStatistics() {
+        return String.format("Car cache: size=%d/%d, hits=%d, misses=%d (%.1f%% hit rate), " +
+                             "evictions=%d, expirations=%d",
+                             byId.size(), maxEntries, hits, misses, getHitRate() * 100,
+                             evictions, expirations);
+    }
+
+    private static Car copy(Car source) {
+        return new Car(source);
+    }
+}
@@ -1,15 +1,23 @@
 package services;
 
 
-import application.DatabaseConnection;
+import application.TransactionTemplate;
 import dao.CarDAO;
+import dao.FieldQuery;
+import dao.Keyset;
+import dao.OptimisticLockException;
 import models.Car;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import services.analytics.AnalyticsService;
+import services.search.SearchService;
+import services.availability.AvailabilityService;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public class CarService {
+    // Shared by every CarService instance
+    private static final CarCache CACHE = CarCache.getInstance();
+    
     private CarDAO carDAO;
     
     public CarService() {
@@ -36,35 +44,167 @@ public class CarService {
             return false;
         }
         
-        return carDAO.addCar(car);
+        if (!carDAO.addCar(car)) {
+            return false;
+        }
+        CACHE.put(car);
+        AvailabilityService.getInstance().onCarAdded(car.getCarId());
+        AnalyticsService.getInstance().onCarSaved(car);
+        SearchService.getInstance().onCarSaved(car);
+        return true;
     }
     
+    /**
+     * Add many cars with one batch insert; used by the bulk import, which has already
+     * validated them and checked their registration numbers
+     * @return false if the batch failed, in which case none of the cars was added
+     */
+    public boolean addCars(List<Car> cars) {
+        if (!carDAO.addCars(cars)) {
+            return false;
+        }
+        for (Car car : cars) {
+            CACHE.put(car);
+            AvailabilityService.getInstance().onCarAdded(car.getCarId());
+            AnalyticsService.getInstance().onCarSaved(car);
+            SearchService.getInstance().onCarSaved(car);
+        }
+        return true;
+    }
+    
+    /**
+     * Registration numbers among these that already belong to a car
+     * @return null if the lookup failed
+     */
+    public Set<String> findExistingRegistrations(Collection<String> registrationNumbers) {
+        return carDAO.findExistingRegistrations(registrationNumbers);
+    }
+    
+    /**
+     * Save an edited car
+     * @throws OptimisticLockException If the car was changed elsewhere since it was
+     *         loaded; the cached copy is dropped so reloading shows that change
+     */
     public boolean updateCar(Car car) {
         if (car.getCarId() <= 0) {
             return false;
         }
-        return carDAO.updateCar(car);
+        try {
+            if (!carDAO.updateCar(car)) {
+                return false;
+            }
+        } catch (OptimisticLockException e) {
+            CACHE.invalidate(car.getCarId());
+            throw e;
+        }
+        CACHE.put(car);
+        AnalyticsService.getInstance().onCarSaved(car);
+        SearchService.getInstance().onCarSaved(car);
+        return true;
     }
     
     public boolean deleteCar(int carId) {
-        return carDAO.deleteCar(carId);
+        if (!carDAO.deleteCar(carId)) {
+            return false;
+        }
+        CACHE.invalidate(carId);
+        AvailabilityService.getInstance().onCarDeleted(carId);
+        AnalyticsService.getInstance().onCarDeleted(carId);
+        SearchService.getInstance().onCarDeleted(carId);
+        return true;
     }
     
+    /**
+     * Look up a car, from the cache when possible
+     */
     public Car getCarById(int carId) {
-        return carDAO.getCarById(carId);
+        Car cached = CACHE.get(carId);
+        if (cached != null) {
+            return cached;
+        }
+        Car car = carDAO.getCarById(carId);
+        CACHE.put(car);
+        return car;
+    }
+    
+    /**
+     * Look up a car by registration number, from the cache when possible
+     */
+    public Car getCarByRegistration(String registrationNumber) {
+        Car cached = CACHE.getByRegistration(registrationNumber);
+        if (cached != null) {
+            return cached;
+        }
+        Car car = carDAO.getCarByRegistration(registrationNumber);
+        CACHE.put(car);
+        return car;
+    }
+    
+    /**
+     * Cache behind getCarById, exposed for its hit/miss statistics
+     */
+    public static CarCache getCache() {
+        return CACHE;
     }
     
     public List<Car> getAllCars() {
         return carDAO.getAllCars();
     }
     
+    /**
+     * One page of cars, newest first, for paged lists
+     * @param lastId car_id of the last car already shown, or 0 for the first page
+     */
+    public List<Car> getCarsAfter(int lastId, int limit) {
+        return carDAO.getCarsAfter(lastId, limit);
+    }
+    
+    public List<Car> getCarsAfter(Keyset<Car> order, Car lastCar, int limit) {
+        return carDAO.getCarsAfter(order, lastCar, limit);
+    }
+    
     public List<Car> searchCars(String searchTerm) {
+        return searchCars(searchTerm, SearchService.ALL_FIELDS);
+    }
+    
+    /**
+     * Search one field with an indexed prefix query in the database (see V4).
+     * "All Fields" searches the in-memory index, best match first and tolerant of
+     * small typos, or with the index switched off, every field in the database.
+     * @param searchType "All Fields", "Brand", "Model", "Registration Number" or "Color"
+     */
+    public List<Car> searchCars(String searchTerm, String searchType) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllCars();
         }
+        CarDAO.Field field = toField(searchType);
+        if (field != null) {
+            return carDAO.findCars(FieldQuery.of(field, searchTerm));
+        }
+        if (SearchService.isEnabled()) {
+            return SearchService.getInstance().searchCars(searchTerm.trim(), SearchService.ALL_FIELDS);
+        }
         return carDAO.searchCars(searchTerm.trim());
     }
     
+    private static CarDAO.Field toField(String searchType) {
+        if (searchType == null) {
+            return null;
+        }
+        switch (searchType) {
+            case "Brand":
+                return CarDAO.Field.BRAND;
+            case "Model":
+                return CarDAO.Field.MODEL;
+            case "Registration Number":
+                return CarDAO.Field.REGISTRATION_NUMBER;
+            case "Color":
+                return CarDAO.Field.COLOR;
+            default:
+                return null;
+        }
+    }
+    
     public List<Car> getAvailableCars() {
         return carDAO.getAvailableCars();
     }
@@ -74,51 +214,64 @@ public class CarService {
     }
     
     public int getTotalCarsCount() {
-        return getAllCars().size();
+        return carDAO.getTotalCarsCount();
     }
     
     public int getAvailableCarsCount() {
-        return getAvailableCars().size();
+        return carDAO.getAvailableCarsCount();
     }
 
+    /**
+     * Set a car's status from its current row
+     * @throws OptimisticLockException If the car changes between reading and writing it
+     */
     public boolean updateCarStatus(int carId, String status) {
-        String sql = "UPDATE cars SET status = ?, availability = ? WHERE car_id = ?";
+        Car car = carDAO.getCarById(carId);
+        if (car == null) {
+            return false;
+        }
+        return updateCarStatus(car, status);
+    }
+    
+    /**
+     * Set the status of a car read earlier, if it has not changed since; the car's
+     * status, availability and version are updated to match
+     * @throws OptimisticLockException If the car was changed since it was read
+     */
+    public boolean updateCarStatus(Car car, String status) {
+        String availability;
+        switch (status.toLowerCase()) {
+            case "available":
+            case "active":
+                status = "Available";
+                availability = "Available";
+                break;
+            case "rented":
+                status = "Rented";
+                availability = "Rented";
+                break;
+            case "maintenance":
+            case "unavailable":
+            default:
+                status = "Unavailable";
+                availability = "Unavailable";
+        }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            String availability;
-            switch (status.toLowerCase()) {
-                case "available":
-                case "active":
-                    status = "Available";
-                    availability = "Available";
-                    break;
-                case "rented":
-                    status = "Rented";
-                    availability = "Rented";
-                    break;
-                case "maintenance":
-                case "unavailable":
-                default:
-                    status = "Unavailable";
-                    availability = "Unavailable";
+        try {
+            if (!carDAO.updateCarStatus(car.getCarId(), status, availability, car.getVersion())) {
+                return false;
             }
-            
-            pstmt.setString(1, status);
-            pstmt.setString(2, availability);
-            pstmt.setInt(3, carId);
-            
-            int rowsUpdated = pstmt.executeUpdate();
-            return rowsUpdated > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Error updating car status: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+        } catch (OptimisticLockException e) {
+            CACHE.invalidate(car.getCarId());
+            throw e;
         }
+        car.setStatus(status);
+        car.setAvailability(availability);
+        car.setVersion(car.getVersion() + 1);
+        CACHE.updateStatus(car.getCarId(), status, availability, car.getVersion());
+        // Inside a transaction (e.g. a return) search only sees the change once it commits
+        Car saved = new Car(car);
+        TransactionTemplate.afterCommit(() -> SearchService.getInstance().onCarSaved(saved));
+        return true;
     }
 }
-
-
-
@@ -1,8 +1,14 @@
 package services;
 
 import dao.CustomerDAO;
+import dao.FieldQuery;
+import dao.Keyset;
 import models.Customer;
+import services.analytics.AnalyticsService;
+import services.search.SearchService;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public class CustomerService {
     private CustomerDAO customerDAO;
@@ -25,18 +31,62 @@ public class CustomerService {
             return false;
         }
         
-        return customerDAO.addCustomer(customer);
+        if (!customerDAO.addCustomer(customer)) {
+            return false;
+        }
+        AnalyticsService.getInstance().onCustomerSaved(customer);
+        SearchService.getInstance().onCustomerSaved(customer);
+        return true;
+    }
+    
+    /**
+     * Add many customers with one batch insert; used by the bulk import, which has
+     * already validated them and checked their license numbers
+     * @return false if the batch failed, in which case none of the customers was added
+     */
+    public boolean addCustomers(List<Customer> customers) {
+        if (!customerDAO.addCustomers(customers)) {
+            return false;
+        }
+        for (Customer customer : customers) {
+            AnalyticsService.getInstance().onCustomerSaved(customer);
+            SearchService.getInstance().onCustomerSaved(customer);
+        }
+        return true;
     }
     
+    /**
+     * License numbers among these that are already registered to a customer
+     * @return null if the lookup failed
+     */
+    public Set<String> findExistingLicenses(Collection<String> licenseNumbers) {
+        return customerDAO.findExistingLicenses(licenseNumbers);
+    }
+    
+    /**
+     * Save an edited customer
+     * @throws dao.OptimisticLockException If the customer was changed elsewhere since
+     *         they were loaded
+     */
     public boolean updateCustomer(Customer customer) {
         if (customer.getCustomerId() <= 0) {
             return false;
         }
-        return customerDAO.updateCustomer(customer);
+        if (!customerDAO.updateCustomer(customer)) {
+            return false;
+        }
+        AnalyticsService.getInstance().onCustomerSaved(customer);
+        SearchService.getInstance().onCustomerSaved(customer);
+        return true;
     }
     
     public boolean deleteCustomer(int customerId) {
-        return customerDAO.deleteCustomer(customerId);
+        if (!customerDAO.deleteCustomer(customerId)) {
+            return false;
+        }
+        AnalyticsService.getInstance().onCustomerDeleted(customerId);
+        SearchService.getInstance().onCustomerDeleted(customerId);
+        return true;
     }
     
     public Customer getCustomerById(int customerId) {
@@ -47,15 +97,84 @@ public class CustomerService {
         return customerDAO.getAllCustomers();
     }
     
+    /**
+     * One page of customers, newest first, for paged lists
+     * @param lastId customer_id of the last customer already shown, or 0 for the first page
+     */
+    public List<Customer> getCustomersAfter(int lastId, int limit) {
+        return customerDAO.getCustomersAfter(lastId, limit);
+    }
+    
+    public List<Customer> getCustomersAfter(Keyset<Customer> order, Customer lastCustomer, int limit) {
+        return customerDAO.getCustomersAfter(order, lastCustomer, limit);
+    }
+    
     public List<Customer> searchCustomers(String searchTerm) {
+        return searchCustomers(searchTerm, SearchService.ALL_FIELDS);
+    }
+    
+    /**
+     * Search one field with an indexed prefix query in the database (see V4).
+     * "All Fields" searches the in-memory index, best match first and tolerant of
+     * small typos, or with the index switched off, every field in the database.
+     * @param searchType "All Fields", "Name", "Email", "Phone" or "License Number"
+     */
+    public List<Customer> searchCustomers(String searchTerm, String searchType) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllCustomers();
         }
+        CustomerDAO.Field field = toField(searchType);
+        if (field != null) {
+            return customerDAO.findCustomers(FieldQuery.of(field, searchTerm));
+        }
+        if (SearchService.isEnabled()) {
+            return SearchService.getInstance().searchCustomers(searchTerm.trim(), SearchService.ALL_FIELDS);
+        }
         return customerDAO.searchCustomers(searchTerm.trim());
     }
     
+    private static CustomerDAO.Field toField(String searchType) {
+        if (searchType == null) {
+            return null;
+        }
+        switch (searchType) {
+            case "Name":
+                return CustomerDAO.Field.NAME;
+            case "Email":
+                return CustomerDAO.Field.EMAIL;
+            case "Phone":
+                return CustomerDAO.Field.PHONE;
+            case "License Number":
+                return CustomerDAO.Field.LICENSE_NUMBER;
+            default:
+                return null;
+        }
+    }
+    
     public int getTotalCustomersCount() {
-        return getAllCustomers().size();
+        return customerDAO.getTotalCustomersCount();
+    }
+    
+    /**
+     * Check a customer against a search term in one field, ignoring case
+     * @param searchType "Name", "Email", "Phone" or "License Number"
+     */
+    public static boolean matchesSearch(Customer customer, String searchTerm, String searchType) {
+        String term = searchTerm.toLowerCase();
+        
+        switch (searchType) {
+            case "Name":
+                return customer.getFullName().toLowerCase().contains(term);
+            case "Email":
+                return customer.getEmail() != null && customer.getEmail().toLowerCase().contains(term);
+            case "Phone":
+                return customer.getPhone() != null && customer.getPhone().contains(term);
+            case "License Number":
+                return customer.getLicenseNumber() != null && 
+                       customer.getLicenseNumber().toLowerCase().contains(term);
+            default:
+                return false;
+        }
     }
 }
 
@@ -1,36 +1,42 @@
 package services;
 
 import dao.DashboardDAO;
-import dao.ReportsDAO; // Add this import
 import models.ReportData; // Add this import
+import models.DashboardSnapshot;
 import java.util.Map;
 
 public class DashboardService {
-    private final CarService carService;
-    private final CustomerService customerService;
-    private final EmployeeService employeeService;
     private final RentService rentService;
     private final DashboardDAO dashboardDAO;
-    private final ReportsDAO reportsDAO; // Add this field
 
     public DashboardService() {
-        this.carService = new CarService();
-        this.customerService = new CustomerService();
-        this.employeeService = new EmployeeService();
         this.rentService = new RentService();
         this.dashboardDAO = new DashboardDAO();
-        this.reportsDAO = new ReportsDAO(); // Initialize ReportsDAO
+    }
+
+    /**
+     * Every dashboard tile value, loaded in a single database round trip
+     */
+    public DashboardSnapshot getDashboardSnapshot() {
+        try {
+            return dashboardDAO.getDashboardSnapshot();
+        } catch (Exception e) {
+            System.err.println("Error getting dashboard snapshot: " + e.getMessage());
+            e.printStackTrace();
+            return DashboardSnapshot.empty();
+        }
     }
 
     public Map<String, Object> getDashboardStats() {
         try {
-            int totalCars = carService.getTotalCarsCount();
-            int activeRentals = rentService.getActiveRentalsCount();
-            int rawAvailableCars = carService.getAvailableCarsCount();
+            DashboardSnapshot snapshot = getDashboardSnapshot();
+            int totalCars = snapshot.getTotalCars();
+            int activeRentals = snapshot.getActiveRentals();
+            int rawAvailableCars = snapshot.getAvailableCars();
             int availableCars = Math.min(rawAvailableCars, Math.max(0, totalCars - activeRentals));
-            int totalCustomers = customerService.getTotalCustomersCount();
-            int totalEmployees = employeeService.getTotalEmployeesCount();
-            double monthlyRevenue = rentService.getMonthlyRevenue();
+            int totalCustomers = snapshot.getTotalCustomers();
+            int totalEmployees = snapshot.getActiveEmployees();
+            double monthlyRevenue = snapshot.getMonthBookedRevenue();
 
             // Debug output
             System.out.println("Dashboard Stats:");
@@ -83,88 +89,53 @@ public class DashboardService {
     
     // New method to get comprehensive rental statistics for dashboard
     public ReportData getRentalStatistics() {
-        try {
-            // Get current month and year for statistics
-            java.time.LocalDate now = java.time.LocalDate.now();
-            int currentMonth = now.getMonthValue();
-            int currentYear = now.getYear();
-            
-            // Get comprehensive rental statistics from ReportsDAO
-            ReportData rentalStats = reportsDAO.getRentalStatistics(currentMonth, currentYear);
-            
-            // Add system statistics to the report
-            ReportData systemStats = reportsDAO.getSystemStatistics();
-            rentalStats.setTotalCars(systemStats.getTotalCars());
-            rentalStats.setAvailableCars(systemStats.getAvailableCars());
-            rentalStats.setTotalCustomers(systemStats.getTotalCustomers());
-            rentalStats.setTotalEmployees(systemStats.getTotalEmployees());
-            
-            return rentalStats;
-        } catch (Exception e) {
-            System.err.println("Error getting rental statistics: " + e.getMessage());
-            e.printStackTrace();
-            
-            // Return a default ReportData object in case of error
-            ReportData defaultStats = new ReportData("DASHBOARD_STATS");
-            defaultStats.setTotalRentals(0);
-            defaultStats.setActiveRentals(0);
-            defaultStats.setCompletedRentals(0);
-            defaultStats.setReturnedRentals(0);
-            defaultStats.setCancelledRentals(0);
-            defaultStats.setTotalRevenue(0.0);
-            defaultStats.setLateFees(0.0);
-            defaultStats.setDamageFees(0.0);
-            defaultStats.setTotalCars(0);
-            defaultStats.setAvailableCars(0);
-            defaultStats.setTotalCustomers(0);
-            defaultStats.setTotalEmployees(0);
-            
-            return defaultStats;
-        }
+        return getRentalStatistics(getDashboardSnapshot());
+    }
+    
+    /**
+     * Rental statistics from a snapshot already loaded, without another query
+     */
+    public ReportData getRentalStatistics(DashboardSnapshot snapshot) {
+        ReportData rentalStats = new ReportData("RENTAL_STATISTICS");
+        rentalStats.setTotalRentals(snapshot.getMonthRentals());
+        rentalStats.setActiveRentals(snapshot.getMonthActiveRentals());
+        rentalStats.setCompletedRentals(snapshot.getMonthCompletedRentals());
+        rentalStats.setReturnedRentals(snapshot.getMonthReturnedRentals());
+        rentalStats.setCancelledRentals(snapshot.getMonthCancelledRentals());
+        rentalStats.setTotalRevenue(snapshot.getMonthRevenue());
+        rentalStats.setLateFees(snapshot.getMonthLateFees());
+        rentalStats.setDamageFees(snapshot.getMonthDamageFees());
+        rentalStats.setTotalCars(snapshot.getTotalCars());
+        rentalStats.setAvailableCars(snapshot.getAvailableCars());
+        rentalStats.setTotalCustomers(snapshot.getTotalCustomers());
+        rentalStats.setTotalEmployees(snapshot.getTotalEmployees());
+        
+        return rentalStats;
     }
     
     // Method to get monthly comparison data
     public Map<String, Object> getMonthlyComparison() {
-        try {
-            java.time.LocalDate now = java.time.LocalDate.now();
-            int currentMonth = now.getMonthValue();
-            int currentYear = now.getYear();
-            
-            int previousMonth = currentMonth == 1 ? 12 : currentMonth - 1;
-            int previousYear = currentMonth == 1 ? currentYear - 1 : currentYear;
-            
-            // Get current month statistics
-            ReportData currentStats = reportsDAO.getRentalStatistics(currentMonth, currentYear);
-            // Get previous month statistics
-            ReportData previousStats = reportsDAO.getRentalStatistics(previousMonth, previousYear);
-            
-            // Calculate percentage changes
-            double revenueChange = calculatePercentageChange(
-                previousStats.getTotalRevenue(), currentStats.getTotalRevenue());
-            int rentalChange = calculatePercentageChange(
-                previousStats.getTotalRentals(), currentStats.getTotalRentals());
-                
-            return Map.of(
-                "currentRevenue", currentStats.getTotalRevenue(),
-                "previousRevenue", previousStats.getTotalRevenue(),
-                "revenueChange", revenueChange,
-                "currentRentals", currentStats.getTotalRentals(),
-                "previousRentals", previousStats.getTotalRentals(),
-                "rentalChange", rentalChange
-            );
-        } catch (Exception e) {
-            System.err.println("Error getting monthly comparison: " + e.getMessage());
-            e.printStackTrace();
+        return getMonthlyComparison(getDashboardSnapshot());
+    }
+    
+    /**
+     * Month-over-month comparison from a snapshot already loaded, without another query
+     */
+    public Map<String, Object> getMonthlyComparison(DashboardSnapshot snapshot) {
+        // Calculate percentage changes
+        double revenueChange = calculatePercentageChange(
+            snapshot.getPreviousMonthRevenue(), snapshot.getMonthRevenue());
+        int rentalChange = calculatePercentageChange(
+            snapshot.getPreviousMonthRentals(), snapshot.getMonthRentals());
             
-            return Map.of(
-                "currentRevenue", 0.0,
-                "previousRevenue", 0.0,
-                "revenueChange", 0.0,
-                "currentRentals", 0,
-                "previousRentals", 0,
-                "rentalChange", 0
-            );
-        }
+        return Map.of(
+            "currentRevenue", snapshot.getMonthRevenue(),
+            "previousRevenue", snapshot.getPreviousMonthRevenue(),
+            "revenueChange", revenueChange,
+            "currentRentals", snapshot.getMonthRentals(),
+            "previousRentals", snapshot.getPreviousMonthRentals(),
+            "rentalChange", rentalChange
+        );
     }
     
     // Helper method to calculate percentage change
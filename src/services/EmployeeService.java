@@ -2,7 +2,9 @@
 package services;
 
 import dao.EmployeeDAO;
+import dao.FieldQuery;
 import models.Employee;
+import services.search.SearchService;
 import java.util.List;
 
 public class EmployeeService {
@@ -27,15 +29,32 @@ public class EmployeeService {
             return false;
         }
         
-        return employeeDAO.addEmployee(employee);
+        if (!employeeDAO.addEmployee(employee)) {
+            return false;
+        }
+        SearchService.getInstance().onEmployeeSaved(employee);
+        return true;
     }
     
+    /**
+     * Save an edited employee
+     * @throws dao.OptimisticLockException If the employee was changed elsewhere since
+     *         they were loaded
+     */
     public boolean updateEmployee(Employee employee) {
-        return employeeDAO.updateEmployee(employee);
+        if (!employeeDAO.updateEmployee(employee)) {
+            return false;
+        }
+        SearchService.getInstance().onEmployeeSaved(employee);
+        return true;
     }
     
     public boolean deleteEmployee(int employeeId) {
-        return employeeDAO.deleteEmployee(employeeId);
+        if (!employeeDAO.deleteEmployee(employeeId)) {
+            return false;
+        }
+        SearchService.getInstance().onEmployeeDeleted(employeeId);
+        return true;
     }
     
     public Employee getEmployeeById(int employeeId) {
@@ -47,12 +66,47 @@ public class EmployeeService {
     }
     
     public List<Employee> searchEmployees(String searchTerm) {
+        return searchEmployees(searchTerm, SearchService.ALL_FIELDS);
+    }
+    
+    /**
+     * Search one field with an indexed prefix query in the database (see V4).
+     * "All Fields" searches the in-memory index, best match first and tolerant of
+     * small typos, or with the index switched off, every field in the database.
+     * @param searchType "All Fields", "Name", "Email", "Phone" or "Position"
+     */
+    public List<Employee> searchEmployees(String searchTerm, String searchType) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllEmployees();
         }
+        EmployeeDAO.Field field = toField(searchType);
+        if (field != null) {
+            return employeeDAO.findEmployees(FieldQuery.of(field, searchTerm));
+        }
+        if (SearchService.isEnabled()) {
+            return SearchService.getInstance().searchEmployees(searchTerm.trim(), SearchService.ALL_FIELDS);
+        }
         return employeeDAO.searchEmployees(searchTerm.trim());
     }
     
+    private static EmployeeDAO.Field toField(String searchType) {
+        if (searchType == null) {
+            return null;
+        }
+        switch (searchType) {
+            case "Name":
+                return EmployeeDAO.Field.NAME;
+            case "Email":
+                return EmployeeDAO.Field.EMAIL;
+            case "Phone":
+                return EmployeeDAO.Field.PHONE;
+            case "Position":
+                return EmployeeDAO.Field.POSITION;
+            default:
+                return null;
+        }
+    }
+    
     public boolean emailExists(String email) {
         if (email == null || email.trim().isEmpty()) {
             return false;
@@ -1,56 +1,94 @@
 package services;
 
+import application.RetryPolicy;
+import application.TransactionTemplate;
+import dao.Keyset;
+import dao.OptimisticLockException;
 import dao.RentDAO;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import models.Car;
 import models.RentalRecord;
+import models.ReservationOutcome;
+import services.analytics.AnalyticsService;
+import services.availability.AvailabilityService;
+import services.search.SearchService;
 
 public class RentService {
+    // Each day past the scheduled return costs half the daily rate
+    public static final double LATE_FEE_RATE = 0.5;
+    
     private RentDAO rentDAO;
     
     public RentService() {
         this.rentDAO = new RentDAO();
     }
     
+    /**
+     * Rent out a car that is Available
+     * @return false if the rental could not be saved
+     * @throws RentalConflictException If the car is no longer available, e.g. another
+     *         counter rented it first
+     */
     public boolean rentCar(int carId, int customerId, int employeeId, 
-            LocalDate rentalDate, LocalDate returnDate, double totalAmount) {
-try {
-// First, update the car status to mark it as rented
-CarService carService = new CarService();
-if (!carService.updateCarStatus(carId, "Rented")) {
-  System.err.println("Failed to update car status to Rented");
-  return false;
-}
-
-// Then create the rental record
-RentalRecord rental = new RentalRecord();
-rental.setCarId(carId);
-rental.setCustomerId(customerId);
-rental.setEmployeeId(employeeId);
-rental.setRentalDate(rentalDate);
-rental.setReturnDate(returnDate);
-rental.setTotalAmount(totalAmount);
-rental.setStatus("Active");
-
-boolean rentalAdded = rentDAO.addRental(rental);
-
-// If rental creation fails, revert the car status
-if (!rentalAdded) {
-  carService.updateCarStatus(carId, "Available");
-  return false;
-}
-
-return true;
-} catch (Exception e) {
-System.err.println("Error renting car: " + e.getMessage());
-e.printStackTrace();
-// If there's an error, make sure to set the car back to Available
-CarService carService = new CarService();
-carService.updateCarStatus(carId, "Available");
-return false;
-}
-}
+                           LocalDate rentalDate, LocalDate returnDate, double totalAmount) {
+        ReservationOutcome outcome = tryReserve(carId, customerId, employeeId, rentalDate, returnDate, totalAmount);
+        switch (outcome) {
+            case RESERVED:
+                return true;
+            case FAILED:
+                return false;
+            default:
+                throw new RentalConflictException("Car " + carId + " could not be rented: " + outcome);
+        }
+    }
+    
+    /**
+     * Reserve a car if it is Available right now
+     *
+     * Checking and taking the car is a single conditional UPDATE, committed together
+     * with the new rental (RentDAO.tryReserve), so when many counters try at once
+     * exactly one gets RESERVED. Nothing is written for any other outcome.
+     * @return RESERVED, or why the car could not be reserved
+     */
+    public ReservationOutcome tryReserve(int carId, int customerId, int employeeId,
+                                         LocalDate rentalDate, LocalDate returnDate, double totalAmount) {
+        RentalRecord rental = new RentalRecord();
+        rental.setCarId(carId);
+        rental.setCustomerId(customerId);
+        rental.setEmployeeId(employeeId);
+        rental.setRentalDate(rentalDate);
+        rental.setReturnDate(returnDate);
+        rental.setTotalAmount(totalAmount);
+        rental.setStatus("Active");
+        
+        ReservationOutcome outcome = rentDAO.tryReserve(rental);
+        if (outcome == ReservationOutcome.RESERVED) {
+            // The car row changed underneath the cache
+            CarService.getCache().invalidate(carId);
+            TransactionTemplate.afterCommit(() -> refreshSearch(carId));
+            AvailabilityService.getInstance().onRented(rental);
+            AnalyticsService.getInstance().onRentalSaved(rental);
+        }
+        return outcome;
+    }
+    
+    /**
+     * Re-read a car whose status was changed in SQL and pass it to search, so search
+     * results show the new status and version
+     */
+    private static void refreshSearch(int carId) {
+        SearchService search = SearchService.getInstance();
+        if (search.isLoaded()) {
+            Car car = new CarService().getCarById(carId);
+            if (car != null) {
+                search.onCarSaved(car);
+            }
+        }
+    }
     
     // OPTION 1: Returns Map (for DashboardController)
     public List<Map<String, Object>> getActiveRentals() {
@@ -70,8 +108,17 @@ return false;
         return rentDAO.getMonthlyRevenue();
     }
     
+    /**
+     * Save an edited rental
+     * @throws OptimisticLockException If the rental was changed since it was loaded
+     */
     public boolean updateRental(RentalRecord rental) {
-        return rentDAO.updateRental(rental);
+        if (!rentDAO.updateRental(rental)) {
+            return false;
+        }
+        AvailabilityService.getInstance().onRentalUpdated(rental);
+        AnalyticsService.getInstance().onRentalSaved(rental);
+        return true;
     }
     
     public RentalRecord getRentalById(int rentalId) {
@@ -82,6 +129,18 @@ return false;
         return rentDAO.getAllRentals();
     }
     
+    /**
+     * One page of rentals, newest first, for paged lists
+     * @param lastId rental_id of the last rental already shown, or 0 for the first page
+     */
+    public List<RentalRecord> getRentalsAfter(int lastId, int limit) {
+        return rentDAO.getRentalsAfter(lastId, limit);
+    }
+    
+    public List<RentalRecord> getRentalsAfter(Keyset<RentalRecord> order, RentalRecord lastRental, int limit) {
+        return rentDAO.getRentalsAfter(order, lastRental, limit);
+    }
+    
     public List<RentalRecord> getRentalsByCustomerId(int customerId) {
         return rentDAO.getRentalsByCustomerId(customerId);
     }
@@ -103,85 +162,73 @@ return false;
     }
     
     public boolean returnCar(int rentalId, int employeeId, String notes) {
-        try {
-            // Get the rental record
-            RentalRecord rental = rentDAO.getRentalById(rentalId);
-            if (rental == null) {
-                System.err.println("Rental not found with ID: " + rentalId);
-                return false;
-            }
-            
-            // First update the car status to Available
-            CarService carService = new CarService();
-            if (!carService.updateCarStatus(rental.getCarId(), "Available")) {
-                System.err.println("Failed to update car status to Available");
-                return false;
-            }
-            
-            // Then update the rental record
-            rental.setStatus("Returned");
-            rental.setActualReturnDate(LocalDate.now());
-            rental.setNotes(notes);
-            
-            boolean rentalUpdated = rentDAO.updateRental(rental);
-            
-            // If rental update fails, log the error but don't revert the car status
-            // since the car is physically returned
-            if (!rentalUpdated) {
-                System.err.println("Warning: Car status updated but failed to update rental record for ID: " + rentalId);
-                return false;
-            }
-            
-            return true;
-        } catch (Exception e) {
-            System.err.println("Error returning car: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+        return completeReturn(rentalId, notes, false, 0, 0);
+    }
+    
+    /**
+     * Late fee for returning a car after its scheduled return date
+     * @return 0 when returned on time or early
+     */
+    public static double calculateLateFee(LocalDate scheduledReturn, LocalDate actualReturn, double pricePerDay) {
+        if (scheduledReturn == null || actualReturn == null || !actualReturn.isAfter(scheduledReturn)) {
+            return 0.0;
         }
+        long lateDays = ChronoUnit.DAYS.between(scheduledReturn, actualReturn);
+        return lateDays * pricePerDay * LATE_FEE_RATE;
     }
     
     // New method to handle return with late fees and damage fees
     public boolean returnCar(int rentalId, int employeeId, double lateFee, double damageFee, String notes) {
+        return completeReturn(rentalId, notes, true, lateFee, damageFee);
+    }
+    
+    /**
+     * Mark the car Available and close the rental record in a single transaction
+     *
+     * The rental and car are read inside the transaction and written only at the
+     * versions read, so a return that races another one (or a rental edit) runs again
+     * and then finds the rental already closed.
+     * @throws RentalConflictException If the rental is no longer active
+     * @throws OptimisticLockException If the rental or car kept changing while this was retried
+     */
+    private boolean completeReturn(int rentalId, String notes, boolean chargeFees, double lateFee, double damageFee) {
         try {
-            // Get the rental record
-            RentalRecord rental = rentDAO.getRentalById(rentalId);
-            if (rental == null) {
-                System.err.println("Rental not found with ID: " + rentalId);
-                return false;
-            }
-            
-            // Update the rental record with fees
-            rental.setLateFee(lateFee);
-            rental.setDamageFee(damageFee);
-            double totalAmount = rental.getTotalAmount() + lateFee + damageFee;
-            rental.setTotalAmount(totalAmount);
-            
-            // First update the car status to Available
-            CarService carService = new CarService();
-            if (!carService.updateCarStatus(rental.getCarId(), "Available")) {
-                System.err.println("Failed to update car status to Available");
-                return false;
-            }
-            
-            // Then update the rental record
-            rental.setStatus("Returned");
-            rental.setActualReturnDate(LocalDate.now());
-            rental.setNotes(notes);
-            
-            boolean rentalUpdated = rentDAO.updateRental(rental);
-            
-            // If rental update fails, log the error but don't revert the car status
-            // since the car is physically returned
-            if (!rentalUpdated) {
-                System.err.println("Warning: Car status updated but failed to update rental record for ID: " + rentalId);
-                return false;
-            }
-            
+            RentalRecord rental = RetryPolicy.getDefault().execute(conn -> {
+                RentalRecord current = rentDAO.getRentalById(rentalId);
+                if (current == null) {
+                    throw new SQLException("Rental not found with ID: " + rentalId);
+                }
+                if (!"Active".equals(current.getStatus())) {
+                    throw new RentalConflictException("Rental #" + rentalId + " is no longer active (" +
+                                                      current.getStatus() + ")");
+                }
+                if (chargeFees) {
+                    current.setLateFee(lateFee);
+                    current.setDamageFee(damageFee);
+                    current.setTotalAmount(current.getTotalAmount() + lateFee + damageFee);
+                }
+                current.setStatus("Returned");
+                current.setActualReturnDate(LocalDate.now());
+                current.setNotes(notes);
+                
+                CarService carService = new CarService();
+                if (!carService.updateCarStatus(current.getCarId(), "Available")) {
+                    throw new SQLException("Failed to update car status to Available");
+                }
+                if (!rentDAO.updateRental(current)) {
+                    throw new SQLException("Failed to update rental record for ID: " + rentalId);
+                }
+                return current;
+            });
+            AvailabilityService.getInstance().onReturned(rental);
+            AnalyticsService.getInstance().onRentalSaved(rental);
             return true;
-        } catch (Exception e) {
+        } catch (RentalConflictException | OptimisticLockException e) {
+            throw e;
+        } catch (SQLException | RuntimeException e) {
             System.err.println("Error returning car: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
     }
-}
\ No newline at end of file
+}
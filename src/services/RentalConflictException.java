@@ -0,0 +1,17 @@
+package services;
+
+/**
+ * RentalConflictException - A rental or return lost to one made at another counter
+ *
+ * Thrown by RentService when, on fresh data, the car is no longer available to rent
+ * or the rental has already been returned. Unlike dao.OptimisticLockException this is
+ * not retried: running again would find the same state. Nothing was written.
+ */
+public class RentalConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RentalConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,245 @@
+package services;
+
+import application.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReportOrchestrator - Runs the independent sections of a report in parallel
+ *
+ * Each section is a query that borrows its own pooled connection on a worker thread,
+ * so a report takes about as long as its slowest section instead of the sum of all
+ * of them. Every section has its own timeout and a fallback value: a section that
+ * fails or runs past its timeout yields the fallback and is reported as failed, and
+ * the sections that did finish are still used.
+ *
+ * A timed-out section is cancelled, but a JDBC call in progress cannot be
+ * interrupted; its connection goes back to the pool when the query returns.
+ *
+ * Inside TransactionTemplate.execute() the sections run one after another on the
+ * calling thread instead, so they see the transaction's uncommitted changes.
+ *
+ * Usage:
+ *     ReportOrchestrator orchestrator = new ReportOrchestrator();
+ *     Section<List<ReportData>> cars = orchestrator.submit("cars", 30_000, List.of(), () -> ...);
+ *     orchestrator.awaitAll();
+ *     List<ReportData> carReports = cars.get();
+ */
+public final class ReportOrchestrator {
+
+    // Kept well below DatabaseConnection's pool size, like AsyncLoader
+    private static final int WORKER_THREADS = 4;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private final List<Section<?>> sections = new ArrayList<>();
+    private final boolean sequential = TransactionTemplate.isActive();
+    private final long startedAt = System.nanoTime();
+    private long finishedAt;
+
+    /**
+     * Start a section
+     * @param name Short name used in timings and failure messages
+     * @param timeoutMillis How long awaitAll() waits for this section, from submission
+     * @param fallback Result used if the section fails or times out
+     * @param work The query; runs on a worker thread
+     */
+    public <T> Section<T> submit(String name, long timeoutMillis, T fallback, Callable<T> work) {
+        Section<T> section = new Section<>(name, timeoutMillis, fallback, work);
+        sections.add(section);
+        if (sequential) {
+            section.task.run();
+        } else {
+            // A full queue runs the section on the calling thread (CallerRunsPolicy)
+            EXECUTOR.execute(section.task);
+        }
+        return section;
+    }
+
+    /**
+     * Wait until every section has finished or reached its timeout; sections still
+     * running then are cancelled. If the calling thread is interrupted, every
+     * unfinished section is cancelled and the interrupt flag is restored.
+     */
+    public void awaitAll() {
+        try {
+            for (Section<?> section : sections) {
+                section.await();
+            }
+        } catch (InterruptedException e) {
+            for (Section<?> section : sections) {
+                section.cancel();
+            }
+            Thread.currentThread().interrupt();
+        }
+        finishedAt = System.nanoTime();
+    }
+
+    public List<Section<?>> getSections() {
+        return Collections.unmodifiableList(sections);
+    }
+
+    /**
+     * Time from the first submission until awaitAll() returned
+     */
+    public double getElapsedMillis() {
+        long end = finishedAt != 0 ? finishedAt : System.nanoTime();
+        return (end - startedAt) / 1_000_000.0;
+    }
+
+    /**
+     * Whether every section finished without an error
+     */
+    public boolean isComplete() {
+        for (Section<?> section : sections) {
+            if (!section.succeeded()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One-line summary, e.g. "summary 12.1 ms, cars 30.4 ms, customers timed out; total 30.9 ms"
+     */
+    public String describeTimings() {
+        StringBuilder text = new StringBuilder();
+        for (Section<?> section : sections) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(section.getName()).append(' ');
+            if (section.isTimedOut()) {
+                text.append("timed out");
+            } else if (!section.succeeded()) {
+                text.append("failed");
+            } else {
+                text.append(String.format(Locale.ROOT, "%.1f ms", section.getElapsedMillis()));
+            }
+        }
+        text.append(String.format(Locale.ROOT, "; total %.1f ms", getElapsedMillis()));
+        return text.toString();
+    }
+
+    /**
+     * One section of a report and, once awaited, its outcome
+     */
+    public static final class Section<T> {
+        private final String name;
+        private final long deadline;
+        private final T fallback;
+        private final FutureTask<T> task;
+        private volatile long runStartedAt;
+        private volatile long runFinishedAt;
+        private T value;
+        private Throwable error;
+        private boolean timedOut;
+        private boolean done;
+
+        Section(String name, long timeoutMillis, T fallback, Callable<T> work) {
+            this.name = name;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            this.fallback = fallback;
+            this.task = new FutureTask<>(() -> {
+                runStartedAt = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    runFinishedAt = System.nanoTime();
+                }
+            });
+        }
+
+        void await() throws InterruptedException {
+            if (done) {
+                return;
+            }
+            try {
+                value = task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                timedOut = true;
+                error = e;
+                task.cancel(true);
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (CancellationException e) {
+                error = e;
+            }
+            done = true;
+        }
+
+        void cancel() {
+            if (!done) {
+                task.cancel(true);
+                error = new CancellationException("Report cancelled");
+                done = true;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The section's result, or its fallback if it failed or timed out
+         */
+        public T get() {
+            return succeeded() ? value : fallback;
+        }
+
+        public boolean succeeded() {
+            return done && error == null;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * Why the section has no result, or null if it succeeded
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * Time the section's query ran (excluding time queued for a worker); for a
+         * section still running, the time so far
+         */
+        public double getElapsedMillis() {
+            long start = runStartedAt;
+            if (start == 0) {
+                return 0;
+            }
+            long end = runFinishedAt != 0 ? runFinishedAt : System.nanoTime();
+            return (end - start) / 1_000_000.0;
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "report-section-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            WORKER_THREADS, WORKER_THREADS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
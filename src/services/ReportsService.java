@@ -1,25 +1,51 @@
 package services;
 
+import dao.CsvWriter;
+import dao.DateRange;
 import dao.ReportsDAO;
+import dao.RollupDAO;
 import models.ReportData;
+import services.analytics.AnalyticsService;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.Month;
 import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * ReportsService - Business logic layer for report generation
  * Handles report data processing and formatting
+ *
+ * Report figures come from the in-memory analytics store when it is switched on,
+ * else from the pre-aggregated rollups (RollupDAO) once they have been built, and
+ * from rental_records otherwise.
  */
 public class ReportsService {
     
+    // How long getAllReports() waits for each section before using what it has
+    public static final long DEFAULT_SECTION_TIMEOUT_MILLIS = 30_000;
+    
     private ReportsDAO reportsDAO;
+    private RollupDAO rollupDAO;
+    private long sectionTimeoutMillis = DEFAULT_SECTION_TIMEOUT_MILLIS;
     
     public ReportsService() {
         this.reportsDAO = new ReportsDAO();
+        this.rollupDAO = new RollupDAO();
     }
     
     /**
@@ -29,16 +55,43 @@ public class ReportsService {
      * @return ReportData with all monthly statistics
      */
     public ReportData generateMonthlyReport(int month, int year) {
-        ReportData report = reportsDAO.getMonthlyRevenueReport(month, year);
-        
-        // Add system statistics
-        ReportData systemStats = reportsDAO.getSystemStatistics();
+        try {
+            ReportData report = loadMonthlySummary(month, year);
+            
+            // Add system statistics
+            addSystemStatistics(report, reportsDAO.getSystemStatistics());
+            
+            return report;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            ReportData report = new ReportData("MONTHLY_REVENUE");
+            report.setPeriod(getPeriodName(month, year));
+            return report;
+        }
+    }
+    
+    /**
+     * Monthly revenue figures without the system statistics
+     */
+    private ReportData loadMonthlySummary(int month, int year) throws SQLException {
+        if (useAnalytics() || rollupDAO.isBuilt()) {
+            ReportData report = loadRentalStatistics(DateRange.ofMonth(month, year));
+            report.setReportType("MONTHLY_REVENUE");
+            report.setPeriod(getPeriodName(month, year));
+            return report;
+        }
+        return reportsDAO.getMonthlyRevenueReport(month, year);
+    }
+    
+    private void addSystemStatistics(ReportData report, ReportData systemStats) {
         report.setTotalCars(systemStats.getTotalCars());
         report.setTotalCustomers(systemStats.getTotalCustomers());
         report.setAvailableCars(systemStats.getAvailableCars());
         report.setTotalEmployees(systemStats.getTotalEmployees());
-        
-        return report;
+    }
+    
+    private static String getPeriodName(int month, int year) {
+        return Month.of(month).getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + year;
     }
     
     /**
@@ -48,7 +101,31 @@ public class ReportsService {
      * @return ReportData with detailed rental and revenue statistics
      */
     public ReportData getRentalStatistics(int month, int year) {
-        return reportsDAO.getRentalStatistics(month, year);
+        return getRentalStatistics(DateRange.ofMonth(month, year));
+    }
+    
+    /**
+     * Get rental statistics for any date range
+     * @param range Rental dates to include
+     * @return ReportData with detailed rental and revenue statistics
+     */
+    public ReportData getRentalStatistics(DateRange range) {
+        try {
+            return loadRentalStatistics(range);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ReportData("RENTAL_STATISTICS");
+        }
+    }
+    
+    private ReportData loadRentalStatistics(DateRange range) throws SQLException {
+        if (useAnalytics()) {
+            return AnalyticsService.getInstance().getRentalStatistics(range);
+        }
+        if (rollupDAO.isBuilt()) {
+            return rollupDAO.getRentalStatistics(range);
+        }
+        return reportsDAO.getRentalStatistics(range);
     }
     
     /**
@@ -58,6 +135,21 @@ public class ReportsService {
      * @return List of car utilization reports
      */
     public List<ReportData> getCarUtilizationReport(int month, int year) {
+        try {
+            return loadCarUtilizationReport(month, year);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    private List<ReportData> loadCarUtilizationReport(int month, int year) throws SQLException {
+        if (useAnalytics()) {
+            return AnalyticsService.getInstance().getCarUtilizationReport(DateRange.ofMonth(month, year));
+        }
+        if (rollupDAO.isBuilt()) {
+            return rollupDAO.getCarUtilizationReport(DateRange.ofMonth(month, year));
+        }
         return reportsDAO.getCarUtilizationReport(month, year);
     }
     
@@ -68,25 +160,92 @@ public class ReportsService {
      * @return List of customer activity reports
      */
     public List<ReportData> getCustomerActivityReport(int month, int year) {
+        try {
+            return loadCustomerActivityReport(month, year);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    private List<ReportData> loadCustomerActivityReport(int month, int year) throws SQLException {
+        if (useAnalytics()) {
+            return AnalyticsService.getInstance().getCustomerActivityReport(DateRange.ofMonth(month, year));
+        }
+        if (rollupDAO.isBuilt()) {
+            return rollupDAO.getCustomerActivityReport(DateRange.ofMonth(month, year));
+        }
         return reportsDAO.getCustomerActivityReport(month, year);
     }
     
+    /**
+     * Whether the in-memory analytics store is switched on and loaded (loading it if needed)
+     */
+    private boolean useAnalytics() {
+        return AnalyticsService.isEnabled() && AnalyticsService.getInstance().ensureLoaded();
+    }
+    
     /**
      * Get all reports for a specific month
+     *
+     * The monthly summary, system statistics, car and customer sections are
+     * independent queries and run in parallel (see ReportOrchestrator). A section
+     * whose query fails (the SQLException reaches the orchestrator) or that exceeds
+     * the section timeout is left empty and listed in getFailedSections(); the rest
+     * of the report is still returned.
      * @param month Month number (1-12)
      * @param year Year
-     * @return Combined report data
+     * @return Combined report data, with per-section timings
      */
     public CombinedReportData getAllReports(int month, int year) {
+        ReportData emptySummary = new ReportData("MONTHLY_REVENUE");
+        emptySummary.setPeriod(getPeriodName(month, year));
+        
+        ReportOrchestrator orchestrator = new ReportOrchestrator();
+        ReportOrchestrator.Section<ReportData> summary = orchestrator.submit(
+            "summary", sectionTimeoutMillis, emptySummary, () -> loadMonthlySummary(month, year));
+        ReportOrchestrator.Section<ReportData> system = orchestrator.submit(
+            "system", sectionTimeoutMillis, new ReportData("SYSTEM_STATS"), () -> reportsDAO.getSystemStatistics());
+        ReportOrchestrator.Section<List<ReportData>> cars = orchestrator.submit(
+            "cars", sectionTimeoutMillis, Collections.emptyList(), () -> loadCarUtilizationReport(month, year));
+        ReportOrchestrator.Section<List<ReportData>> customers = orchestrator.submit(
+            "customers", sectionTimeoutMillis, Collections.emptyList(), () -> loadCustomerActivityReport(month, year));
+        orchestrator.awaitAll();
+        
         CombinedReportData combined = new CombinedReportData();
+        ReportData monthlyReport = summary.get();
+        addSystemStatistics(monthlyReport, system.get());
+        combined.setMonthlyReport(monthlyReport);
+        combined.setCarReports(cars.get());
+        combined.setCustomerReports(customers.get());
         
-        combined.setMonthlyReport(generateMonthlyReport(month, year));
-        combined.setCarReports(getCarUtilizationReport(month, year));
-        combined.setCustomerReports(getCustomerActivityReport(month, year));
+        for (ReportOrchestrator.Section<?> section : orchestrator.getSections()) {
+            combined.sectionMillis.put(section.getName(), section.getElapsedMillis());
+            if (!section.succeeded()) {
+                Throwable error = section.getError();
+                String reason = section.isTimedOut()
+                    ? "timed out after " + sectionTimeoutMillis + " ms"
+                    : error.getClass().getSimpleName() + (error.getMessage() != null ? ": " + error.getMessage() : "");
+                combined.failedSections.put(section.getName(), reason);
+                System.err.println("Report section " + section.getName() + " " + reason);
+            }
+        }
+        combined.totalMillis = orchestrator.getElapsedMillis();
+        System.out.println("Report " + getPeriodName(month, year) + ": " + orchestrator.describeTimings());
         
         return combined;
     }
     
+    /**
+     * Change how long getAllReports() waits for each section
+     */
+    public void setSectionTimeoutMillis(long sectionTimeoutMillis) {
+        if (sectionTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Section timeout must be positive");
+        }
+        this.sectionTimeoutMillis = sectionTimeoutMillis;
+    }
+    
     /**
      * Export report to CSV file
      * @param reportType Type of report to export
@@ -96,30 +255,59 @@ public class ReportsService {
      * @throws IOException If there's an error writing the file
      */
     public String exportToCSV(String reportType, int month, int year) throws IOException {
-        String csvData = reportsDAO.exportToCSV(reportType, month, year);
-        
+        return exportToCSV(reportType, DateRange.ofMonth(month, year), false);
+    }
+    
+    /**
+     * Export a report for any date range to a CSV file in the reports directory
+     *
+     * Rows are streamed from the database straight into the file, so large exports
+     * use no more memory than small ones. The file only appears under its final
+     * name once it is complete.
+     * @param reportType Type of report to export
+     * @param range Rental dates to include
+     * @param gzip Write a gzip-compressed .csv.gz file
+     * @return Path to the exported file
+     * @throws IOException If the report could not be read or written
+     */
+    public String exportToCSV(String reportType, DateRange range, boolean gzip) throws IOException {
         // Create filename with timestamp (using LocalDateTime instead of LocalDate)
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
         String timestamp = LocalDateTime.now().format(formatter);
-        String filename = String.format("%s_report_%s.csv", reportType.toLowerCase(), timestamp);
+        String filename = String.format("%s_report_%s.csv%s", reportType.toLowerCase(), timestamp, gzip ? ".gz" : "");
         
-        // Use absolute path to ensure file is created in a known location
-        String userHome = System.getProperty("user.home");
-        String reportsDirPath = userHome + File.separator + "Documents" + File.separator + "CarRentalReports";
+        Path reportsDir = Paths.get(getReportsDirectory());
+        Files.createDirectories(reportsDir);
+        Path target = reportsDir.resolve(filename);
+        Path partial = reportsDir.resolve(filename + ".part");
         
-        // Create reports directory if it doesn't exist
-        File reportsDir = new File(reportsDirPath);
-        if (!reportsDir.exists()) {
-            reportsDir.mkdirs();
-        }
-        
-        // Write CSV file
-        String filepath = reportsDirPath + File.separator + filename;
-        try (FileWriter writer = new FileWriter(filepath, java.nio.charset.StandardCharsets.UTF_8)) {
-            writer.write(csvData);
+        long startTime = System.nanoTime();
+        long rows;
+        try {
+            try (CsvWriter csv = CsvWriter.open(partial, gzip)) {
+                rows = reportsDAO.exportToCSV(reportType, range, csv);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (SQLException e) {
+            Files.deleteIfExists(partial);
+            throw new IOException("Failed to read report data: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
         }
+        System.out.printf("Exported %s %s: %d row(s) in %.1f ms%n", reportType, range, rows,
+                          (System.nanoTime() - startTime) / 1_000_000.0);
         
-        return filepath;
+        return target.toString();
+    }
+    
+    /**
+     * Folder exported and printed reports are saved to
+     */
+    private String getReportsDirectory() {
+        // Use absolute path to ensure file is created in a known location
+        String userHome = System.getProperty("user.home");
+        return userHome + File.separator + "Documents" + File.separator + "CarRentalReports";
     }
     
     /**
@@ -142,9 +330,7 @@ public class ReportsService {
             String timestamp = LocalDateTime.now().format(formatter);
             String filename = String.format("%s_report_%s_print.txt", reportType.toLowerCase(), timestamp);
             
-            // Use absolute path to ensure file is created in a known location
-            String userHome = System.getProperty("user.home");
-            String reportsDirPath = userHome + File.separator + "Documents" + File.separator + "CarRentalReports";
+            String reportsDirPath = getReportsDirectory();
             
             // Create reports directory if it doesn't exist
             File reportsDir = new File(reportsDirPath);
@@ -177,6 +363,11 @@ public class ReportsService {
         private ReportData monthlyReport;
         private List<ReportData> carReports;
         private List<ReportData> customerReports;
+        // Section name -> query time, in the order the sections were started
+        private final Map<String, Double> sectionMillis = new LinkedHashMap<>();
+        // Section name -> why it has no data
+        private final Map<String, String> failedSections = new LinkedHashMap<>();
+        private double totalMillis;
         
         public ReportData getMonthlyReport() {
             return monthlyReport;
@@ -201,5 +392,27 @@ public class ReportsService {
         public void setCustomerReports(List<ReportData> customerReports) {
             this.customerReports = customerReports;
         }
+        
+        public Map<String, Double> getSectionMillis() {
+            return Collections.unmodifiableMap(sectionMillis);
+        }
+        
+        public Map<String, String> getFailedSections() {
+            return Collections.unmodifiableMap(failedSections);
+        }
+        
+        /**
+         * Whether every section was loaded
+         */
+        public boolean isComplete() {
+            return failedSections.isEmpty();
+        }
+        
+        /**
+         * Wall-clock time for the whole report
+         */
+        public double getTotalMillis() {
+            return totalMillis;
+        }
     }
 }
\ No newline at end of file
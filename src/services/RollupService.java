@@ -0,0 +1,59 @@
+package services;
+
+import application.DatabaseConnection;
+import dao.RollupDAO;
+import java.sql.SQLException;
+
+/**
+ * RollupService - Builds and checks the pre-aggregated report rollups
+ *
+ * After migration V3 the rollup tables are empty; run the rebuild once to backfill
+ * them from rental_records (and again if the totals ever look wrong):
+ *
+ *     java services.RollupService --rebuild
+ *
+ * From then on RentDAO keeps them current and ReportsService reads them.
+ */
+public class RollupService {
+
+    private final RollupDAO rollupDAO;
+
+    public RollupService() {
+        this.rollupDAO = new RollupDAO();
+    }
+
+    /**
+     * Check whether reports can be served from the rollups
+     */
+    public boolean isAvailable() {
+        return rollupDAO.isBuilt();
+    }
+
+    /**
+     * Recompute every rollup from rental_records
+     * @return Number of rentals aggregated
+     */
+    public long rebuild() throws SQLException {
+        long startTime = System.nanoTime();
+        long rentals = rollupDAO.rebuild();
+        System.out.printf("Rental rollups rebuilt from %d rental(s) in %.1f ms%n",
+                          rentals, (System.nanoTime() - startTime) / 1_000_000.0);
+        return rentals;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1 || !"--rebuild".equals(args[0])) {
+            System.out.println("Usage: java services.RollupService --rebuild");
+            System.exit(2);
+        }
+        try {
+            new RollupService().rebuild();
+        } catch (SQLException e) {
+            System.err.println("Rollup rebuild failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package services.analytics;
+
+import application.DatabaseConfig;
+import dao.CarDAO;
+import dao.CustomerDAO;
+import dao.DateRange;
+import dao.ReportsDAO;
+import models.Car;
+import models.Customer;
+import models.RentalRecord;
+import models.ReportData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AnalyticsService - Report figures computed from the in-memory RentalColumns store
+ *
+ * Optional: switched on with analytics.inMemory=true in database.properties. The store
+ * is loaded on first use (one streaming pass over rental_records plus the car and
+ * customer lists) and then kept current by RentService, CarService and
+ * CustomerService, which report their changes after they commit. Any date range can
+ * then be sliced without a database round trip. Call reload() to pick up changes
+ * made by other workstations.
+ *
+ * Results match ReportsDAO row for row; rows with equal counts and amounts are
+ * ordered by id.
+ */
+public class AnalyticsService {
+
+    public static final String ENABLED_KEY = "analytics.inMemory";
+
+    private static volatile AnalyticsService instance;
+    private static volatile Boolean enabled;
+
+    private final RentalColumns rentals = new RentalColumns();
+    private final Map<Integer, Car> cars = new ConcurrentHashMap<>();
+    private final Map<Integer, Customer> customers = new ConcurrentHashMap<>();
+    private final ReportsDAO reportsDAO;
+    private final CarDAO carDAO;
+    private final CustomerDAO customerDAO;
+    private volatile boolean loaded = false;
+    // Changes committed while reload() is reading the database, applied once it has
+    // finished; guarded by itself, as is reloading
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private boolean reloading = false;
+    // Bumped on every change to cars / customers; a directory built from an older
+    // version is rebuilt on the next report
+    private final AtomicInteger carChanges = new AtomicInteger();
+    private final AtomicInteger customerChanges = new AtomicInteger();
+    private volatile Directory carDirectory;
+    private volatile Directory customerDirectory;
+
+    private AnalyticsService() {
+        this.reportsDAO = new ReportsDAO();
+        this.carDAO = new CarDAO();
+        this.customerDAO = new CustomerDAO();
+    }
+
+    /**
+     * Get the shared instance
+     */
+    public static AnalyticsService getInstance() {
+        if (instance == null) {
+            synchronized (AnalyticsService.class) {
+                if (instance == null) {
+                    instance = new AnalyticsService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Whether reports should be answered from memory, read once from the configuration
+     */
+    public static boolean isEnabled() {
+        if (enabled == null) {
+            enabled = DatabaseConfig.load().getBoolean(ENABLED_KEY, false);
+        }
+        return enabled;
+    }
+
+    /**
+     * Rebuild the store from the database
+     * @return true if loaded; on failure the store stays unloaded and callers fall back to SQL
+     */
+    public synchronized boolean reload() {
+        long startTime = System.nanoTime();
+        synchronized (pendingChanges) {
+            loaded = false;
+            reloading = true;
+            pendingChanges.clear();
+        }
+        rentals.clear();
+        cars.clear();
+        customers.clear();
+        try {
+            // Read rentals first: a car or customer added meanwhile then still gets a row
+            reportsDAO.scanRentalFacts(rentals::upsert);
+        } catch (SQLException e) {
+            System.err.println("Could not load rentals for analytics: " + e.getMessage());
+            e.printStackTrace();
+            rentals.clear();
+            synchronized (pendingChanges) {
+                reloading = false;
+                pendingChanges.clear();
+            }
+            return false;
+        }
+        for (Car car : carDAO.getAllCars()) {
+            cars.put(car.getCarId(), car);
+        }
+        for (Customer customer : customerDAO.getAllCustomers()) {
+            customers.put(customer.getCustomerId(), customer);
+        }
+        // The scan may or may not have seen these; applying them again is harmless
+        synchronized (pendingChanges) {
+            for (Runnable change : pendingChanges) {
+                change.run();
+            }
+            pendingChanges.clear();
+            reloading = false;
+            carChanges.incrementAndGet();
+            customerChanges.incrementAndGet();
+            loaded = true;
+        }
+        System.out.printf("Analytics store loaded: %d rentals, %d cars, %d customers in %.1f ms%n",
+                          rentals.size(), cars.size(), customers.size(),
+                          (System.nanoTime() - startTime) / 1_000_000.0);
+        return true;
+    }
+
+    /**
+     * Whether the store has been loaded and is kept current
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Load the store now if it has not been loaded yet
+     * @return true if the store can answer queries
+     */
+    public boolean ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    return reload();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same figures as ReportsDAO.getRentalStatistics
+     */
+    public ReportData getRentalStatistics(DateRange range) {
+        ensureLoaded();
+        RentalColumns.Totals totals = rentals.totals(range);
+        ReportData report = new ReportData("RENTAL_STATISTICS");
+        report.setTotalRentals(totals.getRentals());
+        report.setActiveRentals(totals.getRentals("Active"));
+        report.setCompletedRentals(totals.getRentals("Completed"));
+        report.setReturnedRentals(totals.getRentals("Returned"));
+        report.setCancelledRentals(totals.getRentals("Cancelled"));
+        report.setTotalRevenue(roundToCents(totals.getTotalAmount()));
+        report.setLateFees(roundToCents(totals.getLateFees()));
+        report.setDamageFees(roundToCents(totals.getDamageFees()));
+        return report;
+    }
+
+    /**
+     * Same rows as ReportsDAO.getCarUtilizationReport: every car, busiest first
+     */
+    public List<ReportData> getCarUtilizationReport(DateRange range) {
+        ensureLoaded();
+        RentalColumns.GroupTotals totals = rentals.totalsByCar(range);
+        Directory fleet = getCarDirectory();
+        int[] order = rank(fleet, totals, false);
+        LocalDate today = LocalDate.now();
+        List<ReportData> reports = new ArrayList<>(order.length);
+        for (int position : order) {
+            int carId = fleet.ids[position];
+            ReportData report = newReport("CAR_UTILIZATION", today);
+            report.setCarInfo(fleet.names[position]);
+            report.setRegistrationNumber(fleet.details[position]);
+            report.setTimesRented(totals.getRentals(carId));
+            report.setCarRevenue(roundToCents(totals.getTotalAmount(carId)));
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    /**
+     * Same rows as ReportsDAO.getCustomerActivityReport: every customer, biggest spenders first
+     */
+    public List<ReportData> getCustomerActivityReport(DateRange range) {
+        ensureLoaded();
+        RentalColumns.GroupTotals totals = rentals.totalsByCustomer(range);
+        Directory all = getCustomerDirectory();
+        int[] order = rank(all, totals, true);
+        LocalDate today = LocalDate.now();
+        List<ReportData> reports = new ArrayList<>(order.length);
+        for (int position : order) {
+            int customerId = all.ids[position];
+            ReportData report = newReport("CUSTOMER_ACTIVITY", today);
+            report.setCustomerName(all.names[position]);
+            report.setCustomerPhone(all.details[position]);
+            report.setCustomerRentals(totals.getRentals(customerId));
+            report.setCustomerSpent(roundToCents(totals.getTotalAmount(customerId)));
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    /**
+     * Report row dated once per report; the ReportData(String) constructor reads the
+     * clock for every row
+     */
+    private static ReportData newReport(String reportType, LocalDate today) {
+        ReportData report = new ReportData();
+        report.setReportType(reportType);
+        report.setReportDate(today);
+        return report;
+    }
+
+    private Directory getCarDirectory() {
+        Directory directory = carDirectory;
+        int version = carChanges.get();
+        if (directory == null || directory.version != version) {
+            List<Car> fleet = new ArrayList<>(cars.values());
+            fleet.sort(Comparator.comparingInt(Car::getCarId));
+            directory = new Directory(version, fleet.size());
+            for (int i = 0; i < fleet.size(); i++) {
+                Car car = fleet.get(i);
+                directory.ids[i] = car.getCarId();
+                directory.names[i] = car.getBrand() + " " + car.getModel();
+                directory.details[i] = car.getRegistrationNumber();
+            }
+            carDirectory = directory;
+        }
+        return directory;
+    }
+
+    private Directory getCustomerDirectory() {
+        Directory directory = customerDirectory;
+        int version = customerChanges.get();
+        if (directory == null || directory.version != version) {
+            List<Customer> all = new ArrayList<>(customers.values());
+            all.sort(Comparator.comparingInt(Customer::getCustomerId));
+            directory = new Directory(version, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                Customer customer = all.get(i);
+                directory.ids[i] = customer.getCustomerId();
+                directory.names[i] = customer.getFirstName() + " " + customer.getLastName();
+                directory.details[i] = customer.getPhone();
+            }
+            customerDirectory = directory;
+        }
+        return directory;
+    }
+
+    /**
+     * Directory positions in report order: rentals then amount, or amount then rentals
+     * (both descending), then id. Only entries with rentals in the range are sorted;
+     * the rest all tie and stay in id order, and the two runs are merged.
+     */
+    private static int[] rank(Directory directory, RentalColumns.GroupTotals totals, boolean amountFirst) {
+        int size = directory.ids.length;
+        double[] first = new double[size];
+        double[] second = new double[size];
+        int[] active = new int[size];
+        int[] idle = new int[size];
+        int activeCount = 0;
+        int idleCount = 0;
+        for (int position = 0; position < size; position++) {
+            int id = directory.ids[position];
+            int count = totals.getRentals(id);
+            double amount = totals.getTotalAmount(id);
+            first[position] = amountFirst ? amount : count;
+            second[position] = amountFirst ? count : amount;
+            if (count > 0) {
+                active[activeCount++] = position;
+            } else {
+                idle[idleCount++] = position;
+            }
+        }
+        sortPositions(active, activeCount, first, second);
+
+        int[] order = new int[size];
+        int a = 0;
+        int i = 0;
+        for (int out = 0; out < size; out++) {
+            if (i == idleCount || (a < activeCount && before(active[a], idle[i], first, second))) {
+                order[out] = active[a++];
+            } else {
+                order[out] = idle[i++];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Stable bottom-up merge sort of the first "count" positions
+     */
+    private static void sortPositions(int[] positions, int count, double[] first, double[] second) {
+        int[] source = positions;
+        int[] target = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count; low += 2 * width) {
+                int middle = Math.min(low + width, count);
+                int high = Math.min(low + 2 * width, count);
+                int left = low;
+                int right = middle;
+                for (int out = low; out < high; out++) {
+                    if (left < middle && (right == high || !before(source[right], source[left], first, second))) {
+                        target[out] = source[left++];
+                    } else {
+                        target[out] = source[right++];
+                    }
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != positions) {
+            System.arraycopy(source, 0, positions, 0, count);
+        }
+    }
+
+    /**
+     * Whether position p comes strictly before q; positions are in id order, so equal
+     * keys fall back to the position
+     */
+    private static boolean before(int p, int q, double[] first, double[] second) {
+        int c = Double.compare(first[q], first[p]);
+        if (c == 0) {
+            c = Double.compare(second[q], second[p]);
+        }
+        return c != 0 ? c < 0 : p < q;
+    }
+
+    /**
+     * Cars or customers in id order with their report labels, rebuilt after a change
+     */
+    private static final class Directory {
+        final int version;
+        final int[] ids;
+        final String[] names;
+        final String[] details;
+
+        Directory(int version, int size) {
+            this.version = version;
+            this.ids = new int[size];
+            this.names = new String[size];
+            this.details = new String[size];
+        }
+    }
+
+    /**
+     * Record a committed new or changed rental
+     */
+    public void onRentalSaved(RentalRecord rental) {
+        if (rental.getRentalId() <= 0) {
+            return;
+        }
+        // Copy the values now; the caller may keep editing the record
+        int rentalId = rental.getRentalId();
+        int carId = rental.getCarId();
+        int customerId = rental.getCustomerId();
+        LocalDate rentalDate = rental.getRentalDate();
+        String status = rental.getStatus();
+        double totalAmount = rental.getTotalAmount();
+        double lateFee = rental.getLateFee();
+        double damageFee = rental.getDamageFee();
+        record(() -> rentals.upsert(rentalId, carId, customerId, rentalDate, status,
+                                    totalAmount, lateFee, damageFee));
+    }
+
+    /**
+     * Record a committed new or changed car
+     */
+    public void onCarSaved(Car car) {
+        if (car.getCarId() <= 0) {
+            return;
+        }
+        Car copy = new Car(car);
+        record(() -> {
+            cars.put(copy.getCarId(), copy);
+            carChanges.incrementAndGet();
+        });
+    }
+
+    public void onCarDeleted(int carId) {
+        record(() -> {
+            cars.remove(carId);
+            carChanges.incrementAndGet();
+        });
+    }
+
+    /**
+     * Record a committed new or changed customer
+     */
+    public void onCustomerSaved(Customer customer) {
+        if (customer.getCustomerId() <= 0) {
+            return;
+        }
+        Customer copy = new Customer(customer);
+        record(() -> {
+            customers.put(copy.getCustomerId(), copy);
+            customerChanges.incrementAndGet();
+        });
+    }
+
+    public void onCustomerDeleted(int customerId) {
+        record(() -> {
+            customers.remove(customerId);
+            customerChanges.incrementAndGet();
+        });
+    }
+
+    /**
+     * Apply a committed change to a loaded store, or keep it for the end of a reload
+     * in progress, whose scan may have started before the change committed. Before
+     * the first load there is nothing to update; the load reads the change.
+     */
+    private void record(Runnable change) {
+        synchronized (pendingChanges) {
+            if (reloading) {
+                pendingChanges.add(change);
+            } else if (loaded) {
+                change.run();
+            }
+        }
+    }
+
+    /**
+     * Amounts are DECIMAL(10,2) in the database; summing them as doubles can leave
+     * a stray fraction of a cent
+     */
+    private static double roundToCents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
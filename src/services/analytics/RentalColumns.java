@@ -0,0 +1,322 @@
+package services.analytics;
+
+import dao.DateRange;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * RentalColumns - Column-oriented, in-memory copy of the report columns of rental_records
+ *
+ * Each column is a primitive array indexed by row: rental date as an epoch day,
+ * car and customer ids, the status as a StatusDictionary byte code and the amounts
+ * as doubles. A report touches only the columns it needs, with no per-row objects.
+ *
+ * Rows are grouped in blocks of BLOCK_SIZE with the lowest and highest rental day of
+ * each block kept alongside (a zone map). A date-range scan skips blocks entirely
+ * outside the range, takes blocks entirely inside it without testing each row, and
+ * filters the rest into a selection vector of matching rows before aggregating, so
+ * the inner loops are short, branch-free and friendly to the JIT's vectorizer.
+ * Rentals arrive roughly in date order, so most blocks are skipped or taken whole.
+ *
+ * Rows are upserted by rental id and never removed. Scans share a read lock;
+ * upserts take the write lock.
+ */
+public class RentalColumns {
+
+    static final int BLOCK_SIZE = 1024;
+
+    private static final int INITIAL_CAPACITY = 4 * BLOCK_SIZE;
+    // Day stored for a rental without a date; no range reaches it
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StatusDictionary statuses = new StatusDictionary();
+    private final Map<Integer, Integer> rowByRental = new HashMap<>();
+
+    private int size = 0;
+    private int[] rentalIds;
+    private int[] rentalDays;
+    private int[] carIds;
+    private int[] customerIds;
+    private byte[] statusCodes;
+    private double[] totalAmounts;
+    private double[] lateFees;
+    private double[] damageFees;
+    private int[] blockMinDays;
+    private int[] blockMaxDays;
+    private int maxCarId = 0;
+    private int maxCustomerId = 0;
+
+    public RentalColumns() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Add a rental, or overwrite its row if the rental id is already present
+     */
+    public void upsert(int rentalId, int carId, int customerId, LocalDate rentalDate, String status,
+                       double totalAmount, double lateFee, double damageFee) {
+        if (carId < 0 || customerId < 0) {
+            throw new IllegalArgumentException("Negative car or customer id for rental " + rentalId);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowByRental.get(rentalId);
+            int row;
+            if (existing != null) {
+                row = existing;
+            } else {
+                if (size == rentalIds.length) {
+                    grow();
+                }
+                row = size++;
+                rowByRental.put(rentalId, row);
+                if (row % BLOCK_SIZE == 0) {
+                    blockMinDays[row / BLOCK_SIZE] = Integer.MAX_VALUE;
+                    blockMaxDays[row / BLOCK_SIZE] = Integer.MIN_VALUE;
+                }
+            }
+            int day = rentalDate != null ? (int) rentalDate.toEpochDay() : NO_DAY;
+            rentalIds[row] = rentalId;
+            rentalDays[row] = day;
+            carIds[row] = carId;
+            customerIds[row] = customerId;
+            statusCodes[row] = statuses.encode(status);
+            totalAmounts[row] = totalAmount;
+            lateFees[row] = lateFee;
+            damageFees[row] = damageFee;
+            // A changed date only widens the block's range, which stays correct
+            int block = row / BLOCK_SIZE;
+            blockMinDays[block] = Math.min(blockMinDays[block], day);
+            blockMaxDays[block] = Math.max(blockMaxDays[block], day);
+            maxCarId = Math.max(maxCarId, carId);
+            maxCustomerId = Math.max(maxCustomerId, customerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every row
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            allocate(INITIAL_CAPACITY);
+            rowByRental.clear();
+            statuses.clear();
+            size = 0;
+            maxCarId = 0;
+            maxCustomerId = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rental counts by status and summed amounts for the rentals dated in a range
+     */
+    public Totals totals(DateRange range) {
+        lock.readLock().lock();
+        try {
+            int[] countsByCode = new int[StatusDictionary.MAX_CODES];
+            double totalAmount = 0;
+            double lateFee = 0;
+            double damageFee = 0;
+            int[] selection = new int[BLOCK_SIZE];
+            int fromDay = (int) range.getStart().toEpochDay();
+            int toDay = (int) range.getEndExclusive().toEpochDay();
+            for (int block = 0; block * BLOCK_SIZE < size; block++) {
+                int selected = select(block, fromDay, toDay, selection);
+                for (int i = 0; i < selected; i++) {
+                    int row = selection[i];
+                    countsByCode[statusCodes[row]]++;
+                    totalAmount += totalAmounts[row];
+                    lateFee += lateFees[row];
+                    damageFee += damageFees[row];
+                }
+            }
+            Map<String, Integer> countsByStatus = new HashMap<>();
+            int rentals = 0;
+            for (int code = 0; code < statuses.size(); code++) {
+                if (countsByCode[code] > 0) {
+                    countsByStatus.put(statuses.decode((byte) code), countsByCode[code]);
+                    rentals += countsByCode[code];
+                }
+            }
+            return new Totals(rentals, countsByStatus, totalAmount, lateFee, damageFee);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rental count and summed total_amount per car for the rentals dated in a range
+     */
+    public GroupTotals totalsByCar(DateRange range) {
+        lock.readLock().lock();
+        try {
+            return groupTotals(carIds, maxCarId, range);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rental count and summed total_amount per customer for the rentals dated in a range
+     */
+    public GroupTotals totalsByCustomer(DateRange range) {
+        lock.readLock().lock();
+        try {
+            return groupTotals(customerIds, maxCustomerId, range);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids are auto-increment keys, so a plain array indexed by id is a compact group table
+    private GroupTotals groupTotals(int[] keys, int maxKey, DateRange range) {
+        int[] rentals = new int[maxKey + 1];
+        double[] totalAmount = new double[maxKey + 1];
+        int[] selection = new int[BLOCK_SIZE];
+        int fromDay = (int) range.getStart().toEpochDay();
+        int toDay = (int) range.getEndExclusive().toEpochDay();
+        for (int block = 0; block * BLOCK_SIZE < size; block++) {
+            int selected = select(block, fromDay, toDay, selection);
+            for (int i = 0; i < selected; i++) {
+                int row = selection[i];
+                int key = keys[row];
+                rentals[key]++;
+                totalAmount[key] += totalAmounts[row];
+            }
+        }
+        return new GroupTotals(rentals, totalAmount);
+    }
+
+    /**
+     * Fill "selection" with the rows of a block dated in [fromDay, toDay)
+     * @return Number of rows selected
+     */
+    private int select(int block, int fromDay, int toDay, int[] selection) {
+        int start = block * BLOCK_SIZE;
+        int end = Math.min(start + BLOCK_SIZE, size);
+        if (blockMaxDays[block] < fromDay || blockMinDays[block] >= toDay) {
+            return 0;
+        }
+        int selected = 0;
+        if (blockMinDays[block] >= fromDay && blockMaxDays[block] < toDay) {
+            for (int row = start; row < end; row++) {
+                selection[selected++] = row;
+            }
+            return selected;
+        }
+        for (int row = start; row < end; row++) {
+            int day = rentalDays[row];
+            // Always write, advance only on a match: no branch to mispredict
+            selection[selected] = row;
+            selected += (day >= fromDay & day < toDay) ? 1 : 0;
+        }
+        return selected;
+    }
+
+    private void allocate(int capacity) {
+        rentalIds = new int[capacity];
+        rentalDays = new int[capacity];
+        carIds = new int[capacity];
+        customerIds = new int[capacity];
+        statusCodes = new byte[capacity];
+        totalAmounts = new double[capacity];
+        lateFees = new double[capacity];
+        damageFees = new double[capacity];
+        blockMinDays = new int[capacity / BLOCK_SIZE];
+        blockMaxDays = new int[capacity / BLOCK_SIZE];
+    }
+
+    private void grow() {
+        int capacity = rentalIds.length * 2;
+        rentalIds = Arrays.copyOf(rentalIds, capacity);
+        rentalDays = Arrays.copyOf(rentalDays, capacity);
+        carIds = Arrays.copyOf(carIds, capacity);
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+        totalAmounts = Arrays.copyOf(totalAmounts, capacity);
+        lateFees = Arrays.copyOf(lateFees, capacity);
+        damageFees = Arrays.copyOf(damageFees, capacity);
+        blockMinDays = Arrays.copyOf(blockMinDays, capacity / BLOCK_SIZE);
+        blockMaxDays = Arrays.copyOf(blockMaxDays, capacity / BLOCK_SIZE);
+    }
+
+    /**
+     * Result of totals(): counts by status plus summed amounts
+     */
+    public static final class Totals {
+        private final int rentals;
+        private final Map<String, Integer> countsByStatus;
+        private final double totalAmount;
+        private final double lateFees;
+        private final double damageFees;
+
+        Totals(int rentals, Map<String, Integer> countsByStatus, double totalAmount,
+               double lateFees, double damageFees) {
+            this.rentals = rentals;
+            this.countsByStatus = countsByStatus;
+            this.totalAmount = totalAmount;
+            this.lateFees = lateFees;
+            this.damageFees = damageFees;
+        }
+
+        public int getRentals() {
+            return rentals;
+        }
+
+        public int getRentals(String status) {
+            return countsByStatus.getOrDefault(status, 0);
+        }
+
+        public double getTotalAmount() {
+            return totalAmount;
+        }
+
+        public double getLateFees() {
+            return lateFees;
+        }
+
+        public double getDamageFees() {
+            return damageFees;
+        }
+    }
+
+    /**
+     * Result of totalsByCar() / totalsByCustomer(), looked up by id
+     */
+    public static final class GroupTotals {
+        private final int[] rentals;
+        private final double[] totalAmount;
+
+        GroupTotals(int[] rentals, double[] totalAmount) {
+            this.rentals = rentals;
+            this.totalAmount = totalAmount;
+        }
+
+        public int getRentals(int id) {
+            return id >= 0 && id < rentals.length ? rentals[id] : 0;
+        }
+
+        public double getTotalAmount(int id) {
+            return id >= 0 && id < totalAmount.length ? totalAmount[id] : 0;
+        }
+    }
+}
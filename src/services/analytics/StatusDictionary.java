@@ -0,0 +1,73 @@
+package services.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StatusDictionary - Maps rental status strings to one-byte codes
+ *
+ * A rental has one of a handful of statuses, so RentalColumns stores a byte code per
+ * row instead of a String reference. Codes are handed out in first-seen order and
+ * never reused; a null status gets a code of its own.
+ */
+final class StatusDictionary {
+
+    static final int MAX_CODES = 128;
+
+    private final Map<String, Byte> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private byte nullCode = -1;
+
+    /**
+     * Code for a status, assigning the next free one if it is new
+     */
+    byte encode(String status) {
+        if (status == null) {
+            if (nullCode < 0) {
+                nullCode = assign(null);
+            }
+            return nullCode;
+        }
+        Byte code = codes.get(status);
+        if (code == null) {
+            code = assign(status);
+            codes.put(status, code);
+        }
+        return code;
+    }
+
+    /**
+     * Code already assigned to a status, or -1 if no row has had it
+     */
+    int lookup(String status) {
+        if (status == null) {
+            return nullCode;
+        }
+        Byte code = codes.get(status);
+        return code != null ? code : -1;
+    }
+
+    String decode(byte code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    void clear() {
+        codes.clear();
+        values.clear();
+        nullCode = -1;
+    }
+
+    private byte assign(String status) {
+        if (values.size() >= MAX_CODES) {
+            throw new IllegalStateException("More than " + MAX_CODES + " distinct rental statuses");
+        }
+        values.add(status);
+        return (byte) (values.size() - 1);
+    }
+}
@@ -0,0 +1,191 @@
+package services.availability;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AvailabilityIndex - In-memory booking calendar for the whole fleet
+ *
+ * Keeps one IntervalTree per car so "is car 12 free from June 3 to June 9",
+ * "which cars are free then" and "when is car 12 next free for 5 days" are answered
+ * without touching rental_records. Each car's tree has its own lock, so bookings for
+ * different cars never contend.
+ *
+ * All ranges are half-open: [from, toExclusive).
+ */
+public class AvailabilityIndex {
+
+    private final Map<Integer, IntervalTree> schedules = new ConcurrentHashMap<>();
+    // rentalId -> booking, so a return can be released by rental id alone
+    private final Map<Integer, Booking> bookingsByRental = new ConcurrentHashMap<>();
+
+    /**
+     * Make a car known to the index; cars with no bookings are free for any range
+     */
+    public void registerCar(int carId) {
+        schedules.computeIfAbsent(carId, id -> new IntervalTree());
+    }
+
+    /**
+     * Forget a car and all of its bookings
+     */
+    public void removeCar(int carId) {
+        IntervalTree tree = schedules.remove(carId);
+        if (tree != null) {
+            synchronized (tree) {
+                List<Booking> bookings = new ArrayList<>();
+                tree.collectAll(bookings);
+                for (Booking booking : bookings) {
+                    bookingsByRental.remove(booking.getRentalId(), booking);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a booking, replacing any earlier booking for the same rental
+     */
+    public void book(Booking booking) {
+        release(booking.getRentalId());
+        IntervalTree tree = schedules.computeIfAbsent(booking.getCarId(), id -> new IntervalTree());
+        synchronized (tree) {
+            tree.insert(booking);
+        }
+        bookingsByRental.put(booking.getRentalId(), booking);
+    }
+
+    /**
+     * Add a booking only if the car is free for its whole range
+     * @return true if booked, false if it conflicts with an existing booking
+     */
+    public boolean bookIfFree(Booking booking) {
+        IntervalTree tree = schedules.computeIfAbsent(booking.getCarId(), id -> new IntervalTree());
+        synchronized (tree) {
+            if (tree.overlaps(booking.getStart().toEpochDay(), booking.getEndExclusive().toEpochDay())) {
+                return false;
+            }
+            tree.insert(booking);
+        }
+        bookingsByRental.put(booking.getRentalId(), booking);
+        return true;
+    }
+
+    /**
+     * Remove the booking of a rental, e.g. when the car is returned
+     * @return The removed booking, or null if the rental was not booked
+     */
+    public Booking release(int rentalId) {
+        Booking booking = bookingsByRental.remove(rentalId);
+        if (booking == null) {
+            return null;
+        }
+        IntervalTree tree = schedules.get(booking.getCarId());
+        if (tree != null) {
+            synchronized (tree) {
+                tree.remove(booking);
+            }
+        }
+        return booking;
+    }
+
+    /**
+     * Drop every booking and car
+     */
+    public void clear() {
+        schedules.clear();
+        bookingsByRental.clear();
+    }
+
+    /**
+     * Check whether a car has no booking overlapping [from, toExclusive)
+     */
+    public boolean isFree(int carId, LocalDate from, LocalDate toExclusive) {
+        IntervalTree tree = schedules.get(carId);
+        if (tree == null) {
+            return true;
+        }
+        synchronized (tree) {
+            return !tree.overlaps(from.toEpochDay(), toExclusive.toEpochDay());
+        }
+    }
+
+    /**
+     * Bookings of a car overlapping [from, toExclusive), earliest first
+     */
+    public List<Booking> findConflicts(int carId, LocalDate from, LocalDate toExclusive) {
+        IntervalTree tree = schedules.get(carId);
+        if (tree == null) {
+            return Collections.emptyList();
+        }
+        List<Booking> conflicts = new ArrayList<>();
+        synchronized (tree) {
+            tree.collectOverlapping(from.toEpochDay(), toExclusive.toEpochDay(), conflicts);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Every registered car that is free for [from, toExclusive)
+     */
+    public List<Integer> findFreeCars(LocalDate from, LocalDate toExclusive) {
+        return findFreeCars(schedules.keySet(), from, toExclusive);
+    }
+
+    /**
+     * The given cars that are free for [from, toExclusive)
+     */
+    public List<Integer> findFreeCars(Collection<Integer> carIds, LocalDate from, LocalDate toExclusive) {
+        long start = from.toEpochDay();
+        long end = toExclusive.toEpochDay();
+        List<Integer> free = new ArrayList<>();
+        for (Integer carId : carIds) {
+            IntervalTree tree = schedules.get(carId);
+            if (tree == null) {
+                free.add(carId);
+                continue;
+            }
+            synchronized (tree) {
+                if (!tree.overlaps(start, end)) {
+                    free.add(carId);
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * First day on or after "from" when the car is free for the given number of days
+     */
+    public LocalDate nextFreeDate(int carId, LocalDate from, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("days must be positive");
+        }
+        IntervalTree tree = schedules.get(carId);
+        if (tree == null) {
+            return from;
+        }
+        synchronized (tree) {
+            return LocalDate.ofEpochDay(tree.nextFree(from.toEpochDay(), days));
+        }
+    }
+
+    /**
+     * Booking of a rental, or null if the rental is not booked
+     */
+    public Booking getBooking(int rentalId) {
+        return bookingsByRental.get(rentalId);
+    }
+
+    public int getCarCount() {
+        return schedules.size();
+    }
+
+    public int getBookingCount() {
+        return bookingsByRental.size();
+    }
+}
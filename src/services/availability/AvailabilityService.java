@@ -0,0 +1,181 @@
+package services.availability;
+
+import dao.CarDAO;
+import dao.RentDAO;
+import models.RentalRecord;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * AvailabilityService - Date-range availability backed by the in-memory AvailabilityIndex
+ *
+ * The index is loaded from the database on first use (every car plus every active
+ * rental) and then kept current by RentService and CarService, which report rents,
+ * returns and fleet changes after they commit. Call reload() to pick up changes
+ * made by other workstations.
+ */
+public class AvailabilityService {
+
+    private static volatile AvailabilityService instance;
+
+    private final AvailabilityIndex index = new AvailabilityIndex();
+    private final CarDAO carDAO;
+    private final RentDAO rentDAO;
+    private volatile boolean loaded = false;
+
+    private AvailabilityService() {
+        this.carDAO = new CarDAO();
+        this.rentDAO = new RentDAO();
+    }
+
+    /**
+     * Get the shared instance
+     */
+    public static AvailabilityService getInstance() {
+        if (instance == null) {
+            synchronized (AvailabilityService.class) {
+                if (instance == null) {
+                    instance = new AvailabilityService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Rebuild the index from the cars and active rentals in the database
+     */
+    public synchronized void reload() {
+        long startTime = System.nanoTime();
+        index.clear();
+        for (int carId : carDAO.getAllCarIds()) {
+            index.registerCar(carId);
+        }
+        for (RentalRecord rental : rentDAO.getActiveRentals()) {
+            index.book(toBooking(rental));
+        }
+        loaded = true;
+        System.out.printf("Availability index loaded: %d cars, %d bookings in %.1f ms%n",
+                          index.getCarCount(), index.getBookingCount(),
+                          (System.nanoTime() - startTime) / 1_000_000.0);
+    }
+
+    /**
+     * Load the index now if it has not been loaded yet, e.g. from a background
+     * thread when a screen opens, so later queries never wait on the database
+     */
+    public void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a car is free from "from" up to (not including) "toExclusive"
+     */
+    public boolean isCarFree(int carId, LocalDate from, LocalDate toExclusive) {
+        ensureLoaded();
+        return index.isFree(carId, from, toExclusive);
+    }
+
+    /**
+     * Bookings that stop a car from being rented for [from, toExclusive)
+     */
+    public List<Booking> findConflicts(int carId, LocalDate from, LocalDate toExclusive) {
+        ensureLoaded();
+        return index.findConflicts(carId, from, toExclusive);
+    }
+
+    /**
+     * Ids of every car with no booking in [from, toExclusive)
+     */
+    public List<Integer> findFreeCarIds(LocalDate from, LocalDate toExclusive) {
+        ensureLoaded();
+        return index.findFreeCars(from, toExclusive);
+    }
+
+    /**
+     * The given cars that have no booking in [from, toExclusive)
+     */
+    public List<Integer> findFreeCarIds(Collection<Integer> carIds, LocalDate from, LocalDate toExclusive) {
+        ensureLoaded();
+        return index.findFreeCars(carIds, from, toExclusive);
+    }
+
+    /**
+     * First day on or after "from" when the car is free for the given number of days
+     */
+    public LocalDate nextFreeDate(int carId, LocalDate from, int days) {
+        ensureLoaded();
+        return index.nextFreeDate(carId, from, days);
+    }
+
+    /**
+     * Record a committed rental
+     */
+    public void onRented(RentalRecord rental) {
+        // Before the first load there is nothing to update; the load reads the rental
+        if (loaded && rental.getRentalId() > 0) {
+            index.book(toBooking(rental));
+        }
+    }
+
+    /**
+     * Record a committed return; the car is free again from now on
+     */
+    public void onReturned(RentalRecord rental) {
+        if (loaded) {
+            index.release(rental.getRentalId());
+        }
+    }
+
+    /**
+     * Record a committed edit of a rental. The rental's earlier booking is replaced
+     * by one for its new car and period, or dropped if it is no longer Active
+     * (e.g. Cancelled).
+     */
+    public void onRentalUpdated(RentalRecord rental) {
+        if (!loaded || rental.getRentalId() <= 0) {
+            return;
+        }
+        if ("Active".equals(rental.getStatus())) {
+            index.book(toBooking(rental));
+        } else {
+            index.release(rental.getRentalId());
+        }
+    }
+
+    public void onCarAdded(int carId) {
+        if (loaded && carId > 0) {
+            index.registerCar(carId);
+        }
+    }
+
+    public void onCarDeleted(int carId) {
+        if (loaded) {
+            index.removeCar(carId);
+        }
+    }
+
+    /**
+     * Booking an active rental holds. A rental that is overdue still holds the car
+     * until it is actually returned, so its booking runs at least through today.
+     */
+    static Booking toBooking(RentalRecord rental) {
+        LocalDate start = rental.getRentalDate();
+        LocalDate end = rental.getReturnDate() != null ? rental.getReturnDate() : start.plusDays(1);
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        if (end.isBefore(tomorrow) && !start.isAfter(LocalDate.now())) {
+            end = tomorrow;
+        }
+        if (!end.isAfter(start)) {
+            end = start.plusDays(1);
+        }
+        return new Booking(rental.getRentalId(), rental.getCarId(), start, end);
+    }
+}
@@ -0,0 +1,59 @@
+package services.availability;
+
+import java.time.LocalDate;
+
+/**
+ * Booking - A car being taken for the half-open date range [start, endExclusive)
+ *
+ * A rental from June 3 returning June 9 books [June 3, June 9): the car can go out
+ * again on June 9.
+ */
+public final class Booking {
+
+    private final int rentalId;
+    private final int carId;
+    private final LocalDate start;
+    private final LocalDate endExclusive;
+
+    public Booking(int rentalId, int carId, LocalDate start, LocalDate endExclusive) {
+        if (start == null || endExclusive == null) {
+            throw new IllegalArgumentException("Booking dates must not be null");
+        }
+        if (!endExclusive.isAfter(start)) {
+            throw new IllegalArgumentException("Booking end " + endExclusive + " must be after start " + start);
+        }
+        this.rentalId = rentalId;
+        this.carId = carId;
+        this.start = start;
+        this.endExclusive = endExclusive;
+    }
+
+    public int getRentalId() {
+        return rentalId;
+    }
+
+    public int getCarId() {
+        return carId;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEndExclusive() {
+        return endExclusive;
+    }
+
+    /**
+     * Check whether this booking overlaps [from, toExclusive)
+     */
+    public boolean overlaps(LocalDate from, LocalDate toExclusive) {
+        return start.isBefore(toExclusive) && endExclusive.isAfter(from);
+    }
+
+    @Override
+    public String toString() {
+        return "Booking{rentalId=" + rentalId + ", carId=" + carId +
+               ", [" + start + ", " + endExclusive + ")}";
+    }
+}
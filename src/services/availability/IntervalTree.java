@@ -0,0 +1,234 @@
+package services.availability;
+
+import java.util.List;
+
+/**
+ * IntervalTree - Balanced (AVL) tree of bookings for one car
+ *
+ * Nodes are ordered by (start, rentalId) and each node stores the largest end in
+ * its subtree, so overlap queries skip every subtree that ends before the range
+ * begins. Insert, remove and "any overlap?" are O(log n); listing overlaps is
+ * O(log n + k). Dates are stored as epoch days.
+ *
+ * Not thread-safe; AvailabilityIndex guards each tree with its own lock.
+ */
+class IntervalTree {
+
+    private static final class Node {
+        final Booking booking;
+        final long start;
+        final long end;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(Booking booking) {
+            this.booking = booking;
+            this.start = booking.getStart().toEpochDay();
+            this.end = booking.getEndExclusive().toEpochDay();
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(Booking booking) {
+        root = insert(root, new Node(booking));
+        size++;
+    }
+
+    /**
+     * Remove a booking
+     * @return true if it was present
+     */
+    boolean remove(Booking booking) {
+        int before = size;
+        root = remove(root, booking.getStart().toEpochDay(), booking.getRentalId());
+        return size < before;
+    }
+
+    /**
+     * Check whether any booking overlaps [start, end)
+     */
+    boolean overlaps(long start, long end) {
+        return findAnyOverlap(root, start, end) != null;
+    }
+
+    /**
+     * Add every booking overlapping [start, end) to the list, ordered by start
+     */
+    void collectOverlapping(long start, long end, List<Booking> result) {
+        collectOverlapping(root, start, end, result);
+    }
+
+    /**
+     * Earliest day on or after "from" that starts a free run of the given length
+     */
+    long nextFree(long from, long length) {
+        long candidate = from;
+        while (true) {
+            Node blocking = findAnyOverlap(root, candidate, candidate + length);
+            if (blocking == null) {
+                return candidate;
+            }
+            // Nothing can start before the blocking booking ends
+            candidate = blocking.end;
+        }
+    }
+
+    void collectAll(List<Booking> result) {
+        collectAll(root, result);
+    }
+
+    private static Node findAnyOverlap(Node node, long start, long end) {
+        while (node != null) {
+            if (node.start < end && node.end > start) {
+                return node;
+            }
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left;
+            } else if (node.start < end) {
+                node = node.right;
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static void collectOverlapping(Node node, long start, long end, List<Booking> result) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collectOverlapping(node.left, start, end, result);
+        if (node.start < end && node.end > start) {
+            result.add(node.booking);
+        }
+        // Right subtree starts at or after this node; nothing there if this starts too late
+        if (node.start < end) {
+            collectOverlapping(node.right, start, end, result);
+        }
+    }
+
+    private static void collectAll(Node node, List<Booking> result) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, result);
+        result.add(node.booking);
+        collectAll(node.right, result);
+    }
+
+    private static int compare(long start, int rentalId, Node node) {
+        if (start != node.start) {
+            return Long.compare(start, node.start);
+        }
+        return Integer.compare(rentalId, node.booking.getRentalId());
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.booking.getRentalId(), node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private Node remove(Node node, long start, int rentalId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, rentalId, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, rentalId);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, rentalId);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
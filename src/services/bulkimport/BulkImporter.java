@@ -0,0 +1,290 @@
+package services.bulkimport;
+
+import application.DatabaseConfig;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import models.Car;
+import models.Customer;
+import services.CarService;
+import services.CustomerService;
+
+/**
+ * BulkImporter - Imports cars or customers from a CSV or JSON file in batches
+ *
+ * The rows go through four stages:
+ * 1. Reading - the file is parsed (see RecordReader)
+ * 2. Validating - every row is checked with the Add screen's Validator rules, in
+ *    parallel on the common fork-join pool
+ * 3. Checking duplicates - repeated registration / license numbers within the file,
+ *    then against the database with a few IN queries per chunk instead of one
+ *    getCarByRegistration() / licenseExists() per row
+ * 4. Writing - chunkSize rows per JDBC batch, each chunk in its own transaction.
+ *    If a chunk fails (say another workstation added one of the cars meanwhile) it
+ *    is rolled back and retried row by row, so only the offending rows are rejected
+ *
+ * Rows that fail any stage end up in ImportResult's rejected rows with the reasons.
+ * The services are told about every imported row, so caches and search indexes stay
+ * current.
+ *
+ * The chunk size defaults to import.chunkSize in database.properties (500).
+ *
+ * Usage:
+ * <pre>
+ * ImportResult result = BulkImporter.forCars().importFile(path, (stage, done, total) -> ...);
+ * result.writeRejectedRows(reportPath);
+ * </pre>
+ *
+ * Instances are immutable; withChunkSize() returns a new importer.
+ */
+public final class BulkImporter<T> {
+
+    public static final String CHUNK_SIZE_KEY = "import.chunkSize";
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    // Validation progress is reported every this many rows
+    private static final int PROGRESS_STEP = 250;
+
+    public enum Stage {
+        READING("Reading file"),
+        VALIDATING("Validating"),
+        CHECKING_DUPLICATES("Checking for duplicates"),
+        WRITING("Writing");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Told about progress; may be called from several threads at once
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(Stage stage, int done, int total);
+    }
+
+    /**
+     * Where imported rows go
+     */
+    interface Target<T> {
+        /**
+         * @return The keys that are already taken, or null if the lookup failed
+         */
+        Set<String> findExisting(Collection<String> keys);
+
+        boolean addAll(List<T> items);
+
+        boolean add(T item);
+    }
+
+    private final RecordMapper<T> mapper;
+    private final Target<T> target;
+    private final int chunkSize;
+
+    BulkImporter(RecordMapper<T> mapper, Target<T> target, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.mapper = mapper;
+        this.target = target;
+        this.chunkSize = chunkSize;
+    }
+
+    public static BulkImporter<Car> forCars() {
+        CarService carService = new CarService();
+        return new BulkImporter<>(new CarRecordMapper(),
+                                  target(carService::findExistingRegistrations, carService::addCars, carService::addCar),
+                                  getConfiguredChunkSize());
+    }
+
+    public static BulkImporter<Customer> forCustomers() {
+        CustomerService customerService = new CustomerService();
+        return new BulkImporter<>(new CustomerRecordMapper(),
+                                  target(customerService::findExistingLicenses, customerService::addCustomers,
+                                         customerService::addCustomer),
+                                  getConfiguredChunkSize());
+    }
+
+    private static <T> Target<T> target(Function<Collection<String>, Set<String>> findExisting,
+                                        Predicate<List<T>> addAll, Predicate<T> add) {
+        return new Target<T>() {
+            @Override
+            public Set<String> findExisting(Collection<String> keys) {
+                return findExisting.apply(keys);
+            }
+
+            @Override
+            public boolean addAll(List<T> items) {
+                return addAll.test(items);
+            }
+
+            @Override
+            public boolean add(T item) {
+                return add.test(item);
+            }
+        };
+    }
+
+    /**
+     * Rows per batch from import.chunkSize, 500 if unset
+     */
+    public static int getConfiguredChunkSize() {
+        return Math.max(1, DatabaseConfig.load().getInt(CHUNK_SIZE_KEY, DEFAULT_CHUNK_SIZE));
+    }
+
+    public BulkImporter<T> withChunkSize(int chunkSize) {
+        return new BulkImporter<>(mapper, target, chunkSize);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Import a .csv or .json file
+     * @throws IOException If the file cannot be read or is not valid CSV / JSON; nothing is imported
+     * @throws SQLException If the duplicate check fails; nothing is imported
+     */
+    public ImportResult importFile(Path file, ProgressListener listener) throws IOException, SQLException {
+        long start = System.nanoTime();
+        listener.onProgress(Stage.READING, 0, 1);
+        List<ImportRecord> records = RecordReader.read(file);
+        listener.onProgress(Stage.READING, 1, 1);
+        return importRecords(records, listener, start);
+    }
+
+    /**
+     * Import rows that have already been read
+     * @throws SQLException If the duplicate check fails; nothing is imported
+     */
+    public ImportResult importRecords(List<ImportRecord> records, ProgressListener listener) throws SQLException {
+        return importRecords(records, listener, System.nanoTime());
+    }
+
+    private ImportResult importRecords(List<ImportRecord> records, ProgressListener listener, long start)
+            throws SQLException {
+        int total = records.size();
+        List<ImportResult.RejectedRow> rejected = new ArrayList<>();
+
+        // Validate in parallel; each slot is written by one task only
+        Object[] items = new Object[total];
+        List<List<String>> problems = new ArrayList<>(Collections.nCopies(total, null));
+        AtomicInteger validated = new AtomicInteger();
+        IntStream.range(0, total).parallel().forEach(i -> {
+            ImportRecord record = records.get(i);
+            List<String> rowProblems = new ArrayList<>(1);
+            if (record.getReadProblem() != null) {
+                rowProblems.add(record.getReadProblem());
+            } else {
+                items[i] = mapper.map(record, rowProblems);
+            }
+            problems.set(i, rowProblems);
+            int done = validated.incrementAndGet();
+            if (done % PROGRESS_STEP == 0 || done == total) {
+                listener.onProgress(Stage.VALIDATING, done, total);
+            }
+        });
+
+        // Repeats within the file: the first occurrence wins
+        List<Integer> valid = new ArrayList<>();
+        Map<String, Integer> firstLineByKey = new HashMap<>();
+        for (int i = 0; i < total; i++) {
+            if (!problems.get(i).isEmpty()) {
+                rejected.add(new ImportResult.RejectedRow(records.get(i), problems.get(i)));
+                continue;
+            }
+            String key = normalize(mapper.keyOf(item(items, i)));
+            Integer firstLine = firstLineByKey.putIfAbsent(key, records.get(i).getLine());
+            if (firstLine != null) {
+                rejected.add(new ImportResult.RejectedRow(records.get(i), List.of(
+                    "Duplicate " + mapper.keyName() + " in the file (first on line " + firstLine + ")")));
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // Against the database, a chunk of keys per lookup
+        List<Integer> fresh = new ArrayList<>();
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(valid.size(), from + chunkSize));
+            List<String> keys = new ArrayList<>(chunk.size());
+            for (int i : chunk) {
+                keys.add(mapper.keyOf(item(items, i)));
+            }
+            Set<String> existing = target.findExisting(keys);
+            if (existing == null) {
+                throw new SQLException("Could not check for existing " + mapper.keyName() + "s");
+            }
+            Set<String> taken = new HashSet<>();
+            for (String key : existing) {
+                taken.add(normalize(key));
+            }
+            for (int i : chunk) {
+                if (taken.contains(normalize(mapper.keyOf(item(items, i))))) {
+                    rejected.add(new ImportResult.RejectedRow(records.get(i), List.of(
+                        "This " + mapper.keyName() + " is already registered")));
+                } else {
+                    fresh.add(i);
+                }
+            }
+            listener.onProgress(Stage.CHECKING_DUPLICATES, Math.min(valid.size(), from + chunkSize), valid.size());
+        }
+
+        // Write in chunks; a failed chunk is retried row by row
+        int imported = 0;
+        for (int from = 0; from < fresh.size(); from += chunkSize) {
+            List<Integer> chunk = fresh.subList(from, Math.min(fresh.size(), from + chunkSize));
+            List<T> batch = new ArrayList<>(chunk.size());
+            for (int i : chunk) {
+                batch.add(item(items, i));
+            }
+            if (target.addAll(batch)) {
+                imported += batch.size();
+            } else {
+                for (int i : chunk) {
+                    if (target.add(item(items, i))) {
+                        imported++;
+                    } else {
+                        rejected.add(new ImportResult.RejectedRow(records.get(i), List.of(
+                            "The database rejected this row")));
+                    }
+                }
+            }
+            listener.onProgress(Stage.WRITING, Math.min(fresh.size(), from + chunkSize), fresh.size());
+        }
+
+        ImportResult result = new ImportResult(total, imported, rejected, System.nanoTime() - start);
+        System.out.println("Import: " + result);
+        return result;
+    }
+
+    private static String normalize(String key) {
+        return key.toUpperCase(Locale.ROOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T item(Object[] items, int index) {
+        return (T) items[index];
+    }
+}
@@ -0,0 +1,114 @@
+package services.bulkimport;
+
+import controllers.utils.Validator;
+import java.util.List;
+import models.Car;
+
+/**
+ * CarRecordMapper - Car rows, checked like AddCarController's form
+ *
+ * Fields: brand, model, year, color, registration_number, price_per_day, fuel_type,
+ * mileage and availability (optional, Available by default).
+ */
+final class CarRecordMapper implements RecordMapper<Car> {
+
+    private static final List<String> FUEL_TYPES = List.of("Petrol", "Diesel", "Electric", "Hybrid");
+    private static final List<String> AVAILABILITIES = List.of("Available", "Rented", "Maintenance");
+
+    @Override
+    public Car map(ImportRecord record, List<String> problems) {
+        String brand = record.get("brand");
+        String model = record.get("model");
+        String color = record.get("color");
+        String registration = record.get("registration_number");
+        if (Validator.isEmpty(brand)) {
+            problems.add("Brand is required");
+        }
+        if (Validator.isEmpty(model)) {
+            problems.add("Model is required");
+        }
+        Integer year = parseInt(record.get("year"), "Year", problems);
+        if (year != null && !Validator.isValidYear(year)) {
+            problems.add("Year must be between 1900 and current year + 1");
+        }
+        if (Validator.isEmpty(color)) {
+            problems.add("Color is required");
+        }
+        if (Validator.isEmpty(registration)) {
+            problems.add("Registration number is required");
+        } else if (!Validator.isValidRegistrationNumber(registration)) {
+            problems.add("Registration number must be at least 4 characters");
+        }
+        Double price = parseDouble(record.get("price_per_day"), "Price per day", problems);
+        if (price != null && !Validator.isValidPrice(price)) {
+            problems.add("Price must be greater than 0");
+        }
+        String fuelType = choice(record.get("fuel_type"), FUEL_TYPES, "Fuel type", problems);
+        Integer mileage = parseInt(record.get("mileage"), "Mileage", problems);
+        if (mileage != null && mileage < 0) {
+            problems.add("Mileage cannot be negative");
+        }
+        String availability = record.get("availability") == null ? "Available"
+            : choice(record.get("availability"), AVAILABILITIES, "Availability", problems);
+
+        if (!problems.isEmpty()) {
+            return null;
+        }
+        Car car = new Car(brand, model, year, color, registration, price, availability, fuelType, mileage);
+        car.setStatus("Active");
+        return car;
+    }
+
+    @Override
+    public String keyOf(Car car) {
+        return car.getRegistrationNumber();
+    }
+
+    @Override
+    public String keyName() {
+        return "registration number";
+    }
+
+    private static Integer parseInt(String value, String label, List<String> problems) {
+        if (value == null) {
+            problems.add(label + " is required");
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            problems.add(label + " must be a valid number");
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value, String label, List<String> problems) {
+        if (value == null) {
+            problems.add(label + " is required");
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            problems.add(label + " must be a valid number");
+            return null;
+        }
+    }
+
+    /**
+     * One of the allowed values, ignoring case, returned as spelled in the list
+     */
+    private static String choice(String value, List<String> allowed, String label, List<String> problems) {
+        if (value == null) {
+            problems.add(label + " is required");
+            return null;
+        }
+        for (String option : allowed) {
+            if (option.equalsIgnoreCase(value)) {
+                return option;
+            }
+        }
+        problems.add(label + " must be one of " + String.join(", ", allowed));
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package services.bulkimport;
+
+import controllers.utils.DateUtil;
+import controllers.utils.Validator;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import models.Customer;
+
+/**
+ * CustomerRecordMapper - Customer rows, checked like AddCustomerController's form
+ *
+ * Fields: first_name, last_name, email, phone (+251 format), license_number (two
+ * letters and seven digits), date_of_birth (yyyy-MM-dd) and address (optional).
+ * License numbers are stored in upper case, as the form does.
+ */
+final class CustomerRecordMapper implements RecordMapper<Customer> {
+
+    @Override
+    public Customer map(ImportRecord record, List<String> problems) {
+        String firstName = record.get("first_name");
+        String lastName = record.get("last_name");
+        String email = record.get("email");
+        String phone = record.get("phone");
+        String license = record.get("license_number");
+        String dateOfBirthText = record.get("date_of_birth");
+        String address = record.get("address");
+
+        if (Validator.isEmpty(firstName)) {
+            problems.add("First name is required");
+        } else if (!Validator.isValidName(firstName)) {
+            problems.add("First name must contain only letters and spaces");
+        }
+        if (Validator.isEmpty(lastName)) {
+            problems.add("Last name is required");
+        } else if (!Validator.isValidName(lastName)) {
+            problems.add("Last name must contain only letters and spaces");
+        }
+        if (Validator.isEmpty(email)) {
+            problems.add("Email is required");
+        } else if (!Validator.isValidEmail(email)) {
+            problems.add("Email is not a valid address");
+        }
+        if (Validator.isEmpty(phone)) {
+            problems.add("Phone number is required");
+        } else if (!Validator.isValidEthiopianPhone(phone)) {
+            problems.add("Phone number must be +251 followed by 9 digits");
+        }
+        if (Validator.isEmpty(license)) {
+            problems.add("License number is required");
+        } else if (!Validator.isValidEthiopianLicense(license)) {
+            problems.add("License number must be 2 letters followed by 7 digits");
+        }
+        LocalDate dateOfBirth = DateUtil.parseDate(dateOfBirthText);
+        if (dateOfBirthText == null) {
+            problems.add("Date of birth is required");
+        } else if (dateOfBirth == null) {
+            problems.add("Date of birth must be a date (yyyy-MM-dd)");
+        }
+        if (!Validator.isEmpty(address) && address.length() < 5) {
+            problems.add("Address must be at least 5 characters if provided");
+        }
+
+        if (!problems.isEmpty()) {
+            return null;
+        }
+        return new Customer(firstName, lastName, email, phone, address,
+                            license.toUpperCase(Locale.ROOT), dateOfBirth);
+    }
+
+    @Override
+    public String keyOf(Customer customer) {
+        return customer.getLicenseNumber();
+    }
+
+    @Override
+    public String keyName() {
+        return "license number";
+    }
+}
@@ -0,0 +1,65 @@
+package services.bulkimport;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ImportRecord - One row of an import file, as field name to text
+ *
+ * Field names are matched loosely: case, spaces, '_' and '-' are ignored, so
+ * "registration_number", "Registration Number" and "registrationNumber" are the
+ * same field.
+ */
+public final class ImportRecord {
+
+    private final int line;
+    private final Map<String, String> fields;
+    private final Map<String, String> byKey = new LinkedHashMap<>();
+    private final String readProblem;
+
+    /**
+     * @param line Line the row starts on in the file
+     * @param fields Field values in file order
+     * @param readProblem Why the row could not be read properly, or null
+     */
+    ImportRecord(int line, Map<String, String> fields, String readProblem) {
+        this.line = line;
+        this.fields = Collections.unmodifiableMap(fields);
+        this.readProblem = readProblem;
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            byKey.put(key(field.getKey()), field.getValue());
+        }
+    }
+
+    static String key(String fieldName) {
+        return fieldName.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Fields as named in the file, in file order
+     */
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Trimmed value of a field; null when missing or blank
+     */
+    public String get(String fieldName) {
+        String value = byKey.get(key(fieldName));
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    String getReadProblem() {
+        return readProblem;
+    }
+}
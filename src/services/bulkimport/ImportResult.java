@@ -0,0 +1,117 @@
+package services.bulkimport;
+
+import dao.CsvWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ImportResult - Outcome of a bulk import: counts, timing and the rejected rows
+ */
+public final class ImportResult {
+
+    private final int totalRows;
+    private final int importedRows;
+    private final List<RejectedRow> rejectedRows;
+    private final long elapsedNanos;
+
+    ImportResult(int totalRows, int importedRows, List<RejectedRow> rejectedRows, long elapsedNanos) {
+        List<RejectedRow> sorted = new ArrayList<>(rejectedRows);
+        sorted.sort(Comparator.comparingInt(RejectedRow::getLine));
+        this.totalRows = totalRows;
+        this.importedRows = importedRows;
+        this.rejectedRows = Collections.unmodifiableList(sorted);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getImportedRows() {
+        return importedRows;
+    }
+
+    /**
+     * Rows that were not imported, in file order
+     */
+    public List<RejectedRow> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? totalRows / getElapsedSeconds() : 0;
+    }
+
+    /**
+     * Write the rejected rows as CSV: line, reason, then the row's own fields, so the
+     * file can be corrected and imported again
+     * @return Rows written
+     */
+    public long writeRejectedRows(Path file) throws IOException {
+        Set<String> columns = new LinkedHashSet<>();
+        for (RejectedRow row : rejectedRows) {
+            columns.addAll(row.getRecord().getFields().keySet());
+        }
+        try (CsvWriter csv = CsvWriter.open(file, false)) {
+            csv.field("line").field("reason");
+            for (String column : columns) {
+                csv.field(column);
+            }
+            csv.endRow();
+            for (RejectedRow row : rejectedRows) {
+                csv.field(row.getLine()).field(row.getReason());
+                for (String column : columns) {
+                    String value = row.getRecord().getFields().get(column);
+                    csv.field(value != null ? value : "");
+                }
+                csv.endRow();
+            }
+            return csv.getRowCount() - 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows: %d imported, %d rejected in %.1f s (%.0f rows/s)",
+                             totalRows, importedRows, rejectedRows.size(), getElapsedSeconds(), getRowsPerSecond());
+    }
+
+    /**
+     * A row that was not imported and why
+     */
+    public static final class RejectedRow {
+        private final ImportRecord record;
+        private final List<String> reasons;
+
+        RejectedRow(ImportRecord record, List<String> reasons) {
+            this.record = record;
+            this.reasons = List.copyOf(reasons);
+        }
+
+        public int getLine() {
+            return record.getLine();
+        }
+
+        public ImportRecord getRecord() {
+            return record;
+        }
+
+        public List<String> getReasons() {
+            return reasons;
+        }
+
+        public String getReason() {
+            return String.join("; ", reasons);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package services.bulkimport;
+
+import java.util.List;
+
+/**
+ * RecordMapper - Turns an import row into an entity, applying the same rules as the
+ * matching Add screen
+ *
+ * Mappers are called from several threads at once and must not keep state.
+ */
+interface RecordMapper<T> {
+
+    /**
+     * Build the entity, adding one message per broken rule to problems
+     * @return The entity, or null if any rule was broken
+     */
+    T map(ImportRecord record, List<String> problems);
+
+    /**
+     * The value that must be unique (registration or license number), as it will be
+     * stored; the importer compares keys ignoring case
+     */
+    String keyOf(T item);
+
+    /**
+     * Name of the unique value for messages, e.g. "registration number"
+     */
+    String keyName();
+}
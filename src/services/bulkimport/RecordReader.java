@@ -0,0 +1,325 @@
+package services.bulkimport;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RecordReader - Reads the rows of a CSV or JSON import file
+ *
+ * CSV: RFC 4180 (quoted fields may hold commas, doubled quotes and line breaks); the
+ * first row names the fields and blank lines are skipped. A row with more or fewer
+ * fields than the header is still returned, carrying a read problem, so it ends up
+ * in the rejected rows instead of failing the file.
+ *
+ * JSON: an array of flat objects whose values are strings, numbers, booleans or null
+ * (null counts as a missing field).
+ *
+ * Errors in the file structure itself (an unterminated quote, invalid JSON) fail the
+ * whole file with an IOException naming the line.
+ */
+final class RecordReader {
+
+    private RecordReader() {
+    }
+
+    /**
+     * Read a UTF-8 file; the format is taken from the extension (.csv or .json)
+     */
+    static List<ImportRecord> read(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (!name.endsWith(".csv") && !name.endsWith(".json")) {
+            throw new IOException("Unsupported file type, expected .csv or .json: " + file.getFileName());
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return name.endsWith(".json") ? readJson(reader) : readCsv(reader);
+        }
+    }
+
+    static List<ImportRecord> readCsv(Reader reader) throws IOException {
+        CsvParser parser = new CsvParser(reader);
+        List<String> header = parser.next();
+        List<ImportRecord> records = new ArrayList<>();
+        if (header == null) {
+            return records;
+        }
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+
+        List<String> row;
+        while ((row = parser.next()) != null) {
+            if (row.size() == 1 && row.get(0).isEmpty()) {
+                continue;
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(header.size(), row.size()); i++) {
+                fields.put(header.get(i), row.get(i));
+            }
+            String problem = row.size() == header.size() ? null
+                : String.format("Expected %d fields, found %d", header.size(), row.size());
+            records.add(new ImportRecord(parser.rowLine, fields, problem));
+        }
+        return records;
+    }
+
+    static List<ImportRecord> readJson(Reader reader) throws IOException {
+        JsonParser parser = new JsonParser(reader);
+        List<ImportRecord> records = new ArrayList<>();
+        parser.expect('[');
+        if (parser.peek() == ']') {
+            parser.read();
+        } else {
+            while (true) {
+                parser.skipWhitespace();
+                int line = parser.line;
+                records.add(new ImportRecord(line, parser.readObject(), null));
+                int c = parser.readSignificant();
+                if (c == ']') {
+                    break;
+                }
+                if (c != ',') {
+                    throw parser.error("expected ',' or ']'");
+                }
+            }
+        }
+        if (parser.readSignificant() != -1) {
+            throw parser.error("unexpected content after the array");
+        }
+        return records;
+    }
+
+    private static final class CsvParser {
+        private final PushbackReader in;
+        private int line = 1;
+        int rowLine;
+
+        CsvParser(Reader reader) {
+            this.in = new PushbackReader(reader, 1);
+        }
+
+        /**
+         * Fields of the next row, or null at the end of the file
+         */
+        List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            rowLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Line " + rowLine + ": unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == -1 || c == '\n' || c == '\r') {
+                    fields.add(field.toString());
+                    if (c == '\r') {
+                        int next = in.read();
+                        if (next != '\n' && next != -1) {
+                            in.unread(next);
+                        }
+                    }
+                    line++;
+                    return fields;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+    }
+
+    private static final class JsonParser {
+        private final PushbackReader in;
+        int line = 1;
+
+        JsonParser(Reader reader) {
+            this.in = new PushbackReader(reader, 1);
+        }
+
+        int read() throws IOException {
+            int c = in.read();
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+
+        int peek() throws IOException {
+            skipWhitespace();
+            int c = in.read();
+            if (c != -1) {
+                in.unread(c);
+            }
+            return c;
+        }
+
+        void skipWhitespace() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\uFEFF');
+            if (c != -1) {
+                in.unread(c);
+            }
+        }
+
+        int readSignificant() throws IOException {
+            skipWhitespace();
+            return read();
+        }
+
+        void expect(char expected) throws IOException {
+            if (readSignificant() != expected) {
+                throw error("expected '" + expected + "'");
+            }
+        }
+
+        IOException error(String message) {
+            return new IOException("Line " + line + ": invalid JSON, " + message);
+        }
+
+        Map<String, String> readObject() throws IOException {
+            expect('{');
+            Map<String, String> fields = new LinkedHashMap<>();
+            if (peek() == '}') {
+                read();
+                return fields;
+            }
+            while (true) {
+                expect('"');
+                String name = readString();
+                expect(':');
+                String value = readScalar();
+                if (value != null) {
+                    fields.put(name, value);
+                }
+                int c = readSignificant();
+                if (c == '}') {
+                    return fields;
+                }
+                if (c != ',') {
+                    throw error("expected ',' or '}'");
+                }
+            }
+        }
+
+        /**
+         * A string, number or boolean as text; null for null
+         */
+        private String readScalar() throws IOException {
+            int c = peek();
+            if (c == '"') {
+                read();
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw error("nested objects and arrays are not supported");
+            }
+            StringBuilder token = new StringBuilder();
+            while (c != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                token.append((char) read());
+                c = in.read();
+                if (c != -1) {
+                    in.unread(c);
+                }
+            }
+            String text = token.toString();
+            if (text.equals("null")) {
+                return null;
+            }
+            if (text.equals("true") || text.equals("false") || text.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                return text;
+            }
+            throw error("unexpected value '" + text + "'");
+        }
+
+        /**
+         * Rest of a string whose opening quote has been read
+         */
+        private String readString() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                int c = read();
+                if (c == -1 || c == '\n') {
+                    throw error("unterminated string");
+                }
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append((char) c);
+                    continue;
+                }
+                int escaped = read();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append((char) escaped);
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) {
+                            hex[i] = (char) read();
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("invalid \\u escape");
+                        }
+                        break;
+                    default:
+                        throw error("invalid escape");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,749 @@
+package services.datagen;
+
+import application.DatabaseConfig;
+import application.DatabaseProfile;
+import application.SchemaMigrator;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import dao.RollupDAO;
+import services.RentService;
+import services.analytics.AnalyticsService;
+
+/**
+ * SyntheticDataGenerator - Fills an empty database with a made-up but plausible dataset
+ *
+ * The same seed always produces the same rows, so a dataset can be recreated exactly.
+ * Rows are written with JDBC batches (batchSize rows per round trip, 1000 by default),
+ * committing after every batch so a run of millions of rows never builds one huge
+ * transaction. Also creates the demo logins (admin, manager, employee; the password is
+ * the username followed by "123").
+ *
+ * The rental history is simulated day by day up to endingOn(): pick-ups follow
+ * seasonal and weekday demand, a car is only rented again once it is back, about one
+ * rental in ten comes back late (charged with RentService.calculateLateFee) and one in
+ * thirty with a damage fee, after which the car spends a few days in maintenance.
+ * The history is as long as the fleet needs to carry the requested rentals at about
+ * 60% utilization, and at least a year. Rentals still out at the end are Active
+ * (some of them overdue) and their cars Rented; cars still in maintenance are
+ * Unavailable. Customers are registered over the same period and earlier customers
+ * rent more often. Rollups that were already built are rebuilt from the new rentals,
+ * and a loaded analytics store is reloaded, so reports never show the old totals.
+ *
+ * Usage:
+ * <pre>
+ * SyntheticDataGenerator.withSeed(42).cars(200).customers(500).rentals(2_000).generate(conn);
+ * </pre>
+ * or from the command line against the configured database (see main()).
+ *
+ * Instances are immutable; each setter returns a new generator.
+ */
+public final class SyntheticDataGenerator {
+
+    static final int BATCH_SIZE = 1_000;
+
+    // Rows between progress lines on large tables
+    private static final int PROGRESS_INTERVAL = 1_000_000;
+    private static final double TARGET_UTILIZATION = 0.6;
+    private static final double MEAN_RENTAL_DAYS = 4.5;
+    private static final int MIN_HISTORY_DAYS = 365;
+    // Customers start registering this long before the first rental
+    private static final int CUSTOMER_LEAD_DAYS = 365;
+
+    // Pick-up demand by month (January first) and by weekday (Monday first)
+    private static final double[] MONTH_DEMAND = { 0.70, 0.75, 0.90, 1.00, 1.05, 1.25,
+                                                   1.40, 1.40, 1.05, 0.95, 0.85, 1.20 };
+    private static final double[] WEEKDAY_DEMAND = { 0.85, 0.85, 0.90, 0.95, 1.25, 1.25, 0.95 };
+
+    private static final String[] BRANDS = { "Toyota", "Honda", "Ford", "BMW", "Audi", "Kia", "Hyundai", "Mazda",
+                                             "Nissan", "Suzuki", "Volkswagen", "Mercedes" };
+    private static final String[] MODELS = { "Corolla", "Civic", "Focus", "X3", "A4", "Rio", "Elantra", "CX-5",
+                                             "Sunny", "Swift", "Golf", "C200" };
+    private static final boolean[] PREMIUM = { false, false, false, true, true, false, false, false,
+                                               false, false, false, true };
+    private static final String[] COLORS = { "White", "Black", "Silver", "Grey", "Blue", "Red" };
+    private static final String[] FUEL_TYPES = { "Petrol", "Diesel", "Hybrid", "Electric" };
+    private static final String[] FIRST_NAMES = { "Sara", "Yonas", "Liya", "Abel", "Hanna", "Dawit", "Meron",
+                                                  "Samuel", "Selam", "Kidus", "Ruth", "Henok", "Bethel", "Nahom" };
+    private static final String[] LAST_NAMES = { "Bekele", "Tesfaye", "Alemu", "Girma", "Haile", "Kebede",
+                                                 "Tadesse", "Mekonnen", "Assefa", "Wolde", "Getachew" };
+    private static final String[] CITIES = { "Addis Ababa", "Adama", "Bahir Dar", "Hawassa", "Mekelle", "Dire Dawa" };
+    private static final String[] POSITIONS = { "Manager", "Rental Agent", "Rental Agent", "Mechanic", "Cashier" };
+    private static final String[][] USERS = {
+        { "admin", "admin123", "ADMIN" },
+        { "manager", "manager123", "MANAGER" },
+        { "employee", "employee123", "EMPLOYEE" }
+    };
+
+    private long seed;
+    private LocalDate origin;
+    private int employees = 10;
+    private int cars = 200;
+    private int customers = 500;
+    private int rentals = 2_000;
+    private int batchSize = BATCH_SIZE;
+
+    private SyntheticDataGenerator(long seed, LocalDate origin) {
+        this.seed = seed;
+        this.origin = origin;
+    }
+
+    private SyntheticDataGenerator copy() {
+        SyntheticDataGenerator copy = new SyntheticDataGenerator(seed, origin);
+        copy.employees = employees;
+        copy.cars = cars;
+        copy.customers = customers;
+        copy.rentals = rentals;
+        copy.batchSize = batchSize;
+        return copy;
+    }
+
+    /**
+     * Generator with a small default dataset (10 employees, 200 cars, 500 customers,
+     * 2000 rentals over the year up to today)
+     */
+    public static SyntheticDataGenerator withSeed(long seed) {
+        return new SyntheticDataGenerator(seed, LocalDate.now());
+    }
+
+    public SyntheticDataGenerator seed(long seed) {
+        SyntheticDataGenerator copy = copy();
+        copy.seed = seed;
+        return copy;
+    }
+
+    public SyntheticDataGenerator employees(int employees) {
+        SyntheticDataGenerator copy = copy();
+        copy.employees = requireCount("employees", employees);
+        return copy;
+    }
+
+    public SyntheticDataGenerator cars(int cars) {
+        SyntheticDataGenerator copy = copy();
+        copy.cars = requireCount("cars", cars);
+        return copy;
+    }
+
+    public SyntheticDataGenerator customers(int customers) {
+        SyntheticDataGenerator copy = copy();
+        copy.customers = requireCount("customers", customers);
+        return copy;
+    }
+
+    public SyntheticDataGenerator rentals(int rentals) {
+        SyntheticDataGenerator copy = copy();
+        copy.rentals = requireCount("rentals", rentals);
+        return copy;
+    }
+
+    /**
+     * Last day of the rental history
+     */
+    public SyntheticDataGenerator endingOn(LocalDate origin) {
+        SyntheticDataGenerator copy = copy();
+        copy.origin = origin;
+        return copy;
+    }
+
+    /**
+     * Rows per JDBC batch, each batch committed on its own
+     */
+    public SyntheticDataGenerator batchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        SyntheticDataGenerator copy = copy();
+        copy.batchSize = batchSize;
+        return copy;
+    }
+
+    private static int requireCount(String what, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException(what + " cannot be negative");
+        }
+        return count;
+    }
+
+    /**
+     * Days of rental history: enough for the fleet to carry the rentals at
+     * TARGET_UTILIZATION, and at least a year
+     */
+    public int getHistoryDays() {
+        if (cars == 0) {
+            return MIN_HISTORY_DAYS;
+        }
+        double carDays = rentals * MEAN_RENTAL_DAYS / (cars * TARGET_UTILIZATION);
+        return (int) Math.max(MIN_HISTORY_DAYS, Math.ceil(carDays));
+    }
+
+    /**
+     * Whether the database has no cars yet, i.e. has never been filled
+     */
+    public static boolean isEmpty(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM cars")) {
+            return rs.next() && rs.getInt(1) == 0;
+        }
+    }
+
+    /**
+     * Insert the dataset; the tables should be empty, since ids are assumed to start at 1.
+     * Batches are committed as they go, so a failed run leaves a partial dataset
+     * behind and has to start again from an empty database.
+     * @return Rows and insert time per table
+     */
+    public Report generate(Connection conn) throws SQLException {
+        Random random = new Random(seed);
+        int historyDays = getHistoryDays();
+        LocalDate firstDay = origin.minusDays(historyDays - 1);
+        Report report = new Report();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            insertUsers(conn, report);
+            insertEmployees(conn, random, firstDay, report);
+            double[] prices = insertCars(conn, random, report);
+            insertCustomers(conn, random, firstDay, historyDays, report);
+            if (cars > 0 && customers > 0) {
+                insertRentals(conn, random, prices, firstDay, historyDays, report);
+            }
+            refreshRollups(conn);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        // Same database as the application's pool when seeding the embedded profile
+        AnalyticsService analytics = AnalyticsService.getInstance();
+        if (analytics.isLoaded()) {
+            analytics.reload();
+        }
+        return report;
+    }
+
+    /**
+     * The rentals are batch-inserted past RollupDAO.applyChange, so rollups that are
+     * already built (and served by ReportsService) are recomputed from the new rows
+     */
+    private void refreshRollups(Connection conn) throws SQLException {
+        RollupDAO rollups = new RollupDAO();
+        if (!rollups.isBuilt(conn)) {
+            return;
+        }
+        long start = System.nanoTime();
+        long rows = rollups.rebuild(conn);
+        conn.commit();
+        System.out.printf("  Rebuilt the report rollups from %,d rentals in %.1f s%n",
+                          rows, (System.nanoTime() - start) / 1e9);
+    }
+
+    private void insertUsers(Connection conn, Report report) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO users (username, password, role) VALUES (?, ?, ?)")) {
+            for (String[] user : USERS) {
+                pstmt.setString(1, user[0]);
+                pstmt.setString(2, user[1]);
+                pstmt.setString(3, user[2]);
+                pstmt.addBatch();
+            }
+            finishBatch(conn, pstmt);
+        }
+        report.add("users", USERS.length, System.nanoTime() - start);
+    }
+
+    private void insertEmployees(Connection conn, Random random, LocalDate firstDay, Report report)
+            throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO employees (first_name, last_name, email, phone, address, position, salary, " +
+                "hire_date, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= employees; i++) {
+                String first = pick(random, FIRST_NAMES);
+                String last = pick(random, LAST_NAMES);
+                pstmt.setString(1, first);
+                pstmt.setString(2, last);
+                pstmt.setString(3, (first + "." + last + i + "@carrental.example").toLowerCase());
+                pstmt.setString(4, phone(random));
+                pstmt.setString(5, pick(random, CITIES) + ", Ethiopia");
+                pstmt.setString(6, pick(random, POSITIONS));
+                pstmt.setDouble(7, 8_000 + 500 * random.nextInt(40));
+                pstmt.setDate(8, Date.valueOf(firstDay.minusDays(30 + random.nextInt(3_000))));
+                pstmt.setString(9, random.nextInt(20) == 0 ? "Inactive" : "Active");
+                addToBatch(conn, pstmt, "employees", i);
+            }
+            finishBatch(conn, pstmt);
+        }
+        report.add("employees", employees, System.nanoTime() - start);
+    }
+
+    /**
+     * @return Daily price of each car, indexed by car id
+     */
+    private double[] insertCars(Connection conn, Random random, Report report) throws SQLException {
+        long start = System.nanoTime();
+        double[] prices = new double[cars + 1];
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO cars (brand, model, year, color, registration_number, price_per_day, " +
+                "availability, fuel_type, mileage, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= cars; i++) {
+                int make = random.nextInt(BRANDS.length);
+                int year = origin.getYear() - random.nextInt(12);
+                prices[i] = PREMIUM[make] ? 90 + 10 * random.nextInt(12) : 30 + 5 * random.nextInt(13);
+                pstmt.setString(1, BRANDS[make]);
+                pstmt.setString(2, MODELS[make]);
+                pstmt.setInt(3, year);
+                pstmt.setString(4, pick(random, COLORS));
+                pstmt.setString(5, String.format("AA-%06d", i));
+                pstmt.setDouble(6, prices[i]);
+                pstmt.setString(7, "Available");
+                pstmt.setString(8, pick(random, FUEL_TYPES));
+                pstmt.setInt(9, (origin.getYear() - year) * (8_000 + random.nextInt(20_000)));
+                pstmt.setString(10, "Available"); // as CarDAO.updateCarStatus("available") writes it
+                addToBatch(conn, pstmt, "cars", i);
+            }
+            finishBatch(conn, pstmt);
+        }
+        report.add("cars", cars, System.nanoTime() - start);
+        return prices;
+    }
+
+    /**
+     * Customers in id order of registration, spread from CUSTOMER_LEAD_DAYS before the
+     * first rental day to the last
+     */
+    private void insertCustomers(Connection conn, Random random, LocalDate firstDay, int historyDays,
+                                 Report report) throws SQLException {
+        long start = System.nanoTime();
+        long registrationDays = historyDays + CUSTOMER_LEAD_DAYS;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO customers (first_name, last_name, email, phone, address, license_number, " +
+                "date_of_birth, registration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= customers; i++) {
+                String first = pick(random, FIRST_NAMES);
+                String last = pick(random, LAST_NAMES);
+                long registered = (i - 1) * registrationDays / customers - CUSTOMER_LEAD_DAYS;
+                pstmt.setString(1, first);
+                pstmt.setString(2, last);
+                pstmt.setString(3, (first + "." + last + i + "@example.com").toLowerCase());
+                pstmt.setString(4, phone(random));
+                pstmt.setString(5, pick(random, CITIES) + ", Ethiopia");
+                pstmt.setString(6, String.format("DL-%07d", i));
+                pstmt.setDate(7, Date.valueOf(origin.minusYears(20 + random.nextInt(45)).minusDays(random.nextInt(365))));
+                pstmt.setDate(8, Date.valueOf(firstDay.plusDays(registered)));
+                addToBatch(conn, pstmt, "customers", i);
+            }
+            finishBatch(conn, pstmt);
+        }
+        report.add("customers", customers, System.nanoTime() - start);
+    }
+
+    /**
+     * Simulate the rental desk day by day; the ones still running at the end are
+     * Active and their cars are marked Rented
+     */
+    private void insertRentals(Connection conn, Random random, double[] prices, LocalDate firstDay,
+                               int historyDays, Report report) throws SQLException {
+        long start = System.nanoTime();
+
+        // Cars on the lot; a rented car is taken out and queued until the day it is back
+        int[] freeCars = new int[cars];
+        for (int i = 0; i < cars; i++) {
+            freeCars[i] = i + 1;
+        }
+        int freeCount = cars;
+        ReleaseQueue out = new ReleaseQueue(cars);
+
+        double totalDemand = 0;
+        for (int day = 0; day < historyDays; day++) {
+            totalDemand += demand(firstDay.plusDays(day));
+        }
+        long registrationDays = historyDays + CUSTOMER_LEAD_DAYS;
+        int lastDay = historyDays - 1;
+
+        int inserted = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO rental_records (car_id, customer_id, employee_id, rental_date, return_date, " +
+                "actual_return_date, total_amount, late_fee, damage_fee, status, notes, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            double cumulativeDemand = 0;
+            int scheduled = 0;
+            int pending = 0;
+            for (int day = 0; day <= lastDay && inserted < rentals; day++) {
+                LocalDate date = firstDay.plusDays(day);
+                while (!out.isEmpty() && ReleaseQueue.day(out.peek()) <= day) {
+                    freeCars[freeCount++] = ReleaseQueue.carId(out.poll());
+                }
+
+                // Cumulative rounding hits the requested total exactly; demand the fleet
+                // cannot serve today waits for the next day
+                cumulativeDemand += demand(date);
+                int target = day == lastDay ? rentals : (int) Math.round(rentals * cumulativeDemand / totalDemand);
+                pending += target - scheduled;
+                scheduled = target;
+
+                // Customers registered by today; earlier (lower id) customers are the regulars
+                int registered = (int) Math.min(customers,
+                    (long) (day + CUSTOMER_LEAD_DAYS) * customers / registrationDays + 1);
+
+                for (; pending > 0 && freeCount > 0 && inserted < rentals; pending--) {
+                    int slot = random.nextInt(freeCount);
+                    int carId = freeCars[slot];
+                    double dailyRate = prices[carId];
+                    int days = rentalDays(random, date);
+                    LocalDate dueDate = date.plusDays(days);
+
+                    String status;
+                    LocalDate returnedOn = null;
+                    double lateFee = 0;
+                    double damageFee = 0;
+                    double amount = days * dailyRate;
+                    if (random.nextInt(25) == 0) {
+                        // Cancelled before pick-up: the car stays on the lot
+                        status = "Cancelled";
+                        amount = 0;
+                    } else {
+                        int daysLate = random.nextInt(10) == 0 ? 1 + (int) (4 * Math.pow(random.nextDouble(), 2)) : 0;
+                        int backOn = day + days + daysLate;
+                        boolean damaged = random.nextInt(30) == 0;
+                        boolean maintenance = damaged || random.nextInt(100) == 0;
+                        freeCars[slot] = freeCars[--freeCount];
+
+                        if (backOn > lastDay) {
+                            // Still out: an Active rental, overdue if its due date has passed
+                            status = "Active";
+                            out.add(ReleaseQueue.entry(Integer.MAX_VALUE, carId, false));
+                        } else {
+                            status = "Completed";
+                            returnedOn = date.plusDays(days + daysLate);
+                            lateFee = RentService.calculateLateFee(dueDate, returnedOn, dailyRate);
+                            damageFee = damaged ? 50 * (1 + (int) (40 * Math.pow(random.nextDouble(), 3))) : 0;
+                            amount += lateFee + damageFee;
+                            int releaseDay = maintenance ? backOn + 1 + random.nextInt(7) : backOn;
+                            out.add(ReleaseQueue.entry(releaseDay, carId, maintenance));
+                        }
+                    }
+
+                    pstmt.setInt(1, carId);
+                    pstmt.setInt(2, 1 + (int) (registered * random.nextDouble() * random.nextDouble()));
+                    if (employees > 0) {
+                        pstmt.setInt(3, 1 + random.nextInt(employees));
+                    } else {
+                        pstmt.setNull(3, Types.INTEGER);
+                    }
+                    pstmt.setDate(4, Date.valueOf(date));
+                    pstmt.setDate(5, Date.valueOf(dueDate));
+                    pstmt.setDate(6, returnedOn != null ? Date.valueOf(returnedOn) : null);
+                    pstmt.setDouble(7, amount);
+                    pstmt.setDouble(8, lateFee);
+                    pstmt.setDouble(9, damageFee);
+                    pstmt.setString(10, status);
+                    pstmt.setString(11, random.nextInt(5) == 0 ? "Customer requested child seat" : null);
+                    pstmt.setTimestamp(12, Timestamp.valueOf(date.atTime(8 + random.nextInt(10), random.nextInt(60))));
+                    addToBatch(conn, pstmt, "rental_records", ++inserted);
+                }
+            }
+            finishBatch(conn, pstmt);
+        }
+        report.add("rental_records", inserted, System.nanoTime() - start);
+
+        // Whatever is not back by the last day is either rented or in maintenance
+        long updateStart = System.nanoTime();
+        int rented = 0;
+        int inMaintenance = 0;
+        try (PreparedStatement rentedStmt = conn.prepareStatement(
+                "UPDATE cars SET availability = 'Rented', status = 'Active' WHERE car_id = ?");
+             PreparedStatement maintenanceStmt = conn.prepareStatement(
+                "UPDATE cars SET availability = 'Unavailable', status = 'Unavailable' WHERE car_id = ?")) {
+            while (!out.isEmpty()) {
+                long entry = out.poll();
+                if (ReleaseQueue.day(entry) <= lastDay) {
+                    continue;
+                }
+                if (ReleaseQueue.isMaintenance(entry)) {
+                    maintenanceStmt.setInt(1, ReleaseQueue.carId(entry));
+                    addToBatch(conn, maintenanceStmt, "cars", ++inMaintenance);
+                } else {
+                    rentedStmt.setInt(1, ReleaseQueue.carId(entry));
+                    addToBatch(conn, rentedStmt, "cars", ++rented);
+                }
+            }
+            finishBatch(conn, rentedStmt);
+            finishBatch(conn, maintenanceStmt);
+        }
+        report.add("cars (status)", rented + inMaintenance, System.nanoTime() - updateStart);
+    }
+
+    /**
+     * Relative number of pick-ups on a day
+     */
+    private static double demand(LocalDate date) {
+        return MONTH_DEMAND[date.getMonthValue() - 1] * WEEKDAY_DEMAND[date.getDayOfWeek().getValue() - 1];
+    }
+
+    /**
+     * Rental length: mostly a few days with a tail of up to four weeks, longer in the
+     * busy holiday months
+     */
+    private static int rentalDays(Random random, LocalDate date) {
+        double mean = MONTH_DEMAND[date.getMonthValue() - 1] >= 1.2 ? 4.5 : 3.0;
+        return 1 + (int) Math.min(27, -Math.log(1 - random.nextDouble()) * mean);
+    }
+
+    private void addToBatch(Connection conn, PreparedStatement pstmt, String table, int count) throws SQLException {
+        pstmt.addBatch();
+        if (count % batchSize == 0) {
+            finishBatch(conn, pstmt);
+        }
+        if (count % PROGRESS_INTERVAL == 0) {
+            System.out.printf("  %s: %,d rows%n", table, count);
+        }
+    }
+
+    private static void finishBatch(Connection conn, PreparedStatement pstmt) throws SQLException {
+        pstmt.executeBatch();
+        conn.commit();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String phone(Random random) {
+        return String.format("09%08d", random.nextInt(100_000_000));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SyntheticDataGenerator[seed=%d, employees=%d, cars=%d, customers=%d, rentals=%d]",
+                             seed, employees, cars, customers, rentals);
+    }
+
+    /**
+     * Generate a dataset into the configured database: db.profile, or --profile to pick
+     * MySQL or the embedded store for this run. The schema is migrated first and the
+     * tables must be empty. For MySQL the driver is asked to rewrite each batch into
+     * multi-row inserts.
+     *
+     * Usage: java services.datagen.SyntheticDataGenerator [--profile mysql|embedded] [--seed N]
+     *        [--employees N] [--cars N] [--customers N] [--rentals N] [--end YYYY-MM-DD] [--batch N]
+     * e.g. --employees 500 --cars 50000 --customers 1000000 --rentals 10000000 for a scale test
+     */
+    public static void main(String[] args) {
+        SyntheticDataGenerator generator = withSeed(42);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--profile":
+                        System.setProperty(DatabaseConfig.PROFILE_PROPERTY, requireValue(args, ++i));
+                        break;
+                    case "--seed":
+                        generator = generator.seed(Long.parseLong(requireValue(args, ++i)));
+                        break;
+                    case "--employees":
+                        generator = generator.employees(Integer.parseInt(requireValue(args, ++i)));
+                        break;
+                    case "--cars":
+                        generator = generator.cars(Integer.parseInt(requireValue(args, ++i)));
+                        break;
+                    case "--customers":
+                        generator = generator.customers(Integer.parseInt(requireValue(args, ++i)));
+                        break;
+                    case "--rentals":
+                        generator = generator.rentals(Integer.parseInt(requireValue(args, ++i)));
+                        break;
+                    case "--end":
+                        generator = generator.endingOn(LocalDate.parse(requireValue(args, ++i)));
+                        break;
+                    case "--batch":
+                        generator = generator.batchSize(Integer.parseInt(requireValue(args, ++i)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Usage: java services.datagen.SyntheticDataGenerator [--profile mysql|embedded] " +
+                               "[--seed N] [--employees N] [--cars N] [--customers N] [--rentals N] " +
+                               "[--end YYYY-MM-DD] [--batch N]");
+            System.exit(2);
+        }
+
+        DatabaseConfig config = DatabaseConfig.load();
+        Properties properties = config.getConnectionProperties();
+        if (config.getProfile() == DatabaseProfile.MYSQL) {
+            properties.setProperty("rewriteBatchedStatements", "true");
+        }
+        try {
+            Class.forName(config.getDriverClass());
+        } catch (ClassNotFoundException e) {
+            System.err.println(config.getDriverClass() + " not found in classpath");
+            System.exit(1);
+        }
+
+        // A connection of its own: through the pool every batch would be timed by
+        // QueryMetrics and the long-held connection reported as a leak
+        try (Connection conn = DriverManager.getConnection(config.getUrl(), properties)) {
+            SchemaMigrator.migrate(conn);
+            if (!isEmpty(conn)) {
+                System.err.println("The database already has cars; generate into an empty database");
+                System.exit(1);
+            }
+            System.out.println("Generating " + generator + " into " + config.getProfile() + " (" +
+                               config.getUrl() + "), " + generator.getHistoryDays() +
+                               " days of rentals up to " + generator.origin);
+            Report report = generator.generate(conn);
+            System.out.print(report);
+        } catch (SQLException e) {
+            System.err.println("Generating data failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " needs a value");
+        }
+        return args[index];
+    }
+
+    /**
+     * Rows written and time taken per table, i.e. the insert throughput of a run
+     */
+    public static final class Report {
+        private final List<String> tables = new ArrayList<>();
+        private final List<Long> rows = new ArrayList<>();
+        private final List<Long> nanos = new ArrayList<>();
+
+        void add(String table, long rowCount, long elapsedNanos) {
+            tables.add(table);
+            rows.add(rowCount);
+            nanos.add(elapsedNanos);
+        }
+
+        public long getTotalRows() {
+            long total = 0;
+            for (long count : rows) {
+                total += count;
+            }
+            return total;
+        }
+
+        public double getTotalSeconds() {
+            long total = 0;
+            for (long elapsed : nanos) {
+                total += elapsed;
+            }
+            return total / 1e9;
+        }
+
+        public double getRowsPerSecond() {
+            double seconds = getTotalSeconds();
+            return seconds > 0 ? getTotalRows() / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < tables.size(); i++) {
+                appendLine(sb, tables.get(i), rows.get(i), nanos.get(i) / 1e9);
+            }
+            appendLine(sb, "total", getTotalRows(), getTotalSeconds());
+            return sb.toString();
+        }
+
+        private static void appendLine(StringBuilder sb, String table, long rowCount, double seconds) {
+            sb.append(String.format("  %-15s %,12d rows %9.1f s %,12.0f rows/s%n", table, rowCount, seconds,
+                                    seconds > 0 ? rowCount / seconds : 0));
+        }
+    }
+
+    /**
+     * Cars off the lot, ordered by the day they are back: a binary min-heap of
+     * (day, maintenance flag, car id) packed into longs, so simulating millions of
+     * rentals creates no objects
+     */
+    private static final class ReleaseQueue {
+        private static final long MAINTENANCE = 1L << 31;
+
+        private final long[] heap;
+        private int size;
+
+        ReleaseQueue(int capacity) {
+            heap = new long[Math.max(1, capacity)];
+        }
+
+        static long entry(int day, int carId, boolean maintenance) {
+            return ((long) day << 32) | (maintenance ? MAINTENANCE : 0) | carId;
+        }
+
+        static int day(long entry) {
+            return (int) (entry >>> 32);
+        }
+
+        static int carId(long entry) {
+            return (int) (entry & (MAINTENANCE - 1));
+        }
+
+        static boolean isMaintenance(long entry) {
+            return (entry & MAINTENANCE) != 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void add(long entry) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= entry) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = entry;
+        }
+
+        long poll() {
+            long first = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (last <= heap[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return first;
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package services.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * SearchIndex - In-memory trigram index over named text fields of an entity
+ *
+ * Field values are normalized (lower case, accents dropped, punctuation runs turned
+ * into a single space) and indexed by the three-character sequences they contain,
+ * each value padded with a space so word starts and ends have trigrams of their own.
+ * A search term is split into words and every word has to match in at least one of
+ * the searched fields:
+ *
+ *   - a word of three or more characters matches anywhere in a field, found by
+ *     intersecting the posting lists of its trigrams, like LIKE '%word%' did
+ *   - a one- or two-character word matches the start of a word in a field
+ *   - a word of five or more characters with fewer than FUZZY_BELOW exact matches
+ *     may also match a field word (or the start of one) within one edit, two for
+ *     words of nine or more: a wrong, missing, extra or swapped letter, so "Tesfay",
+ *     "Alemo" and "DL-0001243" find Tesfaye, Alemu and DL-0001234
+ *
+ * Results are ranked: whole-word matches before word-prefix matches before
+ * substring matches before typo matches, with a bonus when the whole term appears
+ * in one field; equal scores keep the newest (highest id) first.
+ *
+ * Words are matched longest first, and each later word only checks the entities
+ * the earlier ones matched, so short words like "dl" cost little.
+ *
+ * Entities are added, replaced and removed by id; searches share a read lock. The
+ * index keeps its own copy of every entity and returns fresh copies, so neither the
+ * caller that added an entity nor a search screen can change what it holds.
+ */
+public class SearchIndex<T> {
+
+    private static final int SCORE_WORD = 30;
+    private static final int SCORE_PREFIX = 20;
+    private static final int SCORE_SUBSTRING = 10;
+    private static final int SCORE_FUZZY = 8;
+    private static final int SCORE_PER_EDIT = 2;
+    private static final int SCORE_PHRASE = 5;
+    // Typo matching is only tried for words with fewer exact matches than this
+    static final int FUZZY_BELOW = 10;
+
+    private final ToIntFunction<T> idOf;
+    private final UnaryOperator<T> copy;
+    private final List<String> fieldNames = new ArrayList<>();
+    private final List<Function<T, String>> fieldValues = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Document<T>> documents = new HashMap<>();
+    // (field, trigram) -> ids of the entities whose field contains it
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private int maxId = 0;
+
+    /**
+     * @param copy Copies an entity, e.g. its copy constructor
+     */
+    public SearchIndex(ToIntFunction<T> idOf, UnaryOperator<T> copy) {
+        this.idOf = idOf;
+        this.copy = copy;
+    }
+
+    /**
+     * Declare a searchable field; all fields must be declared before the first put()
+     */
+    public SearchIndex<T> addField(String name, Function<T, String> value) {
+        if (!documents.isEmpty()) {
+            throw new IllegalStateException("Fields must be declared before entities are added");
+        }
+        if (fieldNames.contains(name)) {
+            throw new IllegalArgumentException("Duplicate search field " + name);
+        }
+        fieldNames.add(name);
+        fieldValues.add(value);
+        return this;
+    }
+
+    public List<String> getFieldNames() {
+        return Collections.unmodifiableList(fieldNames);
+    }
+
+    /**
+     * Add an entity, or re-index it if its id is already present
+     */
+    public void put(T entity) {
+        entity = copy.apply(entity);
+        int id = idOf.applyAsInt(entity);
+        String[] texts = new String[fieldValues.size()];
+        for (int field = 0; field < texts.length; field++) {
+            texts[field] = normalize(fieldValues.get(field).apply(entity));
+        }
+        Document<T> document = new Document<>(id, entity, texts);
+        lock.writeLock().lock();
+        try {
+            Document<T> previous = documents.put(id, document);
+            if (previous != null) {
+                unindex(previous);
+            }
+            for (long key : document.keys) {
+                postings.computeIfAbsent(key, k -> new IntList()).add(id);
+            }
+            maxId = Math.max(maxId, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole contents
+     */
+    public void putAll(Iterable<T> entities) {
+        clear();
+        for (T entity : entities) {
+            put(entity);
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Document<T> previous = documents.remove(id);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            maxId = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search every field
+     */
+    public List<T> search(String term, int limit) {
+        return search(term, null, limit);
+    }
+
+    /**
+     * Search one field, or every field if "field" is null
+     * @return Matching entities, best first; empty for a blank term
+     */
+    public List<T> search(String term, String field, int limit) {
+        int[] fields = resolveFields(field);
+        String phrase = normalize(term);
+        if (phrase.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Longest (most selective) word first; repeating a word adds nothing
+        String[] words = new LinkedHashSet<>(Arrays.asList(phrase.split(" "))).toArray(new String[0]);
+        Arrays.sort(words, (a, b) -> Integer.compare(b.length(), a.length()));
+
+        lock.readLock().lock();
+        try {
+            // id -> summed score over the words matched so far
+            Map<Integer, Integer> scores = null;
+            for (String word : words) {
+                Map<Integer, Integer> wordScores = scoreWord(word, fields, scores != null ? scores.keySet() : null);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + wordScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<int[]> ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+                int score = entry.getValue();
+                if (words.length > 1 && containsPhrase(documents.get(entry.getKey()), fields, phrase)) {
+                    score += SCORE_PHRASE;
+                }
+                ranked.add(new int[] { entry.getKey(), score });
+            }
+            ranked.sort((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : Integer.compare(b[0], a[0]));
+
+            List<T> results = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                results.add(copy.apply(documents.get(ranked.get(i)[0]).entity));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best score of one query word for every entity it matches
+     * @param within Only these ids can still match (earlier words), or null for any
+     */
+    private Map<Integer, Integer> scoreWord(String word, int[] fields, Set<Integer> within) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int field : fields) {
+            for (int id : exactCandidates(word, field, within)) {
+                int score = exactScore(documents.get(id).texts[field], word);
+                if (score > 0) {
+                    scores.merge(id, score, Math::max);
+                }
+            }
+        }
+        int maxEdits = maxEdits(word);
+        if (maxEdits == 0 || scores.size() >= FUZZY_BELOW) {
+            return scores;
+        }
+        for (int field : fields) {
+            for (int id : fuzzyCandidates(word, field, maxEdits, within)) {
+                if (scores.containsKey(id)) {
+                    continue;
+                }
+                int edits = closestWord(documents.get(id).texts[field], word, maxEdits);
+                if (edits <= maxEdits) {
+                    scores.merge(id, SCORE_FUZZY - edits * SCORE_PER_EDIT, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Ids that may contain the word: all of its trigrams for three or more
+     * characters, the word-start trigram for two, every entity for one
+     */
+    private Iterable<Integer> exactCandidates(String word, int field, Set<Integer> within) {
+        if (word.length() == 1) {
+            return within != null ? within : documents.keySet();
+        }
+        List<IntList> lists = new ArrayList<>();
+        if (word.length() == 2) {
+            lists.add(postings.get(key(field, ' ', word.charAt(0), word.charAt(1))));
+        } else {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                lists.add(postings.get(key(field, word.charAt(i), word.charAt(i + 1), word.charAt(i + 2))));
+            }
+        }
+        return IntList.intersect(lists, within);
+    }
+
+    /**
+     * Ids sharing enough padded trigrams with the word to be within maxEdits of one
+     * of their words (each edit breaks at most three trigrams)
+     */
+    private Iterable<Integer> fuzzyCandidates(String word, int field, int maxEdits, Set<Integer> within) {
+        String padded = " " + word + " ";
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            keys.add(key(field, padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2)));
+        }
+        int needed = Math.max(1, keys.size() - 3 * maxEdits);
+        int[] hits = new int[maxId + 1];
+        List<Integer> candidates = new ArrayList<>();
+        for (long key : keys) {
+            IntList list = postings.get(key);
+            if (list != null) {
+                for (int i = 0; i < list.size; i++) {
+                    int id = list.ids[i];
+                    if (++hits[id] == needed && (within == null || within.contains(id))) {
+                        candidates.add(id);
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static int exactScore(String text, String word) {
+        int best = 0;
+        int from = 0;
+        int index;
+        while ((index = text.indexOf(word, from)) >= 0) {
+            boolean wordStart = index == 0 || text.charAt(index - 1) == ' ';
+            int end = index + word.length();
+            boolean wordEnd = end == text.length() || text.charAt(end) == ' ';
+            int score = wordStart ? (wordEnd ? SCORE_WORD : SCORE_PREFIX) : SCORE_SUBSTRING;
+            // Short words only match at a word start
+            if (word.length() >= 3 || wordStart) {
+                best = Math.max(best, score);
+            }
+            if (best == SCORE_WORD) {
+                break;
+            }
+            from = index + 1;
+        }
+        return best;
+    }
+
+    /**
+     * Fewest edits turning the word into a word of the text, or into the start of one
+     */
+    private static int closestWord(String text, String word, int maxEdits) {
+        int best = maxEdits + 1;
+        for (String candidate : text.split(" ")) {
+            if (Math.abs(candidate.length() - word.length()) <= maxEdits) {
+                best = Math.min(best, editDistance(word, candidate, maxEdits));
+            }
+            if (candidate.length() > word.length()) {
+                best = Math.min(best, editDistance(word, candidate.substring(0, word.length()), maxEdits));
+            }
+            if (best == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private static boolean containsPhrase(Document<?> document, int[] fields, String phrase) {
+        for (int field : fields) {
+            if (document.texts[field].contains(phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] resolveFields(String field) {
+        if (field == null) {
+            int[] all = new int[fieldNames.size()];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int index = fieldNames.indexOf(field);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown search field " + field + "; expected one of " + fieldNames);
+        }
+        return new int[] { index };
+    }
+
+    private void unindex(Document<T> document) {
+        for (long key : document.keys) {
+            IntList list = postings.get(key);
+            if (list != null) {
+                list.remove(document.id);
+                if (list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Typos allowed for a query word of this length
+     */
+    static int maxEdits(String word) {
+        if (word.length() < 5) {
+            return 0;
+        }
+        return word.length() < 9 ? 1 : 2;
+    }
+
+    /**
+     * Lower case, accents removed, every run of other characters than letters and
+     * digits replaced by one space; null becomes ""
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus swaps of adjacent
+     * characters), or maxEdits + 1 as soon as it is certain to exceed maxEdits
+     */
+    static int editDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, previous2[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    private static long key(int field, char c1, char c2, char c3) {
+        long packed = ((long) field << 48) | ((long) c1 << 32) | ((long) c2 << 16) | c3;
+        // Long.hashCode() XORs the two halves, so packed keys like "abc" and "cba" would
+        // share a bucket; multiplying by an odd constant is one-to-one and spreads them
+        return packed * 0x9E3779B97F4A7C15L;
+    }
+
+    private static final class Document<T> {
+        final int id;
+        final T entity;
+        final String[] texts;
+        final long[] keys;
+
+        Document(int id, T entity, String[] texts) {
+            this.id = id;
+            this.entity = entity;
+            this.texts = texts;
+            int count = 0;
+            for (String text : texts) {
+                count += text.length();
+            }
+            long[] all = new long[count];
+            count = 0;
+            for (int field = 0; field < texts.length; field++) {
+                String padded = " " + texts[field] + " ";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    all[count++] = key(field, padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+                }
+            }
+            // Sort and drop repeats, e.g. both "ana" in "ananya"
+            Arrays.sort(all, 0, count);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique == 0 || all[i] != all[unique - 1]) {
+                    all[unique++] = all[i];
+                }
+            }
+            this.keys = Arrays.copyOf(all, unique);
+        }
+    }
+
+    /**
+     * Sorted set of ids; ids usually arrive in ascending order, so adds are appends
+     */
+    private static final class IntList {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        private void insertAt(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        /**
+         * Ids present in every list (and in "within", if given); shortest list first
+         */
+        static List<Integer> intersect(List<IntList> lists, Set<Integer> within) {
+            List<Integer> result = new ArrayList<>();
+            for (IntList list : lists) {
+                if (list == null) {
+                    return result;
+                }
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+            IntList shortest = lists.get(0);
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                if (within != null && !within.contains(id)) {
+                    continue;
+                }
+                for (int l = 1; l < lists.size(); l++) {
+                    IntList other = lists.get(l);
+                    if (Arrays.binarySearch(other.ids, 0, other.size, id) < 0) {
+                        continue candidates;
+                    }
+                }
+                result.add(id);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package services.search;
+
+import application.DatabaseConfig;
+import dao.CarDAO;
+import dao.CustomerDAO;
+import dao.EmployeeDAO;
+import models.Car;
+import models.Customer;
+import models.Employee;
+import java.util.List;
+
+/**
+ * SearchService - Customer, car and employee search backed by in-memory SearchIndexes
+ *
+ * The indexes are loaded from the database on first use and then kept current by
+ * CustomerService, CarService and EmployeeService, which report adds, updates and
+ * deletes after they commit. Changes made from other workstations are picked up by
+ * a full reload once the indexes are older than REFRESH_INTERVAL_MILLIS, or by
+ * calling reload().
+ *
+ * Field names match the search screens' "search by" choices; "All Fields" (or null)
+ * searches every field.
+ *
+ * The services use it for "All Fields" searches; a single field is searched in the
+ * database with an indexed prefix query (dao.FieldQuery) instead. On by default;
+ * with search.inMemory=false in database.properties "All Fields" searches also go
+ * to the database, which needs no memory for the indexes but does no ranking or
+ * typo tolerance.
+ */
+public class SearchService {
+
+    public static final String ALL_FIELDS = "All Fields";
+    public static final String ENABLED_KEY = "search.inMemory";
+
+    // Upper bound on how stale another workstation's changes can be
+    static final long REFRESH_INTERVAL_MILLIS = 5 * 60 * 1000;
+
+    private static volatile SearchService instance;
+    private static volatile Boolean enabled;
+
+    // Replaced as a whole on reload, so searches never see a half-built index
+    private volatile SearchIndex<Customer> customers = newCustomerIndex();
+    private volatile SearchIndex<Car> cars = newCarIndex();
+    private volatile SearchIndex<Employee> employees = newEmployeeIndex();
+
+    private final CustomerDAO customerDAO;
+    private final CarDAO carDAO;
+    private final EmployeeDAO employeeDAO;
+    private volatile long loadedAt = 0;
+
+    private SearchService() {
+        this.customerDAO = new CustomerDAO();
+        this.carDAO = new CarDAO();
+        this.employeeDAO = new EmployeeDAO();
+    }
+
+    /**
+     * Get the shared instance
+     */
+    public static SearchService getInstance() {
+        if (instance == null) {
+            synchronized (SearchService.class) {
+                if (instance == null) {
+                    instance = new SearchService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Whether searches should use the in-memory indexes, read once from the configuration
+     */
+    public static boolean isEnabled() {
+        if (enabled == null) {
+            enabled = DatabaseConfig.load().getBoolean(ENABLED_KEY, true);
+        }
+        return enabled;
+    }
+
+    /**
+     * Rebuild every index from the database
+     */
+    public synchronized void reload() {
+        long startTime = System.nanoTime();
+        SearchIndex<Customer> newCustomers = newCustomerIndex();
+        newCustomers.putAll(customerDAO.getAllCustomers());
+        SearchIndex<Car> newCars = newCarIndex();
+        newCars.putAll(carDAO.getAllCars());
+        SearchIndex<Employee> newEmployees = newEmployeeIndex();
+        newEmployees.putAll(employeeDAO.getAllEmployees());
+        customers = newCustomers;
+        cars = newCars;
+        employees = newEmployees;
+        loadedAt = System.currentTimeMillis();
+        System.out.printf("Search indexes loaded: %d customers, %d cars, %d employees in %.1f ms%n",
+                          customers.size(), cars.size(), employees.size(),
+                          (System.nanoTime() - startTime) / 1_000_000.0);
+    }
+
+    /**
+     * Load the indexes if they have not been loaded yet or are due for a refresh
+     */
+    public void ensureLoaded() {
+        if (isStale()) {
+            synchronized (this) {
+                if (isStale()) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the indexes have been loaded, i.e. whether onXxxSaved has anything to update
+     */
+    public boolean isLoaded() {
+        return loadedAt != 0;
+    }
+
+    private boolean isStale() {
+        return loadedAt == 0 || System.currentTimeMillis() - loadedAt > REFRESH_INTERVAL_MILLIS;
+    }
+
+    /**
+     * Customers matching the term, best match first
+     * @param field "Name", "Email", "Phone", "License Number" or "All Fields"
+     */
+    public List<Customer> searchCustomers(String term, String field) {
+        ensureLoaded();
+        return customers.search(term, fieldOrNull(field), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Cars matching the term, best match first
+     * @param field "Brand", "Model", "Registration Number", "Color" or "All Fields"
+     */
+    public List<Car> searchCars(String term, String field) {
+        ensureLoaded();
+        return cars.search(term, fieldOrNull(field), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Employees matching the term, best match first
+     * @param field "Name", "Email", "Phone", "Position" or "All Fields"
+     */
+    public List<Employee> searchEmployees(String term, String field) {
+        ensureLoaded();
+        return employees.search(term, fieldOrNull(field), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Record a committed new or changed customer
+     */
+    public void onCustomerSaved(Customer customer) {
+        // Before the first load there is nothing to update; the load reads the customer
+        if (loadedAt != 0 && customer.getCustomerId() > 0) {
+            customers.put(customer);
+        }
+    }
+
+    public void onCustomerDeleted(int customerId) {
+        customers.remove(customerId);
+    }
+
+    /**
+     * Record a committed new or changed car
+     */
+    public void onCarSaved(Car car) {
+        if (loadedAt != 0 && car.getCarId() > 0) {
+            cars.put(car);
+        }
+    }
+
+    public void onCarDeleted(int carId) {
+        cars.remove(carId);
+    }
+
+    /**
+     * Record a committed new or changed employee
+     */
+    public void onEmployeeSaved(Employee employee) {
+        if (loadedAt != 0 && employee.getEmployeeId() > 0) {
+            employees.put(employee);
+        }
+    }
+
+    public void onEmployeeDeleted(int employeeId) {
+        employees.remove(employeeId);
+    }
+
+    private static SearchIndex<Customer> newCustomerIndex() {
+        return new SearchIndex<>(Customer::getCustomerId, Customer::new)
+            .addField("Name", customer -> customer.getFirstName() + " " + customer.getLastName())
+            .addField("Email", Customer::getEmail)
+            .addField("Phone", customer -> digitsOnly(customer.getPhone()))
+            .addField("License Number", customer -> withCompactForm(customer.getLicenseNumber()));
+    }
+
+    private static SearchIndex<Car> newCarIndex() {
+        return new SearchIndex<>(Car::getCarId, Car::new)
+            .addField("Brand", Car::getBrand)
+            .addField("Model", Car::getModel)
+            .addField("Registration Number", car -> withCompactForm(car.getRegistrationNumber()))
+            .addField("Color", Car::getColor);
+    }
+
+    private static SearchIndex<Employee> newEmployeeIndex() {
+        return new SearchIndex<>(Employee::getEmployeeId, Employee::new)
+            .addField("Name", employee -> employee.getFirstName() + " " + employee.getLastName())
+            .addField("Email", Employee::getEmail)
+            .addField("Phone", employee -> digitsOnly(employee.getPhone()))
+            .addField("Position", Employee::getPosition);
+    }
+
+    private static String fieldOrNull(String field) {
+        return field == null || ALL_FIELDS.equals(field) ? null : field;
+    }
+
+    /**
+     * "0911 23-45-67" is indexed as "0911234567", so any grouping of the digits matches
+     */
+    private static String digitsOnly(String phone) {
+        return phone != null ? phone.replaceAll("[^0-9]", "") : null;
+    }
+
+    /**
+     * "DL-0001234" is indexed as both "dl 0001234" and "dl0001234", so the number
+     * is found with or without its separators
+     */
+    private static String withCompactForm(String code) {
+        if (code == null) {
+            return null;
+        }
+        String compact = code.replaceAll("[^\\p{L}\\p{N}]", "");
+        return compact.equals(code) ? code : code + " " + compact;
+    }
+}
@@ -0,0 +1,31 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The DAOs' date-range queries must read rental_records through the V2 and V6
+ * indexes rather than scanning the table; the same check DatabaseTest prints
+ * against MySQL.
+ */
+class ReportQueryPlanTest {
+
+    @BeforeAll
+    static void startDatabase() throws SQLException {
+        TestDatabase.start();
+    }
+
+    @Test
+    void reportQueriesUseTheRentalDateIndexes() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (DatabaseTest.ReportQuery query : DatabaseTest.REPORT_QUERIES) {
+                assertEquals(query.expectedIndexes, DatabaseTest.rentalIndexesUsed(conn, query.sql),
+                             query.label);
+            }
+        }
+    }
+}
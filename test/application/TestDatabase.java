@@ -0,0 +1,76 @@
+package application;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * TestDatabase - In-memory H2 database with the application's schema for the tests
+ *
+ * start() applies the schema migrations and points DatabaseConnection at the database
+ * (the embedded profile, through a temporary carrental.db.config file), so the DAOs
+ * and TransactionTemplate run unchanged. All test classes in a JVM share it; each
+ * test inserts its own rows and should not depend on what others left behind.
+ */
+public final class TestDatabase {
+
+    public static final String URL =
+        "jdbc:h2:mem:tests;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1";
+
+    private static boolean started = false;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Create the schema and route DatabaseConnection to the test database; later calls
+     * in the same JVM do nothing
+     */
+    public static synchronized void start() throws SQLException {
+        if (started) {
+            return;
+        }
+        try {
+            Path config = Files.createTempFile("test-db", ".properties");
+            config.toFile().deleteOnExit();
+            try (Writer writer = Files.newBufferedWriter(config, StandardCharsets.UTF_8)) {
+                writer.write("db.profile=embedded\n");
+                writer.write("embedded.url=" + URL + "\n");
+                // Tests insert the rows they need
+                writer.write("embedded.seed=false\n");
+            }
+            System.setProperty(DatabaseConfig.CONFIG_FILE_PROPERTY, config.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "")) {
+            SchemaMigrator.migrate(conn);
+        }
+        started = true;
+    }
+
+    /**
+     * Run a COUNT query on a fresh connection, outside any transaction
+     */
+    public static int count(String sql, Object... params) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "");
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.CarDAO;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import models.Car;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A failure anywhere inside TransactionTemplate.execute must leave no rows behind,
+ * including work the DAOs did through their own getConnection() calls.
+ */
+class TransactionTemplateTest {
+
+    private static final AtomicInteger NEXT_CAR = new AtomicInteger();
+
+    private final CarDAO carDAO = new CarDAO();
+
+    @BeforeAll
+    static void startDatabase() throws SQLException {
+        TestDatabase.start();
+    }
+
+    @Test
+    void commitsWorkWhenTheCallbackSucceeds() throws SQLException {
+        Car car = newCar();
+
+        boolean added = TransactionTemplate.execute(conn -> carDAO.addCar(car));
+
+        assertTrue(added);
+        assertEquals(1, carsWithRegistration(car));
+    }
+
+    @Test
+    void failureInsideExecuteWritesNoRows() throws SQLException {
+        Car first = newCar();
+        Car second = newCar();
+        SQLException failure = new SQLException("Forced failure after the inserts");
+
+        SQLException thrown = assertThrows(SQLException.class, () -> TransactionTemplate.execute(conn -> {
+            assertTrue(carDAO.addCar(first));
+            assertTrue(carDAO.addCar(second));
+            throw failure;
+        }));
+
+        assertSame(failure, thrown);
+        assertEquals(0, carsWithRegistration(first));
+        assertEquals(0, carsWithRegistration(second));
+        assertFalse(TransactionTemplate.isActive());
+    }
+
+    @Test
+    void runtimeFailureInsideExecuteWritesNoRows() throws SQLException {
+        Car car = newCar();
+
+        assertThrows(IllegalStateException.class, () -> TransactionTemplate.execute(conn -> {
+            assertTrue(carDAO.addCar(car));
+            throw new IllegalStateException("Forced failure after the insert");
+        }));
+
+        assertEquals(0, carsWithRegistration(car));
+    }
+
+    @Test
+    void failedInnerUnitRollsBackTheOuterTransaction() throws SQLException {
+        Car outer = newCar();
+        Car inner = newCar();
+
+        // The outer unit swallows the inner failure, but must still not commit
+        assertThrows(SQLException.class, () -> TransactionTemplate.execute(conn -> {
+            assertTrue(carDAO.addCar(outer));
+            try {
+                TransactionTemplate.execute(nested -> {
+                    assertTrue(carDAO.addCar(inner));
+                    throw new SQLException("Forced failure in the nested unit");
+                });
+            } catch (SQLException expected) {
+                // Handled here on purpose
+            }
+            return true;
+        }));
+
+        assertEquals(0, carsWithRegistration(outer));
+        assertEquals(0, carsWithRegistration(inner));
+    }
+
+    @Test
+    void setRollbackOnlyWritesNoRows() throws SQLException {
+        Car car = newCar();
+
+        assertThrows(SQLException.class, () -> TransactionTemplate.execute(conn -> {
+            assertTrue(carDAO.addCar(car));
+            TransactionTemplate.setRollbackOnly();
+            return true;
+        }));
+
+        assertEquals(0, carsWithRegistration(car));
+    }
+
+    @Test
+    void afterCommitActionsRunOnlyWhenTheTransactionCommits() throws SQLException {
+        AtomicBoolean afterRollback = new AtomicBoolean();
+        AtomicBoolean afterCommit = new AtomicBoolean();
+
+        assertThrows(SQLException.class, () -> TransactionTemplate.execute(conn -> {
+            TransactionTemplate.afterCommit(() -> afterRollback.set(true));
+            throw new SQLException("Forced failure");
+        }));
+        TransactionTemplate.execute(conn -> {
+            TransactionTemplate.afterCommit(() -> afterCommit.set(true));
+            // Not yet: the transaction is still open
+            assertFalse(afterCommit.get());
+            return null;
+        });
+
+        assertFalse(afterRollback.get());
+        assertTrue(afterCommit.get());
+    }
+
+    private static Car newCar() {
+        return new Car("Toyota", "Corolla", 2022, "White", "TX-" + NEXT_CAR.incrementAndGet(),
+                       50.0, "Available", "Petrol", 1000);
+    }
+
+    private static int carsWithRegistration(Car car) throws SQLException {
+        return TestDatabase.count("SELECT COUNT(*) FROM cars WHERE registration_number = ?",
+                                  car.getRegistrationNumber());
+    }
+}
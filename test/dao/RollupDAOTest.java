@@ -0,0 +1,79 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import application.TestDatabase;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import models.Car;
+import models.RentalRecord;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Once the rollups are built, every rental saved through RentDAO adds to the daily
+ * and monthly rows for its date, creating them on first use.
+ */
+class RollupDAOTest {
+
+    private static final AtomicInteger NEXT_CAR = new AtomicInteger();
+
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final RentDAO rentDAO = new RentDAO();
+    private final CarDAO carDAO = new CarDAO();
+
+    @BeforeAll
+    static void startDatabase() throws SQLException {
+        TestDatabase.start();
+    }
+
+    @Test
+    void savedRentalsAddToExistingRollupRows() throws SQLException {
+        rollupDAO.rebuild();
+        assertTrue(rollupDAO.isBuilt());
+        int carId = addCar();
+        LocalDate day = LocalDate.of(2031, 3, 15);
+
+        addRental(carId, day, 100.0);
+        addRental(carId, day, 50.0);
+        addRental(carId, day.plusDays(5), 25.0);
+
+        assertEquals(2, rollupRentals("rollup_car_daily", carId, day));
+        assertEquals(150, rollupAmount("rollup_car_daily", carId, day));
+        assertEquals(3, rollupRentals("rollup_car_monthly", carId, day.withDayOfMonth(1)));
+        assertEquals(175, rollupAmount("rollup_car_monthly", carId, day.withDayOfMonth(1)));
+    }
+
+    private int addCar() {
+        Car car = new Car("Toyota", "Corolla", 2022, "White", "ROL-" + NEXT_CAR.incrementAndGet(),
+                          50.0, "Available", "Petrol", 1000);
+        if (!carDAO.addCar(car)) {
+            throw new IllegalStateException("Could not insert test car " + car.getRegistrationNumber());
+        }
+        return car.getCarId();
+    }
+
+    private void addRental(int carId, LocalDate rentalDate, double totalAmount) {
+        RentalRecord rental = new RentalRecord();
+        rental.setCarId(carId);
+        rental.setCustomerId(1);
+        rental.setEmployeeId(1);
+        rental.setRentalDate(rentalDate);
+        rental.setReturnDate(rentalDate.plusDays(2));
+        rental.setTotalAmount(totalAmount);
+        rental.setStatus("Returned");
+        assertTrue(rentDAO.addRental(rental));
+    }
+
+    private static int rollupRentals(String table, int carId, LocalDate period) throws SQLException {
+        return TestDatabase.count("SELECT rentals FROM " + table + " WHERE car_id = ? AND period_start = ?",
+                                  carId, period);
+    }
+
+    private static int rollupAmount(String table, int carId, LocalDate period) throws SQLException {
+        return TestDatabase.count("SELECT total_amount FROM " + table + " WHERE car_id = ? AND period_start = ?",
+                                  carId, period);
+    }
+}
@@ -0,0 +1,128 @@
+package services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import application.TestDatabase;
+import dao.CarDAO;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import models.Car;
+import models.ReservationOutcome;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Many counters reserving the same car at the same moment: exactly one may win.
+ *
+ * Every attempt is released at once through RentService.tryReserve, one thread each,
+ * and the database is checked afterwards, over several rounds with a new car each.
+ */
+class ReservationConcurrencyTest {
+
+    private static final int ATTEMPTS = 100;
+    private static final int ROUNDS = 5;
+    private static final AtomicInteger NEXT_CAR = new AtomicInteger();
+
+    private static ExecutorService pool;
+
+    private final RentService rentService = new RentService();
+    private final CarDAO carDAO = new CarDAO();
+
+    @BeforeAll
+    static void start() throws SQLException {
+        TestDatabase.start();
+        pool = Executors.newFixedThreadPool(ATTEMPTS);
+    }
+
+    @AfterAll
+    static void stop() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void exactlyOneSimultaneousReservationWins() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            int carId = addCar("Available");
+
+            Map<ReservationOutcome, Integer> outcomes = reserveAtOnce(carId);
+
+            assertEquals(Map.of(ReservationOutcome.RESERVED, 1,
+                                ReservationOutcome.ALREADY_RENTED, ATTEMPTS - 1), outcomes);
+            assertEquals(1, activeRentals(carId));
+            assertEquals("Rented", carDAO.getCarById(carId).getAvailability());
+        }
+    }
+
+    @Test
+    void carUnderMaintenanceRefusesEveryAttempt() throws Exception {
+        int carId = addCar("Maintenance");
+
+        Map<ReservationOutcome, Integer> outcomes = reserveAtOnce(carId);
+
+        assertEquals(Map.of(ReservationOutcome.UNDER_MAINTENANCE, ATTEMPTS), outcomes);
+        assertEquals(0, activeRentals(carId));
+        assertEquals("Maintenance", carDAO.getCarById(carId).getAvailability());
+    }
+
+    @Test
+    void missingCarIsNotFound() throws SQLException {
+        int carId = addCar("Available");
+        carDAO.deleteCar(carId);
+
+        ReservationOutcome outcome = rentService.tryReserve(carId, 1, 1, LocalDate.now(),
+                                                            LocalDate.now().plusDays(1), 50.0);
+
+        assertEquals(ReservationOutcome.NOT_FOUND, outcome);
+        assertEquals(0, activeRentals(carId));
+    }
+
+    /**
+     * Start every attempt at the same moment and count the outcomes
+     */
+    private Map<ReservationOutcome, Integer> reserveAtOnce(int carId) throws Exception {
+        CountDownLatch ready = new CountDownLatch(ATTEMPTS);
+        CountDownLatch go = new CountDownLatch(1);
+        LocalDate from = LocalDate.now();
+        List<Future<ReservationOutcome>> futures = new ArrayList<>(ATTEMPTS);
+        for (int i = 0; i < ATTEMPTS; i++) {
+            int customerId = 1 + i;
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                go.await();
+                return rentService.tryReserve(carId, customerId, 1, from, from.plusDays(3), 150.0);
+            }));
+        }
+        ready.await();
+        go.countDown();
+
+        Map<ReservationOutcome, Integer> outcomes = new EnumMap<>(ReservationOutcome.class);
+        for (Future<ReservationOutcome> future : futures) {
+            outcomes.merge(future.get(), 1, Integer::sum);
+        }
+        return outcomes;
+    }
+
+    private int addCar(String availability) {
+        Car car = new Car("Toyota", "Corolla", 2022, "White", "RES-" + NEXT_CAR.incrementAndGet(),
+                          50.0, availability, "Petrol", 1000);
+        if (!carDAO.addCar(car)) {
+            throw new IllegalStateException("Could not insert test car " + car.getRegistrationNumber());
+        }
+        return car.getCarId();
+    }
+
+    private static int activeRentals(int carId) throws SQLException {
+        return TestDatabase.count("SELECT COUNT(*) FROM rental_records WHERE car_id = ? AND status = 'Active'",
+                                  carId);
+    }
+}